@@ -1,12 +1,15 @@
 import requests
 import os
+import struct
+import sys
 from PIL import Image
 import io
 
 '''
 This code makes 5 API requests with a limit of 50 avatars each, downloads all available images, and arranges them in a
 grid with exactly 10 avatars per row. Each individual avatar is still saved separately in the avatars folder,
-and they're all combined into a single merged_avatars.png file.
+and they're all combined into a single merged_avatars.png file. Finally every avatar is scaled down and written to
+the indexed avatars.pack the game streams avatars from.
 '''
 
 
@@ -172,12 +175,54 @@ def add_my_picture_to_merged_avatars(my_picture_path):
         print(f"Error adding your picture: {e}")
         return False
 
+def build_avatar_pack(source_dir="avatars", output_path="../assets/avatars/avatars.pack", size=64):
+    """
+    Write every downloaded avatar into an indexed pack the game reads one avatar at a time.
+    Layout, big endian: b"BAVP", version, count, avatar size, then (offset, length) per avatar,
+    then each avatar as a PNG. Offsets count from the start of the file.
+    """
+    names = [name for name in os.listdir(source_dir)
+             if name.endswith(".png") and not name.startswith("merged_avatars")]
+    # Numeric ids sort as numbers so the pack order stays the same between runs
+    names.sort(key=lambda name: (0, int(name[:-4])) if name[:-4].isdigit() else (1, name))
+
+    encoded = []
+    for name in names:
+        try:
+            img = Image.open(os.path.join(source_dir, name)).convert("RGBA")
+            img = img.resize((size, size), Image.LANCZOS)
+            buffer = io.BytesIO()
+            img.save(buffer, format="PNG", optimize=True)
+            encoded.append(buffer.getvalue())
+        except Exception as e:
+            print(f"Error packing {name}: {e}")
+
+    header = struct.pack(">4sIII", b"BAVP", 1, len(encoded), size)
+    offset = len(header) + 8 * len(encoded)
+    index = b""
+    for data in encoded:
+        index += struct.pack(">II", offset, len(data))
+        offset += len(data)
+
+    os.makedirs(os.path.dirname(output_path), exist_ok=True)
+    with open(output_path, "wb") as pack:
+        pack.write(header)
+        pack.write(index)
+        for data in encoded:
+            pack.write(data)
+
+    print(f"Packed {len(encoded)} avatars at {size}x{size} into {os.path.abspath(output_path)} ({offset} bytes)")
+
+
 # Example usage:
 # add_my_picture_to_merged_avatars("path/to/your/photo.jpg")  # Adds at the end
 # add_my_picture_to_merged_avatars("path/to/your/photo.jpg", (0, 0))  # Replaces top-left avatar
 
 
 if __name__ == "__main__":
-    download_and_merge_avatars()
+    # --pack-only rebuilds the game's avatar pack from the avatars already downloaded
+    if "--pack-only" not in sys.argv:
+        download_and_merge_avatars()
+    build_avatar_pack()
     input("Press Enter to exit...")
 
@@ -6,7 +6,7 @@
  * and controller (GameController) components.
  * <p>
  * Responsibilities:
- * - Initialize core game components
+ * - Preload assets behind a loading screen, then initialize core game components
  * - Manage application lifecycle (create, render, resize, dispose)
  * - Connect the model, view, and controller components
  * - Coordinate the main game loop
@@ -17,11 +17,13 @@ package io.github.broskipoker;
 import com.badlogic.gdx.ApplicationAdapter;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import io.github.broskipoker.game.PokerGame;
+import io.github.broskipoker.ui.Assets;
 import io.github.broskipoker.ui.GameController;
 import io.github.broskipoker.ui.GameRenderer;
 import io.github.broskipoker.ui.MultiplayerGameScreen;
-import io.github.broskipoker.utils.DatabaseConnection;
+import io.github.broskipoker.ui.RenderStats;
 import io.github.broskipoker.server.ClientConnection;
 
 public class Main extends ApplicationAdapter {
@@ -29,17 +31,15 @@ public class Main extends ApplicationAdapter {
     private PokerGame pokerGame;
     private static GameRenderer renderer;
     private GameController controller;
-    public static final DatabaseConnection databaseConnection;
+    // Only alive while the preload runs
+    private ShapeRenderer loadingRenderer;
+    // Null unless started with -Dbroski.renderstats=true
+    private RenderStats renderStats;
 
     // for muliplayer
     private ClientConnection pendingClient = null;
     private String pendingTableCode = null;
 
-    static
-    {
-        databaseConnection = DatabaseConnection.getInstance();
-    }
-
     public static Main getInstance() {
         return instance;
     }
@@ -48,6 +48,16 @@ public class Main extends ApplicationAdapter {
     public void create() {
         instance = this;
 
+        // Textures, sounds and the skin load over the next frames, render() shows the progress
+        Assets.getInstance().queuePreload();
+        loadingRenderer = new ShapeRenderer();
+
+        if (RenderStats.isEnabled()) {
+            renderStats = new RenderStats();
+        }
+    }
+
+    private void createGame() {
         // Initialize core components
         pokerGame = new PokerGame();
         pokerGame.startNewHand();
@@ -67,6 +77,11 @@ public class Main extends ApplicationAdapter {
 
     @Override
     public void render() {
+        if (renderer == null) {
+            renderLoadingScreen();
+            return;
+        }
+
         // check if we need to initialize a multiplayer game
         if (pendingClient != null) {
             initializeMultiplayerGame(pendingClient, pendingTableCode);
@@ -82,11 +97,43 @@ public class Main extends ApplicationAdapter {
 
         // Render the game
         renderer.render(Gdx.graphics.getDeltaTime());
+
+        if (renderStats != null) {
+            renderStats.endFrame(Gdx.graphics.getDeltaTime());
+        }
+    }
+
+    private void renderLoadingScreen() {
+        Gdx.gl.glClearColor(0, 0, 0, 1);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+
+        Assets assets = Assets.getInstance();
+        boolean done = assets.update();
+
+        float width = Gdx.graphics.getWidth() * 0.5f;
+        float height = 20;
+        float x = (Gdx.graphics.getWidth() - width) / 2;
+        float y = (Gdx.graphics.getHeight() - height) / 2;
+        loadingRenderer.getProjectionMatrix().setToOrtho2D(0, 0, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+        loadingRenderer.begin(ShapeRenderer.ShapeType.Filled);
+        loadingRenderer.setColor(0.2f, 0.2f, 0.2f, 1);
+        loadingRenderer.rect(x, y, width, height);
+        loadingRenderer.setColor(1, 0.84f, 0, 1);
+        loadingRenderer.rect(x, y, width * assets.getProgress(), height);
+        loadingRenderer.end();
+
+        if (done) {
+            loadingRenderer.dispose();
+            loadingRenderer = null;
+            createGame();
+        }
     }
 
     @Override
     public void resize(int width, int height) {
-        renderer.resize(width, height);
+        if (renderer != null) {
+            renderer.resize(width, height);
+        }
     }
 
     public void startMultiplayerGame(ClientConnection client) {
@@ -124,8 +171,17 @@ public class Main extends ApplicationAdapter {
 
     @Override
     public void dispose() {
-        renderer.dispose();
-        controller.dispose();
+        if (renderer != null) {
+            renderer.dispose();
+            controller.dispose();
+        }
+        if (loadingRenderer != null) {
+            loadingRenderer.dispose();
+        }
+        if (renderStats != null) {
+            renderStats.dispose();
+        }
+        Assets.getInstance().dispose();
         pokerGame = null;
         instance = null;
     }
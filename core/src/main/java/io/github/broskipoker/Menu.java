@@ -12,10 +12,11 @@ import com.badlogic.gdx.scenes.scene2d.ui.*;
 import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
 import com.badlogic.gdx.utils.Align;
 import io.github.broskipoker.game.User;
+import io.github.broskipoker.ui.Assets;
 import io.github.broskipoker.ui.FontManager;
 import io.github.broskipoker.ui.LoginDialog;
 import io.github.broskipoker.ui.MultiplayerDialog;
-import io.github.broskipoker.utils.UserService;
+import io.github.broskipoker.utils.UserSession;
 
 public class Menu {
     public static Music menuMusic;
@@ -29,33 +30,35 @@ public class Menu {
     private TextButton friendsButton;
     private TextButton loginButton;
     private TextButton multiplayerButton;
+    private TextButton[] buttons;
     private Label userInfoLabel;
     public static Sound clickSound;
     private boolean gameStarted = false;
     private Skin skin;
-    private final UserService userService;
+    private final UserSession userSession;
     private Texture backgroundTexture;
+    private String backgroundPath;
     private Image backgroundImage;
 
     public Menu(Stage stage) {
         this.stage = stage;
-        this.userService = UserService.getInstance();
+        this.userSession = UserSession.getInstance();
         loadSounds();
         createMenu();
     }
 
     private void loadSounds() {
-        clickSound = Gdx.audio.newSound(Gdx.files.internal("click.wav"));
+        clickSound = Assets.getInstance().acquireSound(Assets.CLICK_SOUND);
     }
 
     private void createMenu() {
-        menuMusic = Gdx.audio.newMusic(Gdx.files.internal("kevin-macleod-investigations.mp3"));
+        menuMusic = Assets.getInstance().acquireMusic(Assets.MENU_MUSIC);
         menuMusic.setLooping(true);
         menuMusic.setVolume(menuVolume);
 //        menuMusic.play();
 
-        skin = new Skin(Gdx.files.internal("skin/skin-composer-ui.json"));
-        setBackground("menu_background.png");
+        skin = Assets.getInstance().acquireSkin(Assets.MENU_SKIN);
+        setBackground(Assets.MENU_BACKGROUND);
 
         table = new Table();
         table.setFillParent(true);
@@ -112,7 +115,7 @@ public class Menu {
                 clickSoundId = clickSound.play();
                 clickSound.setVolume(clickSoundId, menuVolume);
 
-                if(userService.isLoggedIn()){
+                if(userSession.isLoggedIn()){
                     MultiplayerDialog multiplayerDialog = new MultiplayerDialog("Multiplayer", skin);
                     multiplayerDialog.show(stage);
                 }
@@ -156,8 +159,8 @@ public class Menu {
                 clickSoundId = clickSound.play();
                 clickSound.setVolume(clickSoundId, menuVolume);
 
-                if (userService.isLoggedIn()) {
-                    userService.logoutUser();
+                if (userSession.isLoggedIn()) {
+                    userSession.logout();
                     updateLoginState();
                 } else {
                     LoginDialog loginDialog = new LoginDialog("Login", skin);
@@ -178,7 +181,11 @@ public class Menu {
     }
 
     private void setBackground(String imagePath) {
-        backgroundTexture = new Texture(Gdx.files.internal(imagePath));
+        if (backgroundTexture != null) {
+            Assets.getInstance().release(backgroundPath);
+        }
+        backgroundTexture = Assets.getInstance().acquireTexture(imagePath);
+        backgroundPath = imagePath;
         backgroundImage = new Image(backgroundTexture);
 
         // Size the background to fill the screen
@@ -192,8 +199,8 @@ public class Menu {
     }
 
     private void updateLoginState() {
-        if (userService.isLoggedIn()) {
-            User user = userService.getCurrentUser().get();
+        if (userSession.isLoggedIn()) {
+            User user = userSession.getCurrentUser().get();
 //            userInfoLabel.setText("Welcome, " + user.getUsername() + " | Chips: " + user.getChips());
             userInfoLabel.setText("Welcome, " + user.getUsername() + "!"); // user chips reset after every game
             loginButton.setText("Logout");
@@ -251,17 +258,24 @@ public class Menu {
     }
 
     public void dispose() {
-        clickSound.dispose();
+        Assets assets = Assets.getInstance();
+        assets.release(Assets.CLICK_SOUND);
         if (menuMusic != null) {
-            menuMusic.dispose();
+            menuMusic.stop();
+            assets.release(Assets.MENU_MUSIC);
         }
         if (backgroundTexture != null) {
-            backgroundTexture.dispose();
+            assets.release(backgroundPath);
         }
+        assets.release(Assets.MENU_SKIN);
     }
 
+    // Built once, the renderer asks for them every frame
     public TextButton[] getButtons() {
-        return new TextButton[]{singleplayerButton, multiplayerButton, settingsButton, friendsButton, loginButton, exitButton};
+        if (buttons == null) {
+            buttons = new TextButton[]{singleplayerButton, multiplayerButton, settingsButton, friendsButton, loginButton, exitButton};
+        }
+        return buttons;
     }
 
     public static float getMenuVolume() {
@@ -0,0 +1,125 @@
+package io.github.broskipoker.game;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shows the local player's own actions on the client's copy of the table before the server confirms them.
+ * <p>
+ * Every action sent carries a sequence number and every game state update says up to which number the
+ * server has handled this player's actions. When an update replaces the table, actions the server has
+ * not got to yet are applied again on top of it and the rest are forgotten, so an action the server
+ * turned down simply disappears with its next update. Only what the client draws changes, the server
+ * never trusts any of it.
+ * <p>
+ * Predictions move chips, bets, the fold and the turn, never the betting round. needsPlayerAction is
+ * left alone so the client's PokerGame doesn't deal the next street from its own deck.
+ */
+public class ActionPredictor {
+
+    private static class Prediction {
+        final int sequence;
+        final PokerGame.PlayerAction action;
+        final int amount;
+
+        Prediction(int sequence, PokerGame.PlayerAction action, int amount) {
+            this.sequence = sequence;
+            this.action = action;
+            this.amount = amount;
+        }
+    }
+
+    private final List<Prediction> pending = new ArrayList<>();
+    private int lastSequence = 0;
+
+    // Numbers the next action sent, the server echoes it back once handled
+    public synchronized int nextSequence() {
+        return ++lastSequence;
+    }
+
+    /**
+     * Applies an action that has just been sent to the local table
+     * @param seat the local player's seat
+     * @param amount for a raise, the bet raised to
+     * @return false if the action can't be applied locally, it is then left for the server to show
+     */
+    public synchronized boolean predict(PokerGame game, int seat, int sequence, PokerGame.PlayerAction action, int amount) {
+        Prediction prediction = new Prediction(sequence, action, amount);
+        if (!apply(game, seat, prediction)) {
+            return false;
+        }
+        pending.add(prediction);
+        return true;
+    }
+
+    /**
+     * Call right after the local table was replaced by an update from the server
+     * @param acknowledged the last sequence number the server has handled for this player
+     */
+    public synchronized void reconcile(PokerGame game, int seat, int acknowledged) {
+        pending.removeIf(prediction -> prediction.sequence <= acknowledged);
+        for (Prediction prediction : pending) {
+            apply(game, seat, prediction);
+        }
+    }
+
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    public synchronized void clear() {
+        pending.clear();
+    }
+
+    // The same bookkeeping PokerGame.performAction does for the acting player
+    private static boolean apply(PokerGame game, int seat, Prediction prediction) {
+        List<Player> players = game.getPlayers();
+        if (seat < 0 || seat >= players.size() || !game.needsPlayerAction() || game.getCurrentPlayerIndex() != seat) {
+            return false;
+        }
+        Player player = players.get(seat);
+        if (!player.isActive()) {
+            return false;
+        }
+
+        switch (prediction.action) {
+            case CHECK:
+                if (player.getCurrentBet() < game.getCurrentBet()) {
+                    return false;
+                }
+                break;
+            case CALL:
+                int callAmount = game.getCurrentBet() - player.getCurrentBet();
+                if (callAmount > 0) {
+                    game.setPot(game.getPot() + player.bet(callAmount));
+                }
+                break;
+            case RAISE:
+                if (prediction.amount <= game.getCurrentBet()) {
+                    return false;
+                }
+                game.setPot(game.getPot() + player.bet(prediction.amount - player.getCurrentBet()));
+                game.setCurrentBet(prediction.amount);
+                break;
+            case FOLD:
+                player.setActive(false);
+                break;
+        }
+
+        boolean[] hasActed = game.getHasActedInRound();
+        if (hasActed != null && seat < hasActed.length) {
+            hasActed[seat] = true;
+        }
+
+        // Pass the turn on, if the round is over instead the server's next update says so
+        int next = seat;
+        for (int i = 0; i < players.size(); i++) {
+            next = (next + 1) % players.size();
+            if (players.get(next).isActive()) {
+                break;
+            }
+        }
+        game.setCurrentPlayerIndex(next);
+        return true;
+    }
+}
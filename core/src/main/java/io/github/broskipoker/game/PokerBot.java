@@ -1,11 +1,15 @@
 package io.github.broskipoker.game;
 import io.github.broskipoker.game.PokerGame.PlayerAction;
+import io.github.broskipoker.utils.Log;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 
 public class PokerBot extends Player {
+    // One line per decision, only a sample of them is worth reading
+    private static final Log decisionLog = Log.get(PokerBot.class).sampled(50);
+
     private final Random random = new Random();
     private final BotStrategy strategy;
 
@@ -37,7 +41,6 @@ public class PokerBot extends Player {
             case AGGRESSIVE:
                 return aggressiveStrategy(handStrength, callAmount, potSize);
             case BALANCED:
-                System.out.println("debug: Using balanced strategy");
                 return balancedStrategy(handStrength, callAmount, potSize);
             default:
                 return PlayerAction.FOLD;
@@ -79,7 +82,8 @@ public class PokerBot extends Player {
         // Calculate pot odds
         double potOdds = callAmount > 0 ? (double) callAmount / (potSize + callAmount) : 0;
 
-        System.out.println(potOdds+" "+ adjustedStrength+" "+callAmount);
+        decisionLog.debug("Balanced decision", "bot", getName(), "potOdds", potOdds,
+            "strength", adjustedStrength, "toCall", callAmount);
 
         if (adjustedStrength > 0.7) {
             return PlayerAction.RAISE;
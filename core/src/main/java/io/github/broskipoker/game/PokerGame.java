@@ -22,6 +22,7 @@ import io.github.broskipoker.ui.DealingAnimator;
 import io.github.broskipoker.ui.GameRenderer;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class PokerGame {
@@ -34,15 +35,33 @@ public class PokerGame {
     private int currentBet;
     private int currentPlayerIndex;
     private int lastRaisePlayerIndex;
-    private static int dealerPosition;
+    private int dealerPosition;
     private boolean needsPlayerAction;
-    private static GameState gameState;
+    private GameState gameState;
     // Track players who have acted in the current betting round
     private boolean[] hasActedInRound;
     private float showdownTimer = 0;
     private final float SHOWDOWN_DURATION = 10.0f;
     // Table code for multiplayer mode
     private String tableCode;
+    // Per-seat contributions to the pot, used to build side pots at showdown
+    private final PotLedger potLedger = new PotLedger();
+    // Run it twice: once everyone is all-in the players can agree to deal the rest of the board up to MAX_RUNOUTS times
+    public static final int MAX_RUNOUTS = 3;
+    private int[][] handStrengths = new int[MAX_RUNOUTS][0];
+    private int[] payouts = new int[0];
+    private int[] runoutVotes = new int[0];
+    private int runoutCount = 1;
+    private int runoutSharedCards;                       // board cards every runout has in common
+    private final List<List<Card>> runoutBoards = new ArrayList<>();  // the extra boards, dealt at showdown
+    // Stacks before the blinds of the current hand, to work out what each player won or lost
+    private int[] handStartChips = new int[0];
+    // Per hand stats: chips put in voluntarily or raised before the flop, and everything bet into the pot
+    private boolean[] voluntarilyPutIn = new boolean[0];
+    private boolean[] raisedPreFlop = new boolean[0];
+    private int handPot;
+    // Counts the hands dealt at this table, starting at 1
+    private int handNumber = 0;
 
     public enum GameState {
         WAITING_FOR_PLAYERS, DEALING, BETTING_PRE_FLOP, FLOP, BETTING_FLOP, TURN, BETTING_TURN, RIVER,
@@ -79,8 +98,29 @@ public class PokerGame {
 
     public void addPlayer(String name, int startingChips) {
         players.add(new Player(name, startingChips));
-        // Resize the hasActedInRound array when adding players
+        // Resize the hasActedInRound array when adding players, keeping the flags of seated players
+        hasActedInRound = hasActedInRound == null ? new boolean[players.size()]
+            : Arrays.copyOf(hasActedInRound, players.size());
+        runoutVotes = Arrays.copyOf(runoutVotes, players.size());
+    }
+
+    /**
+     * Removes a player between hands, keeping the dealer button on the same player where possible
+     * @return the removed player
+     */
+    public Player removePlayer(int index) {
+        Player removed = players.remove(index);
+        potLedger.removeSeat(index);
         hasActedInRound = new boolean[players.size()];
+        runoutVotes = new int[players.size()];
+        if (index <= dealerPosition && dealerPosition >= 0) {
+            // The button moves back so the next hand still rotates to the player after it
+            dealerPosition = players.isEmpty() ? -1 : (dealerPosition - 1 + players.size()) % players.size();
+        }
+        if (currentPlayerIndex >= players.size()) {
+            currentPlayerIndex = 0;
+        }
+        return removed;
     }
 
     public void startNewHand() {
@@ -88,15 +128,29 @@ public class PokerGame {
             dealerPosition = players.size() - 1;
         }
 
+        handNumber++;
+
         // Reset game state
         deck.reset(); // Also includes shuffle
         pot = 0;
+        potLedger.reset(players.size());
         currentBet = 0;
         communityCards.clear();
+        runoutVotes = new int[players.size()];
+        runoutCount = 1;
+        runoutBoards.clear();
 
         // Initialize tracking of player actions
         hasActedInRound = new boolean[players.size()];
 
+        handStartChips = new int[players.size()];
+        for (int i = 0; i < players.size(); i++) {
+            handStartChips[i] = players.get(i).getChips();
+        }
+        voluntarilyPutIn = new boolean[players.size()];
+        raisedPreFlop = new boolean[players.size()];
+        handPot = 0;
+
         // Reset player states
         for (Player player : players) {
             player.clearHand();
@@ -115,8 +169,8 @@ public class PokerGame {
         Player smallBlindPlayer = players.get(smallBlindPos);
         Player bigBlindPlayer = players.get(bigBlindPos);
 
-        pot += smallBlindPlayer.bet(smallBlind);
-        pot += bigBlindPlayer.bet(bigBlind);
+        pot += collectBet(smallBlindPos, smallBlindPlayer, smallBlind);
+        pot += collectBet(bigBlindPos, bigBlindPlayer, bigBlind);
         currentBet = bigBlind;
 
         // Mark players who posted blinds as having acted
@@ -130,7 +184,7 @@ public class PokerGame {
         currentPlayerIndex = (bigBlindPos + 1) % players.size();
 
         gameState = GameState.BETTING_PRE_FLOP;
-        GameRenderer.resetGameRenderer();
+        GameRenderer.resetGameRenderer(dealerPosition);
 
         // Deal cards
         dealHoleCards();
@@ -219,6 +273,87 @@ public class PokerGame {
         gameState = GameState.SHOWDOWN;
         needsPlayerAction = false;
         showdownTimer = 0;
+        if (runoutCount > 1 && pot > 0 && communityCards.size() == 5) {
+            dealRunoutBoards();
+        }
+    }
+
+    /**
+     * Whether the hand is all-in with board cards still to come, so the rest can be run more than once
+     */
+    public boolean isRunoutAvailable() {
+        if (gameState != GameState.BETTING_PRE_FLOP && gameState != GameState.BETTING_FLOP
+            && gameState != GameState.BETTING_TURN && gameState != GameState.BETTING_RIVER) {
+            return false;
+        }
+        if (communityCards.size() >= 5 || runoutCount > 1) {
+            return false;
+        }
+        int activePlayers = 0;
+        int playersWithChips = 0;
+        for (Player player : players) {
+            if (!player.isActive()) {
+                continue;
+            }
+            activePlayers++;
+            if (player.getChips() > 0) {
+                playersWithChips++;
+                // The one player who still has chips must already have matched the all-in
+                if (player.getCurrentBet() < currentBet) {
+                    return false;
+                }
+            }
+        }
+        return activePlayers >= 2 && playersWithChips <= 1;
+    }
+
+    /**
+     * Records how many times a player wants the rest of the board run. Once every player still
+     * in the hand has voted, the board is run the smallest number of times anybody asked for.
+     * @return true if the vote was accepted
+     */
+    public boolean voteRunouts(int seat, int times) {
+        if (seat < 0 || seat >= players.size() || !players.get(seat).isActive() || !isRunoutAvailable()) {
+            return false;
+        }
+        runoutVotes[seat] = Math.max(1, Math.min(MAX_RUNOUTS, times));
+
+        int agreed = MAX_RUNOUTS;
+        for (int i = 0; i < players.size(); i++) {
+            if (players.get(i).isActive()) {
+                if (runoutVotes[i] == 0) {
+                    return true; // still waiting on someone
+                }
+                agreed = Math.min(agreed, runoutVotes[i]);
+            }
+        }
+        runoutCount = agreed;
+        runoutSharedCards = communityCards.size();
+        return true;
+    }
+
+    // Deals the extra boards from the same deck, each one sharing the cards that were out when the players agreed
+    private void dealRunoutBoards() {
+        runoutBoards.clear();
+        int cardsPerBoard = 5 - runoutSharedCards;
+        int burnsPerBoard = runoutSharedCards == 0 ? 3 : runoutSharedCards == 3 ? 2 : 1;
+        for (int run = 1; run < runoutCount; run++) {
+            if (deck.cardsRemaining() < cardsPerBoard + burnsPerBoard) {
+                break; // not enough cards left for another full board
+            }
+            List<Card> board = new ArrayList<>(communityCards.subList(0, runoutSharedCards));
+            while (board.size() < 5) {
+                if (board.size() == 0 || board.size() == 3 || board.size() == 4) {
+                    deck.drawCard(); // Burn a card before the flop, turn and river
+                }
+                int streetCards = board.size() == 0 ? 3 : 1;
+                for (int i = 0; i < streetCards; i++) {
+                    board.add(deck.drawCard());
+                }
+            }
+            runoutBoards.add(board);
+        }
+        runoutCount = 1 + runoutBoards.size();
     }
 
     private void resetBettingRound() {
@@ -322,7 +457,8 @@ public class PokerGame {
             case CALL:
                 int callAmount = currentBet - currentPlayer.getCurrentBet();
                 if (callAmount > 0) {
-                    pot += currentPlayer.bet(callAmount);
+                    pot += collectBet(currentPlayerIndex, currentPlayer, callAmount);
+                    markPreFlopAction(false);
                 }
                 validAction = true;
                 break;
@@ -332,8 +468,9 @@ public class PokerGame {
                     return; // invalid raise amount (raise must be at least current bet)
                 }
                 int raiseAmount = betAmount - currentPlayer.getCurrentBet();
-                pot += currentPlayer.bet(raiseAmount);
+                pot += collectBet(currentPlayerIndex, currentPlayer, raiseAmount);
                 currentBet = betAmount;
+                markPreFlopAction(true);
 
                 // When there's a raise, reset the acted flags except for the raiser
                 for (int i = 0; i < hasActedInRound.length; i++) {
@@ -368,6 +505,25 @@ public class PokerGame {
 
     }
 
+    // Bets are capped at the player's stack, the ledger records what actually went in
+    private int collectBet(int seat, Player player, int amount) {
+        int actualBet = player.bet(amount);
+        potLedger.addContribution(seat, actualBet);
+        handPot += actualBet;
+        return actualBet;
+    }
+
+    // Blinds are forced, only calls and raises before the flop count towards VPIP and PFR
+    private void markPreFlopAction(boolean raise) {
+        if (gameState != GameState.BETTING_PRE_FLOP || currentPlayerIndex >= voluntarilyPutIn.length) {
+            return;
+        }
+        voluntarilyPutIn[currentPlayerIndex] = true;
+        if (raise) {
+            raisedPreFlop[currentPlayerIndex] = true;
+        }
+    }
+
     private void moveToNextPlayer() {
         do {
             currentPlayerIndex = (currentPlayerIndex + 1) % players.size();
@@ -375,12 +531,17 @@ public class PokerGame {
     }
 
     public List<Player> determineWinners() {
+        return determineWinners(communityCards);
+    }
+
+    // Winners on the given board, used for every runout when the board was run more than once
+    public List<Player> determineWinners(List<Card> board) {
         List<Player> winners = new ArrayList<>();
         PokerHand bestHand = null;
 
         for (Player player : players) {
             if (player.isActive()) {
-                PokerHand currentHand = new PokerHand(player.getHoleCards(), communityCards);
+                PokerHand currentHand = new PokerHand(player.getHoleCards(), board);
                 if (bestHand == null || currentHand.compareTo(bestHand) > 0) {
                     bestHand = currentHand;
                     winners = new ArrayList<>(); // clear the winners list
@@ -394,6 +555,12 @@ public class PokerGame {
     }
 
     public void distributeWinnings() {
+        if (pot > 0 && potLedger.getTotal() == pot) {
+            distributeSidePots();
+            return;
+        }
+
+        // The pot was set from outside (e.g. a synced client game), there are no contributions to split by
         List<Player> winners = determineWinners();
         if (winners.isEmpty()) {
             return;
@@ -413,6 +580,56 @@ public class PokerGame {
         pot = 0;
     }
 
+    // Pays the main pot and every side pot to the best hand among the players who could win it,
+    // on every board when the board was run more than once
+    private void distributeSidePots() {
+        int seatCount = players.size();
+        if (payouts.length < seatCount) {
+            for (int run = 0; run < MAX_RUNOUTS; run++) {
+                handStrengths[run] = new int[seatCount];
+            }
+            payouts = new int[seatCount];
+        }
+
+        int boards = 1 + runoutBoards.size();
+        rankActiveHands(seatCount, communityCards, handStrengths[0]);
+        for (int run = 1; run < boards; run++) {
+            rankActiveHands(seatCount, runoutBoards.get(run - 1), handStrengths[run]);
+        }
+
+        potLedger.settleRunouts(handStrengths, boards, payouts);
+        for (int seat = 0; seat < seatCount; seat++) {
+            if (payouts[seat] > 0) {
+                players.get(seat).addChips(payouts[seat]);
+            }
+        }
+        pot = 0;
+    }
+
+    // Evaluates every active hand once, then stores how many active hands each one beats as its strength
+    private void rankActiveHands(int seatCount, List<Card> board, int[] strengths) {
+        PokerHand[] hands = new PokerHand[seatCount];
+        for (int seat = 0; seat < seatCount; seat++) {
+            Player player = players.get(seat);
+            if (player.isActive()) {
+                hands[seat] = new PokerHand(player.getHoleCards(), board);
+            }
+        }
+        for (int seat = 0; seat < seatCount; seat++) {
+            if (hands[seat] == null) {
+                strengths[seat] = PotLedger.NOT_CONTENDING;
+                continue;
+            }
+            int beaten = 0;
+            for (int other = 0; other < seatCount; other++) {
+                if (hands[other] != null && hands[seat].compareTo(hands[other]) > 0) {
+                    beaten++;
+                }
+            }
+            strengths[seat] = beaten;
+        }
+    }
+
     // When all but one players fold, we have a single winner
     public boolean hasWinnerByFold() {
         int activePlayers = 0;
@@ -429,6 +646,7 @@ public class PokerGame {
             // Award the winner
             lastActive.addChips(pot);
             pot = 0;
+            potLedger.reset(players.size());
             return true;
         }
         return false;
@@ -449,11 +667,15 @@ public class PokerGame {
         return players;
     }
 
+    public int getHandNumber() {
+        return handNumber;
+    }
+
     public int getPot() {
         return pot;
     }
 
-    public static GameState getGameState() {
+    public GameState getGameState() {
         return gameState;
     }
 
@@ -473,7 +695,7 @@ public class PokerGame {
         return currentBet;
     }
 
-    public static int getDealerPosition() {
+    public int getDealerPosition() {
         return dealerPosition;
     }
 
@@ -517,8 +739,8 @@ public class PokerGame {
         this.hasActedInRound = hasActedInRound;
     }
 
-    public static void setGameState(GameState gameState) {
-        PokerGame.gameState = gameState;
+    public void setGameState(GameState gameState) {
+        this.gameState = gameState;
     }
 
     public boolean isNeedsPlayerAction() {
@@ -529,8 +751,8 @@ public class PokerGame {
         this.needsPlayerAction = needsPlayerAction;
     }
 
-    public static void setDealerPosition(int dealerPosition) {
-        PokerGame.dealerPosition = dealerPosition;
+    public void setDealerPosition(int dealerPosition) {
+        this.dealerPosition = dealerPosition;
     }
 
     public void setLastRaisePlayerIndex(int lastRaisePlayerIndex) {
@@ -553,6 +775,52 @@ public class PokerGame {
         this.smallBlind = smallBlind;
     }
 
+    public PotLedger getPotLedger() {
+        return potLedger;
+    }
+
+    /**
+     * Chips won (or lost, when negative) by a player in the current hand so far
+     */
+    public int getHandChipDelta(int seat) {
+        if (seat < 0 || seat >= players.size() || seat >= handStartChips.length) {
+            return 0; // seated after the hand started
+        }
+        return players.get(seat).getChips() - handStartChips[seat];
+    }
+
+    public boolean isVoluntarilyPutIn(int seat) {
+        return seat >= 0 && seat < voluntarilyPutIn.length && voluntarilyPutIn[seat];
+    }
+
+    public boolean hasRaisedPreFlop(int seat) {
+        return seat >= 0 && seat < raisedPreFlop.length && raisedPreFlop[seat];
+    }
+
+    /**
+     * Everything bet in the current hand, including what a win by fold already paid out
+     */
+    public int getHandPot() {
+        return handPot;
+    }
+
+    public int getRunoutCount() {
+        return runoutCount;
+    }
+
+    public void setRunoutCount(int runoutCount) {
+        this.runoutCount = runoutCount;
+    }
+
+    public List<List<Card>> getRunoutBoards() {
+        return runoutBoards;
+    }
+
+    public void setRunoutBoards(List<List<Card>> runoutBoards) {
+        this.runoutBoards.clear();
+        this.runoutBoards.addAll(runoutBoards);
+    }
+
     public void setPot(int pot) {
         this.pot = pot;
     }
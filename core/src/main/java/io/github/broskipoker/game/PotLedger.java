@@ -0,0 +1,206 @@
+package io.github.broskipoker.game;
+
+import java.util.Arrays;
+
+/**
+ * Tracks how many chips each seat put in during a hand and splits them into main and side pots.
+ * <p>
+ * A player can only win, from every other player, as much as they put in themselves. Settling
+ * sorts the seats by contribution once, then walks them from the biggest contribution down,
+ * keeping the best hand seen so far. Every distinct contribution level closes a pot layer that
+ * goes to the best hand among the players who reached it.
+ * <p>
+ * All working arrays are kept between hands, so settling a showdown does not allocate unless
+ * the table grew.
+ */
+public class PotLedger {
+    // Strength value for seats that folded or never had a hand, they can pay into pots but not win them
+    public static final int NOT_CONTENDING = -1;
+
+    private int[] contributions = new int[0];
+    private int[] fullContributions = new int[0];   // held while the pot is split across several boards
+    private int[] order = new int[0];
+    private int[] winners = new int[0];
+    private int seatCount;
+    private int total;
+    private int potCount;
+
+    /**
+     * Clears the ledger for a new hand
+     */
+    public void reset(int seatCount) {
+        ensureCapacity(seatCount);
+        this.seatCount = seatCount;
+        Arrays.fill(contributions, 0);
+        total = 0;
+        potCount = 0;
+    }
+
+    public void addContribution(int seat, int amount) {
+        if (amount <= 0) {
+            return;
+        }
+        if (seat >= seatCount) {
+            ensureCapacity(seat + 1);
+            seatCount = seat + 1;
+        }
+        contributions[seat] += amount;
+        total += amount;
+    }
+
+    /**
+     * Drops a seat between hands, seats after it move down by one
+     */
+    public void removeSeat(int seat) {
+        if (seat < 0 || seat >= seatCount) {
+            return;
+        }
+        total -= contributions[seat];
+        System.arraycopy(contributions, seat + 1, contributions, seat, seatCount - seat - 1);
+        seatCount--;
+        contributions[seatCount] = 0;
+    }
+
+    /**
+     * Splits everything in the ledger between the contending seats and clears it.
+     * An odd chip left over in a split pot goes to the lowest seat among that pot's winners.
+     * Chips nobody else matched go to the winners of the highest pot that still has a contender.
+     *
+     * @param strengths hand strength per seat, higher wins, NOT_CONTENDING for folded seats
+     * @param payouts receives the chips won by each seat, must have room for every seat
+     * @return the number of pots that were paid out (1 for the main pot, plus side pots)
+     */
+    public int settle(int[] strengths, int[] payouts) {
+        Arrays.fill(payouts, 0, seatCount, 0);
+        potCount = 0;
+        settleLayers(strengths, payouts);
+
+        Arrays.fill(contributions, 0);
+        total = 0;
+        return potCount;
+    }
+
+    /**
+     * Splits everything in the ledger across several runouts of the board and clears it.
+     * Each seat's contribution is divided evenly between the boards (the first boards take
+     * any leftover chips), and each board's share is settled on its own like a normal pot.
+     *
+     * @param strengths hand strength per seat for each board
+     * @param boards how many boards were dealt
+     * @param payouts receives the chips won by each seat over all boards
+     * @return the number of pots that were paid out over all boards
+     */
+    public int settleRunouts(int[][] strengths, int boards, int[] payouts) {
+        if (boards <= 1) {
+            return settle(strengths[0], payouts);
+        }
+        Arrays.fill(payouts, 0, seatCount, 0);
+        potCount = 0;
+
+        System.arraycopy(contributions, 0, fullContributions, 0, seatCount);
+        for (int board = 0; board < boards; board++) {
+            for (int seat = 0; seat < seatCount; seat++) {
+                // The shares add back up to the full contribution and keep the seats in the same order
+                contributions[seat] = (fullContributions[seat] + boards - 1 - board) / boards;
+            }
+            settleLayers(strengths[board], payouts);
+        }
+
+        Arrays.fill(contributions, 0);
+        total = 0;
+        return potCount;
+    }
+
+    // Adds the winnings of the current contributions to payouts, without clearing anything
+    private void settleLayers(int[] strengths, int[] payouts) {
+        // Insertion sort, tables are small and this keeps the pass free of boxing and garbage
+        for (int i = 0; i < seatCount; i++) {
+            int seat = i;
+            int j = i - 1;
+            while (j >= 0 && contributions[order[j]] > contributions[seat]) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = seat;
+        }
+
+        int bestStrength = NOT_CONTENDING;
+        int winnerCount = 0;
+        int unclaimed = 0;
+
+        for (int i = seatCount - 1; i >= 0; i--) {
+            int seat = order[i];
+            int strength = strengths[seat];
+            if (strength != NOT_CONTENDING && contributions[seat] > 0) {
+                if (strength > bestStrength) {
+                    bestStrength = strength;
+                    winnerCount = 0;
+                }
+                if (strength == bestStrength) {
+                    winners[winnerCount++] = seat;
+                }
+            }
+
+            int level = contributions[seat];
+            int below = i > 0 ? contributions[order[i - 1]] : 0;
+            if (level == below) {
+                continue; // the layer closes once every seat at this level has been seen
+            }
+
+            // Everyone from i up reached this level, so each of them pays the layer once
+            int layer = (level - below) * (seatCount - i) + unclaimed;
+            if (winnerCount == 0) {
+                unclaimed = layer;
+                continue;
+            }
+            unclaimed = 0;
+            payLayer(layer, winnerCount, payouts);
+        }
+
+        if (unclaimed > 0) {
+            // Nobody contended at any level, which only happens if every seat folded
+            for (int seat = 0; seat < seatCount; seat++) {
+                payouts[seat] += contributions[seat];
+            }
+        }
+    }
+
+    private void payLayer(int amount, int winnerCount, int[] payouts) {
+        int share = amount / winnerCount;
+        int oddChipSeat = Integer.MAX_VALUE;
+        for (int w = 0; w < winnerCount; w++) {
+            payouts[winners[w]] += share;
+            oddChipSeat = Math.min(oddChipSeat, winners[w]);
+        }
+        payouts[oddChipSeat] += amount - share * winnerCount;
+        potCount++;
+    }
+
+    private void ensureCapacity(int seats) {
+        if (contributions.length < seats) {
+            contributions = Arrays.copyOf(contributions, seats);
+            fullContributions = new int[seats];
+            order = new int[seats];
+            winners = new int[seats];
+        }
+    }
+
+    public int getContribution(int seat) {
+        return seat < seatCount ? contributions[seat] : 0;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getSeatCount() {
+        return seatCount;
+    }
+
+    /**
+     * @return the number of pots paid out by the last settle
+     */
+    public int getPotCount() {
+        return potCount;
+    }
+}
@@ -0,0 +1,75 @@
+package io.github.broskipoker.server;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Blind levels of a tournament, each level lasts the same amount of time.
+ * The last level is kept once the schedule runs out.
+ */
+public class BlindSchedule {
+
+    public static class Level {
+        private final int smallBlind;
+        private final int bigBlind;
+
+        public Level(int smallBlind, int bigBlind) {
+            this.smallBlind = smallBlind;
+            this.bigBlind = bigBlind;
+        }
+
+        public int getSmallBlind() {
+            return smallBlind;
+        }
+
+        public int getBigBlind() {
+            return bigBlind;
+        }
+    }
+
+    private final List<Level> levels;
+    private final long levelDurationMillis;
+
+    public BlindSchedule(List<Level> levels, long levelDurationMillis) {
+        if (levels.isEmpty()) {
+            throw new IllegalArgumentException("A blind schedule needs at least one level");
+        }
+        this.levels = Collections.unmodifiableList(new ArrayList<>(levels));
+        this.levelDurationMillis = levelDurationMillis;
+    }
+
+    // Common structure for a 10000 chip starting stack
+    public static BlindSchedule standard(long levelDurationMillis) {
+        int[][] blinds = {
+            {25, 50}, {50, 100}, {75, 150}, {100, 200}, {150, 300}, {200, 400}, {300, 600},
+            {400, 800}, {500, 1000}, {750, 1500}, {1000, 2000}, {1500, 3000}, {2000, 4000}
+        };
+        List<Level> levels = new ArrayList<>();
+        for (int[] level : blinds) {
+            levels.add(new Level(level[0], level[1]));
+        }
+        return new BlindSchedule(levels, levelDurationMillis);
+    }
+
+    // Index of the level that is running after the given time has passed since the start
+    public int levelAt(long elapsedMillis) {
+        if (levelDurationMillis <= 0) {
+            return 0;
+        }
+        long index = elapsedMillis / levelDurationMillis;
+        return (int) Math.min(index, levels.size() - 1);
+    }
+
+    public Level getLevel(int index) {
+        return levels.get(Math.min(index, levels.size() - 1));
+    }
+
+    public int getLevelCount() {
+        return levels.size();
+    }
+
+    public long getLevelDurationMillis() {
+        return levelDurationMillis;
+    }
+}
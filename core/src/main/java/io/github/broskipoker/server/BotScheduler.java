@@ -0,0 +1,120 @@
+package io.github.broskipoker.server;
+
+import io.github.broskipoker.game.Player;
+import io.github.broskipoker.game.PokerBot;
+import io.github.broskipoker.game.PokerGame;
+import io.github.broskipoker.utils.Log;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs decisions for server-side bot seats.
+ * <p>
+ * Decisions are scheduled on a small, fixed-size worker pool after a simulated think delay,
+ * so the network thread never waits on a bot. At most one decision is pending per table,
+ * which keeps the work queue bounded by the number of tables.
+ */
+public class BotScheduler {
+    private static final Log log = Log.get(BotScheduler.class);
+    private static final long MIN_THINK_MILLIS = 800;
+    private static final long MAX_THINK_MILLIS = 2500;
+
+    private final ScheduledThreadPoolExecutor executor;
+    private final Set<Table> pendingTables = ConcurrentHashMap.newKeySet();
+
+    public BotScheduler() {
+        // Bots are cheap to evaluate, a quarter of the cores is plenty
+        this(Math.max(1, Runtime.getRuntime().availableProcessors() / 4));
+    }
+
+    public BotScheduler(int workerThreads) {
+        AtomicInteger threadId = new AtomicInteger();
+        executor = new ScheduledThreadPoolExecutor(workerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "bot-worker-" + threadId.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Called after every state change of a table. Schedules a decision if a bot seat is to act.
+     */
+    public void onTableUpdated(Table table) {
+        int seat;
+        long actionCount;
+        synchronized (table) {
+            PokerGame pokerGame = table.getPokerGame();
+            if (!pokerGame.needsPlayerAction()) {
+                return;
+            }
+            seat = pokerGame.getCurrentPlayerIndex();
+            // Bots only play while someone is watching
+            if (!table.isBotSeat(seat) || table.getHumanCount() == 0) {
+                return;
+            }
+            actionCount = table.getActionCount();
+        }
+
+        if (!pendingTables.add(table)) {
+            return; // a decision for this table is already on its way
+        }
+
+        long thinkMillis = ThreadLocalRandom.current().nextLong(MIN_THINK_MILLIS, MAX_THINK_MILLIS + 1);
+        executor.schedule(() -> runDecision(table, seat, actionCount), thinkMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void runDecision(Table table, int seat, long expectedActionCount) {
+        // Clear the flag before acting, so the broadcast that follows can schedule the next bot
+        pendingTables.remove(table);
+        boolean stale = false;
+        try {
+            synchronized (table) {
+                PokerGame pokerGame = table.getPokerGame();
+                // Skip decisions made stale by a human action or a new hand
+                if (table.getActionCount() != expectedActionCount ||
+                    !pokerGame.needsPlayerAction() ||
+                    pokerGame.getCurrentPlayerIndex() != seat ||
+                    !table.isBotSeat(seat)) {
+                    stale = true;
+                } else {
+                    Player seatPlayer = pokerGame.getPlayers().get(seat);
+                    PokerBot bot = new PokerBot(seatPlayer, table.getBotStrategy(seat));
+                    PokerGame.PlayerAction action = bot.decideAction(pokerGame, pokerGame.getCommunityCards());
+
+                    int betAmount = 0;
+                    if (action == PokerGame.PlayerAction.RAISE) {
+                        double handStrength = bot.evaluateHandStrength(pokerGame.getCommunityCards());
+                        betAmount = bot.calculateBetAmount(pokerGame.getPot(), handStrength);
+                        // A raise must exceed the current bet, otherwise the game ignores it and the bot stalls
+                        betAmount = Math.max(betAmount, pokerGame.getCurrentBet() + pokerGame.getBigBlind());
+                        betAmount = Math.min(betAmount, seatPlayer.getChips() + seatPlayer.getCurrentBet());
+                        if (betAmount <= pokerGame.getCurrentBet()) {
+                            action = PokerGame.PlayerAction.CALL;
+                            betAmount = 0;
+                        }
+                    }
+
+                    PokerServer.applyAction(table, action, betAmount);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Bot decision failed", e, "table", table.getCode());
+        }
+
+        if (stale) {
+            // An update may have been skipped while this decision was pending
+            onTableUpdated(table);
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -4,14 +4,23 @@ import com.badlogic.gdx.Gdx;
 import com.esotericsoftware.kryonet.Client;
 import com.esotericsoftware.kryonet.Connection;
 import com.esotericsoftware.kryonet.Listener;
+import io.github.broskipoker.game.ActionPredictor;
+import io.github.broskipoker.game.PokerBot;
 import io.github.broskipoker.game.PokerGame;
 import io.github.broskipoker.shared.*;
 import io.github.broskipoker.ui.LobbyPanel;
+import io.github.broskipoker.utils.Log;
+import io.github.broskipoker.utils.StatsService;
+import io.github.broskipoker.utils.UserSession;
+import java.util.Collection;
 import java.util.List;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.Map;
 import java.util.Random;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
 
 public class ClientConnection {
@@ -21,9 +30,6 @@ public class ClientConnection {
     private String username;
     private String tableCode;
     private volatile boolean connected = false;
-    private volatile boolean shouldUpdate = true;
-    private Thread updateThread;
-    private volatile boolean joinSuccessful = false;
 
     // Turn-based gameplay fields
     private volatile boolean isMyTurn = false;
@@ -36,7 +42,24 @@ public class ClientConnection {
     private boolean automaticMode = false;
     private Random random = new Random();
 
-    private List<Consumer<GameStateUpdate>> gameStateListeners = new ArrayList<>();
+    // Added from the render thread, called on the network thread
+    private final List<Consumer<GameStateUpdate>> gameStateListeners = new CopyOnWriteArrayList<>();
+
+    // Lobby listing kept in sync from the server's incremental updates
+    private final Map<String, TableSummary> lobbyTables = new ConcurrentHashMap<>();
+    private final List<Consumer<LobbyUpdate>> lobbyListeners = new CopyOnWriteArrayList<>();
+
+    private final List<Consumer<LeaderboardResponse>> leaderboardListeners = new CopyOnWriteArrayList<>();
+
+    // The local player's actions shown before the server has confirmed them
+    private final ActionPredictor actionPredictor = new ActionPredictor();
+
+    // How long a request waits for its answer before the future fails
+    private static final long REQUEST_TIMEOUT_MILLIS = 10_000;
+    private static final Log log = Log.get(ClientConnection.class);
+
+    // Requests on this connection still waiting for their answer, by request id
+    private final PendingRequests pendingRequests = new PendingRequests(REQUEST_TIMEOUT_MILLIS);
 
     public ClientConnection(String username) {
         this.username = username;
@@ -51,67 +74,95 @@ public class ClientConnection {
     public void connect(String host, int port) {
         try {
             setupListener();
-            client.start();
-
-            // Start a temporary update thread to run during connect()
-            Thread tempUpdateThread = new Thread(() -> {
-                long startTime = System.currentTimeMillis();
-                while (!client.isConnected() && System.currentTimeMillis() - startTime < 10000) {
-                    try {
-                        client.update(10);
-                    } catch (IOException e) {
-                        System.err.println("Temporary update error: " + e.getMessage());
-                    }
-                }
-            });
-            tempUpdateThread.setDaemon(true);
-            tempUpdateThread.start();
+            // The shared reactor thread services this socket, from the handshake on
+            NetworkReactor.getInstance().register(client);
 
-            System.out.println("Attempting to connect to " + host + ":" + port + "...");
             client.connect(10000, host, port);
 
-            tempUpdateThread.join();
-
             if (client.isConnected()) {
                 connected = true;
-                System.out.println("✅ Connected to server as: " + username + " at " + host + ":" + port);
-                startUpdateThread();
+                log.info("Connected", "user", username, "host", host, "port", port);
+                resumeSession();
             } else {
-                System.out.println("❌ Failed to establish connection");
+                log.warn("Could not connect", "user", username, "host", host, "port", port);
                 connected = false;
             }
 
         } catch (IOException e) {
-            System.err.println("❌ IO Exception connecting to server: " + e.getMessage());
+            log.warn("Could not connect", e, "user", username, "host", host, "port", port);
             connected = false;
         } catch (Exception e) {
-            System.err.println("❌ Failed to connect to server: " + e.getMessage());
+            log.error("Could not connect", e, "user", username, "host", host, "port", port);
             connected = false;
         }
+        if (!connected) {
+            NetworkReactor.getInstance().unregister(client);
+        }
     }
-    private void startUpdateThread() {
-        shouldUpdate = true;
-        updateThread = new Thread(() -> {
-            System.out.println("Update thread started for " + username);
-            while (shouldUpdate) {
-                try {
-                    client.update(50);
-                } catch (IOException e) {
-                    if (shouldUpdate) {
-                        System.err.println("Update thread IO error for " + username + ": " + e.getMessage());
-                    }
-                    break;
-                } catch (Exception e) {
-                    if (shouldUpdate) {
-                        System.err.println("Update thread error for " + username + ": " + e.getMessage());
-                    }
-                    break;
-                }
-            }
-            System.out.println("Update thread stopped for " + username);
-        });
-        updateThread.setDaemon(true);
-        updateThread.start();
+
+    // Every connection after the login presents the session token, the server names our seats after it
+    private void resumeSession() {
+        String token = UserSession.getInstance().getSessionToken();
+        if (token != null) {
+            LoginRequest request = new LoginRequest();
+            request.sessionToken = token;
+            client.sendTCP(request);
+        }
+    }
+
+    /**
+     * Logs in with a password, the server answers with the account and a session token
+     */
+    public CompletableFuture<LoginResponse> loginAsync(String username, String password) {
+        LoginRequest request = new LoginRequest(username, password);
+        request.requestId = pendingRequests.nextId();
+        return sendRequest(request, request.requestId, LoginResponse.class);
+    }
+
+    public CompletableFuture<RegisterResponse> registerAsync(String username, String email, String password) {
+        RegisterRequest request = new RegisterRequest();
+        request.requestId = pendingRequests.nextId();
+        request.username = username;
+        request.email = email;
+        request.password = password;
+        return sendRequest(request, request.requestId, RegisterResponse.class);
+    }
+
+    /**
+     * Creates a table and seats us at it, the table code is set before the future completes
+     * @return the server's answer, check success, fails if it doesn't come within the request timeout
+     */
+    public CompletableFuture<CreateTableResponse> createTableAsync(int smallBlind, int bigBlind, int chips) {
+        CreateTableRequest request = new CreateTableRequest();
+        request.requestId = pendingRequests.nextId();
+        request.smallBlind = smallBlind;
+        request.bigBlind = bigBlind;
+        request.chips = chips;
+
+        log.debug("Creating table", "user", username, "smallBlind", smallBlind, "bigBlind", bigBlind);
+        return sendRequest(request, request.requestId, CreateTableResponse.class);
+    }
+
+    /**
+     * Joins a table by code, the table code is set before the future completes if it worked
+     */
+    public CompletableFuture<JoinTableResponse> joinTableAsync(String code, int chips) {
+        JoinTableRequest request = new JoinTableRequest();
+        request.requestId = pendingRequests.nextId();
+        request.code = code.toUpperCase();
+        request.chips = chips;
+
+        log.debug("Joining table", "user", username, "table", request.code);
+        return sendRequest(request, request.requestId, JoinTableResponse.class);
+    }
+
+    private <T> CompletableFuture<T> sendRequest(Object request, int requestId, Class<T> responseType) {
+        if (!isConnected()) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Not connected to server"));
+        }
+        CompletableFuture<T> response = pendingRequests.register(requestId, responseType);
+        client.sendTCP(request);
+        return response;
     }
 
     public void addGameStateListener(Consumer<GameStateUpdate> listener) {
@@ -123,7 +174,6 @@ public class ClientConnection {
             GameStateRequest request = new GameStateRequest();
             request.tableCode = tableCode;
             client.sendTCP(request);
-            System.out.println("📤 " + username + " requesting game state update for table: " + tableCode);
         }
     }
 
@@ -132,9 +182,120 @@ public class ClientConnection {
             StartGameRequest request = new StartGameRequest();
             request.tableCode = tableCode;
             client.sendTCP(request);
-            System.out.println("📤 " + username + " requesting to start game for table: " + tableCode);
+            log.debug("Starting game", "user", username, "table", tableCode);
         } else {
-            System.out.println("❌ Not connected or no table code - can't start game");
+            log.warn("Can't start game without a connection and table", "user", username);
+        }
+    }
+
+    public void subscribeLobby() {
+        if (isConnected()) {
+            LobbySubscribeRequest request = new LobbySubscribeRequest();
+            request.subscribe = true;
+            client.sendTCP(request);
+        }
+    }
+
+    public void unsubscribeLobby() {
+        lobbyTables.clear();
+        if (isConnected()) {
+            LobbySubscribeRequest request = new LobbySubscribeRequest();
+            request.subscribe = false;
+            client.sendTCP(request);
+        }
+    }
+
+    public void addLobbyListener(Consumer<LobbyUpdate> listener) {
+        lobbyListeners.add(listener);
+    }
+
+    public Collection<TableSummary> getLobbyTables() {
+        return lobbyTables.values();
+    }
+
+    private void applyLobbyUpdate(LobbyUpdate update) {
+        if (update.snapshot) {
+            lobbyTables.clear();
+        }
+        if (update.added != null) {
+            for (TableSummary summary : update.added) {
+                lobbyTables.put(summary.code, summary);
+            }
+        }
+        if (update.updated != null) {
+            for (TableSummary summary : update.updated) {
+                lobbyTables.put(summary.code, summary);
+            }
+        }
+        if (update.removed != null) {
+            for (String code : update.removed) {
+                lobbyTables.remove(code);
+            }
+        }
+        for (Consumer<LobbyUpdate> listener : lobbyListeners) {
+            listener.accept(update);
+        }
+    }
+
+    public void requestLeaderboard(StatsService.Leaderboard leaderboard, int limit) {
+        if (isConnected()) {
+            LeaderboardRequest request = new LeaderboardRequest();
+            request.leaderboard = leaderboard;
+            request.limit = limit;
+            client.sendTCP(request);
+        }
+    }
+
+    public void addLeaderboardListener(Consumer<LeaderboardResponse> listener) {
+        leaderboardListeners.add(listener);
+    }
+
+    // Pass a null id to join the next sit & go
+    public void registerTournament(String tournamentId) {
+        if (isConnected()) {
+            TournamentRegisterRequest request = new TournamentRegisterRequest();
+            request.tournamentId = tournamentId;
+            client.sendTCP(request);
+            log.debug("Registering for tournament", "user", username,
+                "tournament", tournamentId != null ? tournamentId : "next sit & go");
+        }
+    }
+
+    // Opens a multi-table tournament and registers this player for it
+    public void createTournament(int maxEntrants, int startInMinutes) {
+        if (isConnected()) {
+            TournamentCreateRequest request = new TournamentCreateRequest();
+            request.maxEntrants = maxEntrants;
+            request.startInMinutes = startInMinutes;
+            client.sendTCP(request);
+            log.debug("Opening tournament", "user", username, "maxEntrants", maxEntrants, "startInMinutes", startInMinutes);
+        }
+    }
+
+    public void requestAddBot(PokerBot.BotStrategy strategy) {
+        if (isConnected() && tableCode != null) {
+            AddBotRequest request = new AddBotRequest();
+            request.tableCode = tableCode;
+            request.strategy = strategy;
+            client.sendTCP(request);
+            log.debug("Adding bot", "user", username, "table", tableCode, "strategy", strategy);
+        } else {
+            log.warn("Can't add a bot without a connection and table", "user", username);
+        }
+    }
+
+    /**
+     * Vote to run the rest of the board more than once, only accepted while the hand is all-in
+     */
+    public void requestRunItTwice(int times) {
+        if (isConnected() && tableCode != null) {
+            RunItTwiceRequest request = new RunItTwiceRequest();
+            request.tableCode = tableCode;
+            request.times = times;
+            client.sendTCP(request);
+            log.debug("Voting to run it more than once", "user", username, "table", tableCode, "times", times);
+        } else {
+            log.warn("Can't vote to run it twice without a connection and table", "user", username);
         }
     }
 
@@ -142,16 +303,16 @@ public class ClientConnection {
         client.addListener(new Listener() {
             @Override
             public void connected(Connection connection) {
-                System.out.println("✅ Client listener: " + username + " connected to server");
                 connected = true;
             }
 
             @Override
             public void disconnected(Connection connection) {
-                System.out.println("❌ Client listener: " + username + " disconnected from server");
+                log.info("Disconnected", "user", username);
                 connected = false;
                 isMyTurn = false;
                 waitingForAction = false;
+                pendingRequests.failAll(new IllegalStateException("Disconnected from server"));
             }
 
             @Override
@@ -167,14 +328,14 @@ public class ClientConnection {
             CreateTableResponse resp = (CreateTableResponse) object;
             if (resp.success) {
                 tableCode = resp.code;
-                System.out.println("✅ " + username + " created table successfully! Code: " + tableCode);
+                log.info("Created table", "user", username, "table", tableCode);
             } else {
-                System.out.println("❌ " + username + " failed to create table: " + resp.failReason);
+                log.warn("Could not create table", "user", username, "reason", resp.failReason);
             }
+            pendingRequests.complete(resp.requestId, resp);
         }
         else if (object instanceof GameStateUpdate) {
             GameStateUpdate update = (GameStateUpdate) object;
-            System.out.println("📥 Received GameStateUpdate with " + update.players.size() + " players");
 
             // notify all registered listeners about the game state update
             for(Consumer<GameStateUpdate> listener : gameStateListeners) {
@@ -189,12 +350,12 @@ public class ClientConnection {
         else if (object instanceof JoinTableResponse) {
             JoinTableResponse resp = (JoinTableResponse) object;
             if (resp.success) {
-                System.out.println("✅ " + username + " successfully joined table: " + resp.code);
-                joinSuccessful = true;
+                tableCode = resp.code;
+                log.info("Joined table", "user", username, "table", resp.code);
             } else {
-                System.out.println("❌ " + username + " failed to join table: " + resp.failReason);
-                joinSuccessful = false;
+                log.warn("Could not join table", "user", username, "reason", resp.failReason);
             }
+            pendingRequests.complete(resp.requestId, resp);
         }
 //        else if (object instanceof GameStateUpdate) {
 //            GameStateUpdate update = (GameStateUpdate) object;
@@ -205,15 +366,58 @@ public class ClientConnection {
         else if (object instanceof LoginResponse) {
             LoginResponse resp = (LoginResponse) object;
             if (resp.success) {
-                System.out.println("✅ " + username + " login successful: " + resp.message);
+                log.info("Logged in", "user", username);
+            } else {
+                log.warn("Login failed", "user", username, "reason", resp.message);
+            }
+            // Nobody waits for the answer to a session resume, its id is 0
+            pendingRequests.complete(resp.requestId, resp);
+        }
+        else if (object instanceof RegisterResponse) {
+            RegisterResponse resp = (RegisterResponse) object;
+            pendingRequests.complete(resp.requestId, resp);
+        }
+        else if (object instanceof TournamentRegisterResponse) {
+            TournamentRegisterResponse resp = (TournamentRegisterResponse) object;
+            if (resp.success) {
+                log.info("Registered for tournament", "user", username, "tournament", resp.tournamentId);
+            } else {
+                log.warn("Could not register for tournament", "user", username, "reason", resp.message);
+            }
+        }
+        else if (object instanceof TournamentStatus) {
+            TournamentStatus status = (TournamentStatus) object;
+            if (status.finishPosition > 0) {
+                log.info("Finished tournament", "user", username, "tournament", status.tournamentId,
+                    "place", status.finishPosition);
+            } else if (status.tableCode != null) {
+                // Seated or moved by the tournament, follow the player to the new table
+                tableCode = status.tableCode;
+                actionPredictor.clear();
+                log.info("Seated by tournament", "user", username, "table", status.tableCode,
+                    "smallBlind", status.smallBlind, "bigBlind", status.bigBlind);
+            }
+        }
+        else if (object instanceof LeaderboardResponse) {
+            for (Consumer<LeaderboardResponse> listener : leaderboardListeners) {
+                listener.accept((LeaderboardResponse) object);
+            }
+        }
+        else if (object instanceof LobbyUpdate) {
+            applyLobbyUpdate((LobbyUpdate) object);
+        }
+        else if (object instanceof AddBotResponse) {
+            AddBotResponse resp = (AddBotResponse) object;
+            if (resp.success) {
+                log.debug("Bot added", "user", username, "message", resp.message);
             } else {
-                System.out.println("❌ " + username + " login failed: " + resp.message);
+                log.warn("Could not add bot", "user", username, "reason", resp.message);
             }
         }
         else if (object instanceof StartGameResponse) {
             StartGameResponse resp = (StartGameResponse) object;
             if (resp.success) {
-                System.out.println("✅ Game started successfully: " + resp.message);
+                log.info("Game started", "user", username, "table", tableCode);
                 // Notify the game that it should transition to gameplay
                 if (lobbyPanel != null) {
                     Gdx.app.postRunnable(() -> {
@@ -221,7 +425,7 @@ public class ClientConnection {
                     });
                 }
             } else {
-                System.out.println("❌ Failed to start game: " + resp.message);
+                log.warn("Could not start game", "user", username, "reason", resp.message);
                 // Optionally show an error message in the UI
             }
         }
@@ -232,50 +436,18 @@ public class ClientConnection {
         this.lobbyPanel = lobbyPanel;
     }
 
-    public void createTable(int smallBlind, int bigBlind, int chips) {
-        if (!connected || !client.isConnected()) {
-            System.out.println("❌ " + username + " not connected to server!");
-            return;
-        }
-
-        CreateTableRequest request = new CreateTableRequest();
-        request.username = username;
-        request.smallBlind = smallBlind;
-        request.bigBlind = bigBlind;
-        request.chips = chips;
-
-        System.out.println("📤 " + username + " creating table with blinds: " + smallBlind + "/" + bigBlind);
-        client.sendTCP(request);
-    }
-
-    public void joinTable(String code, int chips) {
-        if (!connected || !client.isConnected()) {
-            System.out.println("❌ " + username + " not connected to server!");
-            return;
-        }
-
-        JoinTableRequest request = new JoinTableRequest();
-        request.code = code.toUpperCase();
-        request.username = username;
-        request.chips = chips;
-
-        System.out.println("📤 " + username + " joining table with code: " + code);
-        client.sendTCP(request);
-    }
-
     public void sendAction(PlayerAction action) {
         if (isConnected()) {
-            System.out.println("📤 " + username + " sending action: " + action.action);
+            action.sequence = actionPredictor.nextSequence();
+            log.debug("Sending action", "user", username, "action", action.action, "sequence", action.sequence);
             client.sendTCP(action);
         } else {
-            System.out.println("❌ Not connected - can't send action");
+            log.warn("Can't send an action while disconnected", "user", username);
         }
     }
 
     public void disconnect() {
-        System.out.println("Disconnecting " + username + "...");
         connected = false;
-        shouldUpdate = false;
         waitingForAction = false;
         isMyTurn = false;
 
@@ -283,20 +455,12 @@ public class ClientConnection {
             actionThread.interrupt();
         }
 
-        if (updateThread != null) {
-            try {
-                updateThread.join(1000);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        }
-
         if (client != null) {
             try {
                 client.close();
-                System.out.println("✅ " + username + " disconnected from server");
+                NetworkReactor.getInstance().unregister(client);
             } catch (Exception e) {
-                System.err.println("❌ Error during disconnect for " + username + ": " + e.getMessage());
+                log.warn("Error during disconnect", e, "user", username);
             }
         }
     }
@@ -304,14 +468,13 @@ public class ClientConnection {
     public void leaveTable() {
         // Reset table-related state but keep the connection alive
         tableCode = null;
-        joinSuccessful = false;
 
         // If we have a lobby panel, clear it
         if (lobbyPanel != null) {
             lobbyPanel = null;
         }
 
-        System.out.println("✅ " + username + " left the table but remains connected");
+        log.debug("Left table", "user", username);
     }
 
     public String getTableCode() {
@@ -330,11 +493,7 @@ public class ClientConnection {
         return username;
     }
 
-    public boolean isJoinSuccessful() {
-        return joinSuccessful;
-    }
-
-    public void resetJoinStatus() {
-        joinSuccessful = false;
+    public ActionPredictor getActionPredictor() {
+        return actionPredictor;
     }
 }
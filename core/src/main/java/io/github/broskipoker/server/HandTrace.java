@@ -0,0 +1,154 @@
+package io.github.broskipoker.server;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The last few actions at one table, broken down into where the time went.
+ * <p>
+ * A span runs from the moment an action reaches the server until its game state has been handed to
+ * every seat. Each {@link Stage} adds its nanoTime duration to the open span. Spans are kept in a
+ * ring allocated with the table, so tracing an action allocates nothing. A span with a stage over
+ * its budget is reported by {@link #end()}, and {@link #dump(StringBuilder)} renders the ring.
+ * <p>
+ * Only the thread that opened a span adds to it. A state update for a slow client is built and sent
+ * later, on whichever thread drains its outbox, and that time belongs to no action at this table.
+ */
+public class HandTrace {
+
+    public enum Stage {
+        // Looking up the table and waiting for its lock
+        QUEUED(5),
+        // PokerGame.performAction
+        ACTION(1),
+        // The PokerGame.update() loop that deals the next street or reaches showdown
+        ADVANCE(5),
+        // PokerConverters, summed over the seats
+        CONVERT(2),
+        // sendTCP of the game states, summed over the seats
+        SEND(5);
+
+        final long budgetNanos;
+
+        Stage(long budgetMillis) {
+            this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        }
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+    // Per span: hand number, wall clock start, start nanos, total nanos, then one slot per stage
+    private static final int HAND = 0;
+    private static final int STARTED_MILLIS = 1;
+    private static final int STARTED_NANOS = 2;
+    private static final int TOTAL = 3;
+    private static final int FIRST_STAGE = 4;
+    private static final int FIELDS = FIRST_STAGE + STAGES.length;
+    // A table that keeps going over budget is reported this often at most
+    private static final long REPORT_INTERVAL_MILLIS = 10_000;
+
+    private final String tableCode;
+    private final int capacity;
+    private final long[] spans;
+    // Spans written so far, the open one is (written - 1) % capacity
+    private long written = 0;
+    private boolean open = false;
+    // The thread applying the action, null when no span is open
+    private Thread owner;
+    private long lastReportMillis = 0;
+
+    public HandTrace(String tableCode, int capacity) {
+        this.tableCode = tableCode;
+        this.capacity = capacity;
+        this.spans = new long[capacity * FIELDS];
+    }
+
+    /**
+     * Opens a span for an action that arrived at startNanos, unless one is open already
+     */
+    public synchronized void begin(int handNumber, long startNanos) {
+        if (open) {
+            return;
+        }
+        int base = (int) (written % capacity) * FIELDS;
+        spans[base + HAND] = handNumber;
+        spans[base + STARTED_MILLIS] = System.currentTimeMillis();
+        spans[base + STARTED_NANOS] = startNanos;
+        for (int i = TOTAL; i < FIELDS; i++) {
+            spans[base + i] = 0;
+        }
+        written++;
+        open = true;
+        owner = Thread.currentThread();
+    }
+
+    /**
+     * Adds to a stage of the open span, ignored when no span is open or another thread opened it
+     */
+    public synchronized void add(Stage stage, long nanos) {
+        if (open && owner == Thread.currentThread()) {
+            spans[openBase() + FIRST_STAGE + stage.ordinal()] += nanos;
+        }
+    }
+
+    /**
+     * Closes the open span
+     * @return the stage that went over its budget, the first one if several did, null if none did
+     *         or the table was already reported in the last few seconds
+     */
+    public synchronized Stage end() {
+        if (!open) {
+            return null;
+        }
+        open = false;
+        owner = null;
+        int base = openBase();
+        spans[base + TOTAL] = System.nanoTime() - spans[base + STARTED_NANOS];
+        for (Stage stage : STAGES) {
+            if (spans[base + FIRST_STAGE + stage.ordinal()] > stage.budgetNanos) {
+                long now = System.currentTimeMillis();
+                if (now - lastReportMillis < REPORT_INTERVAL_MILLIS) {
+                    return null;
+                }
+                lastReportMillis = now;
+                return stage;
+            }
+        }
+        return null;
+    }
+
+    public synchronized int size() {
+        return (int) Math.min(written, capacity);
+    }
+
+    /**
+     * One line per span, oldest first, durations in microseconds
+     */
+    public synchronized void dump(StringBuilder out) {
+        long first = Math.max(0, written - capacity);
+        for (long span = first; span < written; span++) {
+            int base = (int) (span % capacity) * FIELDS;
+            boolean unfinished = open && span == written - 1;
+            out.append("table=").append(tableCode)
+                .append(" hand=").append(spans[base + HAND])
+                .append(" at=").append(Instant.ofEpochMilli(spans[base + STARTED_MILLIS]))
+                .append(" total_us=");
+            if (unfinished) {
+                out.append("open");
+            } else {
+                out.append(spans[base + TOTAL] / 1000);
+            }
+            for (Stage stage : STAGES) {
+                long nanos = spans[base + FIRST_STAGE + stage.ordinal()];
+                out.append(' ').append(stage.name().toLowerCase()).append("_us=").append(nanos / 1000);
+                if (nanos > stage.budgetNanos) {
+                    out.append('!');
+                }
+            }
+            out.append('\n');
+        }
+    }
+
+    private int openBase() {
+        return (int) ((written - 1) % capacity) * FIELDS;
+    }
+}
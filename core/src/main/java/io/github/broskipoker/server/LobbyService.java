@@ -0,0 +1,273 @@
+package io.github.broskipoker.server;
+
+import com.esotericsoftware.kryonet.Connection;
+import io.github.broskipoker.shared.LobbyUpdate;
+import io.github.broskipoker.shared.TableSummary;
+import io.github.broskipoker.utils.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the public lobby listing and pushes batched changes to subscribed clients.
+ * <p>
+ * Each table event updates only that table's entry, the listing is never rebuilt from
+ * the TableManager. Changes are coalesced per table and sent as one delta every
+ * FLUSH_INTERVAL_MILLIS, so a busy table costs at most one delta per flush. Snapshots and deltas
+ * go out in pages of at most PAGE_SIZE tables, through the {@link OutboundQueues}. The pages of
+ * one update are queued together, so a large lobby is streamed as the client reads rather than
+ * counted page by page against the connection's event limit.
+ */
+public class LobbyService {
+    private static final Log log = Log.get(LobbyService.class);
+    private static final long FLUSH_INTERVAL_MILLIS = 250;
+    // A TableSummary serializes to about 40 bytes at most, so a page stays well under the
+    // 2048 byte object buffer a KryoNet client has by default
+    public static final int PAGE_SIZE = 40;
+
+    private enum Change {
+        ADDED, UPDATED, REMOVED
+    }
+
+    // Running totals of a table, guarded by the entry itself
+    private static class Entry {
+        final String code;
+        final int smallBlind;
+        final int bigBlind;
+        int seatsTaken;
+        long handsPlayed;
+        long totalPot;
+
+        Entry(String code, int smallBlind, int bigBlind) {
+            this.code = code;
+            this.smallBlind = smallBlind;
+            this.bigBlind = bigBlind;
+        }
+
+        synchronized TableSummary toSummary() {
+            TableSummary summary = new TableSummary();
+            summary.code = code;
+            summary.smallBlind = smallBlind;
+            summary.bigBlind = bigBlind;
+            summary.seatsTaken = seatsTaken;
+            summary.maxSeats = Table.MAX_PLAYERS;
+            summary.averagePot = handsPlayed == 0 ? 0 : (int) (totalPot / handsPlayed);
+            return summary;
+        }
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Changes since the last flush, at most one per table
+    private final Map<String, Change> pendingChanges = new ConcurrentHashMap<>();
+    private final Set<Connection> watchers = ConcurrentHashMap.newKeySet();
+    private volatile OutboundQueues outbound;
+    private ScheduledExecutorService flusher;
+
+    /**
+     * Where lobby updates are queued, set before anyone subscribes
+     */
+    public void setOutbound(OutboundQueues outbound) {
+        this.outbound = outbound;
+    }
+
+    public synchronized void start() {
+        if (flusher != null) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "lobby-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleAtFixedRate(this::flush, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+            flusher = null;
+        }
+    }
+
+    public void onTableAdded(Table table) {
+        Entry entry = new Entry(table.getCode(), table.getPokerGame().getSmallBlind(), table.getPokerGame().getBigBlind());
+        entry.seatsTaken = table.getConnections().size();
+        entries.put(entry.code, entry);
+        markChanged(entry.code, Change.ADDED);
+    }
+
+    public void onSeatsChanged(String code, int seatsTaken) {
+        Entry entry = entries.get(code);
+        if (entry == null) {
+            return;
+        }
+        synchronized (entry) {
+            if (entry.seatsTaken == seatsTaken) {
+                return;
+            }
+            entry.seatsTaken = seatsTaken;
+        }
+        markChanged(code, Change.UPDATED);
+    }
+
+    public void onHandFinished(String code, int pot) {
+        Entry entry = entries.get(code);
+        if (entry == null) {
+            return;
+        }
+        synchronized (entry) {
+            entry.handsPlayed++;
+            entry.totalPot += pot;
+        }
+        markChanged(code, Change.UPDATED);
+    }
+
+    public void onTableRemoved(String code) {
+        if (entries.remove(code) != null) {
+            markChanged(code, Change.REMOVED);
+        }
+    }
+
+    private void markChanged(String code, Change change) {
+        pendingChanges.merge(code, change, LobbyService::coalesce);
+    }
+
+    // Folds a new change into the one already pending for the same table, null drops both
+    private static Change coalesce(Change pending, Change change) {
+        if (pending == Change.ADDED) {
+            return change == Change.REMOVED ? null : Change.ADDED;
+        }
+        if (pending == Change.REMOVED && change == Change.ADDED) {
+            return Change.UPDATED; // removed and re-added under the same code
+        }
+        return change == Change.REMOVED ? Change.REMOVED : pending;
+    }
+
+    /**
+     * Start sending lobby updates to a connection, beginning with a full snapshot
+     */
+    public synchronized void subscribe(Connection connection) {
+        LobbyUpdate snapshot = new LobbyUpdate();
+        snapshot.snapshot = true;
+        snapshot.added = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values()) {
+            snapshot.added.add(entry.toSummary());
+        }
+        snapshot.updated = new ArrayList<>();
+        snapshot.removed = new ArrayList<>();
+        watchers.add(connection);
+        outbound.sendEvents(connection, paginate(snapshot));
+    }
+
+    public void unsubscribe(Connection connection) {
+        watchers.remove(connection);
+    }
+
+    /**
+     * Drains the pending changes into a single delta
+     * @return the delta, or null if nothing changed since the last call
+     */
+    public synchronized LobbyUpdate collectChanges() {
+        if (pendingChanges.isEmpty()) {
+            return null;
+        }
+
+        LobbyUpdate update = new LobbyUpdate();
+        update.added = new ArrayList<>();
+        update.updated = new ArrayList<>();
+        update.removed = new ArrayList<>();
+
+        for (String code : pendingChanges.keySet()) {
+            Change change = pendingChanges.remove(code);
+            if (change == null) {
+                continue;
+            }
+            Entry entry = entries.get(code);
+            if (change == Change.REMOVED || entry == null) {
+                update.removed.add(code);
+            } else if (change == Change.ADDED) {
+                update.added.add(entry.toSummary());
+            } else {
+                update.updated.add(entry.toSummary());
+            }
+        }
+        return update;
+    }
+
+    /**
+     * Splits an update into pages of at most PAGE_SIZE tables. Only the first page of a snapshot
+     * is marked as one, so the client clears its listing once and adds the rest.
+     */
+    public static List<LobbyUpdate> paginate(LobbyUpdate update) {
+        List<LobbyUpdate> pages = new ArrayList<>();
+        LobbyUpdate page = newPage(update.snapshot);
+        pages.add(page);
+        int size = 0;
+        for (TableSummary summary : update.added) {
+            if (size == PAGE_SIZE) {
+                page = newPage(false);
+                pages.add(page);
+                size = 0;
+            }
+            page.added.add(summary);
+            size++;
+        }
+        for (TableSummary summary : update.updated) {
+            if (size == PAGE_SIZE) {
+                page = newPage(false);
+                pages.add(page);
+                size = 0;
+            }
+            page.updated.add(summary);
+            size++;
+        }
+        for (String code : update.removed) {
+            if (size == PAGE_SIZE) {
+                page = newPage(false);
+                pages.add(page);
+                size = 0;
+            }
+            page.removed.add(code);
+            size++;
+        }
+        return pages;
+    }
+
+    private static LobbyUpdate newPage(boolean snapshot) {
+        LobbyUpdate page = new LobbyUpdate();
+        page.snapshot = snapshot;
+        page.added = new ArrayList<>();
+        page.updated = new ArrayList<>();
+        page.removed = new ArrayList<>();
+        return page;
+    }
+
+    private synchronized void flush() {
+        try {
+            LobbyUpdate update = collectChanges();
+            if (update == null || watchers.isEmpty()) {
+                return;
+            }
+            List<LobbyUpdate> pages = paginate(update);
+            for (Connection watcher : watchers) {
+                if (watcher.isConnected()) {
+                    outbound.sendEvents(watcher, pages);
+                } else {
+                    watchers.remove(watcher);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Could not flush lobby updates", e);
+        }
+    }
+
+    public int getWatcherCount() {
+        return watchers.size();
+    }
+}
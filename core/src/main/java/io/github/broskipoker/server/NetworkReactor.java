@@ -0,0 +1,146 @@
+package io.github.broskipoker.server;
+
+import com.esotericsoftware.kryonet.Client;
+import com.esotericsoftware.kryonet.Connection;
+import com.esotericsoftware.kryonet.Listener;
+import io.github.broskipoker.utils.Log;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * One thread that services the sockets of every client connection in this JVM.
+ * <p>
+ * KryoNet expects a thread per Client blocked in update(). The reactor instead polls all registered
+ * clients without blocking, one after the other. After a pass in which nothing arrived it rests,
+ * twice as long after every further empty pass up to MAX_IDLE_PARK_NANOS, so an idle reactor wakes
+ * about 60 times a second rather than 1000. Listeners are called on this thread, so they must hand
+ * slow work elsewhere and must never call connect(), which waits for this thread to finish the
+ * handshake. Clients that disconnect are dropped.
+ * <p>
+ * KryoNet's own guard against a spinning selector still applies: a client sleeps up to 25 ms after
+ * 100 empty selects in a row. With the back-off an idle client gets there every couple of seconds,
+ * at a time nothing is arriving for it anyway.
+ */
+public class NetworkReactor {
+    private static final Log log = Log.get(NetworkReactor.class);
+    // How long the thread rests after the first pass in which no client received anything
+    private static final long MIN_IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long MAX_IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(16);
+
+    private static NetworkReactor instance;
+
+    // Registrations and removals in the order they were made, applied by the reactor thread
+    private final Queue<Runnable> changes = new ConcurrentLinkedQueue<>();
+    // Only touched by the reactor thread
+    private final List<Client> clients = new ArrayList<>();
+    private final AtomicInteger clientCount = new AtomicInteger();
+    private volatile boolean received = false;
+    private final Listener activity = new Listener() {
+        @Override
+        public void received(Connection connection, Object object) {
+            received = true;
+        }
+
+        @Override
+        public void disconnected(Connection connection) {
+            // A KryoNet Client is its own connection
+            unregister((Client) connection);
+        }
+    };
+    private final Thread thread;
+
+    public static synchronized NetworkReactor getInstance() {
+        if (instance == null) {
+            instance = new NetworkReactor();
+        }
+        return instance;
+    }
+
+    private NetworkReactor() {
+        thread = new Thread(this::run, "Network reactor");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Starts servicing a client, register before connect() since the handshake needs updates
+     */
+    public void register(Client client) {
+        changes.add(() -> add(client));
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Stops servicing a client, it is not closed. Happens by itself when the client disconnects.
+     */
+    public void unregister(Client client) {
+        changes.add(() -> remove(client));
+        LockSupport.unpark(thread);
+    }
+
+    public int getClientCount() {
+        return clientCount.get();
+    }
+
+    private void run() {
+        long idleParkNanos = MIN_IDLE_PARK_NANOS;
+        while (true) {
+            Runnable change;
+            while ((change = changes.poll()) != null) {
+                change.run();
+                idleParkNanos = MIN_IDLE_PARK_NANOS; // a new client is about to handshake
+            }
+            if (clients.isEmpty()) {
+                LockSupport.park(this);
+                continue;
+            }
+
+            received = false;
+            for (int i = clients.size() - 1; i >= 0; i--) {
+                poll(clients.get(i));
+            }
+            if (received) {
+                idleParkNanos = MIN_IDLE_PARK_NANOS;
+            } else {
+                LockSupport.parkNanos(this, idleParkNanos);
+                idleParkNanos = Math.min(idleParkNanos * 2, MAX_IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private void add(Client client) {
+        if (!clients.contains(client)) {
+            client.addListener(activity);
+            clients.add(client);
+            clientCount.incrementAndGet();
+        }
+    }
+
+    private void remove(Client client) {
+        if (clients.remove(client)) {
+            client.removeListener(activity);
+            clientCount.decrementAndGet();
+        }
+    }
+
+    private void poll(Client client) {
+        try {
+            client.update(0);
+        } catch (IOException e) {
+            // The selector itself failed, this client is beyond saving
+            log.warn("Dropping a client after an IO error", e, "connection", client.getID());
+            remove(client);
+            client.close();
+        } catch (Exception e) {
+            // A listener threw, the other clients must not pay for it
+            log.error("Listener error", e, "connection", client.getID());
+        }
+    }
+}
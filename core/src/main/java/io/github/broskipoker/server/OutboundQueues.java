@@ -0,0 +1,299 @@
+package io.github.broskipoker.server;
+
+import com.esotericsoftware.kryonet.Connection;
+import io.github.broskipoker.utils.Log;
+import io.github.broskipoker.utils.Metrics;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
+
+/**
+ * What the server still has to send to each client, written only while the client keeps up.
+ * <p>
+ * Events (responses, results) wait in order and are never dropped. Game state is not queued at
+ * all: a table that changes only marks the connection dirty, and the update is built from the
+ * table when the connection has room for it, so a client that falls behind gets the newest state
+ * once instead of every state in between, and the server never serializes one that would be
+ * superseded. A connection whose write buffer stays full for too long, or that piles up too many
+ * events, is closed so it can't hold up its table. A long run of messages such as a lobby snapshot
+ * is queued with {@link #sendEvents(Connection, List)}, counts as one event and is written a message
+ * at a time as the connection drains. Closing happens on a separate thread, see
+ * {@link #close(Connection, Outbox, String)}.
+ */
+public class OutboundQueues {
+    private static final Log log = Log.get(OutboundQueues.class);
+    private static final Metrics.Counter messagesSent =
+        Metrics.getInstance().counter("broski_messages_sent_total", "Messages written to client connections");
+    private static final Metrics.Counter bytesSent =
+        Metrics.getInstance().counter("broski_sent_bytes_total", "Bytes serialized for client connections");
+    private static final Metrics.Counter statesCoalesced =
+        Metrics.getInstance().counter("broski_states_coalesced_total", "Game states replaced by a newer one before they were sent");
+    private static final Metrics.Counter evictions =
+        Metrics.getInstance().counter("broski_evicted_connections_total", "Connections closed because they stopped reading");
+
+    private final int maxBufferedBytes;
+    private final long stallMillis;
+    private final int maxQueuedEvents;
+    // Builds the update for one player at a table, null if they are no longer seated
+    private final BiFunction<Table, Connection, Object> stateBuilder;
+    private final Map<Connection, Outbox> outboxes = new ConcurrentHashMap<>();
+    private final Executor closer;
+
+    // Messages queued together, written one by one when they reach the front
+    private static class Batch {
+        final Iterator<?> rest;
+
+        Batch(Iterator<?> rest) {
+            this.rest = rest;
+        }
+    }
+
+    private static class Outbox {
+        final ArrayDeque<Object> events = new ArrayDeque<>();
+        Table dirtyTable;
+        // Only one thread writes at a time, so events go out in the order they were queued
+        boolean flushing = false;
+        long stalledSince = -1;
+        boolean evicted = false;
+    }
+
+    /**
+     * @param maxBufferedBytes nothing more is written while the connection has this much unsent,
+     *                         keep it well below the server's write buffer so one message always fits
+     * @param stallMillis how long a connection may stay over the limit before it is closed
+     * @param maxQueuedEvents how many events may wait before the connection is closed
+     */
+    public OutboundQueues(int maxBufferedBytes, long stallMillis, int maxQueuedEvents,
+                          BiFunction<Table, Connection, Object> stateBuilder) {
+        this(maxBufferedBytes, stallMillis, maxQueuedEvents, stateBuilder, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-closer");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    /**
+     * @param closer runs Connection.close() for evicted connections, must not run it on the calling thread
+     */
+    public OutboundQueues(int maxBufferedBytes, long stallMillis, int maxQueuedEvents,
+                          BiFunction<Table, Connection, Object> stateBuilder, Executor closer) {
+        this.maxBufferedBytes = maxBufferedBytes;
+        this.stallMillis = stallMillis;
+        this.maxQueuedEvents = maxQueuedEvents;
+        this.stateBuilder = stateBuilder;
+        this.closer = closer;
+    }
+
+    /**
+     * Queues a message that must arrive, in order with the others
+     */
+    public void sendEvent(Connection connection, Object event) {
+        enqueue(connection, event);
+    }
+
+    /**
+     * Queues messages that must arrive in this order, in order with the other events. They take
+     * one place towards maxQueuedEvents however many there are, and each is only written once the
+     * connection has room for it.
+     */
+    public void sendEvents(Connection connection, List<?> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        enqueue(connection, events.size() == 1 ? events.get(0) : new Batch(events.iterator()));
+    }
+
+    private void enqueue(Connection connection, Object event) {
+        Outbox outbox = outbox(connection);
+        boolean overflowing;
+        synchronized (outbox) {
+            if (outbox.evicted) {
+                return;
+            }
+            outbox.events.add(event);
+            overflowing = outbox.events.size() > maxQueuedEvents;
+            if (overflowing) {
+                markEvicted(outbox);
+            }
+        }
+        if (overflowing) {
+            close(connection, outbox, "more than " + maxQueuedEvents + " events waiting");
+            return;
+        }
+        flush(connection, outbox);
+    }
+
+    /**
+     * Marks the table's state as due for this connection, replacing any state not yet sent
+     */
+    public void sendState(Connection connection, Table table) {
+        Outbox outbox = outbox(connection);
+        synchronized (outbox) {
+            if (outbox.evicted) {
+                return;
+            }
+            if (outbox.dirtyTable != null) {
+                statesCoalesced.increment();
+            }
+            outbox.dirtyTable = table;
+        }
+        flush(connection, outbox);
+    }
+
+    /**
+     * Writes whatever is waiting, call when KryoNet reports the connection idle
+     */
+    public void onIdle(Connection connection) {
+        Outbox outbox = outboxes.get(connection);
+        if (outbox != null) {
+            flush(connection, outbox);
+        }
+    }
+
+    public void remove(Connection connection) {
+        Outbox outbox = outboxes.remove(connection);
+        if (outbox != null) {
+            synchronized (outbox) {
+                markEvicted(outbox);
+            }
+        }
+    }
+
+    // Events waiting, a batch counting once, plus one if a state update is due, 0 for unknown connections
+    public int getBacklog(Connection connection) {
+        Outbox outbox = outboxes.get(connection);
+        if (outbox == null) {
+            return 0;
+        }
+        synchronized (outbox) {
+            return outbox.events.size() + (outbox.dirtyTable != null ? 1 : 0);
+        }
+    }
+
+    private Outbox outbox(Connection connection) {
+        return outboxes.computeIfAbsent(connection, c -> new Outbox());
+    }
+
+    private void flush(Connection connection, Outbox outbox) {
+        synchronized (outbox) {
+            if (outbox.flushing || outbox.evicted) {
+                return; // the thread already writing picks up what was just queued
+            }
+            outbox.flushing = true;
+        }
+        boolean evict = false;
+        try {
+            while (true) {
+                Object event;
+                Table table = null;
+                synchronized (outbox) {
+                    if (outbox.evicted) {
+                        return;
+                    }
+                    if (!hasRoom(connection, outbox)) {
+                        evict = stalledTooLong(outbox);
+                        return;
+                    }
+                    event = nextEvent(outbox);
+                    if (event == null) {
+                        table = outbox.dirtyTable;
+                        outbox.dirtyTable = null;
+                        if (table == null) {
+                            return;
+                        }
+                    }
+                }
+                // Sent outside the outbox lock, building the state takes the table's lock
+                if (event != null) {
+                    sent(connection.sendTCP(event));
+                } else {
+                    Object update;
+                    synchronized (table) {
+                        update = stateBuilder.apply(table, connection);
+                    }
+                    if (update != null) {
+                        long sendStarted = System.nanoTime();
+                        sent(connection.sendTCP(update));
+                        // Only counted when this thread is the one applying an action at the table
+                        if (table.getTrace() != null) {
+                            table.getTrace().add(HandTrace.Stage.SEND, System.nanoTime() - sendStarted);
+                        }
+                    }
+                }
+            }
+        } finally {
+            synchronized (outbox) {
+                outbox.flushing = false;
+            }
+            if (evict) {
+                close(connection, outbox, connection.getTcpWriteBufferSize() + " bytes unsent for " + stallMillis + " ms");
+            }
+        }
+    }
+
+    // Called with the outbox locked, takes the next message off the front batch before moving on
+    private static Object nextEvent(Outbox outbox) {
+        Object head = outbox.events.peek();
+        if (!(head instanceof Batch)) {
+            return outbox.events.poll();
+        }
+        Batch batch = (Batch) head;
+        Object event = batch.rest.next();
+        if (!batch.rest.hasNext()) {
+            outbox.events.poll();
+        }
+        return event;
+    }
+
+    private static void sent(int bytes) {
+        messagesSent.increment();
+        bytesSent.add(bytes);
+    }
+
+    /**
+     * Closing runs the disconnect handling, which takes the table manager's lock and then the table's.
+     * Flushes run under a table's lock (PokerServer.applyAction broadcasts while holding it), so closing
+     * there would take the two locks the other way round from a join. The close is handed to the
+     * closer thread instead, which gets to it once the caller has let go of its locks.
+     */
+    private void close(Connection connection, Outbox outbox, String reason) {
+        log.warn("Closing connection, it stopped reading", "connection", connection.getID(), "reason", reason);
+        evictions.increment();
+        outboxes.remove(connection, outbox);
+        closer.execute(connection::close);
+    }
+
+    // Called with the outbox locked
+    private boolean hasRoom(Connection connection, Outbox outbox) {
+        if (connection.getTcpWriteBufferSize() < maxBufferedBytes) {
+            outbox.stalledSince = -1;
+            return true;
+        }
+        return false;
+    }
+
+    // Called with the outbox locked when there is no room, marks the outbox evicted once it has waited too long
+    private boolean stalledTooLong(Outbox outbox) {
+        long now = System.currentTimeMillis();
+        if (outbox.stalledSince < 0) {
+            outbox.stalledSince = now;
+        }
+        if (now - outbox.stalledSince < stallMillis) {
+            return false;
+        }
+        markEvicted(outbox);
+        return true;
+    }
+
+    private static void markEvicted(Outbox outbox) {
+        outbox.evicted = true;
+        outbox.events.clear();
+        outbox.dirtyTable = null;
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.broskipoker.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Requests sent on one connection that are still waiting for their answer.
+ * <p>
+ * Each request carries an id the server copies into its response. The response is matched back
+ * by that id and completes the future handed out when the request was sent, so callers continue
+ * the moment the answer lands instead of sleeping and polling a flag. A request nobody answers
+ * fails with a TimeoutException.
+ */
+public class PendingRequests {
+    private final long timeoutMillis;
+    private final AtomicInteger lastId = new AtomicInteger();
+    private final Map<Integer, CompletableFuture<Object>> pending = new ConcurrentHashMap<>();
+
+    public PendingRequests(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * @return an id for the next request, never 0, which marks messages nobody asked for
+     */
+    public int nextId() {
+        int id;
+        do {
+            id = lastId.incrementAndGet();
+        } while (id == 0);
+        return id;
+    }
+
+    /**
+     * Starts waiting for the answer to a request, call before the request goes out
+     * @return completes with the response, or fails on timeout, disconnect or a response of the wrong type
+     */
+    public <T> CompletableFuture<T> register(int id, Class<T> responseType) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        pending.put(id, future);
+        // Chained after the removal so a caller woken by the answer never still sees it pending
+        return future.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+            .whenComplete((response, error) -> pending.remove(id, future))
+            .thenApply(responseType::cast);
+    }
+
+    /**
+     * Hands a response to whoever is waiting for it
+     * @return false if nobody was, the request timed out or the id is 0
+     */
+    public boolean complete(int id, Object response) {
+        CompletableFuture<Object> future = pending.remove(id);
+        return future != null && future.complete(response);
+    }
+
+    // The connection is gone, nothing is coming back
+    public void failAll(Throwable error) {
+        List<CompletableFuture<Object>> waiting = new ArrayList<>(pending.values());
+        pending.clear();
+        for (CompletableFuture<Object> future : waiting) {
+            future.completeExceptionally(error);
+        }
+    }
+
+    public int size() {
+        return pending.size();
+    }
+}
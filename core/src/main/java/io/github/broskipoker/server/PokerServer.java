@@ -2,143 +2,207 @@ package io.github.broskipoker.server;
 
 import com.esotericsoftware.kryonet.*;
 import io.github.broskipoker.shared.*;
+import io.github.broskipoker.game.PokerBot;
 import io.github.broskipoker.game.PokerGame;
 import io.github.broskipoker.game.Player;
+import io.github.broskipoker.game.User;
+import io.github.broskipoker.utils.ChipLedger;
+import io.github.broskipoker.utils.DatabaseConnection;
+import io.github.broskipoker.utils.Log;
+import io.github.broskipoker.utils.Metrics;
+import io.github.broskipoker.utils.MetricsEndpoint;
+import io.github.broskipoker.utils.PasswordHasher;
+import io.github.broskipoker.utils.StatsService;
+import io.github.broskipoker.utils.UserService;
+
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 
 public class PokerServer {
     private static final TableManager tableManager = new TableManager();
+    private static final BotScheduler botScheduler = new BotScheduler();
+    private static final TournamentManager tournamentManager =
+        new TournamentManager(tableManager, PokerServer::broadcastGameStateToTable);
+    private static final ShowdownScheduler showdownScheduler =
+        new ShowdownScheduler(PokerServer::broadcastGameStateToTable);
+    private static final SessionManager sessionManager = new SessionManager();
+    // Only the server talks to the database, clients log in through it
+    private static UserService userService;
+    private static StatsService statsService;
+    private static ChipLedger chipLedger;
+
+    private static final int DEFAULT_BUY_IN = 10000;
+    // Buy-ins run one at a time and off the network thread, so one balance is never seated twice
+    private static final ExecutorService buyIns = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "buy-ins");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final Log log = Log.get(PokerServer.class);
+    // Written for every action or refresh, so only a sample of them
+    private static final Log actionLog = log.sampled(100);
+
+    private static final int METRICS_PORT = Integer.getInteger("broski.metrics.port", 9464);
+    private static final Metrics.Counter messagesReceived =
+        Metrics.getInstance().counter("broski_messages_received_total", "Messages received from clients");
+    private static final Metrics.Histogram receiveTime =
+        Metrics.getInstance().histogram("broski_receive_seconds", "Time spent handling one client message");
+    private static final Metrics.Counter actionsApplied =
+        Metrics.getInstance().counter("broski_actions_total", "Player and bot actions applied");
+    private static final Metrics.Histogram actionTime =
+        Metrics.getInstance().histogram("broski_action_seconds", "Time to apply an action and advance the hand");
+    private static final Metrics.Histogram broadcastTime =
+        Metrics.getInstance().histogram("broski_broadcast_seconds", "Time to hand a table's state to every seat");
+    private static final Metrics.Histogram stateBuildTime =
+        Metrics.getInstance().histogram("broski_state_build_seconds", "Time to build one player's GameStateUpdate");
+
+    private static final int PORT = 8080;
+    // "kryonet", or "virtual" for a virtual thread per client, see VirtualThreadServer
+    private static final String TRANSPORT = System.getProperty("broski.transport", "kryonet");
+    private static final int WRITE_BUFFER_SIZE = 16384;
+    private static final int OBJECT_BUFFER_SIZE = 8192;
+    // Half the write buffer is kept free so the next message always fits, a client stuck for 10 s is dropped
+    private static final OutboundQueues outbound =
+        new OutboundQueues(WRITE_BUFFER_SIZE / 2, 10_000, 256, PokerServer::buildGameState);
 
     public static void main(String[] args) throws Exception {
-        Server server = new Server(16384, 8192); // Set reasonable buffer sizes
-        NetworkRegistration.register(server.getKryo());
-        server.start();
-        server.bind(8080);
-
-        System.out.println("PokerServer with multi-table support running on port 8080!");
-
-        // Add IP blacklist for repeat offenders
-        java.util.Set<String> blacklistedIPs = new java.util.HashSet<>();
-
-        server.addListener(new Listener() {
+        tableManager.getLobbyService().setOutbound(outbound);
+        tournamentManager.setOutbound(outbound);
+        tableManager.getLobbyService().start();
+        tournamentManager.start();
+
+        userService = new UserService(DatabaseConnection.getInstance());
+
+        // Hand results are written to the database in batches, journaled locally until then
+        chipLedger = new ChipLedger(DatabaseConnection.getInstance(), Paths.get("ledger"), 5000, 500);
+        chipLedger.start();
+        showdownScheduler.setChipLedger(chipLedger);
+
+        // Leaderboards are served from memory and saved every minute
+        statsService = new StatsService(DatabaseConnection.getInstance(), 60_000);
+        statsService.start();
+        showdownScheduler.setStatsService(statsService);
+
+        // Scraped by Prometheus over loopback, also visible in JConsole
+        Metrics metrics = Metrics.getInstance();
+        metrics.gauge("broski_tables", "Open tables", tableManager::getTableCount);
+        MetricsEndpoint metricsEndpoint = new MetricsEndpoint(metrics);
+        metricsEndpoint.addPage("/traces", PokerServer::dumpTraces);
+        metricsEndpoint.start(METRICS_PORT);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            metricsEndpoint.stop();
+            chipLedger.stop();
+            statsService.stop();
+            userService.shutdown();
+        }, "database-shutdown"));
+
+        // Add IP blacklist for repeat offenders, the virtual thread transport checks it from many threads
+        java.util.Set<String> blacklistedIPs = ConcurrentHashMap.newKeySet();
+
+        Listener listener = new Listener() {
             @Override
             public void connected(Connection connection) {
-                System.out.println("New client connected: " + connection.getID());
-
                 try {
                     // Get client IP for logging/security
                     String clientIP = connection.getRemoteAddressTCP().getAddress().getHostAddress();
-                    System.out.println("Client IP: " + clientIP);
+                    log.info("Client connected", "connection", connection.getID(), "ip", clientIP);
 
                     // Check if this IP is blacklisted
                     if (blacklistedIPs.contains(clientIP)) {
-                        System.out.println("Rejected blacklisted IP: " + clientIP);
+                        log.warn("Rejected blacklisted IP", "connection", connection.getID(), "ip", clientIP);
                         connection.close();
                         return;
                     }
                 } catch (Exception e) {
-                    System.out.println("Error checking client IP: " + e.getMessage());
+                    log.warn("Error checking client IP", e, "connection", connection.getID());
                 }
             }
 
             @Override
             public void disconnected(Connection connection) {
-                System.out.println("Client disconnected: " + connection.getID());
+                log.info("Client disconnected", "connection", connection.getID());
+                outbound.remove(connection);
+                sessionManager.detach(connection);
+                tableManager.getLobbyService().unsubscribe(connection);
                 Table table = tableManager.getTableByConnection(connection);
                 if (table != null) {
+                    if (table.isListed()) {
+                        foldIfToAct(table, connection);
+                    }
                     tableManager.leaveTable(connection);
                     broadcastGameStateToTable(table);
                 }
             }
 
+            // The write buffer has drained, send what waited for room
+            @Override
+            public void idle(Connection connection) {
+                outbound.onIdle(connection);
+            }
+
             @Override
             public void received(Connection connection, Object object) {
+                long receivedAt = System.nanoTime();
+                messagesReceived.increment();
                 try {
-                    // Print the object class for debugging
-//                    System.out.println("Received object of type: " + (object != null ? object.getClass().getName() : "null"));
-
                     // Check for extremely large payloads (likely malicious)
                     if (object != null && object.toString().length() > 1000000) {
-                        System.out.println("Received suspiciously large payload from connection: " + connection.getID());
                         String clientIP = connection.getRemoteAddressTCP().getAddress().getHostAddress();
-                        System.out.println("Blocking malicious large payload from IP: " + clientIP);
+                        log.warn("Blocking IP after oversized payload", "connection", connection.getID(), "ip", clientIP);
                         blacklistedIPs.add(clientIP);
                         connection.close();
                         return;
                     }
 
+                    // Handle login, either with a password or with the token of an earlier login
+                    if (object instanceof LoginRequest) {
+                        handleLogin(connection, (LoginRequest) object);
+                        return;
+                    }
+
+                    if (object instanceof RegisterRequest) {
+                        handleRegister(connection, (RegisterRequest) object);
+                        return;
+                    }
+
                     // Handle table creation
                     if (object instanceof CreateTableRequest) {
                         CreateTableRequest req = (CreateTableRequest) object;
-                        Table table = tableManager.createTable(req.smallBlind, req.bigBlind);
-                        table.addPlayer(connection, req.username, req.chips);
-
-                        CreateTableResponse resp = new CreateTableResponse();
-                        resp.code = table.getCode();
-                        resp.success = true;
-                        connection.sendTCP(resp);
-
-                        // Send initial game state to this player
-                        sendGameStateToPlayer(table, connection);
+                        User user = sessionManager.getUser(connection);
+                        if (user == null) {
+                            CreateTableResponse resp = new CreateTableResponse();
+                            resp.requestId = req.requestId;
+                            resp.success = false;
+                            resp.failReason = "Please log in first";
+                            outbound.sendEvent(connection, resp);
+                            return;
+                        }
+                        buyIns.execute(() -> createTable(connection, user.getUsername(), req));
                         return;
                     }
 
                     // Handle join by code
                     if (object instanceof JoinTableRequest) {
                         JoinTableRequest req = (JoinTableRequest) object;
-                        Table table = tableManager.joinTableByCode(connection, req.code, req.username, req.chips);
-                        JoinTableResponse resp = new JoinTableResponse();
-                        if (table != null) {
-                            resp.success = true;
-                            resp.code = req.code;
-
-                            // If enough players, start the game/hand
-                            PokerGame pokerGame = table.getPokerGame();
-                            if (pokerGame.getPlayers().size() >= 2 &&
-                                pokerGame.getGameState() == PokerGame.GameState.WAITING_FOR_PLAYERS) {
-                                pokerGame.startNewHand();
-                            }
-
-                            // Send initial game state to this player
-                            sendGameStateToPlayer(table, connection);
-
-                            // Broadcast new game state to all players at this table
-                            broadcastGameStateToTable(table);
-                        } else {
+                        User user = sessionManager.getUser(connection);
+                        if (user == null) {
+                            JoinTableResponse resp = new JoinTableResponse();
+                            resp.requestId = req.requestId;
                             resp.success = false;
-                            resp.failReason = "Table not found or full";
-                        }
-                        connection.sendTCP(resp);
-                        return;
-                    }
-
-                    // Handle login request (for backward compatibility with single table)
-                    if (object instanceof LoginRequest) {
-                        LoginRequest login = (LoginRequest) object;
-                        System.out.println("Login from: " + login.username);
-
-                        // Create a default table or join an existing one
-                        Table table = findOrCreateDefaultTable();
-                        table.addPlayer(connection, login.username, 10000);
-                        tableManager.joinExistingTable(connection, table);
-
-                        // Send login response
-                        LoginResponse resp = new LoginResponse();
-                        resp.success = true;
-                        resp.message = "Welcome, " + login.username + "!";
-                        connection.sendTCP(resp);
-
-                        // If enough players, start the game/hand
-                        PokerGame pokerGame = table.getPokerGame();
-                        if (pokerGame.getPlayers().size() >= 2 &&
-                            pokerGame.getGameState() == PokerGame.GameState.WAITING_FOR_PLAYERS) {
-                            pokerGame.startNewHand();
+                            resp.failReason = "Please log in first";
+                            outbound.sendEvent(connection, resp);
+                            return;
                         }
-
-                        // Send initial game state to this player
-                        sendGameStateToPlayer(table, connection);
-
-                        // Broadcast new game state to all players at this table
-                        broadcastGameStateToTable(table);
+                        buyIns.execute(() -> joinTable(connection, user.getUsername(), req));
                         return;
                     }
 
@@ -152,59 +216,169 @@ public class PokerServer {
                         }
                         // If still no table found, log and return
                         if (table == null) {
-                            System.out.println("Unknown player action from connection: " + connection.getID());
+                            log.warn("Action for unknown table", "connection", connection.getID(), "table", action.tableCode);
                             return;
                         }
 
-                        PokerGame pokerGame = table.getPokerGame();
-                        int playerIndex = getPlayerIndexInTable(table, connection);
+                        synchronized (table) {
+                            PokerGame pokerGame = table.getPokerGame();
+                            int playerIndex = getPlayerIndexInTable(table, connection);
 
-                        if (playerIndex == -1) {
-                            System.out.println("Player not found in table for connection: " + connection.getID());
-                            return;
+                            if (playerIndex == -1) {
+                                log.warn("Action from a connection not seated at the table", "connection", connection.getID(),
+                                    "table", table.getCode());
+                                return;
+                            }
+                            table.acknowledgeAction(connection, action.sequence);
+
+                            PokerGame.PlayerAction act;
+                            try {
+                                act = action.action;
+                            } catch (Exception e) {
+                                log.warn("Invalid action", "connection", connection.getID(), "action", action.action);
+                                return;
+                            }
+
+                            // Only allow action if this is the current player
+                            if (pokerGame.getCurrentPlayerIndex() != playerIndex) {
+                                actionLog.debug("Action out of turn", "table", table.getCode(),
+                                    "current", pokerGame.getCurrentPlayerIndex(), "seat", playerIndex);
+                                // The client has already shown the action, the current state takes it back
+                                sendGameStateToPlayer(table, connection);
+                                return;
+                            }
+
+                            actionLog.debug("Action", "table", table.getCode(), "seat", playerIndex,
+                                "action", act, "amount", action.amount);
+                            applyAction(table, act, action.amount, receivedAt);
                         }
+                        return;
+                    }
 
-                        Player player = pokerGame.getPlayers().get(playerIndex);
+                    // Handle bot seat requests from the host
+                    if (object instanceof AddBotRequest) {
+                        AddBotRequest req = (AddBotRequest) object;
+                        Table table = tableManager.getTableByCode(req.tableCode);
 
-                        PokerGame.PlayerAction act;
-                        try {
-                            act = action.action;
-                        } catch (Exception e) {
-                            System.out.println("Invalid action string: " + action.action);
-                            return;
+                        AddBotResponse resp = new AddBotResponse();
+                        if (table == null) {
+                            resp.success = false;
+                            resp.message = "Table not found";
+                        } else if (table.getConnections().get(0) != connection) {
+                            resp.success = false;
+                            resp.message = "Only the host can add bots";
+                        } else {
+                            synchronized (table) {
+                                PokerBot.BotStrategy strategy = req.strategy != null ? req.strategy : PokerBot.BotStrategy.BALANCED;
+                                // Bots play for no account, but never with more than the usual buy-in
+                                int maxChips = (int) Math.min(Integer.MAX_VALUE, table.getPokerGame().getBigBlind() * 100L);
+                                int chips = req.chips > 0 ? Math.min(req.chips, maxChips) : maxChips;
+                                int seat = table.addBot("Bot " + (table.getBotCount() + 1), chips, strategy);
+                                resp.success = seat != -1;
+                                resp.message = seat != -1 ? "Bot added" : "Table is full";
+                            }
+                            if (resp.success) {
+                                broadcastGameStateToTable(table);
+                            }
                         }
+                        outbound.sendEvent(connection, resp);
+                        return;
+                    }
 
-                        // Only allow action if this is the current player
-                        if (pokerGame.getCurrentPlayerIndex() != playerIndex) {
-                            System.out.println("pokerGame.getCurrentPlayerIndex() != playerIndex == true");
-                            System.out.println("Current player index: " + pokerGame.getCurrentPlayerIndex() +
-                                               ", Player index: " + playerIndex);
+                    // Handle run it twice votes once the hand is all-in
+                    if (object instanceof RunItTwiceRequest) {
+                        RunItTwiceRequest req = (RunItTwiceRequest) object;
+                        Table table = tableManager.getTableByConnection(connection);
+                        if (table == null) {
                             return;
                         }
+                        boolean accepted;
+                        synchronized (table) {
+                            int playerIndex = getPlayerIndexInTable(table, connection);
+                            accepted = table.getPokerGame().voteRunouts(playerIndex, req.times);
+                        }
+                        if (accepted) {
+                            broadcastGameStateToTable(table);
+                        } else {
+                            log.debug("Run it twice vote rejected", "connection", connection.getID(), "table", table.getCode());
+                        }
+                        return;
+                    }
+
+                    // Handle tournament registration
+                    if (object instanceof TournamentRegisterRequest) {
+                        TournamentRegisterRequest req = (TournamentRegisterRequest) object;
+                        User user = sessionManager.getUser(connection);
+                        Tournament tournament = null;
+                        if (user != null) {
+                            tournament = req.tournamentId == null
+                                ? tournamentManager.registerForSitAndGo(connection, user.getUsername())
+                                : tournamentManager.register(req.tournamentId, connection, user.getUsername());
+                        }
 
-                        pokerGame.performAction(act, action.amount);
+                        TournamentRegisterResponse resp = new TournamentRegisterResponse();
+                        resp.success = tournament != null;
+                        resp.tournamentId = tournament != null ? tournament.getId() : req.tournamentId;
+                        resp.message = tournament != null ? "Registered, waiting for the tournament to start"
+                            : user == null ? "Please log in first" : "Tournament not found, already running or full";
+                        outbound.sendEvent(connection, resp);
+                        return;
+                    }
 
-                        // If round/game needs progressing, do so
-                        if (!pokerGame.needsPlayerAction()) {
-                            // Progress the game state
-                            pokerGame.update(0.1f);
+                    if (object instanceof TournamentCreateRequest) {
+                        TournamentCreateRequest req = (TournamentCreateRequest) object;
+                        User user = sessionManager.getUser(connection);
+                        Tournament tournament = user != null
+                            ? tournamentManager.createMultiTable(req.maxEntrants, req.startInMinutes, System.currentTimeMillis())
+                            : null;
+                        if (tournament != null) {
+                            tournament.register(connection, user.getUsername(), null);
+                            log.info("Tournament opened", "tournament", tournament.getId(), "user", user.getUsername(),
+                                "maxEntrants", req.maxEntrants, "startInMinutes", req.startInMinutes);
+                        }
 
-                            // Continue updating until player action is needed or showdown is reached
-                            while (!pokerGame.needsPlayerAction() &&
-                                   pokerGame.getGameState() != PokerGame.GameState.SHOWDOWN) {
-                                pokerGame.update(0.1f);
-                            }
+                        TournamentRegisterResponse resp = new TournamentRegisterResponse();
+                        resp.success = tournament != null;
+                        resp.tournamentId = tournament != null ? tournament.getId() : null;
+                        resp.message = tournament != null ? "Tournament opened, starts in " + req.startInMinutes + " min"
+                            : user == null ? "Please log in first" : "Between 2 and 1000 players, starting within a day";
+                        outbound.sendEvent(connection, resp);
+                        return;
+                    }
+
+                    if (object instanceof LeaderboardRequest) {
+                        LeaderboardRequest req = (LeaderboardRequest) object;
+                        StatsService.Leaderboard leaderboard = req.leaderboard != null ? req.leaderboard : StatsService.Leaderboard.NET_CHIPS;
+                        int limit = Math.max(1, Math.min(req.limit > 0 ? req.limit : 10, 100));
+
+                        LeaderboardResponse resp = new LeaderboardResponse();
+                        resp.leaderboard = leaderboard;
+                        resp.entries = new ArrayList<>();
+                        for (StatsService.Standing standing : statsService.getLeaderboard(leaderboard, limit)) {
+                            LeaderboardEntry entry = new LeaderboardEntry();
+                            entry.rank = resp.entries.size() + 1;
+                            entry.username = standing.getUsername();
+                            entry.value = standing.getValue();
+                            resp.entries.add(entry);
                         }
+                        outbound.sendEvent(connection, resp);
+                        return;
+                    }
 
-                        // Broadcast updated game state to all players at this table
-                        broadcastGameStateToTable(table);
+                    // Handle lobby listing subscriptions
+                    if (object instanceof LobbySubscribeRequest) {
+                        LobbySubscribeRequest req = (LobbySubscribeRequest) object;
+                        if (req.subscribe) {
+                            tableManager.getLobbyService().subscribe(connection);
+                        } else {
+                            tableManager.getLobbyService().unsubscribe(connection);
+                        }
                         return;
                     }
 
                     // Handle game state refresh requests
                     if (object instanceof GameStateRequest) {
                         GameStateRequest req = (GameStateRequest) object;
-                        System.out.println("Server received GameStateRequest for table: " + req.tableCode);
 
                         // Find the table by code
                         Table table = tableManager.getTableByCode(req.tableCode);
@@ -212,9 +386,10 @@ public class PokerServer {
                         if (table != null) {
                             // Send game state to the requesting player
                             sendGameStateToPlayer(table, connection);
-                            System.out.println("Server sent GameStateUpdate for table: " + req.tableCode);
+                            actionLog.debug("Game state requested", "connection", connection.getID(), "table", req.tableCode);
                         } else {
-                            System.out.println("Table not found for code: " + req.tableCode);
+                            log.debug("Game state requested for unknown table", "connection", connection.getID(),
+                                "table", req.tableCode);
                         }
                         return;
                     }
@@ -224,7 +399,10 @@ public class PokerServer {
                         Table table = tableManager.getTableByCode(req.tableCode);
 
                         StartGameResponse resp = new StartGameResponse();
-                        if (table != null) {
+                        if (table != null && !table.isListed()) {
+                            resp.success = false;
+                            resp.message = "Tournament hands are dealt by the tournament";
+                        } else if (table != null) {
                             // Check if this is the host (first player in the table)
                             if (table.getConnections().get(0) == connection) {
                                 // Start the game
@@ -233,18 +411,21 @@ public class PokerServer {
 //                                    pokerGame.getPlayers().size() >= 2) {
                                 if (true) { // igore for now, debug TODO: add back later
 
-                                    pokerGame.startNewHand();
+                                    table.startNewHand();
                                     resp.success = true;
                                     resp.message = "Game started successfully";
+                                    log.info("Game started", "table", table.getCode(),
+                                        "seats", table.getConnections().size());
 
                                     // send startgame response to all players
                                     for (Connection playerConnection : table.getConnections()) {
-                                        System.out.println("Sending StartGameResponse to player: " + playerConnection.getID()
-                                            + ", table has " + table.getConnections().size() + " connected players");
+                                        if (playerConnection == null) {
+                                            continue; // bot seat
+                                        }
                                         StartGameResponse playerResponse = new StartGameResponse();
                                         playerResponse.success = true;
                                         playerResponse.message = "Game started successfully";
-                                        playerConnection.sendTCP(playerResponse);
+                                        outbound.sendEvent(playerConnection, playerResponse);
                                     }
 
                                     // Broadcast the updated game state to all players
@@ -262,46 +443,363 @@ public class PokerServer {
                             resp.message = "Table not found";
                         }
 
-                        connection.sendTCP(resp);
+                        outbound.sendEvent(connection, resp);
                         return;
                     }
                 } catch (Exception e) {
-                    System.out.println("Error processing request from connection: " + connection.getID() + ", error: " + e.getMessage());
+                    log.error("Error processing request", e, "connection", connection.getID(),
+                        "type", object != null ? object.getClass().getSimpleName() : null);
+                } finally {
+                    receiveTime.recordSince(receivedAt);
                 }
             }
-        });
+        };
+
+        Supplier<Connection[]> connections;
+        if ("virtual".equals(TRANSPORT)) {
+            VirtualThreadServer server = new VirtualThreadServer(WRITE_BUFFER_SIZE, OBJECT_BUFFER_SIZE, listener);
+            server.bind(PORT);
+            connections = server::getConnections;
+        } else {
+            Server server = new Server(WRITE_BUFFER_SIZE, OBJECT_BUFFER_SIZE);
+            NetworkRegistration.register(server.getKryo());
+            server.addListener(listener);
+            server.start();
+            server.bind(PORT);
+            connections = server::getConnections;
+        }
+        metrics.gauge("broski_connections", "Open client connections", () -> connections.get().length);
+        log.info("PokerServer running", "port", PORT, "transport", TRANSPORT);
 
         while (true) Thread.sleep(10000);
     }
 
-    private static void broadcastGameStateToTable(Table table) {
+    // Applies an action for the current player and advances the game. Callers must hold the table lock.
+    static void applyAction(Table table, PokerGame.PlayerAction act, int amount) {
+        applyAction(table, act, amount, System.nanoTime());
+    }
+
+    // arrivedAt is the nanoTime the action reached the server, the start of its trace span
+    private static void applyAction(Table table, PokerGame.PlayerAction act, int amount, long arrivedAt) {
+        long startedAt = System.nanoTime();
+        actionsApplied.increment();
+        PokerGame pokerGame = table.getPokerGame();
+        HandTrace trace = table.getTrace();
+        if (trace != null) {
+            trace.begin(pokerGame.getHandNumber(), arrivedAt);
+            trace.add(HandTrace.Stage.QUEUED, startedAt - arrivedAt);
+        }
+        boolean wasShowdown = pokerGame.getGameState() == PokerGame.GameState.SHOWDOWN;
+        int potBefore = pokerGame.getPot();
+        pokerGame.performAction(act, amount);
+        table.markActionApplied();
+        long performedAt = System.nanoTime();
+
+        // If round/game needs progressing, do so
+        if (!pokerGame.needsPlayerAction()) {
+            // Progress the game state
+            pokerGame.update(0.1f);
+
+            // Continue updating until player action is needed or showdown is reached
+            while (!pokerGame.needsPlayerAction() &&
+                   pokerGame.getGameState() != PokerGame.GameState.SHOWDOWN) {
+                pokerGame.update(0.1f);
+            }
+        }
+
+        // A win by fold pays out the pot immediately, so fall back to the pot before the action
+        if (!wasShowdown && pokerGame.getGameState() == PokerGame.GameState.SHOWDOWN) {
+            tableManager.getLobbyService().onHandFinished(table.getCode(), Math.max(potBefore, pokerGame.getPot()));
+            // Tournaments pay out and deal their own tables
+            if (table.isListed()) {
+                showdownScheduler.onShowdown(table);
+            }
+        }
+        long advancedAt = System.nanoTime();
+        actionTime.record(advancedAt - startedAt);
+        if (trace != null) {
+            trace.add(HandTrace.Stage.ACTION, performedAt - startedAt);
+            trace.add(HandTrace.Stage.ADVANCE, advancedAt - performedAt);
+        }
+
+        // Broadcast updated game state to all players at this table
+        broadcastGameStateToTable(table);
+
+        if (trace != null) {
+            HandTrace.Stage slow = trace.end();
+            if (slow != null) {
+                reportSlowAction(table, slow);
+            }
+        }
+    }
+
+    // A player leaving a cash table on their turn folds, so the hand goes on without them
+    private static void foldIfToAct(Table table, Connection connection) {
+        synchronized (table) {
+            PokerGame pokerGame = table.getPokerGame();
+            int seat = getPlayerIndexInTable(table, connection);
+            if (seat != -1 && table.isHandInProgress() && pokerGame.needsPlayerAction()
+                && pokerGame.getCurrentPlayerIndex() == seat) {
+                applyAction(table, PokerGame.PlayerAction.FOLD, 0);
+            }
+        }
+    }
+
+    private static void reportSlowAction(Table table, HandTrace.Stage stage) {
+        StringBuilder spans = new StringBuilder();
+        table.getTrace().dump(spans);
+        log.warn("Action over its latency budget", "table", table.getCode(), "stage", stage);
+        for (String span : spans.toString().split("\n")) {
+            log.warn("Trace", "span", span);
+        }
+    }
+
+    // Every table's recent spans, served at /traces
+    private static String dumpTraces() {
+        StringBuilder out = new StringBuilder();
+        for (Table table : tableManager.getTables()) {
+            if (table.getTrace() != null) {
+                table.getTrace().dump(out);
+            }
+        }
+        return out.toString();
+    }
+
+    static void broadcastGameStateToTable(Table table) {
+        long startedAt = System.nanoTime();
         PokerGame pokerGame = table.getPokerGame();
-        for (int i = 0; i < table.getConnections().size(); i++) {
-            Connection connection = table.getConnections().get(i);
-            if (i < pokerGame.getPlayers().size()) {
-                Player player = pokerGame.getPlayers().get(i);
-                GameStateUpdate update = PokerConverters.toGameStateUpdate(pokerGame, player);
-                connection.sendTCP(update);
+        List<Connection> connections = table.getConnections();
+        for (int i = 0; i < connections.size(); i++) {
+            Connection connection = connections.get(i);
+            // Bot seats have no connection
+            if (connection != null && i < pokerGame.getPlayers().size()) {
+                outbound.sendState(connection, table);
             }
         }
+        broadcastTime.recordSince(startedAt);
+
+        // Let a bot seat know if it is its turn
+        botScheduler.onTableUpdated(table);
     }
 
     private static void sendGameStateToPlayer(Table table, Connection connection) {
+        outbound.sendState(connection, table);
+    }
+
+    // Built when the connection has room for it, called with the table locked
+    private static GameStateUpdate buildGameState(Table table, Connection connection) {
         PokerGame pokerGame = table.getPokerGame();
         int playerIndex = getPlayerIndexInTable(table, connection);
-        if (playerIndex != -1 && playerIndex < pokerGame.getPlayers().size()) {
-            Player player = pokerGame.getPlayers().get(playerIndex);
-            GameStateUpdate update = PokerConverters.toGameStateUpdate(pokerGame, player);
-            connection.sendTCP(update);
+        if (playerIndex == -1 || playerIndex >= pokerGame.getPlayers().size()) {
+            return null;
         }
+        long startedAt = System.nanoTime();
+        Player player = pokerGame.getPlayers().get(playerIndex);
+        GameStateUpdate update = PokerConverters.toGameStateUpdate(pokerGame, player);
+        update.lastActionSequence = table.getLastActionSequence(connection);
+        long took = System.nanoTime() - startedAt;
+        stateBuildTime.record(took);
+        if (table.getTrace() != null) {
+            table.getTrace().add(HandTrace.Stage.CONVERT, took);
+        }
+        return update;
     }
 
     private static int getPlayerIndexInTable(Table table, Connection connection) {
         return table.getConnections().indexOf(connection);
     }
 
-    private static Table findOrCreateDefaultTable() {
-        // For backward compatibility, create a default table with standard blinds
-        return tableManager.createTable(50, 100);
+    private static void handleLogin(Connection connection, LoginRequest login) {
+        if (login.sessionToken != null) {
+            SessionManager.Session session = sessionManager.resume(connection, login.sessionToken);
+            LoginResponse resp = session != null
+                ? loginSucceeded(session)
+                : new LoginResponse(false, "Session expired, please log in again", 0);
+            resp.requestId = login.requestId;
+            outbound.sendEvent(connection, resp);
+            if (session != null) {
+                tournamentManager.reattach(connection, session.getUser().getUsername());
+            }
+            return;
+        }
+
+        // The database and BCrypt work happen off the network thread, the answer is sent when it's done
+        String clientIP = connection.getRemoteAddressTCP() != null
+            ? connection.getRemoteAddressTCP().getAddress().getHostAddress() : null;
+        userService.authenticateAsync(login.username, login.password, clientIP).whenComplete((user, error) -> {
+            LoginResponse resp;
+            if (error != null) {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                resp = new LoginResponse(false, cause instanceof PasswordHasher.RateLimitedException
+                    ? "Too many attempts, please wait a minute" : "Server busy, please try again", 0);
+            } else if (user.isPresent()) {
+                log.info("Login", "user", user.get().getUsername(), "connection", connection.getID());
+                resp = loginSucceeded(sessionManager.open(connection, user.get()));
+            } else {
+                resp = new LoginResponse(false, "Invalid username or password", 0);
+            }
+            resp.requestId = login.requestId;
+            outbound.sendEvent(connection, resp);
+            // Seats in tournaments still running are handed back once the client knows it is logged in
+            if (resp.success) {
+                tournamentManager.reattach(connection, user.get().getUsername());
+            }
+        });
+    }
+
+    private static LoginResponse loginSucceeded(SessionManager.Session session) {
+        User user = session.getUser();
+        LoginResponse resp = new LoginResponse(true, "Welcome, " + user.getUsername() + "!", user.getId());
+        resp.sessionToken = session.getToken();
+        resp.username = user.getUsername();
+        resp.email = user.getEmail();
+        resp.chips = user.getChips();
+        resp.gamesPlayed = user.getGamesPlayed();
+        resp.wins = user.getWins();
+        resp.losses = user.getLosses();
+        return resp;
+    }
+
+    private static void handleRegister(Connection connection, RegisterRequest req) {
+        RegisterResponse resp = new RegisterResponse();
+        resp.requestId = req.requestId;
+        if (req.username == null || req.username.trim().length() < 3 ||
+            req.password == null || req.password.length() < 3) {
+            resp.message = "Username and password must be at least 3 characters";
+            outbound.sendEvent(connection, resp);
+            return;
+        }
+        String email = req.email == null || req.email.trim().isEmpty() ? null : req.email.trim();
+
+        userService.usernameExistsAsync(req.username).thenCompose(usernameTaken -> {
+            resp.usernameTaken = usernameTaken;
+            if (usernameTaken) {
+                return CompletableFuture.completedFuture(false);
+            }
+            return userService.emailExistsAsync(email).thenCompose(emailTaken -> {
+                resp.emailTaken = emailTaken;
+                return emailTaken ? CompletableFuture.completedFuture(false)
+                    : userService.registerUserAsync(req.username, email, req.password);
+            });
+        }).whenComplete((registered, error) -> {
+            resp.success = error == null && registered;
+            if (resp.usernameTaken) {
+                resp.message = "Username already exists";
+            } else if (resp.emailTaken) {
+                resp.message = "Email already registered";
+            } else if (!resp.success) {
+                resp.message = "Registration failed. Please try again.";
+            }
+            outbound.sendEvent(connection, resp);
+        });
+    }
+
+    // Runs on the buy-ins thread
+    private static void createTable(Connection connection, String username, CreateTableRequest req) {
+        CreateTableResponse resp = new CreateTableResponse();
+        resp.requestId = req.requestId;
+        int buyIn;
+        try {
+            buyIn = buyIn(username, req.chips, req.bigBlind);
+        } catch (SQLException e) {
+            log.warn("Could not read balance for buy-in", e, "user", username);
+            resp.success = false;
+            resp.failReason = "Could not check your balance, please try again";
+            outbound.sendEvent(connection, resp);
+            return;
+        }
+        if (buyIn == 0) {
+            resp.success = false;
+            resp.failReason = "Not enough chips";
+            outbound.sendEvent(connection, resp);
+            return;
+        }
+        if (!connection.isConnected()) {
+            return;
+        }
+        Table table = tableManager.createTable(req.smallBlind, req.bigBlind);
+        table.addPlayer(connection, username, buyIn);
+        tableManager.joinExistingTable(connection, table);
+        if (!connection.isConnected()) {
+            // Gone while being seated, after the disconnect handler ran
+            tableManager.leaveTable(connection);
+            return;
+        }
+
+        resp.code = table.getCode();
+        resp.success = true;
+        outbound.sendEvent(connection, resp);
+
+        // Send initial game state to this player
+        sendGameStateToPlayer(table, connection);
+    }
+
+    // Runs on the buy-ins thread
+    private static void joinTable(Connection connection, String username, JoinTableRequest req) {
+        JoinTableResponse resp = new JoinTableResponse();
+        resp.requestId = req.requestId;
+        Table existing = tableManager.getTableByCode(req.code);
+        int buyIn = 0;
+        if (existing != null) {
+            try {
+                buyIn = buyIn(username, req.chips, existing.getPokerGame().getBigBlind());
+            } catch (SQLException e) {
+                log.warn("Could not read balance for buy-in", e, "user", username);
+                resp.success = false;
+                resp.failReason = "Could not check your balance, please try again";
+                outbound.sendEvent(connection, resp);
+                return;
+            }
+        }
+        if (!connection.isConnected()) {
+            return;
+        }
+        Table table = buyIn > 0 ? tableManager.joinTableByCode(connection, req.code, username, buyIn) : null;
+        if (table != null && !connection.isConnected()) {
+            // Gone while being seated, after the disconnect handler ran
+            tableManager.leaveTable(connection);
+            return;
+        }
+        if (existing != null && buyIn == 0) {
+            resp.success = false;
+            resp.failReason = "Not enough chips";
+        } else if (table != null) {
+            resp.success = true;
+            resp.code = req.code;
+
+            // If enough players, start the game/hand
+            PokerGame pokerGame = table.getPokerGame();
+            synchronized (table) {
+                if (pokerGame.getPlayers().size() >= 2 &&
+                    pokerGame.getGameState() == PokerGame.GameState.WAITING_FOR_PLAYERS) {
+                    table.startNewHand();
+                }
+            }
+
+            // Send initial game state to this player
+            sendGameStateToPlayer(table, connection);
+
+            // Broadcast new game state to all players at this table
+            broadcastGameStateToTable(table);
+        } else {
+            resp.success = false;
+            resp.failReason = "Table not found or full";
+        }
+        outbound.sendEvent(connection, resp);
+    }
+
+    /**
+     * What a player sits down with: what they asked for, at least a big blind, and at most their live
+     * balance less what they have at other tables. Only called on the buy-ins thread.
+     */
+    private static int buyIn(String username, int requested, int bigBlind) throws SQLException {
+        // A hand settling while this runs moves chips from stake to balance or back. Taking the larger
+        // of two stake readings around the balance means that can only make the balance look smaller.
+        long stake = tableManager.getChipsAtStake(username);
+        long balance = chipLedger.getBalance(username);
+        stake = Math.max(stake, tableManager.getChipsAtStake(username));
+        long wanted = requested > 0 ? requested : DEFAULT_BUY_IN;
+        long buyIn = Math.min(wanted, balance - stake);
+        return buyIn >= Math.max(1, bigBlind) ? (int) buyIn : 0;
     }
 }
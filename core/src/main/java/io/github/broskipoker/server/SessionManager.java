@@ -0,0 +1,103 @@
+package io.github.broskipoker.server;
+
+import com.esotericsoftware.kryonet.Connection;
+import io.github.broskipoker.game.User;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which account every connection logged in as.
+ * <p>
+ * A login hands out a random session token. The client opens a new connection for every table,
+ * so it sends the token instead of the password on each of them. Tokens outlive the connection
+ * they were issued on and expire after a while without use.
+ */
+public class SessionManager {
+    private static final long SESSION_TTL_MILLIS = 12 * 60 * 60 * 1000L;
+    private static final int TOKEN_BYTES = 32;
+
+    public static class Session {
+        private final String token;
+        private final User user;
+        private volatile long expiresAt;
+
+        Session(String token, User user, long expiresAt) {
+            this.token = token;
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getToken() {
+            return token;
+        }
+
+        public User getUser() {
+            return user;
+        }
+    }
+
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, Session> sessionsByToken = new ConcurrentHashMap<>();
+    private final Map<Connection, Session> sessionsByConnection = new ConcurrentHashMap<>();
+
+    /**
+     * Starts a session for a user who just proved their password on this connection
+     */
+    public Session open(Connection connection, User user) {
+        pruneExpired();
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        Session session = new Session(token, user, System.currentTimeMillis() + SESSION_TTL_MILLIS);
+        sessionsByToken.put(token, session);
+        sessionsByConnection.put(connection, session);
+        return session;
+    }
+
+    /**
+     * Attaches an existing session to a new connection
+     * @return the session, or null if the token is unknown or expired
+     */
+    public Session resume(Connection connection, String token) {
+        if (token == null) {
+            return null;
+        }
+        Session session = sessionsByToken.get(token);
+        long now = System.currentTimeMillis();
+        if (session == null || session.expiresAt <= now) {
+            sessionsByToken.remove(token);
+            return null;
+        }
+        session.expiresAt = now + SESSION_TTL_MILLIS;
+        sessionsByConnection.put(connection, session);
+        return session;
+    }
+
+    /**
+     * @return the account this connection logged in as, or null if it hasn't
+     */
+    public User getUser(Connection connection) {
+        Session session = sessionsByConnection.get(connection);
+        return session != null ? session.user : null;
+    }
+
+    // The token stays valid, the client reconnects with it
+    public void detach(Connection connection) {
+        sessionsByConnection.remove(connection);
+    }
+
+    private void pruneExpired() {
+        long now = System.currentTimeMillis();
+        Iterator<Session> iterator = sessionsByToken.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().expiresAt <= now) {
+                iterator.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package io.github.broskipoker.server;
+
+import com.esotericsoftware.kryonet.Connection;
+import io.github.broskipoker.game.Player;
+import io.github.broskipoker.game.PokerGame;
+import io.github.broskipoker.utils.ChipLedger;
+import io.github.broskipoker.utils.Log;
+import io.github.broskipoker.utils.Metrics;
+import io.github.broskipoker.utils.StatsService;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Finishes hands on cash tables once the showdown has been on display long enough.
+ * <p>
+ * Pays out the pot, records every human player's result in the chip ledger and their stats,
+ * unless bots played the hand, then deals the next hand. Tournament tables are finished by their tournament instead.
+ */
+public class ShowdownScheduler {
+    private static final Log log = Log.get(ShowdownScheduler.class);
+    private static final Metrics.Histogram payoutTime =
+        Metrics.getInstance().histogram("broski_showdown_seconds", "Time to evaluate the hands and pay out a showdown");
+
+    private final ScheduledExecutorService executor;
+    private final Consumer<Table> onTableChanged;
+    private volatile ChipLedger chipLedger;
+    private volatile StatsService statsService;
+
+    /**
+     * @param onTableChanged called after a hand was paid out and the next one dealt
+     */
+    public ShowdownScheduler(Consumer<Table> onTableChanged) {
+        this.onTableChanged = onTableChanged;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "showdown-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Hand results are only persisted once a ledger is set
+     */
+    public void setChipLedger(ChipLedger chipLedger) {
+        this.chipLedger = chipLedger;
+    }
+
+    public void setStatsService(StatsService statsService) {
+        this.statsService = statsService;
+    }
+
+    /**
+     * Called when a table's hand reaches showdown, must be called with the table locked
+     */
+    public void onShowdown(Table table) {
+        long actionCount = table.getActionCount();
+        long delayMillis = (long) (table.getPokerGame().getSHOWDOWN_DURATION() * 1000);
+        executor.schedule(() -> finishHand(table, actionCount), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void finishHand(Table table, long actionCount) {
+        try {
+            synchronized (table) {
+                PokerGame pokerGame = table.getPokerGame();
+                // Someone restarted the hand in the meantime
+                if (table.getActionCount() != actionCount || pokerGame.getGameState() != PokerGame.GameState.SHOWDOWN) {
+                    return;
+                }
+                long startedAt = System.nanoTime();
+                pokerGame.distributeWinnings();
+                payoutTime.recordSince(startedAt);
+                recordResults(table);
+                table.markHandSettled();
+                table.removeDepartedSeats();
+
+                int playersWithChips = 0;
+                for (Player player : pokerGame.getPlayers()) {
+                    if (player.getChips() > 0) {
+                        playersWithChips++;
+                    }
+                }
+                if (playersWithChips >= 2) {
+                    table.startNewHand();
+                } else {
+                    pokerGame.setGameState(PokerGame.GameState.WAITING_FOR_PLAYERS);
+                    table.markActionApplied();
+                }
+            }
+            onTableChanged.accept(table);
+        } catch (Exception e) {
+            log.error("Could not finish hand", e, "table", table.getCode());
+        }
+    }
+
+    // Only human seats are persisted, including players who left during the hand. Hands against
+    // bots are play money and not persisted at all, see Table.isPlayMoney().
+    private void recordResults(Table table) {
+        ChipLedger ledger = chipLedger;
+        StatsService stats = statsService;
+        if ((ledger == null && stats == null) || table.isPlayMoney()) {
+            return;
+        }
+        PokerGame pokerGame = table.getPokerGame();
+        List<Connection> connections = table.getConnections();
+        List<Player> players = pokerGame.getPlayers();
+        for (int seat = 0; seat < players.size() && seat < connections.size(); seat++) {
+            String name = players.get(seat).getName();
+            int delta = pokerGame.getHandChipDelta(seat);
+            if (ledger != null) {
+                ledger.record(name, delta, 1, delta > 0 ? 1 : 0, delta < 0 ? 1 : 0);
+            }
+            if (stats != null) {
+                stats.recordHand(name, pokerGame.isVoluntarilyPutIn(seat), pokerGame.hasRaisedPreFlop(seat),
+                    delta, pokerGame.getHandPot());
+            }
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -1,37 +1,308 @@
 package io.github.broskipoker.server;
 
 import com.esotericsoftware.kryonet.Connection;
+import io.github.broskipoker.game.PokerBot;
 import io.github.broskipoker.game.PokerGame;
 import io.github.broskipoker.game.Player;
 import java.util.*;
 
 public class Table {
+    // Matches the number of seats the client renders
+    public static final int MAX_PLAYERS = 5;
+    private static final boolean TRACING = Boolean.parseBoolean(System.getProperty("broski.trace", "true"));
+    private static final int TRACE_SPANS = 64;
+
     private final String code;
     private final PokerGame pokerGame;
+    // Seat i in this list is player i in the PokerGame; bot seats hold a null connection
     private final List<Connection> connections = new ArrayList<>();
+    private final Map<Integer, PokerBot.BotStrategy> botSeats = new HashMap<>();
+    // Seats whose player left during a hand, they keep their index until the hand is over
+    private final Set<Integer> departedSeats = new HashSet<>();
+    // From the deal until the hand's results are recorded, including the showdown before the payout
+    private boolean handUnsettled = false;
+    // Bumped every time an action is applied, used to discard stale bot decisions
+    private long actionCount = 0;
+    // Sequence number of the last action handled per connection, sent back so clients drop their predictions
+    private final Map<Connection, Integer> lastActionSequences = new HashMap<>();
+    // Notified when seats change, null when the table is not listed
+    private LobbyService lobbyService;
+    // Unlisted tables (tournament tables) are not in the lobby and cannot be joined by code
+    private final boolean listed;
+    // Spans of the last actions, null when tracing is turned off with -Dbroski.trace=false
+    private final HandTrace trace;
 
     public Table(String code, int smallBlind, int bigBlind) {
+        this(code, smallBlind, bigBlind, true);
+    }
+
+    public Table(String code, int smallBlind, int bigBlind, boolean listed) {
         this.code = code;
         this.pokerGame = new PokerGame(smallBlind, bigBlind);
+        this.pokerGame.setTableCode(code);
+        this.listed = listed;
+        this.trace = TRACING ? new HandTrace(code, TRACE_SPANS) : null;
     }
 
     public synchronized void addPlayer(Connection conn, String username, int chips) {
-        if (!connections.contains(conn)) {
+        if (!connections.contains(conn) && connections.size() < MAX_PLAYERS) {
             pokerGame.addPlayer(username, chips);
             connections.add(conn);
+            notifySeatsChanged();
+        }
+    }
+
+    /**
+     * Seat a server-side bot at this table
+     * @return the seat index of the bot, or -1 if the table is full
+     */
+    public synchronized int addBot(String name, int chips, PokerBot.BotStrategy strategy) {
+        if (connections.size() >= MAX_PLAYERS) {
+            return -1;
         }
+        pokerGame.addPlayer(name, chips);
+        connections.add(null);
+        int seat = connections.size() - 1;
+        botSeats.put(seat, strategy);
+        notifySeatsChanged();
+        return seat;
     }
 
+    /**
+     * Takes a player off the table. Between hands the seat goes at once. During a hand the player
+     * folds and the seat stays empty until {@link #removeDepartedSeats()}, so no other seat moves.
+     */
     public synchronized void removePlayer(Connection conn) {
+        int idx = connections.indexOf(conn);
+        if (idx == -1) {
+            return;
+        }
+        lastActionSequences.remove(conn);
+        if (pokerGame.getGameState() == PokerGame.GameState.WAITING_FOR_PLAYERS) {
+            removeSeat(idx);
+            return;
+        }
+        connections.set(idx, null);
+        departedSeats.add(idx);
+        pokerGame.getPlayers().get(idx).setActive(false);
+        notifySeatsChanged();
+    }
+
+    /**
+     * Removes the seats of players who left during the hand, call once the hand is paid out
+     */
+    public synchronized void removeDepartedSeats() {
+        List<Integer> seats = new ArrayList<>(departedSeats);
+        // Highest first, so the seats still to remove keep their index
+        seats.sort(Collections.reverseOrder());
+        for (int seat : seats) {
+            removeSeat(seat);
+        }
+    }
+
+    /**
+     * Deals the next hand, without the players who left during the last one
+     */
+    public synchronized void startNewHand() {
+        removeDepartedSeats();
+        pokerGame.startNewHand();
+        handUnsettled = true;
+        markActionApplied();
+    }
+
+    /**
+     * Whether chips bet since the deal may still move, true until {@link #markHandSettled()}
+     */
+    public synchronized boolean isHandUnsettled() {
+        return handUnsettled;
+    }
+
+    /**
+     * Called once the hand is paid out and its results recorded
+     */
+    public synchronized void markHandSettled() {
+        handUnsettled = false;
+    }
+
+    public synchronized boolean isDepartedSeat(int seat) {
+        return departedSeats.contains(seat);
+    }
+
+    /**
+     * Hands at a table with a bot seat are play money. Bots have no account to pay or be paid from,
+     * so nothing won or lost there is recorded, for the humans either.
+     */
+    public synchronized boolean isPlayMoney() {
+        return !botSeats.isEmpty();
+    }
+
+    /**
+     * What the player still stands to lose from their account here: their stack as of the start of
+     * a running hand, nothing at a play money table
+     */
+    public synchronized long getChipsAtStake(String username) {
+        if (isPlayMoney()) {
+            return 0;
+        }
+        long stake = 0;
+        List<Player> players = pokerGame.getPlayers();
+        for (int seat = 0; seat < players.size() && seat < connections.size(); seat++) {
+            Player player = players.get(seat);
+            if (!botSeats.containsKey(seat) && player.getName().equals(username)) {
+                int chips = player.getChips();
+                stake += handUnsettled ? Math.max(chips, chips - pokerGame.getHandChipDelta(seat)) : chips;
+            }
+        }
+        return stake;
+    }
+
+    /**
+     * Seats a player moved in from another table. Mid-hand arrivals sit out until the next hand.
+     * @param conn the player's connection, null to seat a bot
+     * @return the new seat index, or -1 if the table is full
+     */
+    public synchronized int seatPlayer(Connection conn, String name, int chips, PokerBot.BotStrategy botStrategy) {
+        if (connections.size() >= MAX_PLAYERS) {
+            return -1;
+        }
+        pokerGame.addPlayer(name, chips);
+        connections.add(conn);
+        int seat = connections.size() - 1;
+        if (conn == null) {
+            botSeats.put(seat, botStrategy != null ? botStrategy : PokerBot.BotStrategy.CONSERVATIVE);
+        }
+        if (isHandInProgress()) {
+            pokerGame.getPlayers().get(seat).setActive(false);
+        }
+        notifySeatsChanged();
+        return seat;
+    }
+
+    /**
+     * Takes a seat away completely, player included. Only safe between hands.
+     * @return the player that held the seat
+     */
+    public synchronized Player removeSeat(int seat) {
+        Player removed = pokerGame.removePlayer(seat);
+        connections.remove(seat);
+
+        // Seats after the removed one shift down by one, in the game and here alike
+        Map<Integer, PokerBot.BotStrategy> shifted = new HashMap<>();
+        for (Map.Entry<Integer, PokerBot.BotStrategy> entry : botSeats.entrySet()) {
+            int botSeat = entry.getKey();
+            if (botSeat != seat) {
+                shifted.put(botSeat > seat ? botSeat - 1 : botSeat, entry.getValue());
+            }
+        }
+        botSeats.clear();
+        botSeats.putAll(shifted);
+        Set<Integer> departed = new HashSet<>();
+        for (int departedSeat : departedSeats) {
+            if (departedSeat != seat) {
+                departed.add(departedSeat > seat ? departedSeat - 1 : departedSeat);
+            }
+        }
+        departedSeats.clear();
+        departedSeats.addAll(departed);
+        notifySeatsChanged();
+        return removed;
+    }
+
+    /**
+     * Hands a disconnected player's seat over to a bot, so the table keeps playing
+     */
+    public synchronized void detachConnection(Connection conn) {
         int idx = connections.indexOf(conn);
         if (idx != -1) {
-            // Mark player as inactive (keep index stable like in original PokerServer)
-            if (idx < pokerGame.getPlayers().size()) {
-                Player player = pokerGame.getPlayers().get(idx);
-                player.setActive(false);
+            connections.set(idx, null);
+            lastActionSequences.remove(conn);
+            botSeats.put(idx, PokerBot.BotStrategy.CONSERVATIVE);
+        }
+    }
+
+    /**
+     * Gives a seat that detachConnection handed to a bot back to its player, mid-hand included
+     * @return false if no seat here is waiting for the player
+     */
+    public synchronized boolean reattachConnection(Connection conn, String username) {
+        List<Player> players = pokerGame.getPlayers();
+        for (int seat = 0; seat < players.size() && seat < connections.size(); seat++) {
+            if (connections.get(seat) == null && botSeats.containsKey(seat) && players.get(seat).getName().equals(username)) {
+                connections.set(seat, conn);
+                botSeats.remove(seat);
+                return true;
             }
-            connections.remove(idx);
         }
+        return false;
+    }
+
+    public synchronized boolean isHandInProgress() {
+        PokerGame.GameState state = pokerGame.getGameState();
+        return state != PokerGame.GameState.WAITING_FOR_PLAYERS && state != PokerGame.GameState.SHOWDOWN;
+    }
+
+    public boolean isListed() {
+        return listed;
+    }
+
+    public synchronized int getSeatCount() {
+        return connections.size();
+    }
+
+    private void notifySeatsChanged() {
+        if (lobbyService != null) {
+            lobbyService.onSeatsChanged(code, connections.size());
+        }
+    }
+
+    public synchronized void setLobbyService(LobbyService lobbyService) {
+        this.lobbyService = lobbyService;
+    }
+
+    public synchronized boolean isBotSeat(int seat) {
+        return botSeats.containsKey(seat);
+    }
+
+    public synchronized PokerBot.BotStrategy getBotStrategy(int seat) {
+        return botSeats.get(seat);
+    }
+
+    public synchronized int getBotCount() {
+        return botSeats.size();
+    }
+
+    // Humans still connected, seats left mid-hand don't count
+    public synchronized int getHumanCount() {
+        int humans = 0;
+        for (Connection connection : connections) {
+            if (connection != null) {
+                humans++;
+            }
+        }
+        return humans;
+    }
+
+    public synchronized void markActionApplied() {
+        actionCount++;
+    }
+
+    public synchronized long getActionCount() {
+        return actionCount;
+    }
+
+    /**
+     * Records that an action sent on this connection was handled, whether or not it was allowed
+     */
+    public synchronized void acknowledgeAction(Connection conn, int sequence) {
+        lastActionSequences.merge(conn, sequence, Math::max);
+    }
+
+    public synchronized int getLastActionSequence(Connection conn) {
+        return lastActionSequences.getOrDefault(conn, 0);
+    }
+
+    public HandTrace getTrace() {
+        return trace;
     }
 
     public String getCode() {
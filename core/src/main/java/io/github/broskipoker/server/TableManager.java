@@ -8,6 +8,7 @@ public class TableManager {
     private static final Map<String, Table> codeToTable = new HashMap<>();
     private final Map<Connection, String> connectionToCode = new HashMap<>();
     private final Random random = new Random();
+    private final LobbyService lobbyService = new LobbyService();
 
     // Generate a random 6-character code (A-Z, 0-9)
     public String generateUniqueTableCode() {
@@ -22,18 +23,59 @@ public class TableManager {
     }
 
     public synchronized Table createTable(int smallBlind, int bigBlind) {
+        return createTable(smallBlind, bigBlind, true);
+    }
+
+    /**
+     * Creates a table, unlisted tables are kept out of the lobby and cannot be joined by code
+     */
+    public synchronized Table createTable(int smallBlind, int bigBlind, boolean listed) {
         String code = generateUniqueTableCode();
-        Table table = new Table(code, smallBlind, bigBlind);
+        Table table = new Table(code, smallBlind, bigBlind, listed);
         codeToTable.put(code, table);
+        if (listed) {
+            lobbyService.onTableAdded(table);
+            table.setLobbyService(lobbyService);
+        }
         return table;
     }
 
+    public synchronized void removeTable(Table table) {
+        codeToTable.remove(table.getCode());
+        connectionToCode.values().removeIf(code -> code.equals(table.getCode()));
+        lobbyService.onTableRemoved(table.getCode());
+    }
+
+    public synchronized int getTableCount() {
+        return codeToTable.size();
+    }
+
+    public synchronized List<Table> getTables() {
+        return new ArrayList<>(codeToTable.values());
+    }
+
+    /**
+     * Chips the player could still lose across the cash tables, see {@link Table#getChipsAtStake(String)}
+     */
+    public synchronized long getChipsAtStake(String username) {
+        long stake = 0;
+        for (Table table : codeToTable.values()) {
+            if (table.isListed()) {
+                stake += table.getChipsAtStake(username);
+            }
+        }
+        return stake;
+    }
+
     public synchronized Table getTableByCode(String code) {
         return codeToTable.get(code.toUpperCase());
     }
 
     public synchronized Table joinTableByCode(Connection conn, String code, String username, int chips) {
         Table table = getTableByCode(code);
+        if (table != null && !table.isListed()) {
+            return null; // tournament tables are seated by the tournament
+        }
         if (table != null) {
             table.addPlayer(conn, username, chips);
             connectionToCode.put(conn, code.toUpperCase());
@@ -49,7 +91,17 @@ public class TableManager {
         String code = connectionToCode.remove(conn);
         if (code != null) {
             Table table = codeToTable.get(code);
-            if (table != null) table.removePlayer(conn);
+            if (table != null && !table.isListed()) {
+                // Tournament seats stay in play, a bot takes over for the missing player
+                table.detachConnection(conn);
+            } else if (table != null) {
+                table.removePlayer(conn);
+                // Tables only bots are left at are closed and taken off the lobby listing
+                if (table.getHumanCount() == 0) {
+                    codeToTable.remove(code);
+                    lobbyService.onTableRemoved(code);
+                }
+            }
         }
     }
 
@@ -58,6 +110,10 @@ public class TableManager {
         return code != null ? codeToTable.get(code) : null;
     }
 
+    public LobbyService getLobbyService() {
+        return lobbyService;
+    }
+
     public static Map<String, Table> getCodeToTable() {
         return codeToTable;
     }
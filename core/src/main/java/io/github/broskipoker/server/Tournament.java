@@ -0,0 +1,426 @@
+package io.github.broskipoker.server;
+
+import com.esotericsoftware.kryonet.Connection;
+import io.github.broskipoker.game.Player;
+import io.github.broskipoker.game.PokerBot;
+import io.github.broskipoker.game.PokerGame;
+import io.github.broskipoker.shared.TournamentStatus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A sit & go or multi-table tournament played on unlisted tables of the TableManager.
+ * <p>
+ * The tournament only touches a table between hands: when the table's hand reaches showdown
+ * the tick pays it out, removes busted players, moves players to keep the tables balanced
+ * and deals the next hand. Other tables keep playing meanwhile. Structural changes happen
+ * under the tournament lock, and each move holds both table locks (always taken in table
+ * code order), so a player is never seated at two tables or at none.
+ */
+public class Tournament {
+    public enum Type {
+        SIT_AND_GO, MULTI_TABLE
+    }
+
+    public enum State {
+        REGISTERING, RUNNING, FINISHED
+    }
+
+    public static class Entrant {
+        private final String username;
+        private Connection connection;           // null for bots
+        private final PokerBot.BotStrategy botStrategy;
+        private Table table;
+        private int finishPosition;              // 0 while still playing
+
+        Entrant(String username, Connection connection, PokerBot.BotStrategy botStrategy) {
+            this.username = username;
+            this.connection = connection;
+            this.botStrategy = botStrategy;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public Table getTable() {
+            return table;
+        }
+
+        public int getFinishPosition() {
+            return finishPosition;
+        }
+    }
+
+    private final String id;
+    private final Type type;
+    private final int capacity;
+    private final int startingChips;
+    private final BlindSchedule blindSchedule;
+    private final long startAtMillis;            // only used by multi-table tournaments
+    private final Consumer<Table> onTableChanged;
+    private volatile OutboundQueues outbound;
+
+    private final Map<String, Entrant> entrants = new LinkedHashMap<>();
+    private final List<Table> tables = new ArrayList<>();
+    private State state = State.REGISTERING;
+    private long startedAtMillis;
+    private long lastTickMillis;
+    private int currentLevel;
+    private int playersRemaining;
+
+    public Tournament(String id, Type type, int capacity, int startingChips, BlindSchedule blindSchedule,
+                      long startAtMillis, Consumer<Table> onTableChanged) {
+        this.id = id;
+        this.type = type;
+        this.capacity = capacity;
+        this.startingChips = startingChips;
+        this.blindSchedule = blindSchedule;
+        this.startAtMillis = startAtMillis;
+        this.onTableChanged = onTableChanged;
+    }
+
+    /**
+     * Where status updates are queued, without one none are sent
+     */
+    public void setOutbound(OutboundQueues outbound) {
+        this.outbound = outbound;
+    }
+
+    /**
+     * Register an entrant, pass a null connection and a strategy to register a bot
+     * @return true if the entrant got a place
+     */
+    public synchronized boolean register(Connection connection, String username, PokerBot.BotStrategy botStrategy) {
+        if (state != State.REGISTERING || entrants.size() >= capacity || entrants.containsKey(username)) {
+            return false;
+        }
+        entrants.put(username, new Entrant(username, connection, botStrategy));
+        return true;
+    }
+
+    public synchronized boolean isReadyToStart(long now) {
+        if (state != State.REGISTERING || entrants.size() < 2) {
+            return false;
+        }
+        return type == Type.SIT_AND_GO ? entrants.size() >= capacity : now >= startAtMillis;
+    }
+
+    /**
+     * Seats every entrant at as few tables as possible and deals the first hands
+     */
+    public synchronized void start(TableManager tableManager, long now) {
+        if (state != State.REGISTERING) {
+            return;
+        }
+        state = State.RUNNING;
+        startedAtMillis = now;
+        lastTickMillis = now;
+        currentLevel = 0;
+        playersRemaining = entrants.size();
+
+        List<Entrant> seatingOrder = new ArrayList<>(entrants.values());
+        Collections.shuffle(seatingOrder);
+
+        BlindSchedule.Level level = blindSchedule.getLevel(0);
+        int tableCount = tablesNeeded(seatingOrder.size());
+        for (int i = 0; i < tableCount; i++) {
+            tables.add(tableManager.createTable(level.getSmallBlind(), level.getBigBlind(), false));
+        }
+
+        // Deal seats round robin so the tables differ by at most one player
+        for (int i = 0; i < seatingOrder.size(); i++) {
+            Entrant entrant = seatingOrder.get(i);
+            Table table = tables.get(i % tableCount);
+            // A player who dropped out before the start is played by a bot until they log back in
+            if (entrant.connection != null && !entrant.connection.isConnected()) {
+                entrant.connection = null;
+            }
+            table.seatPlayer(entrant.connection, entrant.username, startingChips, entrant.botStrategy);
+            entrant.table = table;
+            if (entrant.connection != null) {
+                tableManager.joinExistingTable(entrant.connection, table);
+            }
+            sendStatus(entrant);
+        }
+
+        for (Table table : tables) {
+            dealNextHand(table);
+        }
+    }
+
+    /**
+     * Gives a player who logged back in their place again. Before the start the new connection is
+     * simply the one seated; once running, the seat a bot played while they were gone is theirs again.
+     * @return true if the player is back in, false if they are not (or no longer) playing here
+     */
+    public synchronized boolean reattach(TableManager tableManager, Connection connection, String username) {
+        Entrant entrant = entrants.get(username);
+        if (entrant == null || entrant.botStrategy != null || entrant.finishPosition != 0 || state == State.FINISHED) {
+            return false;
+        }
+        Table table = entrant.table;
+        if (table == null) {
+            entrant.connection = connection;
+            return true;
+        }
+        if (!table.reattachConnection(connection, username)) {
+            return false; // still seated with a live connection
+        }
+        entrant.connection = connection;
+        // Routing is updated after the table lock is released to keep the lock order manager -> table
+        tableManager.joinExistingTable(connection, table);
+        sendStatus(entrant);
+        onTableChanged.accept(table);
+        return true;
+    }
+
+    /**
+     * Advances the blind level and runs the between-hands work of every table that finished a hand
+     */
+    public synchronized void tick(TableManager tableManager, long now) {
+        if (state != State.RUNNING) {
+            return;
+        }
+        float deltaSeconds = (now - lastTickMillis) / 1000f;
+        lastTickMillis = now;
+
+        int level = blindSchedule.levelAt(now - startedAtMillis);
+        if (level != currentLevel) {
+            currentLevel = level;
+            BlindSchedule.Level blinds = blindSchedule.getLevel(level);
+            for (Table table : tables) {
+                // New blinds are posted from the next hand on
+                synchronized (table) {
+                    table.getPokerGame().setSmallBlind(blinds.getSmallBlind());
+                    table.getPokerGame().setBigBlind(blinds.getBigBlind());
+                }
+            }
+        }
+
+        for (Table table : new ArrayList<>(tables)) {
+            if (state != State.RUNNING) {
+                break;
+            }
+            if (finishHandIfDue(table, deltaSeconds)) {
+                betweenHands(tableManager, table);
+            }
+        }
+    }
+
+    // Pays out a finished hand once the showdown has been on display long enough
+    private boolean finishHandIfDue(Table table, float deltaSeconds) {
+        synchronized (table) {
+            PokerGame pokerGame = table.getPokerGame();
+            PokerGame.GameState gameState = pokerGame.getGameState();
+            if (gameState == PokerGame.GameState.WAITING_FOR_PLAYERS) {
+                return true;
+            }
+            if (gameState != PokerGame.GameState.SHOWDOWN) {
+                return false;
+            }
+            pokerGame.setShowdownTimer(pokerGame.getShowdownTimer() + deltaSeconds);
+            if (pokerGame.getShowdownTimer() < pokerGame.getSHOWDOWN_DURATION()) {
+                return false;
+            }
+            pokerGame.distributeWinnings();
+            pokerGame.setShowdownTimer(0);
+            pokerGame.setGameState(PokerGame.GameState.WAITING_FOR_PLAYERS);
+            return true;
+        }
+    }
+
+    private void betweenHands(TableManager tableManager, Table table) {
+        eliminateBustedPlayers(table);
+        if (playersRemaining <= 1) {
+            finish(tableManager);
+            return;
+        }
+
+        balance(tableManager, table);
+
+        if (table.getSeatCount() == 0) {
+            tables.remove(table);
+            tableManager.removeTable(table);
+            return;
+        }
+        dealNextHand(table);
+    }
+
+    private void eliminateBustedPlayers(Table table) {
+        List<String> busted = new ArrayList<>();
+        synchronized (table) {
+            List<Player> players = table.getPokerGame().getPlayers();
+            for (int seat = players.size() - 1; seat >= 0; seat--) {
+                if (players.get(seat).getChips() <= 0) {
+                    busted.add(table.removeSeat(seat).getName());
+                }
+            }
+        }
+
+        for (String username : busted) {
+            Entrant entrant = entrants.get(username);
+            if (entrant == null) {
+                continue;
+            }
+            entrant.finishPosition = playersRemaining;
+            entrant.table = null;
+            playersRemaining--;
+            sendStatus(entrant);
+        }
+    }
+
+    // Breaks the table if there are more tables than needed, otherwise evens it out with the shortest one
+    private void balance(TableManager tableManager, Table table) {
+        if (tables.size() > tablesNeeded(playersRemaining) && table == findShortestTable(null)) {
+            while (table.getSeatCount() > 0) {
+                Table target = findShortestTable(table);
+                if (target == null || !moveLastSeat(tableManager, table, target)) {
+                    break;
+                }
+            }
+            return;
+        }
+
+        Table shortest = findShortestTable(table);
+        while (shortest != null && table.getSeatCount() > shortest.getSeatCount() + 1) {
+            if (!moveLastSeat(tableManager, table, shortest)) {
+                break;
+            }
+            shortest = findShortestTable(table);
+        }
+    }
+
+    private Table findShortestTable(Table excluded) {
+        Table shortest = null;
+        for (Table table : tables) {
+            if (table != excluded && (shortest == null || table.getSeatCount() < shortest.getSeatCount())) {
+                shortest = table;
+            }
+        }
+        return shortest;
+    }
+
+    // Moves the last seat of the source table, which must be between hands, to the target table
+    private boolean moveLastSeat(TableManager tableManager, Table source, Table target) {
+        Table first = source.getCode().compareTo(target.getCode()) < 0 ? source : target;
+        Table second = first == source ? target : source;
+
+        Connection connection;
+        String username;
+        synchronized (first) {
+            synchronized (second) {
+                int seat = source.getSeatCount() - 1;
+                if (seat < 0 || target.getSeatCount() >= Table.MAX_PLAYERS) {
+                    return false;
+                }
+                connection = source.getConnections().get(seat);
+                PokerBot.BotStrategy botStrategy = source.getBotStrategy(seat);
+                Player player = source.removeSeat(seat);
+                target.seatPlayer(connection, player.getName(), player.getChips(), botStrategy);
+                username = player.getName();
+            }
+        }
+
+        // Routing is updated after the table locks are released to keep the lock order manager -> table
+        if (connection != null) {
+            tableManager.joinExistingTable(connection, target);
+        }
+        Entrant entrant = entrants.get(username);
+        if (entrant != null) {
+            entrant.table = target;
+            sendStatus(entrant);
+        }
+        onTableChanged.accept(target);
+        return true;
+    }
+
+    private void dealNextHand(Table table) {
+        synchronized (table) {
+            PokerGame pokerGame = table.getPokerGame();
+            if (pokerGame.getPlayers().size() < 2) {
+                return; // wait for balancing to bring someone over
+            }
+            pokerGame.startNewHand();
+            table.markActionApplied();
+        }
+        onTableChanged.accept(table);
+    }
+
+    private void finish(TableManager tableManager) {
+        state = State.FINISHED;
+        for (Entrant entrant : entrants.values()) {
+            if (entrant.finishPosition == 0) {
+                entrant.finishPosition = 1;
+                entrant.table = null;
+                sendStatus(entrant);
+            }
+        }
+        for (Table table : tables) {
+            tableManager.removeTable(table);
+        }
+        tables.clear();
+    }
+
+    private void sendStatus(Entrant entrant) {
+        OutboundQueues outbound = this.outbound;
+        if (outbound == null || entrant.connection == null || !entrant.connection.isConnected()) {
+            return;
+        }
+        BlindSchedule.Level blinds = blindSchedule.getLevel(currentLevel);
+        TournamentStatus status = new TournamentStatus();
+        status.tournamentId = id;
+        status.tableCode = entrant.table != null ? entrant.table.getCode() : null;
+        status.level = currentLevel + 1;
+        status.smallBlind = blinds.getSmallBlind();
+        status.bigBlind = blinds.getBigBlind();
+        status.playersRemaining = playersRemaining;
+        status.finishPosition = entrant.finishPosition;
+        outbound.sendEvent(entrant.connection, status);
+    }
+
+    private static int tablesNeeded(int players) {
+        return Math.max(1, (players + Table.MAX_PLAYERS - 1) / Table.MAX_PLAYERS);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized int getPlayersRemaining() {
+        return playersRemaining;
+    }
+
+    public synchronized int getEntrantCount() {
+        return entrants.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized int getCurrentLevel() {
+        return currentLevel;
+    }
+
+    public synchronized List<Table> getTables() {
+        return new ArrayList<>(tables);
+    }
+
+    public synchronized Entrant getEntrant(String username) {
+        return entrants.get(username);
+    }
+}
@@ -0,0 +1,163 @@
+package io.github.broskipoker.server;
+
+import com.esotericsoftware.kryonet.Connection;
+import io.github.broskipoker.utils.Log;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Owns the running tournaments and drives them from one background scheduler thread.
+ * <p>
+ * The scheduler starts tournaments that are ready, advances blind levels and does the
+ * between-hands work of each tournament table. It never waits on a hand in progress,
+ * so play at the tables carries on while it runs.
+ */
+public class TournamentManager {
+    private static final Log log = Log.get(TournamentManager.class);
+    private static final long TICK_INTERVAL_MILLIS = 500;
+
+    // Defaults for the sit & go players are dropped into when they register without an id
+    private static final int SIT_AND_GO_CAPACITY = 10;
+    private static final int SIT_AND_GO_STARTING_CHIPS = 10000;
+    private static final long SIT_AND_GO_LEVEL_MILLIS = 5 * 60 * 1000;
+
+    // Limits for the multi-table tournaments players open themselves
+    private static final int MULTI_TABLE_MAX_ENTRANTS = 1000;
+    private static final int MULTI_TABLE_MAX_START_MINUTES = 24 * 60;
+    private static final int MULTI_TABLE_STARTING_CHIPS = 10000;
+    private static final long MULTI_TABLE_LEVEL_MILLIS = 10 * 60 * 1000;
+
+    private final TableManager tableManager;
+    private final Consumer<Table> onTableChanged;
+    private final Map<String, Tournament> tournaments = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private volatile OutboundQueues outbound;
+    private Tournament openSitAndGo;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param onTableChanged called after the tournament deals a hand or moves a player to a table
+     */
+    public TournamentManager(TableManager tableManager, Consumer<Table> onTableChanged) {
+        this.tableManager = tableManager;
+        this.onTableChanged = onTableChanged;
+    }
+
+    /**
+     * Where tournament status updates are queued, set before the first tournament is created
+     */
+    public void setOutbound(OutboundQueues outbound) {
+        this.outbound = outbound;
+    }
+
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tournament-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> tick(System.currentTimeMillis()),
+            TICK_INTERVAL_MILLIS, TICK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    public Tournament createSitAndGo(int capacity, int startingChips, BlindSchedule blindSchedule) {
+        Tournament tournament = new Tournament("SNG-" + nextId.getAndIncrement(), Tournament.Type.SIT_AND_GO,
+            capacity, startingChips, blindSchedule, 0, onTableChanged);
+        tournament.setOutbound(outbound);
+        tournaments.put(tournament.getId(), tournament);
+        return tournament;
+    }
+
+    public Tournament createMultiTable(int maxEntrants, int startingChips, BlindSchedule blindSchedule, long startAtMillis) {
+        Tournament tournament = new Tournament("MTT-" + nextId.getAndIncrement(), Tournament.Type.MULTI_TABLE,
+            maxEntrants, startingChips, blindSchedule, startAtMillis, onTableChanged);
+        tournament.setOutbound(outbound);
+        tournaments.put(tournament.getId(), tournament);
+        return tournament;
+    }
+
+    /**
+     * Opens a multi-table tournament a player asked for, with the standard structure
+     * @return the tournament, or null if the size or start time is out of range
+     */
+    public Tournament createMultiTable(int maxEntrants, int startInMinutes, long now) {
+        if (maxEntrants < 2 || maxEntrants > MULTI_TABLE_MAX_ENTRANTS ||
+            startInMinutes < 0 || startInMinutes > MULTI_TABLE_MAX_START_MINUTES) {
+            return null;
+        }
+        return createMultiTable(maxEntrants, MULTI_TABLE_STARTING_CHIPS, BlindSchedule.standard(MULTI_TABLE_LEVEL_MILLIS),
+            now + startInMinutes * 60_000L);
+    }
+
+    /**
+     * Registers a player for a tournament by id
+     * @return the tournament, or null if it does not exist or the player could not get a place
+     */
+    public Tournament register(String tournamentId, Connection connection, String username) {
+        Tournament tournament = tournaments.get(tournamentId);
+        if (tournament == null || !tournament.register(connection, username, null)) {
+            return null;
+        }
+        return tournament;
+    }
+
+    /**
+     * Hands a player who logged back in the seats they lost when their connection dropped
+     */
+    public void reattach(Connection connection, String username) {
+        for (Tournament tournament : tournaments.values()) {
+            if (tournament.reattach(tableManager, connection, username)) {
+                log.info("Player back in tournament", "user", username, "tournament", tournament.getId(),
+                    "connection", connection.getID());
+            }
+        }
+    }
+
+    /**
+     * Puts a player in the sit & go that is currently filling up, opening a new one if needed
+     */
+    public synchronized Tournament registerForSitAndGo(Connection connection, String username) {
+        if (openSitAndGo == null || openSitAndGo.getState() != Tournament.State.REGISTERING ||
+            openSitAndGo.getEntrantCount() >= openSitAndGo.getCapacity()) {
+            openSitAndGo = createSitAndGo(SIT_AND_GO_CAPACITY, SIT_AND_GO_STARTING_CHIPS,
+                BlindSchedule.standard(SIT_AND_GO_LEVEL_MILLIS));
+        }
+        return openSitAndGo.register(connection, username, null) ? openSitAndGo : null;
+    }
+
+    public void tick(long now) {
+        for (Tournament tournament : tournaments.values()) {
+            try {
+                if (tournament.isReadyToStart(now)) {
+                    tournament.start(tableManager, now);
+                }
+                tournament.tick(tableManager, now);
+                if (tournament.getState() == Tournament.State.FINISHED) {
+                    tournaments.remove(tournament.getId());
+                }
+            } catch (Exception e) {
+                log.error("Tournament tick failed", e, "tournament", tournament.getId());
+            }
+        }
+    }
+
+    public Tournament getTournament(String tournamentId) {
+        return tournaments.get(tournamentId);
+    }
+}
@@ -0,0 +1,284 @@
+package io.github.broskipoker.server;
+
+import com.esotericsoftware.kryonet.Connection;
+import com.esotericsoftware.kryonet.FrameworkMessage;
+import com.esotericsoftware.kryonet.KryoSerialization;
+import com.esotericsoftware.kryonet.Listener;
+import io.github.broskipoker.shared.NetworkRegistration;
+import io.github.broskipoker.utils.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A server front end with blocking sockets and two virtual threads per client instead of KryoNet's
+ * single selector thread, chosen with -Dbroski.transport=virtual.
+ * <p>
+ * It speaks KryoNet's TCP protocol: the same length prefix, the same Kryo registrations from
+ * {@link NetworkRegistration}, the RegisterTCP handshake and keep alives, so the unchanged client
+ * connects to either. Each client is handed to the listener as a {@link Connection} subclass, so
+ * PokerServer and {@link OutboundQueues} work the same on both transports. Unlike KryoNet the
+ * listener is called from many threads at once, one per client. Disconnects are reported on a
+ * thread of their own, so close() can be called with locks held. UDP is not supported.
+ */
+public class VirtualThreadServer {
+    private static final Log log = Log.get(VirtualThreadServer.class);
+    // The same as KryoNet's defaults, clients send a keep alive every 8 s
+    private static final int KEEP_ALIVE_MILLIS = 8000;
+    private static final int TIMEOUT_MILLIS = 12000;
+
+    private final int writeBufferSize;
+    private final int objectBufferSize;
+    private final Listener listener;
+    private final Map<Integer, Peer> peers = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private ServerSocket serverSocket;
+
+    /**
+     * @param writeBufferSize the most one message may serialize to
+     * @param objectBufferSize the largest message accepted from a client
+     */
+    public VirtualThreadServer(int writeBufferSize, int objectBufferSize, Listener listener) {
+        this.writeBufferSize = writeBufferSize;
+        this.objectBufferSize = objectBufferSize;
+        this.listener = listener;
+    }
+
+    /**
+     * Starts accepting clients, port 0 picks a free port
+     */
+    public void bind(int port) throws IOException {
+        serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(new InetSocketAddress(port));
+        Thread.ofVirtual().name("Virtual thread acceptor").start(this::accept);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public Connection[] getConnections() {
+        return peers.values().toArray(new Connection[0]);
+    }
+
+    public void stop() {
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+        } catch (IOException e) {
+            // Closing anyway
+        }
+        for (Peer peer : peers.values()) {
+            peer.close();
+        }
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    log.error("Accept failed", e);
+                }
+                return;
+            }
+            try {
+                socket.setTcpNoDelay(true);
+                socket.setSoTimeout(TIMEOUT_MILLIS);
+                Peer peer = new Peer(nextId.getAndIncrement(), socket);
+                peers.put(peer.id, peer);
+                Thread.ofVirtual().name("client-" + peer.id + "-read").start(peer::read);
+            } catch (IOException e) {
+                log.warn("Could not set up client socket", e);
+                closeQuietly(socket);
+            }
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already gone
+        }
+    }
+
+    /**
+     * One client. Reads on its own virtual thread and writes on another, so a client that stops
+     * reading only blocks its writer while sendTCP keeps queueing and reports the backlog.
+     */
+    private class Peer extends Connection {
+        final int id;
+        private final Socket socket;
+        private final InetSocketAddress address;
+        // KryoSerialization's read and write are synchronized, so the two threads can share it
+        private final KryoSerialization serialization = new KryoSerialization();
+        private final ByteBuffer writeBuffer = ByteBuffer.allocate(writeBufferSize);
+        private final BlockingQueue<byte[]> frames = new LinkedBlockingQueue<>();
+        private final AtomicInteger queuedBytes = new AtomicInteger();
+        private final AtomicBoolean open = new AtomicBoolean(true);
+        private volatile Thread writer;
+
+        Peer(int id, Socket socket) {
+            this.id = id;
+            this.socket = socket;
+            this.address = (InetSocketAddress) socket.getRemoteSocketAddress();
+            NetworkRegistration.register(serialization.getKryo());
+        }
+
+        @Override
+        public int getID() {
+            return id;
+        }
+
+        @Override
+        public boolean isConnected() {
+            return open.get();
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddressTCP() {
+            return address;
+        }
+
+        @Override
+        public int getTcpWriteBufferSize() {
+            // The writer may still be finishing a frame after close() emptied the queue
+            return open.get() ? queuedBytes.get() : 0;
+        }
+
+        // Serializes on the calling thread, the writer thread only copies bytes to the socket
+        @Override
+        public int sendTCP(Object object) {
+            if (!open.get()) {
+                return 0;
+            }
+            int lengthLength = serialization.getLengthLength();
+            synchronized (writeBuffer) {
+                // Checked again under the lock close() clears the frames with, so none is left behind
+                if (!open.get()) {
+                    return 0;
+                }
+                writeBuffer.clear();
+                writeBuffer.position(lengthLength);
+                serialization.write(this, writeBuffer, object);
+                int length = writeBuffer.position() - lengthLength;
+                writeBuffer.position(0);
+                serialization.writeLength(writeBuffer, length);
+                byte[] frame = new byte[lengthLength + length];
+                writeBuffer.position(0);
+                writeBuffer.get(frame);
+                queuedBytes.addAndGet(frame.length);
+                frames.add(frame);
+                return frame.length;
+            }
+        }
+
+        @Override
+        public void close() {
+            if (!open.compareAndSet(true, false)) {
+                return;
+            }
+            closeQuietly(socket);
+            if (writer != null) {
+                writer.interrupt();
+            }
+            synchronized (writeBuffer) {
+                frames.clear();
+                queuedBytes.set(0);
+            }
+            peers.remove(id, this);
+            // The disconnect handler takes the table manager's and a table's lock, the caller may hold either
+            Thread.ofVirtual().name("client-" + id + "-disconnect").start(() -> listener.disconnected(this));
+        }
+
+        @Override
+        public String toString() {
+            return "Connection " + id;
+        }
+
+        private void read() {
+            FrameworkMessage.RegisterTCP register = new FrameworkMessage.RegisterTCP();
+            register.connectionID = id;
+            sendTCP(register);
+            writer = Thread.ofVirtual().name("client-" + id + "-write").start(this::write);
+            listener.connected(this);
+
+            byte[] lengthBytes = new byte[serialization.getLengthLength()];
+            byte[] objectBytes = new byte[objectBufferSize];
+            try {
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                while (open.get()) {
+                    in.readFully(lengthBytes);
+                    int length = serialization.readLength(ByteBuffer.wrap(lengthBytes));
+                    if (length < 0 || length > objectBufferSize) {
+                        throw new IOException("Message of " + length + " bytes is larger than the read buffer");
+                    }
+                    in.readFully(objectBytes, 0, length);
+                    Object object = serialization.read(this, ByteBuffer.wrap(objectBytes, 0, length));
+
+                    if (object instanceof FrameworkMessage.Ping) {
+                        FrameworkMessage.Ping ping = (FrameworkMessage.Ping) object;
+                        if (!ping.isReply) {
+                            ping.isReply = true;
+                            sendTCP(ping);
+                        }
+                    } else if (!(object instanceof FrameworkMessage)) {
+                        listener.received(this, object);
+                    }
+                }
+            } catch (SocketTimeoutException e) {
+                log.info("Client timed out", "connection", id);
+            } catch (IOException e) {
+                // Closed by the client or by us
+            } catch (Exception e) {
+                log.error("Error reading from client", e, "connection", id);
+            } finally {
+                close();
+            }
+        }
+
+        private void write() {
+            try {
+                OutputStream out = new BufferedOutputStream(socket.getOutputStream(), writeBufferSize);
+                while (open.get()) {
+                    byte[] frame = frames.poll(KEEP_ALIVE_MILLIS, TimeUnit.MILLISECONDS);
+                    if (frame == null) {
+                        sendTCP(FrameworkMessage.keepAlive);
+                        continue;
+                    }
+                    out.write(frame);
+                    queuedBytes.addAndGet(-frame.length);
+                    if (frames.isEmpty()) {
+                        out.flush();
+                        // As with KryoNet, idle means the write buffer has drained
+                        listener.idle(this);
+                    }
+                }
+            } catch (InterruptedException | IOException e) {
+                // Closed
+            } finally {
+                close();
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package io.github.broskipoker.shared;
+
+import io.github.broskipoker.game.PokerBot;
+
+public class AddBotRequest {
+    public String tableCode;
+    public PokerBot.BotStrategy strategy;
+    public int chips;
+}
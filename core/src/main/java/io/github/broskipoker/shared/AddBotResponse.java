@@ -0,0 +1,6 @@
+package io.github.broskipoker.shared;
+
+public class AddBotResponse {
+    public boolean success;
+    public String message;
+}
@@ -1,8 +1,10 @@
 package io.github.broskipoker.shared;
 
+// The seat is named after the logged in account
 public class CreateTableRequest {
-    public String username;
-    public int chips;
+    public int chips; // buy-in wanted, the server caps it at the account balance
     public int smallBlind;
     public int bigBlind;
+    // Picked by the client, echoed in the response so it can be matched to this request
+    public int requestId;
 }
@@ -4,4 +4,5 @@ public class CreateTableResponse {
     public boolean success;
     public String code;
     public String failReason;
+    public int requestId; // copied from the request
 }
@@ -18,9 +18,15 @@ public class GameStateUpdate {
     public PokerGame.GameState gameState;
     public boolean[] hasActedInRound;
     public String tableCode;  // Added to ensure table code is synchronized
+    public int lastActionSequence; // the last of this player's actions the server has handled
 
     // Added fields for winner information
     public List<CardInfo> winningCards;       // The best hand to display
     public List<Integer> winnerIndices;       // Indices of winning players
     public boolean showAllCards;              // Flag to indicate all cards should be visible (for showdown)
+
+    // Run it twice: boards after the first one, and the winners on each of them
+    public int runoutCount;                           // 1 unless the players agreed to run the board again
+    public List<List<CardInfo>> runoutBoards;
+    public List<List<Integer>> runoutWinnerIndices;
 }
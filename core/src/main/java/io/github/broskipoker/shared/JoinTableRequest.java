@@ -1,7 +1,8 @@
 package io.github.broskipoker.shared;
 
+// The seat is named after the logged in account
 public class JoinTableRequest {
     public String code;
-    public String username;
-    public int chips;
+    public int chips; // buy-in wanted, the server caps it at the account balance
+    public int requestId;
 }
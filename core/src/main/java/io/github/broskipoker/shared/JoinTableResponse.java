@@ -4,4 +4,5 @@ public class JoinTableResponse {
     public boolean success;
     public String code;
     public String failReason;
+    public int requestId;
 }
@@ -0,0 +1,7 @@
+package io.github.broskipoker.shared;
+
+public class LeaderboardEntry {
+    public int rank;
+    public String username;
+    public long value;
+}
@@ -0,0 +1,8 @@
+package io.github.broskipoker.shared;
+
+import io.github.broskipoker.utils.StatsService;
+
+public class LeaderboardRequest {
+    public StatsService.Leaderboard leaderboard;
+    public int limit; // at most 100
+}
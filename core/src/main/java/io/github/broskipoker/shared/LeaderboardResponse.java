@@ -0,0 +1,10 @@
+package io.github.broskipoker.shared;
+
+import io.github.broskipoker.utils.StatsService;
+
+import java.util.ArrayList;
+
+public class LeaderboardResponse {
+    public StatsService.Leaderboard leaderboard;
+    public ArrayList<LeaderboardEntry> entries;
+}
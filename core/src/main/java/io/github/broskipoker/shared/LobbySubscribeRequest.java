@@ -0,0 +1,5 @@
+package io.github.broskipoker.shared;
+
+public class LobbySubscribeRequest {
+    public boolean subscribe; // false to stop receiving lobby updates
+}
@@ -0,0 +1,10 @@
+package io.github.broskipoker.shared;
+
+import java.util.List;
+
+public class LobbyUpdate {
+    public boolean snapshot;              // true if this replaces the whole listing (first update after subscribing)
+    public List<TableSummary> added;
+    public List<TableSummary> updated;
+    public List<String> removed;          // codes of tables that are no longer listed
+}
@@ -3,6 +3,9 @@ package io.github.broskipoker.shared;
 public class LoginRequest {
     public String username;
     public String password;
+    public int requestId; // 0 for a session resume, nobody waits for that answer
+    // Set instead of a password to pick up an existing session on a new connection
+    public String sessionToken;
 
     // Empty constructor required for Kryo serialization
     public LoginRequest() {}
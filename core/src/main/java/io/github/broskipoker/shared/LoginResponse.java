@@ -4,6 +4,19 @@ public class LoginResponse {
     public boolean success;
     public String message;
     public int playerId;
+    // The requestId of the request this answers, 0 when nobody asked
+    public int requestId;
+
+    // Sent back on every later connection to prove who this is, the password is never sent again
+    public String sessionToken;
+
+    // The account as the server sees it
+    public String username;
+    public String email;
+    public long chips;
+    public int gamesPlayed;
+    public int wins;
+    public int losses;
 
     // Empty constructor required for Kryo serialization
     public LoginResponse() {}
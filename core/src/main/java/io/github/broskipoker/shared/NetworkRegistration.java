@@ -2,10 +2,12 @@ package io.github.broskipoker.shared;
 
 import com.esotericsoftware.kryo.Kryo;
 import io.github.broskipoker.game.Card;
+import io.github.broskipoker.game.PokerBot;
 import io.github.broskipoker.game.PokerGame;
 import io.github.broskipoker.server.PokerServer;
 import io.github.broskipoker.server.Table;
 import io.github.broskipoker.server.TableManager;
+import io.github.broskipoker.utils.StatsService;
 
 import java.util.ArrayList;
 
@@ -27,9 +29,11 @@ public class NetworkRegistration {
         kryo.register(PokerGame.GameState.class);
         kryo.register(PokerGame.PlayerAction.class);
 
-        // Login messages (if you use them)
+        // Login and registration, the server owns the database
         kryo.register(LoginRequest.class);
         kryo.register(LoginResponse.class);
+        kryo.register(RegisterRequest.class);
+        kryo.register(RegisterResponse.class);
 
         // Create Table request
         kryo.register(CreateTableRequest.class);
@@ -48,5 +52,30 @@ public class NetworkRegistration {
         // start game in lobby label
         kryo.register(StartGameRequest.class);
         kryo.register(StartGameResponse.class);
+
+        // server-side bot seats
+        kryo.register(PokerBot.BotStrategy.class);
+        kryo.register(AddBotRequest.class);
+        kryo.register(AddBotResponse.class);
+
+        // lobby listing feed
+        kryo.register(TableSummary.class);
+        kryo.register(LobbySubscribeRequest.class);
+        kryo.register(LobbyUpdate.class);
+
+        // tournaments
+        kryo.register(TournamentRegisterRequest.class);
+        kryo.register(TournamentRegisterResponse.class);
+        kryo.register(TournamentStatus.class);
+        kryo.register(TournamentCreateRequest.class);
+
+        // run it twice
+        kryo.register(RunItTwiceRequest.class);
+
+        // leaderboards
+        kryo.register(StatsService.Leaderboard.class);
+        kryo.register(LeaderboardRequest.class);
+        kryo.register(LeaderboardEntry.class);
+        kryo.register(LeaderboardResponse.class);
     }
 }
@@ -7,4 +7,5 @@ public class PlayerAction {
     public PokerGame.PlayerAction action; // "CHECK", "CALL", "RAISE", "FOLD"
     public int amount; // Only for raise/bet
     public String tableCode;
+    public int sequence; // numbered by the client, echoed in GameStateUpdate.lastActionSequence
 }
@@ -86,11 +86,12 @@ public class PokerConverters {
         update.currentBet = game.getCurrentBet();
         update.currentPlayerIndex = game.getCurrentPlayerIndex();
         update.lastRaisePlayerIndex = game.getLastRaisePlayerIndex();
-        update.dealerPosition = PokerGame.getDealerPosition();
+        update.dealerPosition = game.getDealerPosition();
         update.needsPlayerAction = game.needsPlayerAction();
-        update.gameState = PokerGame.getGameState();
+        update.gameState = game.getGameState();
         update.hasActedInRound = game.getHasActedInRound();
         update.tableCode = game.getTableCode(); // Include table code in every update
+        update.runoutCount = game.getRunoutCount();
 
         // Add winner information if we're in showdown
         if (isShowdown) {
@@ -121,6 +122,20 @@ public class PokerConverters {
                     e.printStackTrace();
                 }
             }
+
+            // Extra boards when the hand was run more than once
+            if (!game.getRunoutBoards().isEmpty()) {
+                update.runoutBoards = new ArrayList<>();
+                update.runoutWinnerIndices = new ArrayList<>();
+                for (List<Card> board : game.getRunoutBoards()) {
+                    update.runoutBoards.add(toCardInfoList(board));
+                    List<Integer> boardWinners = new ArrayList<>();
+                    for (Player winner : game.determineWinners(board)) {
+                        boardWinners.add(game.getPlayers().indexOf(winner));
+                    }
+                    update.runoutWinnerIndices.add(boardWinners);
+                }
+            }
         }
 
         return update;
@@ -0,0 +1,8 @@
+package io.github.broskipoker.shared;
+
+public class RegisterRequest {
+    public String username;
+    public String email;
+    public String password;
+    public int requestId;
+}
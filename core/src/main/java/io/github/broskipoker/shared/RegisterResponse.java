@@ -0,0 +1,9 @@
+package io.github.broskipoker.shared;
+
+public class RegisterResponse {
+    public boolean success;
+    public boolean usernameTaken;
+    public boolean emailTaken;
+    public String message;
+    public int requestId;
+}
@@ -0,0 +1,6 @@
+package io.github.broskipoker.shared;
+
+public class RunItTwiceRequest {
+    public String tableCode;
+    public int times;          // how many boards this player wants, 1 declines
+}
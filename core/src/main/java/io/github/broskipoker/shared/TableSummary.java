@@ -0,0 +1,11 @@
+package io.github.broskipoker.shared;
+
+// Compact per-table entry of the lobby listing
+public class TableSummary {
+    public String code;
+    public int smallBlind;
+    public int bigBlind;
+    public int seatsTaken;
+    public int maxSeats;
+    public int averagePot;
+}
@@ -0,0 +1,7 @@
+package io.github.broskipoker.shared;
+
+// Opens a multi-table tournament and registers the sender, answered with a TournamentRegisterResponse
+public class TournamentCreateRequest {
+    public int maxEntrants;
+    public int startInMinutes;     // registration stays open until then
+}
@@ -0,0 +1,5 @@
+package io.github.broskipoker.shared;
+
+public class TournamentRegisterRequest {
+    public String tournamentId; // null to take a seat in the next sit & go
+}
@@ -0,0 +1,7 @@
+package io.github.broskipoker.shared;
+
+public class TournamentRegisterResponse {
+    public boolean success;
+    public String tournamentId;
+    public String message;
+}
@@ -0,0 +1,12 @@
+package io.github.broskipoker.shared;
+
+// Sent to an entrant when the tournament seats, moves or eliminates them
+public class TournamentStatus {
+    public String tournamentId;
+    public String tableCode;       // table the entrant now plays at, null once eliminated
+    public int level;
+    public int smallBlind;
+    public int bigBlind;
+    public int playersRemaining;
+    public int finishPosition;     // 0 while still in the tournament
+}
@@ -0,0 +1,180 @@
+package io.github.broskipoker.ui;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.audio.Music;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.scenes.scene2d.ui.Skin;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * Every texture, sound and skin the client uses, loaded once through a shared AssetManager.
+ * <p>
+ * Startup queues all of them and the loading screen pumps {@link #update()} until they are on
+ * the GPU. Screens then acquire assets by path instead of creating their own, so two screens
+ * asking for the same file share one texture handle. The AssetManager counts references, every
+ * acquire must be paired with a release and the file is unloaded when the last one lets go.
+ * The preload holds its own reference, so preloaded assets stay resident until shutdown and a
+ * new game screen never uploads them again.
+ */
+public class Assets implements Disposable {
+    public static final String POKER_TABLE = "textures/2x/pokerTable.png";
+    // Built by the packTextures Gradle task from the sprite sheets below
+    public static final String TABLE_ATLAS = "atlas/table.atlas";
+    public static final String CARD_DECK = "textures/2x/8BitDeck.png";
+    public static final String ENHANCERS = "textures/2x/Enhancers.png";
+    public static final String CHIPS = "textures/2x/chips.png";
+    public static final String BLIND_BUTTONS = "textures/2x/SmallBigDealer.png";
+    public static final String BUTTON = "textures/button.png";
+    public static final String BUTTON_DOWN = "textures/button_down.png";
+    // Read by AvatarCache, never loaded whole
+    public static final String AVATAR_PACK = "avatars/avatars.pack";
+    public static final String MENU_BACKGROUND = "menu_background.png";
+    public static final String[] EMOJIS = {
+        "emojis/laugh.png", "emojis/cry.png", "emojis/angry.png", "emojis/like.png", "emojis/boss.png"
+    };
+
+    public static final String CARD_SOUND = "sounds/card1.ogg";
+    public static final String CHIP_SOUND = "sounds/chips1.ogg";
+    public static final String BUTTON_SOUND = "sounds/button.ogg";
+    public static final String WIN_SOUND = "sounds/win.ogg";
+    public static final String LOSE_SOUND = "sounds/negative.ogg";
+    public static final String CLICK_SOUND = "click.wav";
+    public static final String MENU_MUSIC = "kevin-macleod-investigations.mp3";
+
+    public static final String MENU_SKIN = "skin/skin-composer-ui.json";
+
+    private static final String TAG = "Assets";
+    // How long one update() may spend loading before it returns to draw a frame
+    private static final int UPDATE_BUDGET_MILLIS = 16;
+
+    private static Assets instance;
+
+    private final AssetManager manager = new AssetManager();
+    private boolean preloadQueued = false;
+
+    public static synchronized Assets getInstance() {
+        if (instance == null) {
+            instance = new Assets();
+        }
+        return instance;
+    }
+
+    /**
+     * Queues everything the menu and the table need. Missing optional files are skipped,
+     * the screens fall back the same way they do when an acquire fails.
+     */
+    public void queuePreload() {
+        if (preloadQueued) {
+            return;
+        }
+        preloadQueued = true;
+
+        for (String path : new String[]{POKER_TABLE, BUTTON, BUTTON_DOWN, MENU_BACKGROUND}) {
+            queue(path, Texture.class);
+        }
+        queue(TABLE_ATLAS, TextureAtlas.class);
+        for (String path : new String[]{CARD_SOUND, CHIP_SOUND, BUTTON_SOUND, WIN_SOUND, LOSE_SOUND, CLICK_SOUND}) {
+            queue(path, Sound.class);
+        }
+        queue(MENU_MUSIC, Music.class);
+        queue(MENU_SKIN, Skin.class);
+    }
+
+    private void queue(String path, Class<?> type) {
+        if (!Gdx.files.internal(path).exists()) {
+            // Shows up in the log at the default level, a missing file is a packaging mistake
+            Gdx.app.error(TAG, "Missing asset, skipping it: " + path);
+            return;
+        }
+        manager.load(path, type);
+    }
+
+    /**
+     * Loads for a frame's worth of time, call once per frame while the loading screen is up
+     * @return true once everything queued is loaded
+     */
+    public boolean update() {
+        return manager.update(UPDATE_BUDGET_MILLIS);
+    }
+
+    // 0 to 1
+    public float getProgress() {
+        return manager.getProgress();
+    }
+
+    public Texture acquireTexture(String path) {
+        return acquire(path, Texture.class);
+    }
+
+    public TextureAtlas acquireAtlas(String path) {
+        return acquire(path, TextureAtlas.class);
+    }
+
+    public Sound acquireSound(String path) {
+        return acquire(path, Sound.class);
+    }
+
+    public Music acquireMusic(String path) {
+        return acquire(path, Music.class);
+    }
+
+    public Skin acquireSkin(String path) {
+        return acquire(path, Skin.class);
+    }
+
+    /**
+     * Takes a reference to an asset, loading it right away if the preload has not got to it yet
+     * @throws GdxRuntimeException if the file does not exist
+     */
+    private <T> T acquire(String path, Class<T> type) {
+        if (!Gdx.files.internal(path).exists()) {
+            throw new GdxRuntimeException("Missing asset: " + path);
+        }
+        if (manager.isLoaded(path, type)) {
+            // A queued load() would only count once the manager updates again
+            manager.setReferenceCount(path, manager.getReferenceCount(path) + 1);
+            return manager.get(path, type);
+        }
+        manager.load(path, type);
+        return manager.finishLoadingAsset(path);
+    }
+
+    /**
+     * Looks up a sprite sheet packed whole into an atlas, the region is named after the file
+     * @throws GdxRuntimeException if the atlas was packed without it
+     */
+    public static TextureRegion findRegion(TextureAtlas atlas, String path) {
+        String name = path.substring(path.lastIndexOf('/') + 1, path.lastIndexOf('.'));
+        TextureRegion region = atlas.findRegion(name);
+        if (region == null) {
+            throw new GdxRuntimeException("No region " + name + " in the atlas, run the packTextures task");
+        }
+        return region;
+    }
+
+    /**
+     * Drops a reference taken by one of the acquire methods
+     */
+    public void release(String path) {
+        if (manager.isLoaded(path)) {
+            manager.unload(path);
+        }
+    }
+
+    public int getReferenceCount(String path) {
+        return manager.isLoaded(path) ? manager.getReferenceCount(path) : 0;
+    }
+
+    @Override
+    public void dispose() {
+        manager.dispose();
+        synchronized (Assets.class) {
+            instance = null;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package io.github.broskipoker.ui;
+
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.Pool;
+
+/**
+ * Plays sounds at a given time from now without ever blocking the render thread.
+ * <p>
+ * Cues wait in a list sorted by when they are due and {@link #update(float)}, called once per
+ * frame, plays the ones whose time has come. Cue objects are pooled, scheduling during a betting
+ * flurry allocates nothing once the pool has warmed up. Each sound may only start a few voices
+ * within a short window, cues over the limit are dropped instead of stacking into noise.
+ */
+public class AudioScheduler {
+
+    static class Cue {
+        Sound sound;
+        float volume;
+        float dueAt;
+    }
+
+    // Start times of the last voices of one sound, oldest first once the ring is full
+    private static class VoiceLimiter {
+        final float[] startedAt;
+        int next = 0;
+        int count = 0;
+
+        VoiceLimiter(int maxVoices) {
+            startedAt = new float[maxVoices];
+        }
+
+        boolean tryStart(float now, float window) {
+            if (count == startedAt.length && now - startedAt[next] < window) {
+                return false;
+            }
+            startedAt[next] = now;
+            next = (next + 1) % startedAt.length;
+            count = Math.min(count + 1, startedAt.length);
+            return true;
+        }
+    }
+
+    private final int maxVoicesPerSound;
+    private final float voiceWindowSeconds;
+    private final Array<Cue> pending = new Array<>(true, 16);
+    private final ObjectMap<Sound, VoiceLimiter> limiters = new ObjectMap<>();
+    private final Pool<Cue> cuePool = new Pool<Cue>(16) {
+        @Override
+        protected Cue newObject() {
+            return new Cue();
+        }
+    };
+    private float clock = 0;
+
+    /**
+     * @param maxVoicesPerSound how many times one sound may start within the window
+     * @param voiceWindowSeconds the window, roughly how long the sounds ring
+     */
+    public AudioScheduler(int maxVoicesPerSound, float voiceWindowSeconds) {
+        this.maxVoicesPerSound = maxVoicesPerSound;
+        this.voiceWindowSeconds = voiceWindowSeconds;
+    }
+
+    /**
+     * Queues a sound to play after a delay, 0 plays it on the next update
+     */
+    public void schedule(Sound sound, float volume, float delaySeconds) {
+        Cue cue = cuePool.obtain();
+        cue.sound = sound;
+        cue.volume = volume;
+        cue.dueAt = clock + delaySeconds;
+
+        // Keep the list sorted by due time, new cues usually go last
+        int index = pending.size;
+        while (index > 0 && pending.get(index - 1).dueAt > cue.dueAt) {
+            index--;
+        }
+        pending.insert(index, cue);
+    }
+
+    /**
+     * Advances the clock and plays every cue that is due
+     */
+    public void update(float delta) {
+        clock += delta;
+        int due = 0;
+        while (due < pending.size && pending.get(due).dueAt <= clock) {
+            Cue cue = pending.get(due);
+            VoiceLimiter limiter = limiters.get(cue.sound);
+            if (limiter == null) {
+                limiter = new VoiceLimiter(maxVoicesPerSound);
+                limiters.put(cue.sound, limiter);
+            }
+            if (limiter.tryStart(clock, voiceWindowSeconds)) {
+                cue.sound.play(cue.volume);
+            }
+            cue.sound = null;
+            cuePool.free(cue);
+            due++;
+        }
+        if (due > 0) {
+            pending.removeRange(0, due - 1);
+        }
+    }
+
+    public void clear() {
+        for (Cue cue : pending) {
+            cue.sound = null;
+        }
+        cuePool.freeAll(pending);
+        pending.clear();
+    }
+
+    public int getPendingCount() {
+        return pending.size;
+    }
+}
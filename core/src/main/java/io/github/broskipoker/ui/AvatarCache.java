@@ -0,0 +1,157 @@
+package io.github.broskipoker.ui;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Avatars decoded on demand from the avatar pack into one small texture page.
+ * <p>
+ * The pack, written by TinyFacesAPI/main.py, is a header, an index of (offset, length) pairs
+ * and one PNG per avatar. Only the index is read up front. The first time an avatar is drawn its
+ * PNG is decoded, scaled to the slot size and copied into a free slot of the page. When every slot
+ * is taken, the least recently drawn avatar gives up its slot.
+ * <p>
+ * Pack layout, big endian: "BAVP", int version, int count, int avatar size, then count times
+ * int offset and int length from the start of the file.
+ */
+public class AvatarCache implements Disposable {
+    private static final int MAGIC = ('B' << 24) | ('A' << 16) | ('V' << 8) | 'P';
+    private static final int VERSION = 1;
+
+    private final FileHandle packFile;
+    private final int[] offsets;
+    private final int[] lengths;
+    private final int slotSize;
+    private final int slotsPerRow;
+    private final Texture page;
+    private final TextureRegion[] slotRegions;
+    // Scaled copy of the avatar being uploaded, reused for every upload
+    private final Pixmap slotPixmap;
+    // Avatar index -> slot, least recently drawn first
+    private final LinkedHashMap<Integer, Integer> slotsByAvatar = new LinkedHashMap<>(16, 0.75f, true);
+    private int nextFreeSlot = 0;
+
+    /**
+     * Reads the pack index, no avatar is decoded yet
+     * @param slotSize edge of one avatar on the page, the size it is displayed at
+     * @param pageSize edge of the texture page, holds (pageSize / slotSize)² avatars
+     * @throws GdxRuntimeException if the pack is missing or not a pack
+     */
+    public AvatarCache(FileHandle packFile, int slotSize, int pageSize) {
+        this.packFile = packFile;
+        this.slotSize = slotSize;
+        this.slotsPerRow = pageSize / slotSize;
+
+        try (DataInputStream in = new DataInputStream(packFile.read(8192))) {
+            if (in.readInt() != MAGIC) {
+                throw new GdxRuntimeException("Not an avatar pack: " + packFile.path());
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new GdxRuntimeException("Unsupported avatar pack version " + version + ": " + packFile.path());
+            }
+            int count = in.readInt();
+            in.readInt(); // size the avatars were packed at, they are scaled to the slot anyway
+            offsets = new int[count];
+            lengths = new int[count];
+            for (int i = 0; i < count; i++) {
+                offsets[i] = in.readInt();
+                lengths[i] = in.readInt();
+            }
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Could not read avatar pack: " + packFile.path(), e);
+        }
+
+        Pixmap blank = new Pixmap(pageSize, pageSize, Pixmap.Format.RGBA8888);
+        page = new Texture(blank);
+        page.setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
+        blank.dispose();
+
+        slotRegions = new TextureRegion[slotsPerRow * slotsPerRow];
+        for (int slot = 0; slot < slotRegions.length; slot++) {
+            slotRegions[slot] = new TextureRegion(page, (slot % slotsPerRow) * slotSize,
+                (slot / slotsPerRow) * slotSize, slotSize, slotSize);
+        }
+        slotPixmap = new Pixmap(slotSize, slotSize, Pixmap.Format.RGBA8888);
+        slotPixmap.setFilter(Pixmap.Filter.BiLinear);
+        slotPixmap.setBlending(Pixmap.Blending.None);
+    }
+
+    public int getCount() {
+        return offsets.length;
+    }
+
+    /**
+     * @return the avatar's region on the page, decoding it first if it isn't there
+     */
+    public TextureRegion getRegion(int avatar) {
+        Integer slot = slotsByAvatar.get(avatar);
+        if (slot == null) {
+            slot = claimSlot();
+            upload(avatar, slot);
+            slotsByAvatar.put(avatar, slot);
+        }
+        return slotRegions[slot];
+    }
+
+    private int claimSlot() {
+        if (nextFreeSlot < slotRegions.length) {
+            return nextFreeSlot++;
+        }
+        Iterator<Map.Entry<Integer, Integer>> eldest = slotsByAvatar.entrySet().iterator();
+        int slot = eldest.next().getValue();
+        eldest.remove();
+        return slot;
+    }
+
+    private void upload(int avatar, int slot) {
+        byte[] png = readEntry(avatar);
+        Pixmap decoded = new Pixmap(png, 0, png.length);
+        try {
+            slotPixmap.drawPixmap(decoded, 0, 0, decoded.getWidth(), decoded.getHeight(), 0, 0, slotSize, slotSize);
+            page.draw(slotPixmap, (slot % slotsPerRow) * slotSize, (slot / slotsPerRow) * slotSize);
+        } finally {
+            decoded.dispose();
+        }
+    }
+
+    private byte[] readEntry(int avatar) {
+        byte[] png = new byte[lengths[avatar]];
+        try (InputStream in = packFile.read()) {
+            long toSkip = offsets[avatar];
+            while (toSkip > 0) {
+                long skipped = in.skip(toSkip);
+                if (skipped <= 0) {
+                    throw new IOException("Avatar pack ends before avatar " + avatar);
+                }
+                toSkip -= skipped;
+            }
+            new DataInputStream(in).readFully(png);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Could not read avatar " + avatar + " from " + packFile.path(), e);
+        }
+        return png;
+    }
+
+    // How many avatars are on the page right now
+    public int getResidentCount() {
+        return slotsByAvatar.size();
+    }
+
+    @Override
+    public void dispose() {
+        page.dispose();
+        slotPixmap.dispose();
+    }
+}
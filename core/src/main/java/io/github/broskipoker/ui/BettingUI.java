@@ -19,6 +19,7 @@ import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.NinePatch;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
@@ -59,6 +60,7 @@ public class BettingUI {
     private TextButton foldButton;
     private TextButton checkCallButton;
     private TextButton raiseButton;
+    private TextButton runItTwiceButton;
     private Label betAmountLabel;
     private Label potLabel;
     private Label currentBetLabel;
@@ -80,13 +82,21 @@ public class BettingUI {
     private GameRenderer gameRenderer;
     private List<Card> winningCards = null;
 
+    // update() runs every frame, label text is built here and labels only change when it differs
+    private final com.badlogic.gdx.utils.StringBuilder labelText = new com.badlogic.gdx.utils.StringBuilder(64);
+    // The showdown summary is worked out once per showdown, not every frame
+    private String showdownText = null;
+    private int showdownPot = -1;
+
     // Chip textures for bet visualization
-    private final Texture chipTexture;
+    private final TextureRegion chipTexture;
     private final TextureRegion[] chipRegions;
 
     // Button textures
     private Texture buttonTexture;
     private Texture buttonDownTexture;
+    // False when the fallback solid textures are in use, those are ours to dispose
+    private boolean buttonTexturesShared = false;
     private Texture lineCursorTexture;
 
     // Player index for the human player
@@ -128,7 +138,7 @@ public class BettingUI {
         skin = createSimpleSkin();
 
         // Load chip textures
-        chipTexture = new Texture(Gdx.files.internal("textures/2x/chips.png"));
+        chipTexture = Assets.findRegion(Assets.getInstance().acquireAtlas(Assets.TABLE_ATLAS), Assets.CHIPS);
         chipRegions = new TextureRegion[5]; // Assuming 5 chip denominations
         for (int i = 0; i < 5; i++) {
             chipRegions[i] = new TextureRegion(chipTexture, i * 100, 0, 100, 100);
@@ -173,9 +183,13 @@ public class BettingUI {
 
         // Load button textures
         try {
-            buttonTexture = new Texture(Gdx.files.internal("textures/button.png"));
-            buttonDownTexture = new Texture(Gdx.files.internal("textures/button_down.png"));
+            buttonTexture = Assets.getInstance().acquireTexture(Assets.BUTTON);
+            buttonDownTexture = Assets.getInstance().acquireTexture(Assets.BUTTON_DOWN);
+            buttonTexturesShared = true;
         } catch (Exception e) {
+            if (buttonTexture != null) {
+                Assets.getInstance().release(Assets.BUTTON);
+            }
             // Create default button textures if not found
             buttonTexture = createSolidColorTexture(Color.DARK_GRAY);
             buttonDownTexture = createSolidColorTexture(Color.GRAY);
@@ -289,11 +303,7 @@ public class BettingUI {
                 if (!foldButton.isDisabled()) {
                     SoundManager.getInstance().playButtonSound();
                     if (isMultiplayer) {
-                        PlayerAction action = new PlayerAction();
-                        action.action = PokerGame.PlayerAction.FOLD;
-                        action.amount = 0;
-                        action.tableCode = pokerGame.getTableCode();
-                        clientConnection.sendAction(action);
+                        sendAction(PokerGame.PlayerAction.FOLD, 0);
                     } else {
                         pokerGame.performAction(PokerGame.PlayerAction.FOLD, 0);
                     }
@@ -309,22 +319,15 @@ public class BettingUI {
                     SoundManager.getInstance().playButtonSound();
                     if (checkCallButton.getText().toString().equals("Check")) {
                         if (isMultiplayer) {
-                            PlayerAction action = new PlayerAction();
-                            action.action = PokerGame.PlayerAction.CHECK;
-                            action.amount = 0;
-                            action.tableCode = pokerGame.getTableCode();
-                            clientConnection.sendAction(action);
+                            sendAction(PokerGame.PlayerAction.CHECK, 0);
                         } else {
                             pokerGame.performAction(PokerGame.PlayerAction.CHECK, 0);
                         }
                     } else {
                         if (isMultiplayer) {
-                            PlayerAction action = new PlayerAction();
-                            action.action = PokerGame.PlayerAction.CALL;
                             int playerIndex = findHumanPlayerIndex();
-                            action.amount = pokerGame.getCurrentBet() - pokerGame.getPlayers().get(playerIndex).getCurrentBet();
-                            action.tableCode = pokerGame.getTableCode();
-                            clientConnection.sendAction(action);
+                            sendAction(PokerGame.PlayerAction.CALL,
+                                pokerGame.getCurrentBet() - pokerGame.getPlayers().get(playerIndex).getCurrentBet());
                         } else {
                             pokerGame.performAction(PokerGame.PlayerAction.CALL, 0);
                         }
@@ -340,11 +343,7 @@ public class BettingUI {
                 if (!raiseButton.isDisabled()) {
                     SoundManager.getInstance().playButtonSound();
                     if (isMultiplayer) {
-                        PlayerAction action = new PlayerAction();
-                        action.action = PokerGame.PlayerAction.RAISE;
-                        action.amount = currentBetAmount;
-                        action.tableCode = pokerGame.getTableCode();
-                        clientConnection.sendAction(action);
+                        sendAction(PokerGame.PlayerAction.RAISE, currentBetAmount);
                     } else {
                         pokerGame.performAction(PokerGame.PlayerAction.RAISE, currentBetAmount);
                     }
@@ -353,6 +352,20 @@ public class BettingUI {
             }
         });
 
+        // Offered in multiplayer once the hand is all-in, every player still in has to agree
+        runItTwiceButton = new TextButton("Run It Twice", skin);
+        runItTwiceButton.setVisible(false);
+        runItTwiceButton.addListener(new ClickListener() {
+            @Override
+            public void clicked(InputEvent event, float x, float y) {
+                if (!runItTwiceButton.isDisabled() && isMultiplayer) {
+                    SoundManager.getInstance().playButtonSound();
+                    clientConnection.requestRunItTwice(2);
+                    runItTwiceButton.setDisabled(true);
+                }
+            }
+        });
+
         // Create preset bet buttons table
         Table betButtonsTable = new Table();
 
@@ -453,6 +466,7 @@ public class BettingUI {
         addCursorChangeListener(halfPotButton);
         addCursorChangeListener(potButton);
         addCursorChangeListener(allInButton);
+        addCursorChangeListener(runItTwiceButton);
 
         // Add buttons to table
         betButtonsTable.add(minBetButton).pad(5);
@@ -472,7 +486,8 @@ public class BettingUI {
 
         bettingTable.add(foldButton).size(BUTTON_WIDTH, BUTTON_HEIGHT).pad(PADDING);
         bettingTable.add(checkCallButton).size(BUTTON_WIDTH, BUTTON_HEIGHT).pad(PADDING);
-        bettingTable.add(raiseButton).size(BUTTON_WIDTH, BUTTON_HEIGHT).pad(PADDING);
+        bettingTable.add(raiseButton).size(BUTTON_WIDTH, BUTTON_HEIGHT).pad(PADDING).row();
+        bettingTable.add(runItTwiceButton).colspan(3).size(BUTTON_WIDTH * 1.5f, BUTTON_HEIGHT).pad(PADDING);
 
         // Add a background to the table
         backgroundTable = new Table();
@@ -507,11 +522,15 @@ public class BettingUI {
 
     public void update() {
         // Update labels with current game state
-        currentBetLabel.setText("Current Bet: $" + pokerGame.getCurrentBet());
+        labelText.setLength(0);
+        labelText.append("Current Bet: $").append(pokerGame.getCurrentBet());
+        currentBetLabel.setText(labelText);
 
         int playerIndex = findHumanPlayerIndex();
         Player humanPlayer = pokerGame.getPlayers().get(playerIndex);
-        playerChipsLabel.setText("Your Chips: $" + humanPlayer.getChips());
+        labelText.setLength(0);
+        labelText.append("Your Chips: $").append(humanPlayer.getChips());
+        playerChipsLabel.setText(labelText);
 
         // Update turn info label and button states based on whose turn it is
         if (pokerGame.needsPlayerAction()) {
@@ -526,11 +545,13 @@ public class BettingUI {
             } else {
                 // It's a bot's turn - use GameController to check bot thinking status
                 if (gameController != null && gameController.isBotThinking()) {
-                    String botName = pokerGame.getPlayers().get(currentPlayerIndex).getName();
-                    turnInfoLabel.setText(botName + " is thinking...");
+                    labelText.setLength(0);
+                    labelText.append(pokerGame.getPlayers().get(currentPlayerIndex).getName()).append(" is thinking...");
                 } else {
-                    turnInfoLabel.setText("Waiting for " + pokerGame.getCurrentPlayer().getName());
+                    labelText.setLength(0);
+                    labelText.append("Waiting for ").append(pokerGame.getCurrentPlayer().getName());
                 }
+                turnInfoLabel.setText(labelText);
                 setButtonsEnabled(false);
             }
         } else {
@@ -540,14 +561,16 @@ public class BettingUI {
         }
 
         // Update check/call button text based on current bet for human player
+        labelText.setLength(0);
         if (humanPlayer.getChips() <= pokerGame.getCurrentBet()) {
-            checkCallButton.setText("All-In $" + humanPlayer.getChips());
+            labelText.append("All-In $").append(humanPlayer.getChips());
             raiseButton.setDisabled(true); // Also disable raise if going all-in via call
         } else if (humanPlayer.getCurrentBet() < pokerGame.getCurrentBet()) {
-            checkCallButton.setText("Call $" + (pokerGame.getCurrentBet() - humanPlayer.getCurrentBet()));
+            labelText.append("Call $").append(pokerGame.getCurrentBet() - humanPlayer.getCurrentBet());
         } else {
-            checkCallButton.setText("Check");
+            labelText.append("Check");
         }
+        checkCallButton.getLabel().setText(labelText);
 
         // If player doesn't have enough chips to make a minimum raise, disable raise button
         // A minimum raise is doubling the current bet level, or going all-in if less
@@ -560,14 +583,32 @@ public class BettingUI {
              raiseButton.setDisabled(false);
         }
 
+        // Run it twice is only offered while the hand is all-in and this player is still in it
+        boolean canRunItTwice = isMultiplayer && humanPlayer.isActive() && pokerGame.isRunoutAvailable();
+        if (canRunItTwice && !runItTwiceButton.isVisible()) {
+            runItTwiceButton.setDisabled(false);
+        }
+        runItTwiceButton.setVisible(canRunItTwice);
+
         // Set minimum bet amount by default for raise slider/input (if implemented)
         if (currentBetAmount == 0) {
             setBetAmount(pokerGame.getCurrentBet()); // Default to current bet level
         }
 
-        if (pokerGame.getGameState() == PokerGame.GameState.SHOWDOWN) {
+        if (pokerGame.getGameState() != PokerGame.GameState.SHOWDOWN) {
+            showdownText = null;
+            winningCards = null;
+        } else if (showdownText != null && showdownPot == pokerGame.getPot()) {
+            if (winningCards != null) {
+                gameRenderer.renderWinningHand(winningCards);
+            }
+            turnInfoLabel.setText(showdownText);
+            setButtonsEnabled(false);
+        } else {
             List<Player> winners = pokerGame.determineWinners();
             int pot = pokerGame.getPot();
+            showdownPot = pot;
+            winningCards = null;
 
             if (!winners.isEmpty()) {
                 StringBuilder sb = new StringBuilder();
@@ -576,8 +617,8 @@ public class BettingUI {
                     PokerHand hand = new PokerHand(winner.getHoleCards(), pokerGame.getCommunityCards());
 
                     // Get the best hand for rendering during showdown
-                    List<Card> bestHand = hand.getBestHand();
-                    gameRenderer.renderWinningHand(bestHand);
+                    winningCards = hand.getBestHand();
+                    gameRenderer.renderWinningHand(winningCards);
 
                     sb.append(winner.getName())
                         .append(" wins the pot ($")
@@ -596,12 +637,23 @@ public class BettingUI {
                     // Remove trailing comma and space
                     sb.setLength(sb.length() - 2);
                 }
-                turnInfoLabel.setText(sb.toString());
+
+                // The pot is shared between the boards when the hand was run more than once
+                List<List<Card>> runoutBoards = pokerGame.getRunoutBoards();
+                for (int run = 0; run < runoutBoards.size(); run++) {
+                    List<Player> boardWinners = pokerGame.determineWinners(runoutBoards.get(run));
+                    sb.append("\nBoard ").append(run + 2).append(": ");
+                    for (Player winner : boardWinners) {
+                        sb.append(winner.getName()).append(", ");
+                    }
+                    sb.setLength(sb.length() - 2);
+                }
+                showdownText = sb.toString();
             } else {
-                turnInfoLabel.setText("No winner.");
+                showdownText = "No winner.";
             }
+            turnInfoLabel.setText(showdownText);
             setButtonsEnabled(false);
-            return;
         }
     }
 
@@ -638,7 +690,9 @@ public class BettingUI {
         currentBetAmount = Math.min(maxBet, Math.max(minBet, amount));
 
         // Update bet amount label
-        betAmountLabel.setText("Your current bet: $" + currentBetAmount);
+        labelText.setLength(0);
+        labelText.append("Your current bet: $").append(currentBetAmount);
+        betAmountLabel.setText(labelText);
     }
 
     private int determineChipType(int value) {
@@ -693,6 +747,20 @@ public class BettingUI {
         this.currentUsername = username;
     }
 
+    // Sends the action and shows it right away, the server's next update confirms or takes it back
+    private void sendAction(PokerGame.PlayerAction act, int amount) {
+        PlayerAction action = new PlayerAction();
+        action.action = act;
+        action.amount = amount;
+        action.tableCode = pokerGame.getTableCode();
+        clientConnection.sendAction(action);
+        // The answer is applied on this thread too, at the start of a later frame, never before the prediction
+        if (action.sequence > 0 && clientConnection.getActionPredictor()
+            .predict(pokerGame, findHumanPlayerIndex(), action.sequence, act, amount)) {
+            update();
+        }
+    }
+
     private int findHumanPlayerIndex() {
         if (!isMultiplayer) {
             return 3; // default for singleplayer
@@ -729,7 +797,7 @@ public class BettingUI {
 
         int localPlayerIndex = findHumanPlayerIndex();
         int playerCount = pokerGame.getPlayers().size();
-        int dealerPosition = PokerGame.getDealerPosition();
+        int dealerPosition = pokerGame.getDealerPosition();
 
         // Adjust player positions based on dealer position to maintain correct betting order
         // In poker, the order of play rotates with the dealer button
@@ -754,9 +822,14 @@ public class BettingUI {
     }
 
     public void dispose() {
-        chipTexture.dispose();
-        buttonTexture.dispose();
-        buttonDownTexture.dispose();
+        Assets.getInstance().release(Assets.TABLE_ATLAS);
+        if (buttonTexturesShared) {
+            Assets.getInstance().release(Assets.BUTTON);
+            Assets.getInstance().release(Assets.BUTTON_DOWN);
+        } else {
+            buttonTexture.dispose();
+            buttonDownTexture.dispose();
+        }
         lineCursorTexture.dispose();
         // FontManager handles font disposal
     }
@@ -16,7 +16,6 @@ package io.github.broskipoker.ui;
 import io.github.broskipoker.Main;
 import io.github.broskipoker.game.Card;
 import io.github.broskipoker.game.Player;
-import io.github.broskipoker.game.PokerGame;
 
 import java.util.Arrays;
 import java.util.List;
@@ -54,15 +53,15 @@ public class DealingAnimator {
         elapsedTime += delta;
         if (elapsedTime > dealingInterval) {
             if (currentPlayerIndex < players.size() && currentPlayerIndex < maxPlayerPositions) {
-                Card[] playerCards = players.get(currentPlayerIndex).getHoleCards().toArray(new Card[0]);
-                if (dealingRound < 2 && playerCards.length >= 2) {
+                List<Card> playerCards = players.get(currentPlayerIndex).getHoleCards();
+                if (dealingRound < 2 && playerCards.size() >= 2) {
                     dealtCards[currentPlayerIndex][dealingRound] = true; // Mark this card as dealt
                     currentPlayerIndex = (currentPlayerIndex + 1) % maxPlayers; // Move to next player
                     // If we've dealt to all players in this round, move to next round
-                    if (currentPlayerIndex == PokerGame.getDealerPosition() || currentPlayerIndex >= maxPlayerPositions) {
+                    if (currentPlayerIndex == dealerPosition || currentPlayerIndex >= maxPlayerPositions) {
                         if (dealingRound < 1) {
                             dealingRound++; // Start second round
-                            currentPlayerIndex = PokerGame.getDealerPosition();
+                            currentPlayerIndex = dealerPosition;
                         } else {
                             dealingComplete = true; // Both rounds completed
                         }
@@ -74,8 +73,13 @@ public class DealingAnimator {
 
     }
 
+    public void reset(int dealerPosition) {
+        this.dealerPosition = dealerPosition;
+        reset();
+    }
+
     public void reset() {
-        currentPlayerIndex = PokerGame.getDealerPosition() % maxPlayers; // Start from the next player
+        currentPlayerIndex = dealerPosition % maxPlayers; // Start from the next player
         dealingRound = 0;
         dealingComplete = false;
         elapsedTime = 0f;
@@ -6,7 +6,7 @@ import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
 import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeFontParameter;
 import com.badlogic.gdx.utils.Disposable;
-import java.util.HashMap;
+import com.badlogic.gdx.utils.LongMap;
 
 /**
  * Manages the creation, caching, and disposal of FreeType fonts.
@@ -14,12 +14,13 @@ import java.util.HashMap;
 public class FontManager implements Disposable {
     private static FontManager instance;
     private final FreeTypeFontGenerator generator;
-    private final HashMap<String, BitmapFont> fonts;
+    // Keyed by size and packed color, looking a font up every frame allocates nothing
+    private final LongMap<BitmapFont> fonts;
 
     private FontManager() {
         // Load the font file
         generator = new FreeTypeFontGenerator(Gdx.files.internal("fonts/NotoSans-Bold.ttf"));
-        fonts = new HashMap<>();
+        fonts = new LongMap<>();
     }
 
     public static FontManager getInstance() {
@@ -36,9 +37,10 @@ public class FontManager implements Disposable {
      * @return a BitmapFont created with FreeType
      */
     public BitmapFont getFont(int size, Color color) {
-        String key = size + "_" + color.toString();
-        if (fonts.containsKey(key)) {
-            return fonts.get(key);
+        long key = ((long) size << 32) | (Color.rgba8888(color) & 0xffffffffL);
+        BitmapFont cached = fonts.get(key);
+        if (cached != null) {
+            return cached;
         }
 
         FreeTypeFontParameter parameter = new FreeTypeFontParameter();
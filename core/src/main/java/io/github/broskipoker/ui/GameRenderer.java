@@ -23,7 +23,9 @@ import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.scenes.scene2d.Group;
@@ -54,7 +56,16 @@ public class GameRenderer {
     private final Menu menu;
     private final BitmapFont font;
     private final BitmapFont blindsFont;
-    private BitmapFont potFont;
+    private final BitmapFont potFont;
+    private final BitmapFont humanNameFont;
+    private final BitmapFont playerNameFont;
+    private final BitmapFont betFont;
+    private static final Color GOLD = new Color(1.0f, 0.84f, 0.0f, 1.0f);
+    private static final Color HUMAN_BLUE = new Color(0.2f, 0.6f, 1.0f, 1.0f);
+
+    // Per-frame text is built and laid out in these instead of new Strings every frame
+    private final StringBuilder textBuilder = new StringBuilder(64);
+    private final GlyphLayout textLayout = new GlyphLayout();
     private final FontManager fontManager;
 
     // Camera settings
@@ -66,12 +77,12 @@ public class GameRenderer {
 
     // Assets
     private final Texture backgroundTexture;
-    private final Texture cardSheet;
-    private final Texture enhancersSheet;
+    private final TextureRegion cardSheet;
+    private final TextureRegion enhancersSheet;
     private final TextureRegion[][] cardRegions;
     private final TextureRegion cardBackground;
     private final TextureRegion cardBack;
-    private final Texture buttonsSheet;
+    private final TextureRegion buttonsSheet;
     private final TextureRegion dealerRegion;
     private final TextureRegion smallBlindRegion;
     private final TextureRegion bigBlindRegion;
@@ -92,10 +103,17 @@ public class GameRenderer {
     private static final int CARD_SPACING = 15;
 
     // Chip textures
-    private Texture chipTexture;
+    private TextureRegion chipTexture;
     private TextureRegion[] chipRegion;
     private static final int[] CHIP_VALUES = {1, 5, 10, 25, 100, 500};
     private static final int CHIP_SIZE = 58;
+    // Denominations of the bet stacks, smallest at the bottom
+    private static final int[] STACK_CHIP_VALUES = {5, 10, 25, 100, 500};
+    private final int[] stackChipCounts = new int[STACK_CHIP_VALUES.length];
+
+    // Avatars are drawn at 60px, a 256px page keeps 16 of them resident
+    private static final int AVATAR_SLOT_SIZE = 64;
+    private static final int AVATAR_PAGE_SIZE = 256;
 
     // Small Blind, Big Blind, and Dealer chips textures
     private final int CHIP_WIDTH = 1465 / 3;
@@ -104,6 +122,18 @@ public class GameRenderer {
     // Chair positions
     private final float[][] chairPositions;
 
+    // Name and bet text offsets from each chair
+    private static final float[][] PLAYER_TEXT_OFFSETS = {
+        {20, 300}, // player 1
+        {20, 300}, // player 2
+        {310, 50}, // player 3
+        {20, -90},  // player 4
+        {20, -90}  // player 5
+    };
+
+    // Drawn face down for opponents whose cards the server doesn't send
+    private static final Card PLACEHOLDER_CARD = new Card(Card.Suit.CLUBS, Card.Rank.ACE);
+
     // Card dealing animation helper instance
     private static final DealingAnimator dealingAnimator;
     private static boolean dealingAnimationComplete = false;
@@ -126,9 +156,8 @@ public class GameRenderer {
     // Sound manager
     private SoundManager soundManager;
 
-    // Avatars textures
-    private Texture avatarsTexture;
-    private TextureRegion[][] avatarRegions;
+    // Avatars, decoded from the avatar pack as they come on screen
+    private AvatarCache avatarCache;
     private int[] playerAvatarIndices; // Store which avatar each player uses
 
     // Emoji rendering
@@ -150,7 +179,7 @@ public class GameRenderer {
     static
     {
         // Initialize dealing animator
-        dealingAnimator = new DealingAnimator(5, PokerGame.getDealerPosition()); // Max 5 players
+        dealingAnimator = new DealingAnimator(5, 0); // Max 5 players, dealer is set on every new hand
     }
 
     public GameRenderer(PokerGame pokerGame) {
@@ -168,6 +197,10 @@ public class GameRenderer {
         // Initialize fonts using FontManager for better scaling
         font = fontManager.getFont(24, Color.WHITE);
         blindsFont = fontManager.getFont(16, new Color(1, 0.84f, 0, 1)); // Gold color
+        potFont = fontManager.getFont(28, GOLD);
+        humanNameFont = fontManager.getFont(24, HUMAN_BLUE);
+        playerNameFont = fontManager.getFont(24, Color.WHITE);
+        betFont = fontManager.getFont(18, GOLD);
 
         // Initialize camera
         camera = new OrthographicCamera();
@@ -175,13 +208,19 @@ public class GameRenderer {
         camera.update();
 
         // Load textures
-        backgroundTexture = new Texture("textures/2x/pokerTable.png");
-        cardSheet = new Texture(Gdx.files.internal("textures/2x/8BitDeck.png"));
-        enhancersSheet = new Texture(Gdx.files.internal("textures/2x/Enhancers.png"));
-        chipTexture = new Texture(Gdx.files.internal("textures/2x/chips.png"));
+        // Load textures, shared with every other screen through Assets
+        Assets assets = Assets.getInstance();
+        backgroundTexture = assets.acquireTexture(Assets.POKER_TABLE);
+
+        // Cards, chips, blind buttons and emojis all live on one atlas page, drawing them
+        // one after another never switches texture
+        TextureAtlas tableAtlas = assets.acquireAtlas(Assets.TABLE_ATLAS);
+        cardSheet = Assets.findRegion(tableAtlas, Assets.CARD_DECK);
+        enhancersSheet = Assets.findRegion(tableAtlas, Assets.ENHANCERS);
+        chipTexture = Assets.findRegion(tableAtlas, Assets.CHIPS);
 
         // Load buttons sheet
-        buttonsSheet = new Texture(Gdx.files.internal("textures/2x/SmallBigDealer.png"));
+        buttonsSheet = Assets.findRegion(tableAtlas, Assets.BLIND_BUTTONS);
         smallBlindRegion = new TextureRegion(buttonsSheet, 0, 0, CHIP_WIDTH, CHIP_HEIGHT);
         dealerRegion = new TextureRegion(buttonsSheet, CHIP_WIDTH + 1, 0, CHIP_WIDTH, CHIP_HEIGHT);
         bigBlindRegion = new TextureRegion(buttonsSheet, 2 * CHIP_WIDTH + 1, 0,  CHIP_WIDTH, CHIP_HEIGHT);
@@ -234,21 +273,9 @@ public class GameRenderer {
         //     turnIndicatorRegion = smallBlindRegion;
         // }
 
-        // Load avatar texture with scaling
+        // Open the avatar pack, avatars are only decoded once a player shows them
         try {
-            // Load the pre-scaled avatar texture
-            avatarsTexture = new Texture(Gdx.files.internal("avatars/merged_avatars_256.png"));
-
-            // Total dimensions of the texture
-            int textureWidth = 2560;  // 10 columns × 256 pixels
-            int textureHeight = 6400; // 25 rows × 256 pixels
-
-            // Calculate dimensions for each avatar (10×25 grid)
-            int avatarWidth = 256;  // Each avatar is 256×256
-            int avatarHeight = 256;
-
-            // Split the texture into individual avatar regions
-            avatarRegions = TextureRegion.split(avatarsTexture, avatarWidth, avatarHeight);
+            avatarCache = new AvatarCache(Gdx.files.internal(Assets.AVATAR_PACK), AVATAR_SLOT_SIZE, AVATAR_PAGE_SIZE);
 
             // Initialize player avatar indices with random avatars
             playerAvatarIndices = new int[5]; // One index for each player
@@ -256,17 +283,17 @@ public class GameRenderer {
                 if (isMultiplayer) {
                     playerAvatarIndices[i] = i;
                 }
-                playerAvatarIndices[i] = MathUtils.random(249); // 250 total avatars (10×25)
+                playerAvatarIndices[i] = MathUtils.random(avatarCache.getCount() - 1);
             }
         } catch (Exception e) {
             System.err.println("Failed to load avatar textures: " + e.getMessage());
             e.printStackTrace();
-            avatarRegions = null;
+            avatarCache = null;
             playerAvatarIndices = null;
         }
 
         //Load emoji textures
-        loadEmojiTextures();
+        loadEmojiTextures(tableAtlas);
 
         //Load emoji button
         TextureRegionDrawable emojiButtonDrawable = new TextureRegionDrawable(emojiRegions[0]); // first emoji as icon
@@ -341,6 +368,9 @@ public class GameRenderer {
     }
 
     public void render(float delta) {
+        // Sounds queued last frame play now, nothing on this thread waits for them
+        soundManager.update(delta);
+
         if (menu.isGameStarted()) {
             // Hide menu buttons
             for (TextButton button : menu.getButtons()) {
@@ -402,7 +432,7 @@ public class GameRenderer {
     // Modify renderBlindPositions()
     private void renderBlindPositions() {
         // Get dealer position
-        int dealerPosition = PokerGame.getDealerPosition();
+        int dealerPosition = pokerGame.getDealerPosition();
 
         // Button size
         int buttonWidth = 80;
@@ -459,51 +489,59 @@ public class GameRenderer {
 
         for (int i = 0; i < communityCards.length; i++) {
             if (communityCards[i] != null) {
-                float cardX = x + i * (DISPLAY_CARD_WIDTH + CARD_SPACING);
-
-                // Play sound for all cards, not just face up ones
-                soundManager.playCardSound(communityCards[i], i);
-
-                if (isFaceUp) {
-                    // Draw card background
-                    batch.draw(cardBackground, cardX, y, DISPLAY_CARD_WIDTH, DISPLAY_CARD_HEIGHT);
-                    // Draw card face
-                    Card card = communityCards[i];
-                    batch.draw(cardRegions[card.getSuit().ordinal()][card.getRank().ordinal()],
-                        cardX, y, DISPLAY_CARD_WIDTH, DISPLAY_CARD_HEIGHT);
-                } else {
-                    // Draw card back
-                    batch.draw(cardBack, cardX, y, DISPLAY_CARD_WIDTH, DISPLAY_CARD_HEIGHT);
-                }
+                renderCard(communityCards[i], i, x + i * (DISPLAY_CARD_WIDTH + CARD_SPACING), y, isFaceUp);
             }
         }
     }
 
+    /**
+     * Renders the first cards of a board straight from the list, without copying it
+     * @param count - how many cards to draw, fewer if the board is shorter
+     */
+    private void renderBoard(List<Card> board, int count, float x, float y) {
+        for (int i = 0; i < count && i < board.size(); i++) {
+            renderCard(board.get(i), i, x + i * (DISPLAY_CARD_WIDTH + CARD_SPACING), y, true);
+        }
+    }
+
+    private void renderCard(Card card, int position, float x, float y, boolean isFaceUp) {
+        // Play sound for all cards, not just face up ones
+        soundManager.playCardSound(card, position);
+
+        if (isFaceUp) {
+            // Draw card background
+            batch.draw(cardBackground, x, y, DISPLAY_CARD_WIDTH, DISPLAY_CARD_HEIGHT);
+            // Draw card face
+            batch.draw(cardRegions[card.getSuit().ordinal()][card.getRank().ordinal()],
+                x, y, DISPLAY_CARD_WIDTH, DISPLAY_CARD_HEIGHT);
+        } else {
+            // Draw card back
+            batch.draw(cardBack, x, y, DISPLAY_CARD_WIDTH, DISPLAY_CARD_HEIGHT);
+        }
+    }
+
     /**
      * Renders a stack of cards (dealer's deck) at a specific position.
      * @param x - x coordinate of the stack
      * @param y - y coordinate of the stack
      * @param stackSize - number of cards in the stack
      */
-    public void renderCardStack(float x, float y, int stackSize, Texture enhancersSheet) {
-        // Extract the card stack background
-        TextureRegion cardStackBackground = new TextureRegion(enhancersSheet, 0, 0, ENHANCER_WIDTH, ENHANCER_HEIGHT);
+    public void renderCardStack(float x, float y, int stackSize) {
         for (int i = 0; i < stackSize; i++) {
             // Slight offset for each card in the stack
             float offset = i * -(float) 1.75; // Adjust for visual effect
-            batch.draw(cardStackBackground, x + offset, y - offset, DISPLAY_CARD_WIDTH, DISPLAY_CARD_HEIGHT);
+            batch.draw(cardBack, x + offset, y - offset, DISPLAY_CARD_WIDTH, DISPLAY_CARD_HEIGHT);
         }
     }
 
-    private void loadEmojiTextures(){
+    // The emojis are on the table atlas the constructor already holds a reference to
+    private void loadEmojiTextures(TextureAtlas tableAtlas){
         // Load emoji textures
-        emojiRegions = new TextureRegion[5];
+        emojiRegions = new TextureRegion[Assets.EMOJIS.length];
 
-        emojiRegions[0] = new TextureRegion(new Texture(Gdx.files.internal("emojis/laugh.png")));
-        emojiRegions[1] = new TextureRegion(new Texture(Gdx.files.internal("emojis/cry.png")));
-        emojiRegions[2] = new TextureRegion(new Texture(Gdx.files.internal("emojis/angry.png")));
-        emojiRegions[3] = new TextureRegion(new Texture(Gdx.files.internal("emojis/like.png")));
-        emojiRegions[4] = new TextureRegion(new Texture(Gdx.files.internal("emojis/boss.png")));
+        for (int i = 0; i < emojiRegions.length; i++) {
+            emojiRegions[i] = Assets.findRegion(tableAtlas, Assets.EMOJIS[i]);
+        }
 
     }
 
@@ -517,32 +555,33 @@ public class GameRenderer {
     public void renderRotatedCards(Card[] communityCards, float x, float y, float rotation, boolean isFaceUp) {
         if (communityCards == null) return;
 
-        float originX = DISPLAY_CARD_WIDTH / 2;
-        float originY = DISPLAY_CARD_HEIGHT / 2;
-
         for (int i = 0; i < communityCards.length; i++) {
             if (communityCards[i] != null) {
-                float cardX = x + (DISPLAY_CARD_WIDTH + CARD_SPACING);
+                renderRotatedCard(communityCards[i], i, x, y - i * (DISPLAY_CARD_WIDTH + CARD_SPACING), rotation, isFaceUp);
+            }
+        }
+    }
 
-                // Play sound for all cards
-                soundManager.playCardSound(communityCards[i], i);
+    private void renderRotatedCard(Card card, int position, float x, float y, float rotation, boolean isFaceUp) {
+        float originX = DISPLAY_CARD_WIDTH / 2;
+        float originY = DISPLAY_CARD_HEIGHT / 2;
+        float cardX = x + (DISPLAY_CARD_WIDTH + CARD_SPACING);
 
-                if (isFaceUp) {
-                    // Draw card background (rotated)
-                    batch.draw(cardBackground, cardX, y - i * (DISPLAY_CARD_WIDTH + CARD_SPACING),
-                        originX, originY, DISPLAY_CARD_WIDTH, DISPLAY_CARD_HEIGHT, 1, 1, rotation);
+        // Play sound for all cards
+        soundManager.playCardSound(card, position);
 
-                    // Draw card face (rotated)
-                    Card card = communityCards[i];
-                    batch.draw(cardRegions[card.getSuit().ordinal()][card.getRank().ordinal()],
-                        cardX, y - i * (DISPLAY_CARD_WIDTH + CARD_SPACING),
-                        originX, originY, DISPLAY_CARD_WIDTH, DISPLAY_CARD_HEIGHT, 1, 1, rotation);
-                } else {
-                    // Draw card back (rotated)
-                    batch.draw(cardBack, cardX, y - i * (DISPLAY_CARD_WIDTH + CARD_SPACING),
-                        originX, originY, DISPLAY_CARD_WIDTH, DISPLAY_CARD_HEIGHT, 1, 1, rotation);
-                }
-            }
+        if (isFaceUp) {
+            // Draw card background (rotated)
+            batch.draw(cardBackground, cardX, y,
+                originX, originY, DISPLAY_CARD_WIDTH, DISPLAY_CARD_HEIGHT, 1, 1, rotation);
+
+            // Draw card face (rotated)
+            batch.draw(cardRegions[card.getSuit().ordinal()][card.getRank().ordinal()],
+                cardX, y, originX, originY, DISPLAY_CARD_WIDTH, DISPLAY_CARD_HEIGHT, 1, 1, rotation);
+        } else {
+            // Draw card back (rotated)
+            batch.draw(cardBack, cardX, y,
+                originX, originY, DISPLAY_CARD_WIDTH, DISPLAY_CARD_HEIGHT, 1, 1, rotation);
         }
     }
 
@@ -559,29 +598,21 @@ public class GameRenderer {
             float y = chairPositions[uiPosition][1];
 
             // Get player's cards
-            Card[] playerCards = players.get(i).getHoleCards().toArray(new Card[0]);
+            List<Card> playerCards = players.get(i).getHoleCards();
 
             // For active opponents in multiplayer mode, ensure we have something to render
             boolean shouldCreatePlaceholders = isMultiplayer &&
                                               players.get(i).isActive() &&
                                               i != humanPlayerIndex &&
-                                              playerCards.length == 0;
-
-            // Create placeholder cards for opponents in multiplayer if needed
-            Card[] cardsToRender;
-            if (shouldCreatePlaceholders) {
-                // Create two placeholder cards that will be rendered face down
-                cardsToRender = new Card[2];
-                cardsToRender[0] = new Card(Card.Suit.CLUBS, Card.Rank.ACE);
-                cardsToRender[1] = new Card(Card.Suit.CLUBS, Card.Rank.ACE);
-            } else {
-                cardsToRender = playerCards;
-            }
+                                              playerCards.isEmpty();
 
             // Render up to 2 cards for each player
             for (int j = 0; j < 2; j++) {
+                // Placeholders are rendered face down
+                Card card = shouldCreatePlaceholders ? PLACEHOLDER_CARD
+                    : (j < playerCards.size() ? playerCards.get(j) : null);
                 // Skip if no card to render
-                if (j >= cardsToRender.length || cardsToRender[j] == null) {
+                if (card == null) {
                     continue;
                 }
 
@@ -593,13 +624,13 @@ public class GameRenderer {
                     if (uiPosition == 2) {
                         // Player at UI position 2 has rotated cards
                         boolean showFaceUp = isShowdown || i == humanPlayerIndex;
-                        renderRotatedCards(new Card[]{cardsToRender[j]}, x, y - j * 70, 90, showFaceUp);
+                        renderRotatedCard(card, 0, x, y - j * 70, 90, showFaceUp);
                     } else if (i == humanPlayerIndex || isShowdown) {
                         // Human player or showdown state - show face up
-                        renderCards(new Card[]{cardsToRender[j]}, x + j * 70, y, true);
+                        renderCard(card, 0, x + j * 70, y, true);
                     } else {
                         // Other players during regular gameplay - show face down
-                        renderCards(new Card[]{cardsToRender[j]}, x + j * 70, y, false);
+                        renderCard(card, 0, x + j * 70, y, false);
                     }
                 }
             }
@@ -662,32 +693,38 @@ public class GameRenderer {
         float centerY = Gdx.graphics.getHeight() / 2.15f;
 
         // Render dealer position (deck)
-        renderCardStack(Gdx.graphics.getWidth() / 7f, centerY, 5, enhancersSheet);
+        renderCardStack(Gdx.graphics.getWidth() / 7f, centerY, 5);
 
         renderBlindPositions();
 
         // Render community cards based on game state
         if (state == PokerGame.GameState.BETTING_FLOP || state == PokerGame.GameState.FLOP) {
             if (communityCards.size() >= 3) {
-                Card[] flopCards = {communityCards.get(0), communityCards.get(1), communityCards.get(2), null, null};
-                renderCards(flopCards, centerX, centerY, true);
+                renderBoard(communityCards, 3, centerX, centerY);
             }
         } else if (state == PokerGame.GameState.BETTING_TURN || state == PokerGame.GameState.TURN) {
             if (communityCards.size() >= 4) {
-                Card[] turnCards = {communityCards.get(0), communityCards.get(1),
-                    communityCards.get(2), communityCards.get(3), null};
-                renderCards(turnCards, centerX, centerY, true);
+                renderBoard(communityCards, 4, centerX, centerY);
             }
         } else if (state == PokerGame.GameState.BETTING_RIVER || state == PokerGame.GameState.RIVER
             || state == PokerGame.GameState.SHOWDOWN) {
-            Card[] displayCards = communityCards.toArray(new Card[0]);
-            renderCards(displayCards, centerX, centerY, true);
+            renderBoard(communityCards, communityCards.size(), centerX, centerY);
+
+            // When the board was run more than once, the other runouts go underneath the first one
+            if (state == PokerGame.GameState.SHOWDOWN) {
+                List<List<Card>> runoutBoards = pokerGame.getRunoutBoards();
+                for (int run = 0; run < runoutBoards.size(); run++) {
+                    float boardY = centerY - (run + 1) * (DISPLAY_CARD_HEIGHT + CARD_SPACING);
+                    List<Card> board = runoutBoards.get(run);
+                    renderBoard(board, board.size(), centerX, boardY);
+                }
+            }
         }
 
         // Show pot amount
-        String potText = "Pot: $" + pokerGame.getPot();
-        potFont = fontManager.getFont(28, new Color(1.0f, 0.84f, 0.0f, 1.0f));
-        potFont.draw(batch, potText,centerX + 80, centerY + 120);
+        textBuilder.setLength(0);
+        textBuilder.append("Pot: $").append(pokerGame.getPot());
+        drawText(potFont, centerX + 80, centerY + 120);
 
         // Handle card dealing animation
         if (state == PokerGame.GameState.BETTING_PRE_FLOP) {
@@ -768,8 +805,8 @@ public class GameRenderer {
         batch.end();
     }
 
-    public static void resetGameRenderer() {
-        dealingAnimator.reset();
+    public static void resetGameRenderer(int dealerPosition) {
+        dealingAnimator.reset(dealerPosition);
         dealingAnimationComplete = false;
         dealingAnimationTimer = 0;
     }
@@ -781,8 +818,8 @@ public class GameRenderer {
         soundManager.playChipSound(betAmount, playerIndex);
 
         // Map bet to chips (500, 100, 25, 10, 5)
-        int[] chipValues = {5, 10, 25, 100, 500};
-        int[] chipCounts = new int[chipValues.length];
+        int[] chipValues = STACK_CHIP_VALUES;
+        int[] chipCounts = stackChipCounts;
         int remainingAmount = betAmount;
 
         // Calculate chips needed (start from highest value)
@@ -858,13 +895,7 @@ public class GameRenderer {
 
     private void renderPlayerInfo(List<Player> players, int currentPlayerIndex) {
         // Define individual text offsets for each player
-        float[][] textOffsets = {
-            {20, 300}, // player 1
-            {20, 300}, // player 2
-            {310, 50}, // player 3
-            {20, -90},  // player 4
-            {20, -90}  // player 5
-        };
+        float[][] textOffsets = PLAYER_TEXT_OFFSETS;
 
         // Avatar display settings
         final int AVATAR_SIZE = 60;
@@ -885,11 +916,9 @@ public class GameRenderer {
             float textOffsetY = textOffsets[uiPosition][1];
 
             // Draw player avatar (if available)
-            if (avatarRegions != null) {
+            if (avatarCache != null) {
                 // Calculate which avatar to use for this player
                 int index = playerAvatarIndices[i];
-                int row = index / 10;
-                int col = index % 10;
 
                 // Position avatar based on player position
                 float avatarX, avatarY;
@@ -926,8 +955,8 @@ public class GameRenderer {
 
                 // Draw avatar
                 batch.setColor(Color.WHITE);
-                if (row < avatarRegions.length && col < avatarRegions[0].length) {
-                    batch.draw(avatarRegions[row][col], avatarX, avatarY, AVATAR_SIZE, AVATAR_SIZE);
+                if (index < avatarCache.getCount()) {
+                    batch.draw(avatarCache.getRegion(index), avatarX, avatarY, AVATAR_SIZE, AVATAR_SIZE);
                 }
 
                 //Emoji test
@@ -946,20 +975,21 @@ public class GameRenderer {
 
             // Get player name font based on player type
             BitmapFont playerFont;
-            String playerInfo = players.get(i).getName() + ": $" + players.get(i).getChips();
+            textBuilder.setLength(0);
+            textBuilder.append(players.get(i).getName()).append(": $").append(players.get(i).getChips());
 
             if (i == humanPlayerIndex) {
-                playerFont = fontManager.getFont(24, new Color(0.2f, 0.6f, 1.0f, 1.0f)); // Blue for human player
-                playerInfo += " (You)";
+                playerFont = humanNameFont; // Blue for human player
+                textBuilder.append(" (You)");
             } else {
-                playerFont = fontManager.getFont(24, Color.WHITE); // White for other players
+                playerFont = playerNameFont; // White for other players
             }
 
             // Draw player info with shifted Y coordinate (moved up 25 pixels)
-            playerFont.draw(batch, playerInfo, x + textOffsetX, y + textOffsetY + 25);
+            drawText(playerFont, x + textOffsetX, y + textOffsetY + 25);
 
             if (players.get(i).getCurrentBet() > 0) {
-                BitmapFont betFont = fontManager.getFont(18, new Color(1.0f, 0.84f, 0.0f, 1.0f)); // Gold for bet amounts
+                // Gold for bet amounts
 
                 // Check if player has checked or folded
                 if (players.get(i).getCurrentBet() == pokerGame.getCurrentBet() &&
@@ -974,7 +1004,9 @@ public class GameRenderer {
 
                 } else {
                     // Draw bet amount with adjusted Y position (moved up 20 pixels)
-                    betFont.draw(batch, "Bet: $" + players.get(i).getCurrentBet(), x + textOffsetX, y + textOffsetY - 10);
+                    textBuilder.setLength(0);
+                    textBuilder.append("Bet: $").append(players.get(i).getCurrentBet());
+                    drawText(betFont, x + textOffsetX, y + textOffsetY - 10);
                 }
 
                 // Calculate position for chips based on player position
@@ -992,7 +1024,6 @@ public class GameRenderer {
                 renderBetChips(players.get(i).getCurrentBet(), chipX, chipY, i);
             } else if (hasActedInRound(i) && pokerGame.getCurrentBet() == 0) {
                 // Player has acted but has no bet (they checked)
-                BitmapFont betFont = fontManager.getFont(18, new Color(1.0f, 0.84f, 0.0f, 1.0f));
                 // Draw check/fold status with adjusted Y position (moved up 20 pixels)
                 // TODO: Fold nu apare in PREFLOP pentru jucatorul 4 (human)
                 if(!players.get(i).isActive()) {
@@ -1005,7 +1036,7 @@ public class GameRenderer {
 
             // Indicator for current player
             if (i == currentPlayerIndex && pokerGame.needsPlayerAction()) {
-                if (avatarRegions != null) {
+                if (avatarCache != null) {
                     float avatarX = x + textOffsetX - AVATAR_SIZE - 10;
                     float avatarY = y + textOffsetY - AVATAR_SIZE/2;
 
@@ -1040,6 +1071,12 @@ public class GameRenderer {
         }
     }
 
+    // Draws whatever is in textBuilder, laid out in the reused GlyphLayout
+    private void drawText(BitmapFont font, float x, float y) {
+        textLayout.setText(font, textBuilder);
+        font.draw(batch, textLayout, x, y);
+    }
+
     private boolean hasActedInRound(int playerIndex) {
         // You need to access the hasActedInRound array from PokerGame
         // Since it's private, you might need to add a getter method in PokerGame
@@ -1049,7 +1086,7 @@ public class GameRenderer {
     // Handle player turns and betting UI
     private void handlePlayerTurns() {
         // Check if we should block actions during animation
-        boolean shouldBlock = PokerGame.getGameState() == PokerGame.GameState.BETTING_PRE_FLOP &&
+        boolean shouldBlock = pokerGame.getGameState() == PokerGame.GameState.BETTING_PRE_FLOP &&
                              !dealingAnimationComplete;
 
         // Only proceed with betting actions if we shouldn't block
@@ -1186,14 +1223,15 @@ public class GameRenderer {
         stage.dispose();
         // Don't dispose individual fonts, FontManager will handle it
         fontManager.dispose();
-        cardSheet.dispose();
-        enhancersSheet.dispose();
-        backgroundTexture.dispose();
-        buttonsSheet.dispose();
+        Assets assets = Assets.getInstance();
+        assets.release(Assets.POKER_TABLE);
+        assets.release(Assets.TABLE_ATLAS);
         menu.dispose();
         bettingUI.dispose();
         soundManager.dispose();
-        avatarsTexture.dispose();
+        if (avatarCache != null) {
+            avatarCache.dispose();
+        }
     }
 
 }
@@ -8,6 +8,7 @@ import com.badlogic.gdx.utils.Align;
 import io.github.broskipoker.server.ClientConnection;
 import io.github.broskipoker.shared.GameStateUpdate;
 import io.github.broskipoker.shared.PlayerInfo;
+import io.github.broskipoker.game.PokerBot;
 import io.github.broskipoker.game.PokerGame;
 import java.util.ArrayList;
 import java.util.List;
@@ -16,6 +17,7 @@ public class LobbyPanel extends Dialog {
     private List<String> players = new ArrayList<>();
     private Label[] playerLabels = new Label[5];
     private TextButton startButton;
+    private TextButton addBotButton;
     private ClientConnection clientConnection;
     private Runnable onStartGame;
     private Runnable onLeaveGame;
@@ -86,8 +88,21 @@ public class LobbyPanel extends Dialog {
         });
         startButton.setVisible(false); // Initially hidden
 
+        // Host can fill empty seats with server-side bots
+        addBotButton = new TextButton("ADD BOT", getSkin());
+        addBotButton.addListener(new ChangeListener() {
+            @Override
+            public void changed(ChangeEvent event, Actor actor) {
+                if (clientConnection != null && clientConnection.isConnected()) {
+                    clientConnection.requestAddBot(PokerBot.BotStrategy.BALANCED);
+                }
+            }
+        });
+        addBotButton.setVisible(isHost);
+
         Table buttonTable = new Table();
         buttonTable.add(startButton).padRight(10);
+        buttonTable.add(addBotButton).padRight(10);
         buttonTable.add(refreshButton).padRight(10);
         buttonTable.add(leaveButton);
 
@@ -192,6 +207,7 @@ public class LobbyPanel extends Dialog {
 //                                  update.gameState == PokerGame.GameState.WAITING_FOR_PLAYERS &&
 //                                  update.players.size() >= 2);
                 startButton.setVisible(isHost && update.players.size() >= 1); // TODO gamestate is not waiting for players
+            addBotButton.setVisible(isHost && update.players.size() < playerLabels.length);
         }
     }
 
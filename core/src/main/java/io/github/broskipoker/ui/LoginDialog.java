@@ -1,20 +1,26 @@
 package io.github.broskipoker.ui;
 
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.ui.*;
 import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
-import io.github.broskipoker.utils.UserService;
+import io.github.broskipoker.game.User;
+import io.github.broskipoker.server.ClientConnection;
+import io.github.broskipoker.shared.LoginResponse;
+import io.github.broskipoker.utils.UserSession;
+
+import java.util.concurrent.TimeUnit;
 
 public class LoginDialog extends Dialog {
-    private final UserService userService;
+    private static final int LOGIN_TIMEOUT_SECONDS = 15;
     private TextField usernameField;
     private TextField passwordField;
     private Label statusLabel;
     private Runnable onLoginSuccess;
+    private TextButton loginButton;
 
     public LoginDialog(String title, Skin skin) {
         super(title, skin);
-        this.userService = UserService.getInstance();
         createLoginForm();
     }
 
@@ -32,7 +38,7 @@ public class LoginDialog extends Dialog {
         statusLabel.setColor(1, 0, 0, 1); // Red color for error messages
 
         // Create buttons
-        TextButton loginButton = new TextButton("Login", getSkin());
+        loginButton = new TextButton("Login", getSkin());
         TextButton registerButton = new TextButton("Register", getSkin());
         TextButton cancelButton = new TextButton("Cancel", getSkin());
 
@@ -96,7 +102,46 @@ public class LoginDialog extends Dialog {
             return;
         }
 
-        if (userService.loginUser(username, password)) {
+        if (loginButton.isDisabled()) {
+            return; // a login is already on its way
+        }
+        loginButton.setDisabled(true);
+        statusLabel.setText("Logging in...");
+        statusLabel.setColor(1, 1, 1, 1);
+
+        // Connecting can take a few seconds so it runs off the render thread, the server checks the password
+        new Thread(() -> {
+            ClientConnection client = new ClientConnection(username);
+            LoginResponse response = null;
+            try {
+                client.connect();
+                response = client.loginAsync(username, password).get(LOGIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                System.err.println("Login failed: " + e.getMessage());
+            } finally {
+                // Table connections are opened later and present the session token
+                client.disconnect();
+            }
+
+            final LoginResponse result = response;
+            Gdx.app.postRunnable(() -> {
+                loginButton.setDisabled(false);
+                if (result == null) {
+                    statusLabel.setText("Could not reach the server, please try again");
+                    statusLabel.setColor(1, 0, 0, 1);
+                    return;
+                }
+                if (result.success) {
+                    UserSession.getInstance().start(new User(result.playerId, result.username, result.email,
+                        result.chips, result.gamesPlayed, result.wins, result.losses), result.sessionToken);
+                }
+                showLoginResult(result);
+            });
+        }, "login").start();
+    }
+
+    private void showLoginResult(LoginResponse result) {
+        if (result.success) {
             statusLabel.setText("Login successful!");
             statusLabel.setColor(0, 1, 0, 1); // Green color for success
 
@@ -111,7 +156,7 @@ public class LoginDialog extends Dialog {
                 })
             ));
         } else {
-            statusLabel.setText("Invalid username or password");
+            statusLabel.setText(result.message != null ? result.message : "Invalid username or password");
             statusLabel.setColor(1, 0, 0, 1); // Red color for error
             passwordField.setText(""); // Clear password field
         }
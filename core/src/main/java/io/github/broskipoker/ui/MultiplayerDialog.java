@@ -4,7 +4,7 @@ import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.ui.*;
 import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
 import io.github.broskipoker.server.ClientConnection;
-import io.github.broskipoker.utils.UserService;
+import io.github.broskipoker.utils.UserSession;
 import io.github.broskipoker.Main;
 
 public class MultiplayerDialog extends Dialog {
@@ -96,9 +96,9 @@ public class MultiplayerDialog extends Dialog {
 
     private void showLobbyAfterCreation(String tableCode, ClientConnection client) {
         // Create lobby panel and add it to the stage
-        String clientUsername = UserService.getInstance().getCurrentUserOrThrow().getUsername();
+        String clientUsername = UserSession.getInstance().getCurrentUserOrThrow().getUsername();
         LobbyPanel lobbyPanel = new LobbyPanel("Game Lobby", getSkin(), tableCode, client, true, clientUsername);
-        lobbyPanel.addPlayer(UserService.getInstance().getCurrentUserOrThrow().getUsername());
+        lobbyPanel.addPlayer(UserSession.getInstance().getCurrentUserOrThrow().getUsername());
         client.setLobbyPanel(lobbyPanel); // Set lobby panel in client
         lobbyPanel.setPosition(
             (getStage().getWidth() - lobbyPanel.getWidth()) / 2 - 670,
@@ -136,9 +136,9 @@ public class MultiplayerDialog extends Dialog {
 
     private void showLobbyAfterJoin(String tableCode, ClientConnection client) {
         // Create lobby panel and add it to the stage (not host)
-        String clientUsername = UserService.getInstance().getCurrentUserOrThrow().getUsername();
+        String clientUsername = UserSession.getInstance().getCurrentUserOrThrow().getUsername();
         LobbyPanel lobbyPanel = new LobbyPanel("Game Lobby", getSkin(), tableCode, client, true, clientUsername);
-        lobbyPanel.addPlayer(UserService.getInstance().getCurrentUserOrThrow().getUsername());
+        lobbyPanel.addPlayer(UserSession.getInstance().getCurrentUserOrThrow().getUsername());
         client.setLobbyPanel(lobbyPanel); // Set lobby panel in client
         lobbyPanel.setPosition(
             (getStage().getWidth() - lobbyPanel.getWidth()) / 2 - 670,
@@ -202,70 +202,38 @@ public class MultiplayerDialog extends Dialog {
             )
         );
 
-        // Run in a separate thread to avoid blocking UI
+        // Connecting blocks until the server answers, so it runs off the render thread
         new Thread(() -> {
-            ClientConnection client = new ClientConnection(UserService.getInstance().getCurrentUserOrThrow().getUsername());
-            try {
-                client.connect();
-                Thread.sleep(1000); // Network connection delay
-
-                if (!client.isConnected()) {
-                    updateUIThreadSafe(() -> {
-                        statusLabel.clearActions();
-                        statusLabel.setText("Failed to connect to server!");
-                        statusLabel.setColor(1, 0, 0, 1);
-                        joinButton.setDisabled(false);
-                        createButton.setDisabled(false);
-                    });
+            ClientConnection client = new ClientConnection(UserSession.getInstance().getCurrentUserOrThrow().getUsername());
+            client.connect();
+            if (!client.isConnected()) {
+                updateUIThreadSafe(() -> showFailure("Failed to connect to server!", false));
+                return;
+            }
+
+            client.joinTableAsync(tableCode, 10000).whenComplete((resp, error) -> updateUIThreadSafe(() -> {
+                if (error != null || !resp.success) {
+                    client.disconnect();
+                    showFailure(error != null ? "Failed to join table: " + describe(error)
+                        : "Failed to join table - " + resp.failReason, true);
                     return;
                 }
+                statusLabel.clearActions();
+                statusLabel.setText("Successfully joined table!");
+                statusLabel.setColor(0, 1, 0, 1);
 
-                // Attempt to join the table
-                client.joinTable(tableCode, 10000);
-                Thread.sleep(2000); // Wait for join response
-
-                client.setTableCode(tableCode); // Set the table code in client
-                final ClientConnection finalClient = client;
-
-                // Check if join was successful
-                if (isJoinSuccessful(client, tableCode)) {
-                    updateUIThreadSafe(() -> {
-                        statusLabel.clearActions();
-                        statusLabel.setText("Successfully joined table!");
-                        statusLabel.setColor(0, 1, 0, 1);
-
-                        // Delay hiding the dialog to show success message
-                        addAction(com.badlogic.gdx.scenes.scene2d.actions.Actions.sequence(
-                            com.badlogic.gdx.scenes.scene2d.actions.Actions.delay(1f),
-                            com.badlogic.gdx.scenes.scene2d.actions.Actions.run(() -> {
-                                hide();
-                                showLobbyAfterJoin(tableCode, finalClient);
-                                if (onJoinTableSuccess != null) {
-                                    onJoinTableSuccess.run();
-                                }
-                            })
-                        ));
-                    });
-                } else {
-                    updateUIThreadSafe(() -> {
-                        statusLabel.clearActions();
-                        statusLabel.setText("Failed to join table - table not found or full");
-                        statusLabel.setColor(1, 0, 0, 1);
-                        tableCodeField.setText(""); // Clear code field
-                        joinButton.setDisabled(false);
-                        createButton.setDisabled(false);
-                    });
-                }
-            } catch (Exception e) {
-                updateUIThreadSafe(() -> {
-                    statusLabel.clearActions();
-                    statusLabel.setText("Failed to join table: " + e.getMessage());
-                    statusLabel.setColor(1, 0, 0, 1);
-                    tableCodeField.setText(""); // Clear code field
-                    joinButton.setDisabled(false);
-                    createButton.setDisabled(false);
-                });
-            }
+                // Delay hiding the dialog to show success message
+                addAction(com.badlogic.gdx.scenes.scene2d.actions.Actions.sequence(
+                    com.badlogic.gdx.scenes.scene2d.actions.Actions.delay(1f),
+                    com.badlogic.gdx.scenes.scene2d.actions.Actions.run(() -> {
+                        hide();
+                        showLobbyAfterJoin(client.getTableCode(), client);
+                        if (onJoinTableSuccess != null) {
+                            onJoinTableSuccess.run();
+                        }
+                    })
+                ));
+            }));
         }).start();
     }
 
@@ -296,103 +264,90 @@ public class MultiplayerDialog extends Dialog {
             )
         );
 
-        // Run in a separate thread to avoid blocking UI
+        // Connecting blocks until the server answers, so it runs off the render thread
         new Thread(() -> {
-            ClientConnection client = new ClientConnection(UserService.getInstance().getCurrentUserOrThrow().getUsername());
-            try {
-                client.connect();
-                Thread.sleep(1000); // Network connection delay
-
-                if (!client.isConnected()) {
-                    updateUIThreadSafe(() -> {
-                        statusLabel.clearActions();
-                        statusLabel.setText("Failed to connect to server!");
-                        statusLabel.setColor(1, 0, 0, 1);
-                        joinButton.setDisabled(false);
-                        createButton.setDisabled(false);
-                    });
+            ClientConnection client = new ClientConnection(UserSession.getInstance().getCurrentUserOrThrow().getUsername());
+            client.connect();
+            if (!client.isConnected()) {
+                updateUIThreadSafe(() -> showFailure("Failed to connect to server!", false));
+                return;
+            }
+
+            client.createTableAsync(50, 100, 10000).whenComplete((resp, error) -> updateUIThreadSafe(() -> {
+                if (error != null || !resp.success) {
+                    client.disconnect();
+                    showFailure(error != null ? "Table creation failed: " + describe(error)
+                        : "Table creation failed - " + resp.failReason, false);
                     return;
                 }
-
-                client.createTable(50, 100, 10000);
-                Thread.sleep(3000); // Wait for response
-
-                final ClientConnection finalClient = client;
-                updateUIThreadSafe(() -> {
-                    statusLabel.clearActions();
-
-                    if (finalClient.getTableCode() != null) {
-                        // Success case
-                        statusLabel.setText("Table created!");
+                statusLabel.clearActions();
+                statusLabel.setText("Table created!");
+                statusLabel.setColor(0, 1, 0, 1);
+                tableCodeField.setText(resp.code);
+
+                // Replace buttons
+                getButtonTable().clear();
+                TextButton proceedButton = new TextButton("Continue to Lobby", getSkin());
+                TextButton copyButton = new TextButton("Copy Code", getSkin());
+                TextButton cancelButton = new TextButton("Cancel", getSkin());
+
+                getButtonTable().add(copyButton).padRight(10);
+                getButtonTable().add(proceedButton).padRight(10);
+                getButtonTable().add(cancelButton);
+
+                copyButton.addListener(new ChangeListener() {
+                    @Override
+                    public void changed(ChangeEvent event, Actor actor) {
+                        com.badlogic.gdx.Gdx.app.getClipboard().setContents(tableCodeField.getText());
+                        statusLabel.setText("Code copied to clipboard!");
                         statusLabel.setColor(0, 1, 0, 1);
-                        tableCodeField.setText(finalClient.getTableCode());
-
-                        // Replace buttons
-                        getButtonTable().clear();
-                        TextButton proceedButton = new TextButton("Continue to Lobby", getSkin());
-                        TextButton copyButton = new TextButton("Copy Code", getSkin());
-                        TextButton cancelButton = new TextButton("Cancel", getSkin());
-
-                        getButtonTable().add(copyButton).padRight(10);
-                        getButtonTable().add(proceedButton).padRight(10);
-                        getButtonTable().add(cancelButton);
-
-                        copyButton.addListener(new ChangeListener() {
-                            @Override
-                            public void changed(ChangeEvent event, Actor actor) {
-                                com.badlogic.gdx.Gdx.app.getClipboard().setContents(tableCodeField.getText());
-                                statusLabel.setText("Code copied to clipboard!");
-                                statusLabel.setColor(0, 1, 0, 1);
-                            }
-                        });
-
-                        proceedButton.addListener(new ChangeListener() {
-                            @Override
-                            public void changed(ChangeEvent event, Actor actor) {
-                                hide();
-                                showLobbyAfterCreation(finalClient.getTableCode(), finalClient);
-                                if (onCreateTableSuccess != null) {
-                                    onCreateTableSuccess.run();
-                                }
-                            }
-                        });
-
-                        cancelButton.addListener(new ChangeListener() {
-                            @Override
-                            public void changed(ChangeEvent event, Actor actor) {
-                                hide();
-                            }
-                        });
-                    } else {
-                        statusLabel.setText("Table creation failed or timed out");
-                        statusLabel.setColor(1, 0, 0, 1);
-                        joinButton.setDisabled(false);
-                        createButton.setDisabled(false);
                     }
                 });
-            } catch (Exception e) {
-                updateUIThreadSafe(() -> {
-                    statusLabel.clearActions();
-                    statusLabel.setText("Failed to connect to server: " + e.getMessage());
-                    statusLabel.setColor(1, 0, 0, 1);
-                    joinButton.setDisabled(false);
-                    createButton.setDisabled(false);
+
+                proceedButton.addListener(new ChangeListener() {
+                    @Override
+                    public void changed(ChangeEvent event, Actor actor) {
+                        hide();
+                        showLobbyAfterCreation(client.getTableCode(), client);
+                        if (onCreateTableSuccess != null) {
+                            onCreateTableSuccess.run();
+                        }
+                    }
                 });
-            }
+
+                cancelButton.addListener(new ChangeListener() {
+                    @Override
+                    public void changed(ChangeEvent event, Actor actor) {
+                        hide();
+                    }
+                });
+            }));
         }).start();
     }
 
+    // Stops the loading animation, shows the error and lets the player try again
+    private void showFailure(String message, boolean clearCode) {
+        statusLabel.clearActions();
+        statusLabel.setText(message);
+        statusLabel.setColor(1, 0, 0, 1);
+        if (clearCode) {
+            tableCodeField.setText("");
+        }
+        joinButton.setDisabled(false);
+        createButton.setDisabled(false);
+    }
+
+    private static String describe(Throwable error) {
+        Throwable cause = error instanceof java.util.concurrent.CompletionException && error.getCause() != null
+            ? error.getCause() : error;
+        return cause instanceof java.util.concurrent.TimeoutException ? "no answer from server" : cause.getMessage();
+    }
+
     // Helper method to update UI from background thread
     private void updateUIThreadSafe(Runnable runnable) {
         com.badlogic.gdx.Gdx.app.postRunnable(runnable);
     }
 
-    // Helper method to check if join was successful
-    private boolean isJoinSuccessful(ClientConnection client, String tableCode) {
-        // Check if client received a successful join response from the server
-        return client.isConnected() && client.isJoinSuccessful() && client.getTableCode() != null;
-    }
-
     // TODO: Replace with actual validation logic
     private boolean isValidTableCode(String code) {
         // Simple validation - you should replace this with actual network call
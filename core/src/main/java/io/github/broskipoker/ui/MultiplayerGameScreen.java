@@ -14,6 +14,7 @@ import io.github.broskipoker.shared.*;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class MultiplayerGameScreen implements Screen {
     private Stage stage;
@@ -24,6 +25,9 @@ public class MultiplayerGameScreen implements Screen {
     private BettingUI bettingUI;
     private ClientConnection clientConnection;
     private String tableCode;
+    // Newest state from the server not yet applied. Kryo builds a new update for every message and
+    // nothing changes it afterwards, so handing over the reference is a safe publication of the whole state.
+    private final AtomicReference<GameStateUpdate> latestUpdate = new AtomicReference<>();
 
     public MultiplayerGameScreen(ClientConnection clientConnection, String tableCode) {
         this.clientConnection = clientConnection;
@@ -55,18 +59,35 @@ public class MultiplayerGameScreen implements Screen {
         System.out.println("MultiplayerGameScreen initialized with username: " + username + "and table code: " + tableCode);
     }
 
-private void onGameStateUpdate(GameStateUpdate update) {
-    // Convert GameStateUpdate to local PokerGame state (data updates are thread-safe)
-    updatePokerGameFromServerData(update);
+    // Called on the network thread, only publishes the update, several within one frame replace each other
+    private void onGameStateUpdate(GameStateUpdate update) {
+        latestUpdate.set(update);
+    }
+
+    // Called on the render thread at the start of each frame, so the local PokerGame is only ever touched by that thread
+    private void applyLatestUpdate() {
+        GameStateUpdate update = latestUpdate.getAndSet(null);
+        if (update == null) {
+            return;
+        }
+        // Take the server's table, then put back our actions it hasn't handled yet
+        updatePokerGameFromServerData(update);
+        clientConnection.getActionPredictor().reconcile(pokerGame, findSeat(update), update.lastActionSequence);
 
-    // Schedule UI updates to happen on the main render thread
-    Gdx.app.postRunnable(() -> {
-        // Update UI to reflect current game state
         if (gameRenderer.getBettingUI() != null) {
             gameRenderer.getBettingUI().update();
         }
-    });
-}
+    }
+
+    private int findSeat(GameStateUpdate update) {
+        String username = clientConnection.getUsername();
+        for (int i = 0; i < update.players.size(); i++) {
+            if (update.players.get(i).name.equals(username)) {
+                return i;
+            }
+        }
+        return -1;
+    }
 
     private void updatePokerGameFromServerData(GameStateUpdate update) {
         // Update game state
@@ -94,6 +115,20 @@ private void onGameStateUpdate(GameStateUpdate update) {
         }
         pokerGame.setCommunityCards(communityCards);
 
+        // Extra boards when the hand is run more than once
+        pokerGame.setRunoutCount(Math.max(1, update.runoutCount));
+        List<List<Card>> runoutBoards = new ArrayList<>();
+        if (update.runoutBoards != null) {
+            for (List<CardInfo> boardInfo : update.runoutBoards) {
+                List<Card> board = new ArrayList<>();
+                for (CardInfo cardInfo : boardInfo) {
+                    board.add(PokerConverters.fromCardInfo(cardInfo));
+                }
+                runoutBoards.add(board);
+            }
+        }
+        pokerGame.setRunoutBoards(runoutBoards);
+
         // Update players
         List<Player> players = new ArrayList<>();
         for (PlayerInfo playerInfo : update.players) {
@@ -141,6 +176,7 @@ private void onGameStateUpdate(GameStateUpdate update) {
         Gdx.gl.glClearColor(0, 0.5f, 0, 1);
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
 
+        applyLatestUpdate();
         gameRenderer.render(delta);
 
         stage.act(delta);
@@ -1,22 +1,26 @@
 package io.github.broskipoker.ui;
 
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.ui.*;
 import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
-import io.github.broskipoker.utils.UserService;
+import io.github.broskipoker.server.ClientConnection;
+import io.github.broskipoker.shared.RegisterResponse;
+
+import java.util.concurrent.TimeUnit;
 
 public class RegisterDialog extends Dialog {
-    private final UserService userService;
+    private static final int REGISTER_TIMEOUT_SECONDS = 15;
     private TextField usernameField;
     private TextField emailField;
     private TextField passwordField;
     private TextField confirmPasswordField;
     private Label statusLabel;
     private Runnable onRegisterSuccess;
+    private TextButton registerButton;
 
     public RegisterDialog(String title, Skin skin) {
         super(title, skin);
-        this.userService = UserService.getInstance();
         createRegisterForm();
     }
 
@@ -42,7 +46,7 @@ public class RegisterDialog extends Dialog {
         statusLabel.setColor(1, 0, 0, 1); // Red color for error messages
 
         // Create buttons
-        TextButton registerButton = new TextButton("Register", getSkin());
+        registerButton = new TextButton("Register", getSkin());
         TextButton backToLoginButton = new TextButton("Back to Login", getSkin());
         TextButton cancelButton = new TextButton("Cancel", getSkin());
 
@@ -132,21 +136,56 @@ public class RegisterDialog extends Dialog {
             return;
         }
 
-        // Check if username already exists
-        if (userService.usernameExists(username)) {
-            statusLabel.setText("Username already exists");
-            return;
-        }
-
-        // Check if email already exists (if provided)
-        if (!email.isEmpty() && userService.emailExists(email)) {
-            statusLabel.setText("Email already registered");
-            return;
+        if (registerButton.isDisabled()) {
+            return; // a registration is already on its way
         }
+        registerButton.setDisabled(true);
+        statusLabel.setText("Registering...");
+        statusLabel.setColor(1, 1, 1, 1);
 
-        // Attempt registration
+        // The server checks the name and email and creates the account, connecting runs off the render thread
         String emailToUse = email.isEmpty() ? null : email;
-        if (userService.registerUser(username, emailToUse, password)) {
+        new Thread(() -> {
+            ClientConnection client = new ClientConnection(username);
+            RegisterResponse response = null;
+            try {
+                client.connect();
+                response = client.registerAsync(username, emailToUse, password).get(REGISTER_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                System.err.println("Registration failed: " + e.getMessage());
+            } finally {
+                client.disconnect();
+            }
+
+            RegisterResult result;
+            if (response == null || (!response.success && !response.usernameTaken && !response.emailTaken)) {
+                result = RegisterResult.FAILED;
+            } else if (response.usernameTaken) {
+                result = RegisterResult.USERNAME_TAKEN;
+            } else if (response.emailTaken) {
+                result = RegisterResult.EMAIL_TAKEN;
+            } else {
+                result = RegisterResult.SUCCESS;
+            }
+            Gdx.app.postRunnable(() -> {
+                registerButton.setDisabled(false);
+                showRegisterResult(result);
+            });
+        }, "register").start();
+    }
+
+    private enum RegisterResult {
+        SUCCESS, USERNAME_TAKEN, EMAIL_TAKEN, FAILED
+    }
+
+    private void showRegisterResult(RegisterResult result) {
+        if (result == RegisterResult.USERNAME_TAKEN) {
+            statusLabel.setText("Username already exists");
+            statusLabel.setColor(1, 0, 0, 1);
+        } else if (result == RegisterResult.EMAIL_TAKEN) {
+            statusLabel.setText("Email already registered");
+            statusLabel.setColor(1, 0, 0, 1);
+        } else if (result == RegisterResult.SUCCESS) {
             statusLabel.setText("Registration successful!");
             statusLabel.setColor(0, 1, 0, 1); // Green color for success
 
@@ -0,0 +1,124 @@
+package io.github.broskipoker.ui;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Counts GL draw calls, texture binds and heap bytes allocated by the render thread per frame.
+ * The last frame is shown in a corner overlay, F3 hides it, and the averages go to the libGDX
+ * log every few seconds. Start the client with -Dbroski.renderstats=true to turn it on, it costs
+ * nothing otherwise.
+ */
+public class RenderStats {
+    private static final String TAG = "RenderStats";
+    private static final float REPORT_INTERVAL_SECONDS = 5f;
+
+    private final GLProfiler profiler;
+    // Null when the JVM can't count allocations per thread
+    private final com.sun.management.ThreadMXBean threads;
+    private final long renderThreadId;
+    private long allocatedAtLastFrame;
+
+    private int frames = 0;
+    private long drawCalls = 0;
+    private long textureBindings = 0;
+    private long shaderSwitches = 0;
+    private long allocatedBytes = 0;
+    private float elapsed = 0;
+
+    private final SpriteBatch overlayBatch = new SpriteBatch();
+    private final BitmapFont overlayFont = new BitmapFont();
+    private final StringBuilder overlayText = new StringBuilder(128);
+    private final GlyphLayout overlayLayout = new GlyphLayout();
+    private boolean overlayVisible = true;
+
+    public RenderStats() {
+        profiler = new GLProfiler(Gdx.graphics);
+        profiler.enable();
+
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean
+            && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            threads = (com.sun.management.ThreadMXBean) bean;
+            threads.setThreadAllocatedMemoryEnabled(true);
+        } else {
+            threads = null;
+        }
+        renderThreadId = Thread.currentThread().getId();
+        allocatedAtLastFrame = allocatedSoFar();
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean("broski.renderstats");
+    }
+
+    private long allocatedSoFar() {
+        return threads != null ? threads.getThreadAllocatedBytes(renderThreadId) : 0;
+    }
+
+    /**
+     * Call once on the render thread after everything for the frame has been drawn
+     */
+    public void endFrame(float delta) {
+        long allocatedNow = allocatedSoFar();
+        long frameAllocated = allocatedNow - allocatedAtLastFrame;
+        allocatedAtLastFrame = allocatedNow;
+
+        int frameDrawCalls = profiler.getDrawCalls();
+        int frameTextureBindings = profiler.getTextureBindings();
+        frames++;
+        drawCalls += frameDrawCalls;
+        textureBindings += frameTextureBindings;
+        shaderSwitches += profiler.getShaderSwitches();
+        allocatedBytes += frameAllocated;
+
+        if (Gdx.input.isKeyJustPressed(Input.Keys.F3)) {
+            overlayVisible = !overlayVisible;
+        }
+        if (overlayVisible) {
+            drawOverlay(frameAllocated, frameDrawCalls, frameTextureBindings);
+        }
+        // After the overlay, so its own draw call isn't counted against the next frame
+        profiler.reset();
+
+        elapsed += delta;
+        if (elapsed >= REPORT_INTERVAL_SECONDS) {
+            Gdx.app.log(TAG, String.format("%.1f draw calls, %.1f texture binds, %.1f shader switches, %d bytes allocated per frame (%d frames)",
+                (double) drawCalls / frames, (double) textureBindings / frames, (double) shaderSwitches / frames,
+                allocatedBytes / frames, frames));
+            frames = 0;
+            drawCalls = 0;
+            textureBindings = 0;
+            shaderSwitches = 0;
+            allocatedBytes = 0;
+            elapsed = 0;
+        }
+    }
+
+    private void drawOverlay(long frameAllocated, int frameDrawCalls, int frameTextureBindings) {
+        overlayText.setLength(0);
+        overlayText.append(Gdx.graphics.getFramesPerSecond()).append(" fps  ");
+        if (threads != null) {
+            overlayText.append(frameAllocated).append(" B alloc  ");
+        }
+        overlayText.append(frameDrawCalls).append(" draws  ").append(frameTextureBindings).append(" binds");
+
+        overlayBatch.getProjectionMatrix().setToOrtho2D(0, 0, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+        overlayLayout.setText(overlayFont, overlayText);
+        overlayBatch.begin();
+        overlayFont.draw(overlayBatch, overlayLayout, 10, Gdx.graphics.getHeight() - 10);
+        overlayBatch.end();
+    }
+
+    public void dispose() {
+        profiler.disable();
+        overlayBatch.dispose();
+        overlayFont.dispose();
+    }
+}
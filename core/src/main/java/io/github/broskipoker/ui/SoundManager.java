@@ -1,14 +1,11 @@
 package io.github.broskipoker.ui;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.utils.Disposable;
 import io.github.broskipoker.game.Card;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.Arrays;
 
 public class SoundManager implements Disposable {
     private static SoundManager instance;
@@ -20,23 +17,31 @@ public class SoundManager implements Disposable {
     private Sound loseSound;
     private boolean soundEnabled = true;
 
-    // Track which cards have already played sounds
-    private final Set<String> cardsPlayed = new HashSet<>();
+    // Chip clinks are staggered by the scheduler instead of sleeping the render thread
+    private static final float CHIP_SOUND_GAP_SECONDS = 0.025f;
+    private final AudioScheduler scheduler = new AudioScheduler(6, 0.25f);
 
-    // Track player bet amounts to detect changes
-    private final Map<Integer, Integer> playerBets = new HashMap<>();
+    // Track which cards have already played sounds, one flag per card (or no card) and board position
+    private static final int CARD_POSITIONS = 8;
+    private static final int CARD_IDS = Card.Suit.values().length * Card.Rank.values().length + 1;
+    private final boolean[] cardsPlayed = new boolean[CARD_IDS * CARD_POSITIONS];
+
+    // Track player bet amounts to detect changes, -1 before the first bet
+    private int[] playerBets = new int[10];
 
     private boolean showdownSoundPlayed = false;
 
     private SoundManager() {
-        cardSound = Gdx.audio.newSound(Gdx.files.internal("sounds/card1.ogg"));
-        chipSound = Gdx.audio.newSound(Gdx.files.internal("sounds/chips1.ogg"));
-        buttonSound = Gdx.audio.newSound(Gdx.files.internal("sounds/button.ogg"));
-        winSound = Gdx.audio.newSound(Gdx.files.internal("sounds/win.ogg"));
-        loseSound = Gdx.audio.newSound(Gdx.files.internal("sounds/negative.ogg"));
+        Assets assets = Assets.getInstance();
+        cardSound = assets.acquireSound(Assets.CARD_SOUND);
+        chipSound = assets.acquireSound(Assets.CHIP_SOUND);
+        buttonSound = assets.acquireSound(Assets.BUTTON_SOUND);
+        winSound = assets.acquireSound(Assets.WIN_SOUND);
+        loseSound = assets.acquireSound(Assets.LOSE_SOUND);
+        Arrays.fill(playerBets, -1);
     }
 
-    public static SoundManager getInstance() {
+    public static synchronized SoundManager getInstance() {
         if (instance == null) {
             instance = new SoundManager();
         }
@@ -45,15 +50,16 @@ public class SoundManager implements Disposable {
 
     public void playCardSound(Card card, int position) {
         if (soundEnabled) {
-            // Create a unique identifier for this card
-            String cardId = (card != null) ?
-                card.getSuit() + "_" + card.getRank() + "_" + position :
-                "null_" + position;
+            // Identify the card by suit, rank and position, the last id stands for no card
+            int cardId = (card != null) ?
+                card.getSuit().ordinal() * Card.Rank.values().length + card.getRank().ordinal() :
+                CARD_IDS - 1;
+            int flag = cardId * CARD_POSITIONS + Math.min(position, CARD_POSITIONS - 1);
 
             // Only play sound if this card hasn't been played before
-            if (!cardsPlayed.contains(cardId)) {
-                cardSound.play(0.5f);
-                cardsPlayed.add(cardId);
+            if (!cardsPlayed[flag]) {
+                scheduler.schedule(cardSound, 0.5f, 0);
+                cardsPlayed[flag] = true;
             }
         }
     }
@@ -61,8 +67,12 @@ public class SoundManager implements Disposable {
     public void playChipSound(int betAmount, int playerIndex) {
         if (soundEnabled) {
             // Only play sound when bet amount changes
-            Integer previousBet = playerBets.get(playerIndex);
-            if (previousBet == null || previousBet != betAmount) {
+            if (playerIndex >= playerBets.length) {
+                int oldLength = playerBets.length;
+                playerBets = Arrays.copyOf(playerBets, playerIndex + 1);
+                Arrays.fill(playerBets, oldLength, playerBets.length, -1);
+            }
+            if (playerBets[playerIndex] != betAmount) {
                 // Calculate how many chip sounds to play based on bet size
                 int soundCount = 1;  // Default minimum
 
@@ -78,67 +88,74 @@ public class SoundManager implements Disposable {
                 // Play the chip sound multiple times with slight volume variation
                 for (int i = 0; i < soundCount; i++) {
                     // Slightly randomize volume for more natural effect
-                    float volume = 0.3f + (float)(Math.random() * 0.2f);
-
-                    // Add small delay between sounds
-                    final int soundIndex = i;
-                    final float soundVolume = volume;
-
-                    Gdx.app.postRunnable(() -> {
-                        // Small delay between chip sounds (20ms per chip)
-                        try {
-                            Thread.sleep(soundIndex * 25);
-                        } catch (InterruptedException e) {
-                            // Ignore interruption
-                        }
-                        chipSound.play(soundVolume);
-                    });
+                    float volume = MathUtils.random(0.3f, 0.5f);
+
+                    // Small delay between chip sounds (25ms per chip)
+                    scheduler.schedule(chipSound, volume, i * CHIP_SOUND_GAP_SECONDS);
                 }
 
                 // Update the stored bet amount
-                playerBets.put(playerIndex, betAmount);
+                playerBets[playerIndex] = betAmount;
             }
         }
     }
 
     public void playButtonSound() {
         if (soundEnabled) {
-            buttonSound.play(0.4f);
+            scheduler.schedule(buttonSound, 0.4f, 0);
         }
     }
 
     public void playWinSound() {
         if (soundEnabled && winSound != null && !showdownSoundPlayed) {
-            winSound.play(0.6f);
+            scheduler.schedule(winSound, 0.6f, 0);
             showdownSoundPlayed = true;
         }
     }
 
     public void playLoseSound() {
         if (soundEnabled && loseSound != null && !showdownSoundPlayed) {
-            loseSound.play(0.6f);
+            scheduler.schedule(loseSound, 0.6f, 0);
             showdownSoundPlayed = true;
         }
     }
 
+    /**
+     * Plays the sounds that are due, call once per frame from the render loop
+     */
+    public void update(float delta) {
+        scheduler.update(delta);
+    }
+
     // Call this method when starting a new hand
     public void resetCardSounds() {
-        cardsPlayed.clear();
-        playerBets.clear();
+        Arrays.fill(cardsPlayed, false);
+        Arrays.fill(playerBets, -1);
         showdownSoundPlayed = false;
     }
 
     public void setSoundEnabled(boolean enabled) {
         this.soundEnabled = enabled;
+        if (!enabled) {
+            scheduler.clear();
+        }
     }
 
+    // The next getInstance() acquires the sounds again
     @Override
     public void dispose() {
-        cardSound.dispose();
-        chipSound.dispose();
-        buttonSound.dispose();
-        if (winSound != null) winSound.dispose();
-        if (loseSound != null) loseSound.dispose();
+        scheduler.clear();
+        Assets assets = Assets.getInstance();
+        assets.release(Assets.CARD_SOUND);
+        assets.release(Assets.CHIP_SOUND);
+        assets.release(Assets.BUTTON_SOUND);
+        if (winSound != null) assets.release(Assets.WIN_SOUND);
+        if (loseSound != null) assets.release(Assets.LOSE_SOUND);
+        synchronized (SoundManager.class) {
+            if (instance == this) {
+                instance = null;
+            }
+        }
     }
 
     public boolean isShowdownSoundPlayed() {
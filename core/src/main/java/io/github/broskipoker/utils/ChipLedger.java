@@ -0,0 +1,490 @@
+package io.github.broskipoker.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+
+/**
+ * Write-behind ledger for chip and game stat changes.
+ * <p>
+ * Hand results are added up per user in memory and written to the users table in one JDBC
+ * batch, either on a timer or as soon as enough users have pending changes. That makes the
+ * database cost depend on how many users played, not how many hands they played.
+ * <p>
+ * Every change is appended to a local journal before it is counted, so a crash loses nothing:
+ * on start the journals that never made it into the database are replayed. Each flush rotates
+ * the journal, and the flush transaction records which journals it covered. A journal that turns
+ * out to be recorded already, because its flush committed right before a crash or the commit's reply
+ * was lost, is left out of the batch, so it is never applied twice.
+ */
+public class ChipLedger {
+    private static final Log log = Log.get(ChipLedger.class);
+    private static final String JOURNAL_PREFIX = "ledger-";
+    private static final String JOURNAL_SUFFIX = ".journal";
+
+    private static final String CREATE_FLUSHES_SQL =
+        "CREATE TABLE IF NOT EXISTS chip_ledger_flushes (journal VARCHAR(255) PRIMARY KEY, " +
+        "flushed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)";
+    private static final String UPDATE_USER_SQL =
+        "UPDATE users SET chips = chips + ?, games_played = games_played + ?, wins = wins + ?, " +
+        "losses = losses + ? WHERE username = ?";
+    private static final String MARK_FLUSHED_SQL =
+        "INSERT INTO chip_ledger_flushes (journal) VALUES (?) ON CONFLICT (journal) DO NOTHING";
+    private static final String IS_FLUSHED_SQL = "SELECT 1 FROM chip_ledger_flushes WHERE journal = ?";
+    private static final String BALANCE_SQL = "SELECT chips FROM users WHERE username = ?";
+    // How often start() asks whether a leftover journal was flushed before replaying it anyway
+    private static final int CHECK_ATTEMPTS = 3;
+    private static final long CHECK_RETRY_MILLIS = 500;
+
+    /**
+     * Changes waiting to be written for one user
+     */
+    public static class Entry {
+        private long chipDelta;
+        private int gamesPlayed;
+        private int wins;
+        private int losses;
+
+        void add(long chipDelta, int gamesPlayed, int wins, int losses) {
+            this.chipDelta += chipDelta;
+            this.gamesPlayed += gamesPlayed;
+            this.wins += wins;
+            this.losses += losses;
+        }
+
+        public long getChipDelta() {
+            return chipDelta;
+        }
+
+        public int getGamesPlayed() {
+            return gamesPlayed;
+        }
+
+        public int getWins() {
+            return wins;
+        }
+
+        public int getLosses() {
+            return losses;
+        }
+    }
+
+    private final DatabaseConnection dbConnection;
+    private final Path journalDirectory;
+    private final long flushIntervalMillis;
+    private final int flushThreshold;
+    private final UserCache userCache;
+
+    // Guards pending and the active journal; held only long enough to append or swap, never during JDBC
+    private final Object lock = new Object();
+    private Map<String, Entry> pending = new HashMap<>();
+    private DataOutputStream journal;
+    private FileOutputStream journalFile;
+    private Path journalPath;
+    private long nextGeneration;
+
+    // Rotated journals whose changes are not committed yet, only touched by the flushing thread
+    private final List<Path> unflushedJournals = new ArrayList<>();
+    private final Object flushLock = new Object();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private ScheduledExecutorService flusher;
+
+    /**
+     * @param flushIntervalMillis how often pending changes are written
+     * @param flushThreshold write early once this many users have pending changes
+     */
+    public ChipLedger(DatabaseConnection dbConnection, Path journalDirectory, long flushIntervalMillis, int flushThreshold) {
+        this.dbConnection = dbConnection;
+        this.journalDirectory = journalDirectory;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.flushThreshold = flushThreshold;
+        this.userCache = UserCache.getInstance();
+        // Journal names must never repeat across runs, the database remembers which ones were flushed
+        this.nextGeneration = System.currentTimeMillis() * 1000;
+    }
+
+    /**
+     * Replays journals left over from a previous run, then starts the periodic flush
+     */
+    public void start() throws IOException {
+        Files.createDirectories(journalDirectory);
+        try {
+            dbConnection.execute(connection -> {
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute(CREATE_FLUSHES_SQL);
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            log.warn("Could not prepare chip ledger table, will retry on flush", e);
+        }
+
+        replayJournals();
+        synchronized (lock) {
+            openJournal();
+        }
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "chip-ledger-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        if (!unflushedJournals.isEmpty()) {
+            flusher.execute(this::flush);
+        }
+    }
+
+    /**
+     * Records the result of one hand (or game) for a user
+     * @param chipDelta chips won, negative for chips lost
+     */
+    public void record(String username, long chipDelta, int gamesPlayed, int wins, int losses) {
+        boolean flushNow;
+        synchronized (lock) {
+            try {
+                appendToJournal(username, chipDelta, gamesPlayed, wins, losses);
+            } catch (IOException e) {
+                // Still counted, it only loses its crash protection until the next flush
+                log.error("Could not write chip ledger journal", e, "user", username, "chips", chipDelta);
+            }
+            pending.computeIfAbsent(username, name -> new Entry()).add(chipDelta, gamesPlayed, wins, losses);
+            flushNow = pending.size() >= flushThreshold;
+        }
+
+        if (flushNow && flusher != null && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flush);
+        }
+    }
+
+    /**
+     * Writes every pending change in one batch. Changes recorded while the batch runs go into the
+     * next flush. If the batch fails the changes are kept and retried on the next flush.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            flushRequested.set(false);
+            Map<String, Entry> batch;
+            synchronized (lock) {
+                if (pending.isEmpty() && unflushedJournals.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                pending = new HashMap<>();
+                if (journalPath != null) {
+                    try {
+                        closeJournal();
+                        unflushedJournals.add(journalPath);
+                        openJournal();
+                    } catch (IOException e) {
+                        log.error("Could not rotate chip ledger journal", e, "journal", journalPath.getFileName());
+                    }
+                }
+            }
+            try {
+                writeBatch(batch, unflushedJournals);
+                // Cached profiles of these users now have the wrong chips and stats
+                for (String username : batch.keySet()) {
+                    userCache.invalidateUser(username);
+                }
+                for (Path journal : unflushedJournals) {
+                    Files.deleteIfExists(journal);
+                }
+                unflushedJournals.clear();
+            } catch (SQLException | IOException e) {
+                log.warn("Could not flush chip ledger, will retry", e, "users", batch.size());
+                synchronized (lock) {
+                    // Put the batch back in front of anything recorded meanwhile
+                    for (Map.Entry<String, Entry> entry : pending.entrySet()) {
+                        Entry later = entry.getValue();
+                        batch.computeIfAbsent(entry.getKey(), name -> new Entry())
+                            .add(later.chipDelta, later.gamesPlayed, later.wins, later.losses);
+                    }
+                    pending = batch;
+                }
+            }
+        }
+    }
+
+    private void writeBatch(Map<String, Entry> batch, List<Path> journals) throws SQLException {
+        dbConnection.execute(connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                // Copied, the batch is retried as it is if this transaction rolls back
+                Map<String, Entry> changes = new HashMap<>();
+                for (Map.Entry<String, Entry> entry : batch.entrySet()) {
+                    Entry change = entry.getValue();
+                    changes.computeIfAbsent(entry.getKey(), name -> new Entry())
+                        .add(change.chipDelta, change.gamesPlayed, change.wins, change.losses);
+                }
+                try (PreparedStatement stmt = connection.prepareStatement(MARK_FLUSHED_SQL)) {
+                    for (Path journal : journals) {
+                        stmt.setString(1, journal.getFileName().toString());
+                        if (stmt.executeUpdate() == 0) {
+                            // Recorded by an earlier flush that committed, take its changes back out
+                            subtractJournal(changes, journal);
+                        }
+                    }
+                }
+                try (PreparedStatement stmt = connection.prepareStatement(UPDATE_USER_SQL)) {
+                    for (Map.Entry<String, Entry> entry : changes.entrySet()) {
+                        Entry change = entry.getValue();
+                        stmt.setLong(1, change.chipDelta);
+                        stmt.setInt(2, change.gamesPlayed);
+                        stmt.setInt(3, change.wins);
+                        stmt.setInt(4, change.losses);
+                        stmt.setString(5, entry.getKey());
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            return null;
+        });
+    }
+
+    private void subtractJournal(Map<String, Entry> changes, Path journal) throws SQLException {
+        Map<String, Entry> recorded = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(journal))) {
+            while (readRecord(in, recorded)) {
+                // keep reading
+            }
+        } catch (IOException e) {
+            throw new SQLException("Could not read chip ledger journal " + journal.getFileName(), e);
+        }
+        for (Map.Entry<String, Entry> entry : recorded.entrySet()) {
+            Entry change = entry.getValue();
+            changes.computeIfAbsent(entry.getKey(), name -> new Entry())
+                .add(-change.chipDelta, -change.gamesPlayed, -change.wins, -change.losses);
+        }
+    }
+
+    /**
+     * Flushes what is left and closes the journal
+     */
+    public void stop() {
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+        synchronized (lock) {
+            try {
+                closeJournal();
+                if (journalPath != null && pending.isEmpty() && Files.size(journalPath) == 0) {
+                    Files.deleteIfExists(journalPath);
+                }
+            } catch (IOException e) {
+                log.warn("Could not close chip ledger journal", e);
+            }
+        }
+    }
+
+    /**
+     * The balance the user will have once everything recorded is written: the stored chips plus the
+     * pending changes. Flushes wait while it is read, so a batch in flight is counted exactly once.
+     * @return the live balance, 0 for an unknown user
+     */
+    public long getBalance(String username) throws SQLException {
+        synchronized (flushLock) {
+            long stored = dbConnection.execute(connection -> {
+                try (PreparedStatement stmt = connection.prepareStatement(BALANCE_SQL)) {
+                    stmt.setString(1, username);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        return rs.next() ? rs.getLong(1) : 0L;
+                    }
+                }
+            });
+            synchronized (lock) {
+                Entry entry = pending.get(username);
+                return stored + (entry != null ? entry.chipDelta : 0);
+            }
+        }
+    }
+
+    public int getPendingUsers() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * @return a copy of the changes not written yet for a user, or null if there are none
+     */
+    public Entry getPending(String username) {
+        synchronized (lock) {
+            Entry entry = pending.get(username);
+            if (entry == null) {
+                return null;
+            }
+            Entry copy = new Entry();
+            copy.add(entry.chipDelta, entry.gamesPlayed, entry.wins, entry.losses);
+            return copy;
+        }
+    }
+
+    // Journal format: one record per change, [length][payload][crc32 of payload], so a record torn by a crash is ignored
+
+    private void appendToJournal(String username, long chipDelta, int gamesPlayed, int wins, int losses) throws IOException {
+        if (journal == null) {
+            return;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream payload = new DataOutputStream(bytes);
+        payload.writeUTF(username);
+        payload.writeLong(chipDelta);
+        payload.writeInt(gamesPlayed);
+        payload.writeInt(wins);
+        payload.writeInt(losses);
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        journal.writeInt(bytes.size());
+        bytes.writeTo(journal);
+        journal.writeLong(crc.getValue());
+        journal.flush(); // hand it to the OS so it survives the process dying
+    }
+
+    private void replayJournals() throws IOException {
+        List<Path> journals = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(journalDirectory, JOURNAL_PREFIX + "*" + JOURNAL_SUFFIX)) {
+            for (Path file : files) {
+                journals.add(file);
+            }
+        }
+        journals.sort(null);
+
+        for (Path file : journals) {
+            nextGeneration = Math.max(nextGeneration, generationOf(file) + 1);
+            // When the database can't say, the journal is replayed and the flush leaves it out if it was recorded
+            if (Boolean.TRUE.equals(wasFlushed(file))) {
+                Files.deleteIfExists(file);
+                continue;
+            }
+            int records = 0;
+            try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+                while (readRecord(in, pending)) {
+                    records++;
+                }
+            }
+            unflushedJournals.add(file);
+            log.info("Replayed chip ledger journal", "journal", file.getFileName(), "records", records);
+        }
+    }
+
+    private boolean readRecord(DataInputStream in, Map<String, Entry> into) throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return false;
+        }
+        if (length <= 0 || length > 4096) {
+            return false;
+        }
+        byte[] bytes = new byte[length];
+        try {
+            in.readFully(bytes);
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            if (in.readLong() != crc.getValue()) {
+                return false; // torn write at the end of the journal
+            }
+        } catch (EOFException e) {
+            return false;
+        }
+
+        DataInputStream payload = new DataInputStream(new ByteArrayInputStream(bytes));
+        String username = payload.readUTF();
+        long chipDelta = payload.readLong();
+        int gamesPlayed = payload.readInt();
+        int wins = payload.readInt();
+        int losses = payload.readInt();
+        into.computeIfAbsent(username, name -> new Entry()).add(chipDelta, gamesPlayed, wins, losses);
+        return true;
+    }
+
+    // Null when the database could not be asked, after a few tries
+    private Boolean wasFlushed(Path file) throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return dbConnection.execute(connection -> {
+                    try (PreparedStatement stmt = connection.prepareStatement(IS_FLUSHED_SQL)) {
+                        stmt.setString(1, file.getFileName().toString());
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            return rs.next();
+                        }
+                    }
+                });
+            } catch (SQLException e) {
+                if (attempt == CHECK_ATTEMPTS) {
+                    log.warn("Could not check chip ledger journal, replaying it", e, "journal", file.getFileName());
+                    return null;
+                }
+            }
+            try {
+                Thread.sleep(CHECK_RETRY_MILLIS * attempt);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while checking chip ledger journals", e);
+            }
+        }
+    }
+
+    private void openJournal() throws IOException {
+        journalPath = journalDirectory.resolve(String.format("%s%019d%s", JOURNAL_PREFIX, nextGeneration++, JOURNAL_SUFFIX));
+        journalFile = new FileOutputStream(journalPath.toFile(), true);
+        journal = new DataOutputStream(new BufferedOutputStream(journalFile));
+    }
+
+    private void closeJournal() throws IOException {
+        if (journal != null) {
+            journal.flush();
+            journalFile.getFD().sync();
+            journal.close();
+            journal = null;
+        }
+    }
+
+    private static long generationOf(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(JOURNAL_PREFIX.length(), name.length() - JOURNAL_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -3,32 +3,228 @@ package io.github.broskipoker.utils;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Small pool of JDBC connections shared by every database user in the process.
+ * <p>
+ * Connections are opened lazily up to a fixed maximum. A connection that sat idle for longer
+ * than the validation threshold is checked with isValid before it is handed out, so one the
+ * database dropped is closed and replaced instead of failing the next query, while busy
+ * connections skip the extra round trip. Callers should go through execute, which always hands
+ * the connection back and checks, then throws away, connections that failed mid-query.
+ */
 public class DatabaseConnection {
+    private static final Log log = Log.get(DatabaseConnection.class);
     private static DatabaseConnection instance;  // instanță unica
-    private Connection connection;
-    private static final String URL = "jdbc:postgresql://64.226.94.247:5432/broski_poker";
-    private static final String USER = "broski";
-    private static final String PASSWORD = "parola";
 
-    private DatabaseConnection() {
-        try {
-            this.connection = DriverManager.getConnection(URL, USER, PASSWORD);
-            System.out.println("Database connection established successfully.");
-        } catch (SQLException e) {
-            System.out.println("Database connection failed.");
-            e.printStackTrace();
+    // Defaults, each can be overridden with a system property (-Dbroski.db.url=...) or an environment variable
+    private static final String URL = setting("broski.db.url", "BROSKI_DB_URL", "jdbc:postgresql://64.226.94.247:5432/broski_poker");
+    private static final String USER = setting("broski.db.user", "BROSKI_DB_USER", "broski");
+    private static final String PASSWORD = setting("broski.db.password", "BROSKI_DB_PASSWORD", "parola");
+    private static final int DEFAULT_POOL_SIZE = 8;
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    // Connections used more recently than this are handed out without asking the database first
+    private static final long DEFAULT_VALIDATE_AFTER_IDLE_MILLIS = 30_000;
+    private static final long BORROW_TIMEOUT_MILLIS = 5000;
+
+    /**
+     * Opens a new physical connection, replaceable so tests can use a local or mocked database
+     */
+    public interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    /**
+     * Work to run with a pooled connection
+     */
+    public interface SqlWork<T> {
+        T run(Connection connection) throws SQLException;
+    }
+
+    // A pooled connection and when it was handed back
+    private static final class IdleConnection {
+        final Connection connection;
+        final long releasedAtMillis;
+
+        IdleConnection(Connection connection, long releasedAtMillis) {
+            this.connection = connection;
+            this.releasedAtMillis = releasedAtMillis;
         }
     }
 
-    public static DatabaseConnection getInstance() {
+    private final ConnectionFactory connectionFactory;
+    private final int maxConnections;
+    private final long validateAfterIdleMillis;
+    private final BlockingQueue<IdleConnection> idle;
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private volatile boolean closed;
+
+    public DatabaseConnection(String url, String user, String password, int maxConnections) {
+        this(() -> DriverManager.getConnection(url, user, password), maxConnections);
+    }
+
+    public DatabaseConnection(ConnectionFactory connectionFactory, int maxConnections) {
+        this(connectionFactory, maxConnections, DEFAULT_VALIDATE_AFTER_IDLE_MILLIS);
+    }
+
+    /**
+     * @param validateAfterIdleMillis connections idle for longer than this are checked with isValid before reuse
+     */
+    public DatabaseConnection(ConnectionFactory connectionFactory, int maxConnections, long validateAfterIdleMillis) {
+        this.connectionFactory = connectionFactory;
+        this.maxConnections = maxConnections;
+        this.validateAfterIdleMillis = validateAfterIdleMillis;
+        this.idle = new ArrayBlockingQueue<>(maxConnections);
+    }
+
+    public static synchronized DatabaseConnection getInstance() {
         if (instance == null) {
-            instance = new DatabaseConnection();
+            instance = new DatabaseConnection(URL, USER, PASSWORD, DEFAULT_POOL_SIZE);
         }
         return instance;
     }
 
-    public Connection getConnection() {
-        return connection;
+    /**
+     * Replaces the shared pool, e.g. to point the game at a different database
+     */
+    public static synchronized void setInstance(DatabaseConnection databaseConnection) {
+        instance = databaseConnection;
+    }
+
+    /**
+     * Runs the work with a pooled connection and hands the connection back afterwards.
+     * A connection that threw is checked again and dropped if the database lost it.
+     */
+    public <T> T execute(SqlWork<T> work) throws SQLException {
+        Connection connection = borrowConnection();
+        boolean healthy = true;
+        try {
+            return work.run(connection);
+        } catch (SQLException e) {
+            healthy = isUsable(connection);
+            throw e;
+        } finally {
+            if (healthy) {
+                releaseConnection(connection);
+            } else {
+                discard(connection);
+            }
+        }
+    }
+
+    /**
+     * Takes a working connection from the pool, opening a new one if the pool is not full yet.
+     * Waits up to a few seconds for a connection to be released when all are in use.
+     */
+    public Connection borrowConnection() throws SQLException {
+        long deadline = System.currentTimeMillis() + BORROW_TIMEOUT_MILLIS;
+        while (!closed) {
+            IdleConnection pooled = idle.poll();
+            if (pooled != null) {
+                if (isReusable(pooled)) {
+                    return pooled.connection;
+                }
+                discard(pooled.connection); // dropped by the database while idle, try the next one
+                continue;
+            }
+
+            if (openConnections.incrementAndGet() <= maxConnections) {
+                try {
+                    return connectionFactory.open();
+                } catch (SQLException e) {
+                    openConnections.decrementAndGet();
+                    throw e;
+                }
+            }
+            openConnections.decrementAndGet();
+
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                throw new SQLException("Timed out waiting for a database connection");
+            }
+            try {
+                pooled = idle.poll(Math.min(remaining, 100), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a database connection", e);
+            }
+            if (pooled != null) {
+                if (isReusable(pooled)) {
+                    return pooled.connection;
+                }
+                discard(pooled.connection);
+            }
+        }
+        throw new SQLException("Database pool is closed");
+    }
+
+    public void releaseConnection(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        if (closed || !idle.offer(new IdleConnection(connection, System.currentTimeMillis()))) {
+            discard(connection);
+        }
+    }
+
+    // A connection released a moment ago is trusted, the query it ran would have flagged a lost one
+    private boolean isReusable(IdleConnection pooled) {
+        if (System.currentTimeMillis() - pooled.releasedAtMillis < validateAfterIdleMillis) {
+            return true;
+        }
+        return isUsable(pooled.connection);
+    }
+
+    private boolean isUsable(Connection connection) {
+        try {
+            return !connection.isClosed() && connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void discard(Connection connection) {
+        openConnections.decrementAndGet();
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.warn("Could not close database connection", e);
+        }
+    }
+
+    /**
+     * Closes every idle connection, connections in use are closed when they are handed back
+     */
+    public void shutdown() {
+        closed = true;
+        IdleConnection pooled;
+        while ((pooled = idle.poll()) != null) {
+            discard(pooled.connection);
+        }
+    }
+
+    public int getOpenConnections() {
+        return openConnections.get();
+    }
+
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    private static String setting(String property, String environmentVariable, String defaultValue) {
+        String value = System.getProperty(property);
+        if (value == null) {
+            value = System.getenv(environmentVariable);
+        }
+        return value != null ? value : defaultValue;
     }
 }
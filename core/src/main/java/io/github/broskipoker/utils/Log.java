@@ -0,0 +1,296 @@
+package io.github.broskipoker.utils;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Leveled logging with key/value fields, written by a background thread.
+ * <p>
+ * Callers only put an event in a bounded ring buffer, formatting and writing to stdout happen on
+ * the "Log writer" thread, so a busy table never waits on the console. When the buffer is full
+ * events are dropped and counted rather than blocking the caller. Lines are logfmt, for example
+ * {@code ts=2026-01-01T12:00:00Z level=INFO logger=PokerServer msg="Client connected" connection=4}.
+ * <p>
+ * The level defaults to INFO and is set with -Dbroski.log.level. Per-action lines are DEBUG and go
+ * through a {@link #sampled(int)} logger, so even with DEBUG on only a fraction of them is written.
+ */
+public class Log {
+    public enum Level { DEBUG, INFO, WARN, ERROR }
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static volatile Level threshold = parseLevel(System.getProperty("broski.log.level"));
+    private static volatile AsyncAppender appender;
+
+    private final String name;
+    private final int oneIn;
+    private final AtomicLong calls;
+
+    private Log(String name, int oneIn) {
+        this.name = name;
+        this.oneIn = oneIn;
+        this.calls = oneIn > 1 ? new AtomicLong() : null;
+    }
+
+    public static Log get(Class<?> type) {
+        return new Log(type.getSimpleName(), 1);
+    }
+
+    public static Log get(String name) {
+        return new Log(name, 1);
+    }
+
+    /**
+     * A logger that writes only every n-th DEBUG and INFO line, warnings and errors always go out
+     */
+    public Log sampled(int n) {
+        return new Log(name, Math.max(1, n));
+    }
+
+    public static void setLevel(Level level) {
+        threshold = level;
+    }
+
+    public static boolean isEnabled(Level level) {
+        return level.compareTo(threshold) >= 0;
+    }
+
+    /**
+     * Replaces the appender events are handed to, closing the previous one. Mainly for tests.
+     */
+    public static synchronized void setAppender(AsyncAppender newAppender) {
+        AsyncAppender previous = appender;
+        appender = newAppender;
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    private static AsyncAppender appender() {
+        AsyncAppender current = appender;
+        if (current != null) {
+            return current;
+        }
+        synchronized (Log.class) {
+            if (appender == null) {
+                AsyncAppender stdout = new AsyncAppender(
+                    new OutputStreamWriter(System.out, StandardCharsets.UTF_8), BUFFER_SIZE);
+                Runtime.getRuntime().addShutdownHook(new Thread(stdout::close, "log-shutdown"));
+                appender = stdout;
+            }
+            return appender;
+        }
+    }
+
+    public boolean isDebugEnabled() {
+        return isEnabled(Level.DEBUG);
+    }
+
+    /**
+     * @param fields alternating keys and values
+     */
+    public void debug(String message, Object... fields) {
+        log(Level.DEBUG, message, null, fields);
+    }
+
+    public void info(String message, Object... fields) {
+        log(Level.INFO, message, null, fields);
+    }
+
+    public void warn(String message, Object... fields) {
+        log(Level.WARN, message, null, fields);
+    }
+
+    public void warn(String message, Throwable error, Object... fields) {
+        log(Level.WARN, message, error, fields);
+    }
+
+    public void error(String message, Throwable error, Object... fields) {
+        log(Level.ERROR, message, error, fields);
+    }
+
+    private void log(Level level, String message, Throwable error, Object[] fields) {
+        if (!isEnabled(level)) {
+            return;
+        }
+        if (calls != null && level.compareTo(Level.WARN) < 0 && calls.getAndIncrement() % oneIn != 0) {
+            return;
+        }
+        appender().append(new Event(System.currentTimeMillis(), level, name, message, error, fields, oneIn));
+    }
+
+    private static Level parseLevel(String value) {
+        if (value != null) {
+            try {
+                return Level.valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                System.err.println("Unknown log level " + value + ", using INFO");
+            }
+        }
+        return Level.INFO;
+    }
+
+    // Fields are formatted on the writer thread, callers pass values they no longer change
+    static final class Event {
+        final long time;
+        final Level level;
+        final String logger;
+        final String message;
+        final Throwable error;
+        final Object[] fields;
+        final int oneIn;
+
+        Event(long time, Level level, String logger, String message, Throwable error, Object[] fields, int oneIn) {
+            this.time = time;
+            this.level = level;
+            this.logger = logger;
+            this.message = message;
+            this.error = error;
+            this.fields = fields;
+            this.oneIn = oneIn;
+        }
+
+        void format(StringBuilder out) {
+            out.append("ts=").append(Instant.ofEpochMilli(time));
+            out.append(" level=").append(level);
+            out.append(" logger=").append(logger);
+            out.append(" msg=");
+            appendValue(out, message);
+            for (int i = 0; i + 1 < fields.length; i += 2) {
+                out.append(' ').append(fields[i]).append('=');
+                appendValue(out, fields[i + 1]);
+            }
+            if (oneIn > 1) {
+                out.append(" sampled=1/").append(oneIn);
+            }
+            if (error != null) {
+                out.append(" error=");
+                appendValue(out, error.toString());
+            }
+            out.append('\n');
+            if (error != null && level == Level.ERROR) {
+                for (StackTraceElement frame : error.getStackTrace()) {
+                    out.append("\tat ").append(frame).append('\n');
+                }
+            }
+        }
+
+        private static void appendValue(StringBuilder out, Object value) {
+            String text = String.valueOf(value);
+            boolean quote = text.isEmpty();
+            for (int i = 0; i < text.length() && !quote; i++) {
+                char c = text.charAt(i);
+                quote = c <= ' ' || c == '=' || c == '"';
+            }
+            if (!quote) {
+                out.append(text);
+                return;
+            }
+            out.append('"');
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '"' || c == '\\') {
+                    out.append('\\').append(c);
+                } else if (c == '\n') {
+                    out.append("\\n");
+                } else {
+                    out.append(c);
+                }
+            }
+            out.append('"');
+        }
+    }
+
+    /**
+     * Holds events in a fixed size buffer and writes them from its own thread, in batches.
+     */
+    public static class AsyncAppender {
+        private static final Event STOP = new Event(0, Level.ERROR, "", "", null, new Object[0], 1);
+
+        private final Writer out;
+        private final BlockingQueue<Event> buffer;
+        private final AtomicLong dropped = new AtomicLong();
+        private final Thread thread;
+        private volatile boolean closed = false;
+
+        public AsyncAppender(Writer out, int capacity) {
+            this.out = out;
+            this.buffer = new ArrayBlockingQueue<>(capacity);
+            thread = new Thread(this::run, "Log writer");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        void append(Event event) {
+            if (closed || !buffer.offer(event)) {
+                dropped.incrementAndGet();
+            }
+        }
+
+        public long getDropped() {
+            return dropped.get();
+        }
+
+        /**
+         * Writes what is buffered and stops the thread, later events are dropped
+         */
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                buffer.put(STOP);
+                thread.join(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void run() {
+            List<Event> batch = new ArrayList<>();
+            StringBuilder text = new StringBuilder(4096);
+            long reportedDrops = 0;
+            boolean stopping = false;
+            while (!stopping) {
+                try {
+                    batch.add(buffer.take());
+                } catch (InterruptedException e) {
+                    break;
+                }
+                buffer.drainTo(batch);
+
+                long drops = dropped.get();
+                if (drops > reportedDrops) {
+                    new Event(System.currentTimeMillis(), Level.WARN, "Log", "Log lines dropped, buffer full",
+                        null, new Object[] {"count", drops - reportedDrops}, 1).format(text);
+                    reportedDrops = drops;
+                }
+                for (Event event : batch) {
+                    if (event == STOP) {
+                        stopping = true;
+                    } else {
+                        event.format(text);
+                    }
+                }
+                batch.clear();
+
+                try {
+                    out.write(text.toString());
+                    out.flush();
+                } catch (IOException e) {
+                    System.err.println("Could not write log: " + e.getMessage());
+                }
+                text.setLength(0);
+            }
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package io.github.broskipoker.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Counters, gauges and latency histograms for the server, cheap enough for the network thread.
+ * <p>
+ * Metrics are created once, kept in a static field by the code that updates them, and updated
+ * without locks. {@link #writePrometheus(StringBuilder)} renders all of them in the Prometheus text
+ * format for {@link MetricsEndpoint}, which also publishes them over JMX.
+ */
+public class Metrics {
+    private static Metrics instance;
+
+    private final Map<String, Metric> metrics = new ConcurrentSkipListMap<>();
+
+    public static synchronized Metrics getInstance() {
+        if (instance == null) {
+            instance = new Metrics();
+        }
+        return instance;
+    }
+
+    public abstract static class Metric {
+        final String name;
+        final String help;
+
+        Metric(String name, String help) {
+            this.name = name;
+            this.help = help;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        // What JMX shows, the count for counters and histograms
+        public abstract long value();
+
+        abstract void write(StringBuilder out);
+    }
+
+    public static class Counter extends Metric {
+        private final LongAdder count = new LongAdder();
+
+        Counter(String name, String help) {
+            super(name, help);
+        }
+
+        public void increment() {
+            count.increment();
+        }
+
+        public void add(long amount) {
+            count.add(amount);
+        }
+
+        @Override
+        public long value() {
+            return count.sum();
+        }
+
+        @Override
+        void write(StringBuilder out) {
+            out.append("# TYPE ").append(name).append(" counter\n");
+            out.append(name).append(' ').append(count.sum()).append('\n');
+        }
+    }
+
+    public static class Gauge extends Metric {
+        private final LongSupplier supplier;
+
+        Gauge(String name, String help, LongSupplier supplier) {
+            super(name, help);
+            this.supplier = supplier;
+        }
+
+        @Override
+        public long value() {
+            return supplier.getAsLong();
+        }
+
+        @Override
+        void write(StringBuilder out) {
+            out.append("# TYPE ").append(name).append(" gauge\n");
+            out.append(name).append(' ').append(value()).append('\n');
+        }
+    }
+
+    /**
+     * Durations in nanoseconds, bucketed like an HDR histogram: exact below 16 ns, then 8 buckets per
+     * power of two, so any percentile is within 12.5% of the true value. Exported in seconds.
+     */
+    public static class Histogram extends Metric {
+        private static final int SUB_BUCKET_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        private static final int BUCKETS = (63 - SUB_BUCKET_BITS) * SUB_BUCKETS + 2 * SUB_BUCKETS;
+        private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+        private final LongAdder[] buckets = new LongAdder[BUCKETS];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        Histogram(String name, String help) {
+            super(name, help);
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        static int bucketOf(long value) {
+            if (value < 2 * SUB_BUCKETS) {
+                return (int) Math.max(0, value);
+            }
+            int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+            return shift * SUB_BUCKETS + (int) (value >> shift);
+        }
+
+        // Largest value that lands in the bucket
+        static long highestInBucket(int bucket) {
+            if (bucket < 2 * SUB_BUCKETS) {
+                return bucket;
+            }
+            int shift = bucket / SUB_BUCKETS - 1;
+            long subBucket = bucket % SUB_BUCKETS + SUB_BUCKETS;
+            return ((subBucket + 1) << shift) - 1;
+        }
+
+        public void record(long nanos) {
+            buckets[bucketOf(nanos)].increment();
+            count.increment();
+            sum.add(nanos);
+            max.accumulate(nanos);
+        }
+
+        // Records the time since a System.nanoTime() reading
+        public void recordSince(long startNanos) {
+            record(System.nanoTime() - startNanos);
+        }
+
+        /**
+         * @return the value at the quantile in nanoseconds, 0 if nothing was recorded
+         */
+        public long quantile(double quantile) {
+            long[] counts = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets[i].sum();
+                total += counts[i];
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestInBucket(i), max.get());
+                }
+            }
+            return max.get();
+        }
+
+        @Override
+        public long value() {
+            return count.sum();
+        }
+
+        @Override
+        void write(StringBuilder out) {
+            out.append("# TYPE ").append(name).append(" summary\n");
+            for (double quantile : QUANTILES) {
+                out.append(name).append("{quantile=\"").append(quantile).append("\"} ")
+                    .append(quantile(quantile) / 1e9).append('\n');
+            }
+            out.append(name).append("_sum ").append(sum.sum() / 1e9).append('\n');
+            out.append(name).append("_count ").append(count.sum()).append('\n');
+        }
+    }
+
+    public Counter counter(String name, String help) {
+        return (Counter) metrics.computeIfAbsent(name, n -> new Counter(n, help));
+    }
+
+    /**
+     * @param supplier read on every scrape, must be cheap and thread safe
+     */
+    public Gauge gauge(String name, String help, LongSupplier supplier) {
+        return (Gauge) metrics.computeIfAbsent(name, n -> new Gauge(n, help, supplier));
+    }
+
+    public Histogram histogram(String name, String help) {
+        return (Histogram) metrics.computeIfAbsent(name, n -> new Histogram(n, help));
+    }
+
+    public Iterable<Metric> getMetrics() {
+        return metrics.values();
+    }
+
+    public Metric get(String name) {
+        return metrics.get(name);
+    }
+
+    public void writePrometheus(StringBuilder out) {
+        for (Metric metric : metrics.values()) {
+            out.append("# HELP ").append(metric.name).append(' ').append(metric.help).append('\n');
+            metric.write(out);
+        }
+    }
+}
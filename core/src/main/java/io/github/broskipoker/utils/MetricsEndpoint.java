@@ -0,0 +1,143 @@
+package io.github.broskipoker.utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Publishes {@link Metrics} for scraping at http://127.0.0.1:&lt;port&gt;/metrics in the Prometheus text
+ * format, and as attributes of the JMX MBean io.github.broskipoker:type=Metrics. The HTTP server
+ * only listens on loopback, put a proxy or a Prometheus agent on the same host in front of it.
+ */
+public class MetricsEndpoint implements DynamicMBean {
+    private static final Log log = Log.get(MetricsEndpoint.class);
+    private static final String OBJECT_NAME = "io.github.broskipoker:type=Metrics";
+
+    private final Metrics metrics;
+    private final Map<String, Supplier<String>> pages = new LinkedHashMap<>();
+    private HttpServer httpServer;
+
+    public MetricsEndpoint(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Serves plain text next to /metrics, on the same loopback address. Call before {@link #start(int)}.
+     */
+    public void addPage(String path, Supplier<String> page) {
+        pages.put(path, page);
+    }
+
+    /**
+     * Starts serving, a port that is taken only costs the HTTP endpoint, JMX still works
+     */
+    public void start(int port) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (Exception e) {
+            log.warn("Could not register metrics MBean", e, "name", OBJECT_NAME);
+        }
+
+        try {
+            httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+            httpServer.createContext("/metrics", exchange -> {
+                StringBuilder text = new StringBuilder(4096);
+                metrics.writePrometheus(text);
+                respond(exchange, "text/plain; version=0.0.4; charset=utf-8", text.toString());
+            });
+            for (Map.Entry<String, Supplier<String>> page : pages.entrySet()) {
+                httpServer.createContext(page.getKey(), exchange ->
+                    respond(exchange, "text/plain; charset=utf-8", page.getValue().get()));
+            }
+            httpServer.start();
+            log.info("Serving metrics", "url", "http://127.0.0.1:" + port + "/metrics");
+        } catch (IOException e) {
+            log.warn("Could not start metrics endpoint", e, "port", port);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, String contentType, String text) throws IOException {
+        byte[] body = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    public void stop() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(OBJECT_NAME));
+        } catch (Exception e) {
+            // Never registered
+        }
+    }
+
+    // One long attribute per metric, the count for histograms
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Metrics.Metric metric = metrics.get(attribute);
+        if (metric == null) {
+            throw new AttributeNotFoundException(attribute);
+        }
+        return metric.value();
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        AttributeList list = new AttributeList();
+        for (String attribute : attributes) {
+            Metrics.Metric metric = metrics.get(attribute);
+            if (metric != null) {
+                list.add(new Attribute(attribute, metric.value()));
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) {
+        throw new UnsupportedOperationException("Metrics are read only");
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) {
+        throw new UnsupportedOperationException("No operations");
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        for (Metrics.Metric metric : metrics.getMetrics()) {
+            attributes.add(new MBeanAttributeInfo(metric.getName(), "long", metric.help, true, false, false));
+        }
+        return new MBeanInfo(getClass().getName(), "Broski Poker server metrics",
+            attributes.toArray(new MBeanAttributeInfo[0]), null, null, null);
+    }
+}
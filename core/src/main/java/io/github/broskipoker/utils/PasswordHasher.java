@@ -0,0 +1,178 @@
+package io.github.broskipoker.utils;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt on its own small pool so password checks never block the render thread, the
+ * network thread or a database connection.
+ * <p>
+ * The pool and its queue are bounded: once the queue is full new work fails straight away
+ * with a RejectedExecutionException, so a burst of logins is turned away instead of making
+ * every login wait. Login attempts are also limited per username and per client address,
+ * which stops one client from filling the queue by guessing passwords.
+ */
+public class PasswordHasher {
+    private static PasswordHasher instance;
+
+    private static final int DEFAULT_QUEUE_CAPACITY = 64;
+    private static final int DEFAULT_MAX_ATTEMPTS = 5;
+    private static final long DEFAULT_WINDOW_MILLIS = 60_000;
+    // Forget idle rate limit windows once this many keys are tracked
+    private static final int PRUNE_THRESHOLD = 1024;
+
+    /**
+     * Thrown when a username or address used up its login attempts for now
+     */
+    public static class RateLimitedException extends RejectedExecutionException {
+        public RateLimitedException(String message) {
+            super(message);
+        }
+    }
+
+    // Attempts made with one key in the current window
+    private static class Window {
+        long start;
+        int attempts;
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final int maxAttempts;
+    private final long windowMillis;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private volatile long lastPrune;
+
+    /**
+     * @param threads how many passwords are hashed at the same time
+     * @param queueCapacity how many may wait before new ones are rejected
+     * @param maxAttempts login attempts allowed per username or address in each window
+     */
+    public PasswordHasher(int threads, int queueCapacity, int maxAttempts, long windowMillis) {
+        this.maxAttempts = maxAttempts;
+        this.windowMillis = windowMillis;
+        AtomicInteger threadCount = new AtomicInteger(1);
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "bcrypt-worker-" + threadCount.getAndIncrement());
+                thread.setDaemon(true);
+                // Hashing is the lowest priority work in the process, frames and table updates come first
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    public static synchronized PasswordHasher getInstance() {
+        if (instance == null) {
+            // Leave at least half the cores for everything else
+            int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+            instance = new PasswordHasher(threads, DEFAULT_QUEUE_CAPACITY, DEFAULT_MAX_ATTEMPTS, DEFAULT_WINDOW_MILLIS);
+        }
+        return instance;
+    }
+
+    public CompletableFuture<String> hashAsync(String password) {
+        return submit(() -> PasswordUtils.hashPassword(password));
+    }
+
+    public CompletableFuture<Boolean> checkAsync(String plaintextPassword, String hashedPassword) {
+        return submit(() -> PasswordUtils.checkPassword(plaintextPassword, hashedPassword));
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> work) {
+        try {
+            return CompletableFuture.supplyAsync(work, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Counts a login attempt against the username and the client address.
+     * @param clientAddress may be null when the caller has no address, e.g. a local login
+     * @return false if either one already used up its attempts, nothing is counted then
+     */
+    public boolean tryAcquireAttempt(String username, String clientAddress) {
+        long now = System.currentTimeMillis();
+        pruneIfLarge(now);
+        Window userWindow = username != null ? windows.computeIfAbsent("user:" + username.trim().toLowerCase(), key -> new Window()) : null;
+        Window addressWindow = clientAddress != null ? windows.computeIfAbsent("ip:" + clientAddress, key -> new Window()) : null;
+
+        // Lock both windows in a fixed order so two attempts can't deadlock
+        Window first = userWindow != null ? userWindow : addressWindow;
+        Window second = userWindow != null ? addressWindow : null;
+        if (first == null) {
+            return true;
+        }
+        synchronized (first) {
+            if (second == null) {
+                return take(first, now);
+            }
+            synchronized (second) {
+                if (!hasRoom(first, now) || !hasRoom(second, now)) {
+                    return false;
+                }
+                take(first, now);
+                take(second, now);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Clears the attempts of a username, called after it logged in successfully
+     */
+    public void resetAttempts(String username) {
+        if (username != null) {
+            windows.remove("user:" + username.trim().toLowerCase());
+        }
+    }
+
+    private boolean hasRoom(Window window, long now) {
+        if (now - window.start >= windowMillis) {
+            window.start = now;
+            window.attempts = 0;
+        }
+        return window.attempts < maxAttempts;
+    }
+
+    private boolean take(Window window, long now) {
+        if (!hasRoom(window, now)) {
+            return false;
+        }
+        window.attempts++;
+        return true;
+    }
+
+    private void pruneIfLarge(long now) {
+        if (windows.size() < PRUNE_THRESHOLD || now - lastPrune < windowMillis) {
+            return;
+        }
+        lastPrune = now;
+        Iterator<Window> iterator = windows.values().iterator();
+        while (iterator.hasNext()) {
+            Window window = iterator.next();
+            synchronized (window) {
+                if (now - window.start >= windowMillis) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    public int getQueuedTasks() {
+        return executor.getQueue().size();
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -2,14 +2,65 @@ package io.github.broskipoker.utils;
 import org.mindrot.jbcrypt.BCrypt;
 
 public class PasswordUtils {
+    private static final Log log = Log.get(PasswordUtils.class);
+
+    // BCrypt work factor for new hashes, each step doubles the time a hash takes
+    public static final int MIN_COST = 4;
+    public static final int MAX_COST = 31;
+    private static volatile int cost = initialCost();
 
     // Hash a password using BCrypt
     public static String hashPassword(String password) {
-        return BCrypt.hashpw(password, BCrypt.gensalt());
+        return BCrypt.hashpw(password, BCrypt.gensalt(cost));
     }
 
     // Check if a plaintext password matches a hashed password
     public static boolean checkPassword(String plaintextPassword, String hashedPassword) {
         return BCrypt.checkpw(plaintextPassword, hashedPassword);
     }
+
+    /**
+     * Changes the cost used for new hashes while running. Existing hashes keep working and are
+     * upgraded the next time their owner logs in.
+     */
+    public static void setCost(int newCost) {
+        if (newCost < MIN_COST || newCost > MAX_COST) {
+            throw new IllegalArgumentException("BCrypt cost must be between " + MIN_COST + " and " + MAX_COST);
+        }
+        cost = newCost;
+    }
+
+    public static int getCost() {
+        return cost;
+    }
+
+    // Whether a stored hash was made with a different cost than the current one, hashes look like $2a$10$...
+    public static boolean needsRehash(String hashedPassword) {
+        if (hashedPassword == null || hashedPassword.length() < 7 || hashedPassword.charAt(0) != '$') {
+            return false;
+        }
+        int costStart = hashedPassword.indexOf('$', 1) + 1;
+        try {
+            return Integer.parseInt(hashedPassword.substring(costStart, costStart + 2)) != cost;
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return false;
+        }
+    }
+
+    // Cost from -Dbroski.bcrypt.cost or BROSKI_BCRYPT_COST, BCrypt's default of 10 otherwise
+    private static int initialCost() {
+        String value = System.getProperty("broski.bcrypt.cost", System.getenv("BROSKI_BCRYPT_COST"));
+        if (value != null) {
+            try {
+                int configured = Integer.parseInt(value.trim());
+                if (configured >= MIN_COST && configured <= MAX_COST) {
+                    return configured;
+                }
+            } catch (NumberFormatException e) {
+                // fall through to the default
+            }
+            log.warn("Ignoring invalid BCrypt cost", "value", value, "min", MIN_COST, "max", MAX_COST);
+        }
+        return 10;
+    }
 }
@@ -0,0 +1,337 @@
+package io.github.broskipoker.utils;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Player statistics kept up to date hand by hand, with leaderboards served from memory.
+ * <p>
+ * Every finished hand adds to the player's totals, nothing is recomputed from history. Each
+ * leaderboard is a skip list sorted by its stat, so a player moving up or down costs two
+ * O(log n) updates and reading the top N walks N entries, the users table is never sorted.
+ * Changed players are written to the player_stats table on a timer and read back on start.
+ */
+public class StatsService {
+    private static final Log log = Log.get(StatsService.class);
+
+    // Breaks longer than this between two hands are not counted as time played
+    private static final long MAX_HAND_GAP_MILLIS = 10 * 60 * 1000L;
+
+    private static final String CREATE_TABLE_SQL =
+        "CREATE TABLE IF NOT EXISTS player_stats (username VARCHAR(255) PRIMARY KEY, hands INT NOT NULL, " +
+        "vpip_hands INT NOT NULL, pfr_hands INT NOT NULL, net_chips BIGINT NOT NULL, biggest_pot BIGINT NOT NULL, " +
+        "play_millis BIGINT NOT NULL, updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)";
+    private static final String LOAD_SQL =
+        "SELECT username, hands, vpip_hands, pfr_hands, net_chips, biggest_pot, play_millis FROM player_stats";
+    private static final String UPSERT_SQL =
+        "INSERT INTO player_stats (username, hands, vpip_hands, pfr_hands, net_chips, biggest_pot, play_millis) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?) ON CONFLICT (username) DO UPDATE SET hands = EXCLUDED.hands, " +
+        "vpip_hands = EXCLUDED.vpip_hands, pfr_hands = EXCLUDED.pfr_hands, net_chips = EXCLUDED.net_chips, " +
+        "biggest_pot = EXCLUDED.biggest_pot, play_millis = EXCLUDED.play_millis, updated_at = CURRENT_TIMESTAMP";
+
+    public enum Leaderboard {
+        NET_CHIPS, BIGGEST_POT, HANDS_PLAYED
+    }
+
+    /**
+     * Totals for one player, the service hands out copies
+     */
+    public static class PlayerStats {
+        private final String username;
+        private int hands;
+        private int vpipHands;
+        private int pfrHands;
+        private long netChips;
+        private long biggestPot;
+        private long playMillis;
+        private long lastHandAt;
+
+        PlayerStats(String username) {
+            this.username = username;
+        }
+
+        PlayerStats copy() {
+            PlayerStats copy = new PlayerStats(username);
+            copy.hands = hands;
+            copy.vpipHands = vpipHands;
+            copy.pfrHands = pfrHands;
+            copy.netChips = netChips;
+            copy.biggestPot = biggestPot;
+            copy.playMillis = playMillis;
+            copy.lastHandAt = lastHandAt;
+            return copy;
+        }
+
+        long value(Leaderboard leaderboard) {
+            switch (leaderboard) {
+                case NET_CHIPS:
+                    return netChips;
+                case BIGGEST_POT:
+                    return biggestPot;
+                default:
+                    return hands;
+            }
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public int getHands() {
+            return hands;
+        }
+
+        public long getNetChips() {
+            return netChips;
+        }
+
+        public long getBiggestPot() {
+            return biggestPot;
+        }
+
+        // Share of hands the player put chips in before the flop without being forced to, 0 to 1
+        public double getVpip() {
+            return hands == 0 ? 0 : (double) vpipHands / hands;
+        }
+
+        // Share of hands the player raised before the flop, 0 to 1
+        public double getPfr() {
+            return hands == 0 ? 0 : (double) pfrHands / hands;
+        }
+
+        public double getHandsPerHour() {
+            return playMillis == 0 ? 0 : hands * 3_600_000.0 / playMillis;
+        }
+    }
+
+    /**
+     * One row of a leaderboard
+     */
+    public static class Standing implements Comparable<Standing> {
+        private final String username;
+        private final long value;
+
+        Standing(String username, long value) {
+            this.username = username;
+            this.value = value;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public long getValue() {
+            return value;
+        }
+
+        // Highest first, ties by name so two players never compare equal
+        @Override
+        public int compareTo(Standing other) {
+            int byValue = Long.compare(other.value, value);
+            return byValue != 0 ? byValue : username.compareTo(other.username);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Standing && compareTo((Standing) other) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return username.hashCode() * 31 + Long.hashCode(value);
+        }
+    }
+
+    private final DatabaseConnection dbConnection;
+    private final long snapshotIntervalMillis;
+    private final Map<String, PlayerStats> stats = new ConcurrentHashMap<>();
+    private final Map<Leaderboard, ConcurrentSkipListSet<Standing>> leaderboards = new EnumMap<>(Leaderboard.class);
+    // Players changed since the last snapshot
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService snapshotter;
+
+    public StatsService(DatabaseConnection dbConnection, long snapshotIntervalMillis) {
+        this.dbConnection = dbConnection;
+        this.snapshotIntervalMillis = snapshotIntervalMillis;
+        for (Leaderboard leaderboard : Leaderboard.values()) {
+            leaderboards.put(leaderboard, new ConcurrentSkipListSet<>());
+        }
+    }
+
+    /**
+     * Loads the saved stats and starts the periodic snapshot
+     */
+    public void start() {
+        try {
+            dbConnection.execute(connection -> {
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute(CREATE_TABLE_SQL);
+                }
+                try (PreparedStatement stmt = connection.prepareStatement(LOAD_SQL);
+                     ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        PlayerStats loaded = new PlayerStats(rs.getString("username"));
+                        loaded.hands = rs.getInt("hands");
+                        loaded.vpipHands = rs.getInt("vpip_hands");
+                        loaded.pfrHands = rs.getInt("pfr_hands");
+                        loaded.netChips = rs.getLong("net_chips");
+                        loaded.biggestPot = rs.getLong("biggest_pot");
+                        loaded.playMillis = rs.getLong("play_millis");
+                        stats.put(loaded.username, loaded);
+                        if (loaded.hands == 0) {
+                            continue;
+                        }
+                        for (Leaderboard leaderboard : Leaderboard.values()) {
+                            leaderboards.get(leaderboard).add(new Standing(loaded.username, loaded.value(leaderboard)));
+                        }
+                    }
+                }
+                return null;
+            });
+            log.info("Loaded player stats", "players", stats.size());
+        } catch (SQLException e) {
+            log.error("Could not load player stats, starting empty", e);
+        }
+
+        snapshotter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stats-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshotter.scheduleWithFixedDelay(this::snapshot, snapshotIntervalMillis, snapshotIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Adds one finished hand to a player's totals
+     * @param chipDelta chips won in the hand, negative when lost
+     * @param pot everything bet in the hand, counts towards the biggest pot only if the player won
+     */
+    public void recordHand(String username, boolean voluntarilyPutIn, boolean raisedPreFlop, long chipDelta, long pot) {
+        long now = System.currentTimeMillis();
+        PlayerStats player = stats.computeIfAbsent(username, PlayerStats::new);
+        synchronized (player) {
+            long[] before = new long[Leaderboard.values().length];
+            for (Leaderboard leaderboard : Leaderboard.values()) {
+                before[leaderboard.ordinal()] = player.value(leaderboard);
+            }
+            boolean ranked = player.hands > 0;
+
+            player.hands++;
+            if (voluntarilyPutIn) {
+                player.vpipHands++;
+            }
+            if (raisedPreFlop) {
+                player.pfrHands++;
+            }
+            player.netChips += chipDelta;
+            if (chipDelta > 0) {
+                player.biggestPot = Math.max(player.biggestPot, pot);
+            }
+            if (player.lastHandAt > 0) {
+                player.playMillis += Math.min(now - player.lastHandAt, MAX_HAND_GAP_MILLIS);
+            }
+            player.lastHandAt = now;
+
+            // Re-rank only where the value moved
+            for (Leaderboard leaderboard : Leaderboard.values()) {
+                long after = player.value(leaderboard);
+                if (ranked && after == before[leaderboard.ordinal()]) {
+                    continue;
+                }
+                ConcurrentSkipListSet<Standing> board = leaderboards.get(leaderboard);
+                if (ranked) {
+                    board.remove(new Standing(username, before[leaderboard.ordinal()]));
+                }
+                board.add(new Standing(username, after));
+            }
+        }
+        dirty.add(username);
+    }
+
+    /**
+     * @return the best players on a leaderboard, best first
+     */
+    public List<Standing> getLeaderboard(Leaderboard leaderboard, int limit) {
+        List<Standing> top = new ArrayList<>(Math.min(limit, 100));
+        Iterator<Standing> iterator = leaderboards.get(leaderboard).iterator();
+        while (iterator.hasNext() && top.size() < limit) {
+            top.add(iterator.next());
+        }
+        return top;
+    }
+
+    /**
+     * @return a copy of a player's totals, or null if they never finished a hand
+     */
+    public PlayerStats getStats(String username) {
+        PlayerStats player = stats.get(username);
+        if (player == null) {
+            return null;
+        }
+        synchronized (player) {
+            return player.copy();
+        }
+    }
+
+    /**
+     * Writes every player changed since the last snapshot in one batch
+     */
+    public void snapshot() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<PlayerStats> changed = new ArrayList<>();
+        Set<String> names = new HashSet<>(dirty);
+        dirty.removeAll(names);
+        for (String username : names) {
+            PlayerStats player = getStats(username);
+            if (player != null) {
+                changed.add(player);
+            }
+        }
+
+        try {
+            dbConnection.execute(connection -> {
+                try (PreparedStatement stmt = connection.prepareStatement(UPSERT_SQL)) {
+                    for (PlayerStats player : changed) {
+                        stmt.setString(1, player.username);
+                        stmt.setInt(2, player.hands);
+                        stmt.setInt(3, player.vpipHands);
+                        stmt.setInt(4, player.pfrHands);
+                        stmt.setLong(5, player.netChips);
+                        stmt.setLong(6, player.biggestPot);
+                        stmt.setLong(7, player.playMillis);
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            // The totals are absolute, writing them on the next snapshot is enough
+            log.warn("Could not save player stats, will retry", e, "players", names.size());
+            dirty.addAll(names);
+        }
+    }
+
+    public void stop() {
+        if (snapshotter != null) {
+            snapshotter.shutdown();
+        }
+        snapshot();
+    }
+}
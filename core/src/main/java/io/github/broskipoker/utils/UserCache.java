@@ -0,0 +1,244 @@
+package io.github.broskipoker.utils;
+
+import io.github.broskipoker.game.User;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache in front of the users table for profiles and "is this name taken" lookups.
+ * <p>
+ * Each map is a bounded LRU with a time to live, so memory stays fixed and a change made by
+ * another process shows up after at most one TTL. Negative answers ("username is free") are
+ * cached too, but for a shorter time, since they are what a signup form asks on every key
+ * press and what goes stale first. Writes from this process (registration, chip updates, the
+ * chip ledger) invalidate the affected entries straight away.
+ * <p>
+ * Sizes and lifetimes can be set with -Dbroski.usercache.size, .ttl.ms and .negative.ttl.ms.
+ */
+public class UserCache {
+    private static final Log log = Log.get(UserCache.class);
+    private static UserCache instance;
+
+    private static final int DEFAULT_MAX_ENTRIES = intSetting("broski.usercache.size", 10_000);
+    private static final long DEFAULT_TTL_MILLIS = intSetting("broski.usercache.ttl.ms", 60_000);
+    private static final long DEFAULT_NEGATIVE_TTL_MILLIS = intSetting("broski.usercache.negative.ttl.ms", 10_000);
+
+    /**
+     * A user row as it was read, including the password hash needed to log in
+     */
+    public static class Profile {
+        private final int id;
+        private final String username;
+        private final String email;
+        private final long chips;
+        private final int gamesPlayed;
+        private final int wins;
+        private final int losses;
+        private final String hashedPassword;
+
+        public Profile(User user, String hashedPassword) {
+            this.id = user.getId();
+            this.username = user.getUsername();
+            this.email = user.getEmail();
+            this.chips = user.getChips();
+            this.gamesPlayed = user.getGamesPlayed();
+            this.wins = user.getWins();
+            this.losses = user.getLosses();
+            this.hashedPassword = hashedPassword;
+        }
+
+        // A fresh User every time, callers change their copy (chips, stats) without touching the cache
+        public User toUser() {
+            return new User(id, username, email, chips, gamesPlayed, wins, losses);
+        }
+
+        public String getHashedPassword() {
+            return hashedPassword;
+        }
+    }
+
+    private static class Expiring<V> {
+        final V value;
+        final long expiresAt;
+
+        Expiring(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    // Access ordered LinkedHashMap, the eldest entry is the least recently used
+    private static class LruMap<V> extends LinkedHashMap<String, Expiring<V>> {
+        private final int maxEntries;
+
+        LruMap(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Expiring<V>> eldest) {
+            return size() > maxEntries;
+        }
+    }
+
+    private final long ttlMillis;
+    private final long negativeTtlMillis;
+    private final LruMap<Profile> profiles;
+    private final LruMap<Boolean> usernames;
+    private final LruMap<Boolean> emails;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param maxEntries how many entries each of the profile, username and email maps may hold
+     * @param ttlMillis how long profiles and "taken" answers are trusted
+     * @param negativeTtlMillis how long "free" answers are trusted
+     */
+    public UserCache(int maxEntries, long ttlMillis, long negativeTtlMillis) {
+        this.ttlMillis = ttlMillis;
+        this.negativeTtlMillis = negativeTtlMillis;
+        this.profiles = new LruMap<>(maxEntries);
+        this.usernames = new LruMap<>(maxEntries);
+        this.emails = new LruMap<>(maxEntries);
+    }
+
+    public static synchronized UserCache getInstance() {
+        if (instance == null) {
+            instance = new UserCache(DEFAULT_MAX_ENTRIES, DEFAULT_TTL_MILLIS, DEFAULT_NEGATIVE_TTL_MILLIS);
+        }
+        return instance;
+    }
+
+    public static synchronized void setInstance(UserCache userCache) {
+        instance = userCache;
+    }
+
+    /**
+     * @return the cached profile, or null if it has to be read from the database
+     */
+    public synchronized Profile getProfile(String username) {
+        return lookup(profiles, key(username));
+    }
+
+    public synchronized void putProfile(Profile profile) {
+        long now = System.currentTimeMillis();
+        profiles.put(profile.username, new Expiring<>(profile, now + ttlMillis));
+        usernames.put(profile.username, new Expiring<>(Boolean.TRUE, now + ttlMillis));
+    }
+
+    /**
+     * @return whether the username is taken, or null if it has to be read from the database
+     */
+    public synchronized Boolean usernameExists(String username) {
+        return lookup(usernames, key(username));
+    }
+
+    public synchronized void putUsernameExists(String username, boolean exists) {
+        usernames.put(key(username), new Expiring<>(exists, expiry(exists)));
+    }
+
+    /**
+     * @return whether the email is taken, or null if it has to be read from the database
+     */
+    public synchronized Boolean emailExists(String email) {
+        return lookup(emails, key(email));
+    }
+
+    public synchronized void putEmailExists(String email, boolean exists) {
+        emails.put(key(email), new Expiring<>(exists, expiry(exists)));
+    }
+
+    /**
+     * Drops the profile of a user whose chips or stats were changed, their name stays taken
+     */
+    public synchronized void invalidateUser(String username) {
+        profiles.remove(key(username));
+    }
+
+    /**
+     * A new account was created, its username and email are taken from now on
+     */
+    public synchronized void onRegistered(String username, String email) {
+        profiles.remove(key(username));
+        putUsernameExists(username, true);
+        if (email != null) {
+            putEmailExists(email, true);
+        }
+    }
+
+    /**
+     * Forgets what is known about a username and email, e.g. after a registration failed for an unknown reason
+     */
+    public synchronized void forget(String username, String email) {
+        profiles.remove(key(username));
+        usernames.remove(key(username));
+        if (email != null) {
+            emails.remove(key(email));
+        }
+    }
+
+    public synchronized void clear() {
+        profiles.clear();
+        usernames.clear();
+        emails.clear();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    // Share of lookups answered without the database since startup
+    public double getHitRate() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    public synchronized int size() {
+        return profiles.size() + usernames.size() + emails.size();
+    }
+
+    private <V> V lookup(LruMap<V> map, String key) {
+        Expiring<V> entry = map.get(key);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            map.remove(key);
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.value;
+    }
+
+    private long expiry(boolean exists) {
+        return System.currentTimeMillis() + (exists ? ttlMillis : negativeTtlMillis);
+    }
+
+    private static String key(String value) {
+        return value == null ? "" : value.trim();
+    }
+
+    private static int intSetting(String property, int defaultValue) {
+        String value = System.getProperty(property);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring invalid setting", "property", property, "value", value);
+            return defaultValue;
+        }
+    }
+}
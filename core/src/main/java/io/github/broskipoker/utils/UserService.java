@@ -3,17 +3,57 @@ package io.github.broskipoker.utils;
 import io.github.broskipoker.game.User;
 import java.sql.*;
 import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 public class UserService {
+    private static final Log log = Log.get(UserService.class);
     private static UserService instance;
     private final DatabaseConnection dbConnection;
-    private User currentUser;
+    private volatile User currentUser;
+
+    // Queries waiting for a database worker, beyond this the async calls fail fast instead of piling up
+    private static final int MAX_QUEUED_QUERIES = 256;
+    private final ExecutorService dbExecutor;
+    // BCrypt runs here, never on a database worker, so a slow hash doesn't hold a pooled connection
+    private final PasswordHasher passwordHasher;
+    private final UserCache userCache;
 
     private UserService() {
-        this.dbConnection = DatabaseConnection.getInstance();
+        this(DatabaseConnection.getInstance());
+    }
+
+    /**
+     * @param dbConnection the pool to run queries on, tests can pass one backed by a local database
+     */
+    public UserService(DatabaseConnection dbConnection) {
+        this(dbConnection, PasswordHasher.getInstance(), UserCache.getInstance());
     }
 
-    public static UserService getInstance() {
+    public UserService(DatabaseConnection dbConnection, PasswordHasher passwordHasher, UserCache userCache) {
+        this.dbConnection = dbConnection;
+        this.passwordHasher = passwordHasher;
+        this.userCache = userCache;
+
+        // One worker per pooled connection, more would only wait for a connection
+        int workers = Math.max(1, dbConnection.getMaxConnections());
+        AtomicInteger threadCount = new AtomicInteger(1);
+        this.dbExecutor = new ThreadPoolExecutor(workers, workers, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(MAX_QUEUED_QUERIES), runnable -> {
+                Thread thread = new Thread(runnable, "db-worker-" + threadCount.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        ((ThreadPoolExecutor) dbExecutor).allowCoreThreadTimeOut(true);
+    }
+
+    public static synchronized UserService getInstance() {
         if (instance == null) {
             instance = new UserService();
         }
@@ -33,19 +73,31 @@ public class UserService {
             return false;
         }
 
-        String hashedPassword = PasswordUtils.hashPassword(password);
-        String sql = "INSERT INTO users (username, email, password) VALUES (?, ?, ?)";
+        return insertUser(username, email, PasswordUtils.hashPassword(password));
+    }
 
-        try (PreparedStatement stmt = dbConnection.getConnection().prepareStatement(sql)) {
-            stmt.setString(1, username.trim());
-            stmt.setString(2, email != null ? email.trim() : null);
-            stmt.setString(3, hashedPassword);
+    private boolean insertUser(String username, String email, String hashedPassword) {
+        String sql = "INSERT INTO users (username, email, password) VALUES (?, ?, ?)";
 
-            int rowsAffected = stmt.executeUpdate();
-            return rowsAffected > 0;
+        try {
+            boolean registered = dbConnection.execute(connection -> {
+                try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                    stmt.setString(1, username.trim());
+                    stmt.setString(2, email != null ? email.trim() : null);
+                    stmt.setString(3, hashedPassword);
 
+                    int rowsAffected = stmt.executeUpdate();
+                    return rowsAffected > 0;
+                }
+            });
+            if (registered) {
+                userCache.onRegistered(username.trim(), email != null ? email.trim() : null);
+            }
+            return registered;
         } catch (SQLException e) {
-            System.err.println("Error registering user: " + e.getMessage());
+            log.error("Could not register user", e, "user", username);
+            // Most likely someone else took the name or email first, check again next time
+            userCache.forget(username.trim(), email != null ? email.trim() : null);
             return false;
         }
     }
@@ -57,39 +109,89 @@ public class UserService {
      * @return true if login successful, false otherwise
      */
     public boolean loginUser(String username, String password) {
+        Optional<User> user = authenticate(username, password);
+        user.ifPresent(loggedIn -> currentUser = loggedIn);
+        return user.isPresent();
+    }
+
+    /**
+     * Checks a username and password against the database without changing the current user
+     * @return the user if the credentials are correct, empty otherwise
+     */
+    public Optional<User> authenticate(String username, String password) {
         if (username == null || username.trim().isEmpty() ||
             password == null || password.trim().isEmpty()) {
-            return false;
+            return Optional.empty();
+        }
+
+        UserCache.Profile profile = loadProfile(username);
+        if (profile != null && PasswordUtils.checkPassword(password, profile.getHashedPassword())) {
+            return Optional.of(profile.toUser());
+        }
+        return Optional.empty();
+    }
+
+    // Read-through the cache. The connection goes back to the pool before the password is checked.
+    private UserCache.Profile loadProfile(String username) {
+        UserCache.Profile cached = userCache.getProfile(username);
+        if (cached != null) {
+            return cached;
+        }
+        if (Boolean.FALSE.equals(userCache.usernameExists(username))) {
+            return null; // known not to exist, e.g. a typo being retried
         }
 
         String sql = "SELECT id, username, email, password, chips, games_played, wins, losses FROM users WHERE username = ?";
 
-        try (PreparedStatement stmt = dbConnection.getConnection().prepareStatement(sql)) {
-            stmt.setString(1, username.trim());
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                String hashedPassword = rs.getString("password");
-
-                if (PasswordUtils.checkPassword(password, hashedPassword)) {
-                    // Create user object and set as current user
-                    currentUser = new User(
-                        rs.getInt("id"),
-                        rs.getString("username"),
-                        rs.getString("email"),
-                        rs.getLong("chips"),
-                        rs.getInt("games_played"),
-                        rs.getInt("wins"),
-                        rs.getInt("losses")
-                    );
-                    return true;
+        try {
+            UserCache.Profile profile = dbConnection.execute(connection -> {
+                try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                    stmt.setString(1, username.trim());
+                    ResultSet rs = stmt.executeQuery();
+
+                    if (rs.next()) {
+                        return new UserCache.Profile(new User(
+                            rs.getInt("id"),
+                            rs.getString("username"),
+                            rs.getString("email"),
+                            rs.getLong("chips"),
+                            rs.getInt("games_played"),
+                            rs.getInt("wins"),
+                            rs.getInt("losses")
+                        ), rs.getString("password"));
+                    }
+                    return null;
                 }
+            });
+            if (profile != null) {
+                userCache.putProfile(profile);
+            } else {
+                userCache.putUsernameExists(username, false);
             }
+            return profile;
         } catch (SQLException e) {
-            System.err.println("Error logging in user: " + e.getMessage());
+            log.error("Could not log in user", e, "user", username);
+            return null;
         }
+    }
 
-        return false;
+    private boolean updatePasswordHash(User user, String hashedPassword) {
+        String sql = "UPDATE users SET password = ? WHERE id = ?";
+
+        try {
+            boolean updated = dbConnection.execute(connection -> {
+                try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                    stmt.setString(1, hashedPassword);
+                    stmt.setInt(2, user.getId());
+                    return stmt.executeUpdate() > 0;
+                }
+            });
+            userCache.invalidateUser(user.getUsername());
+            return updated;
+        } catch (SQLException e) {
+            log.warn("Could not upgrade password hash", e, "user", user.getUsername());
+            return false;
+        }
     }
 
     /**
@@ -108,10 +210,11 @@ public class UserService {
     }
 
     public User getCurrentUserOrThrow() {
-        if (currentUser == null) {
+        User user = currentUser;
+        if (user == null) {
             throw new IllegalStateException("No user is currently logged in");
         }
-        return currentUser;
+        return user;
     }
 
     /**
@@ -128,23 +231,28 @@ public class UserService {
      * @return true if update successful, false otherwise
      */
     public boolean updateUserChips(long newChipCount) {
-        if (currentUser == null) {
+        User user = currentUser;
+        if (user == null) {
             return false;
         }
 
         String sql = "UPDATE users SET chips = ? WHERE id = ?";
 
-        try (PreparedStatement stmt = dbConnection.getConnection().prepareStatement(sql)) {
-            stmt.setLong(1, newChipCount);
-            stmt.setInt(2, currentUser.getId());
-
-            int rowsAffected = stmt.executeUpdate();
+        try {
+            int rowsAffected = dbConnection.execute(connection -> {
+                try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                    stmt.setLong(1, newChipCount);
+                    stmt.setInt(2, user.getId());
+                    return stmt.executeUpdate();
+                }
+            });
+            userCache.invalidateUser(user.getUsername());
             if (rowsAffected > 0) {
-                currentUser.setChips(newChipCount);
+                user.setChips(newChipCount);
                 return true;
             }
         } catch (SQLException e) {
-            System.err.println("Error updating user chips: " + e.getMessage());
+            log.error("Could not update user chips", e, "user", user.getUsername(), "chips", newChipCount);
         }
 
         return false;
@@ -156,7 +264,8 @@ public class UserService {
      * @return true if update successful, false otherwise
      */
     public boolean updateGameStats(boolean won) {
-        if (currentUser == null) {
+        User user = currentUser;
+        if (user == null) {
             return false;
         }
 
@@ -164,21 +273,25 @@ public class UserService {
             (won ? "wins = wins + 1" : "losses = losses + 1") +
             " WHERE id = ?";
 
-        try (PreparedStatement stmt = dbConnection.getConnection().prepareStatement(sql)) {
-            stmt.setInt(1, currentUser.getId());
-
-            int rowsAffected = stmt.executeUpdate();
+        try {
+            int rowsAffected = dbConnection.execute(connection -> {
+                try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                    stmt.setInt(1, user.getId());
+                    return stmt.executeUpdate();
+                }
+            });
+            userCache.invalidateUser(user.getUsername());
             if (rowsAffected > 0) {
-                currentUser.setGamesPlayed(currentUser.getGamesPlayed() + 1);
+                user.setGamesPlayed(user.getGamesPlayed() + 1);
                 if (won) {
-                    currentUser.setWins(currentUser.getWins() + 1);
+                    user.setWins(user.getWins() + 1);
                 } else {
-                    currentUser.setLosses(currentUser.getLosses() + 1);
+                    user.setLosses(user.getLosses() + 1);
                 }
                 return true;
             }
         } catch (SQLException e) {
-            System.err.println("Error updating game stats: " + e.getMessage());
+            log.error("Could not update game stats", e, "user", user.getUsername(), "won", won);
         }
 
         return false;
@@ -194,14 +307,16 @@ public class UserService {
             return false;
         }
 
-        String sql = "SELECT 1 FROM users WHERE username = ?";
-
-        try (PreparedStatement stmt = dbConnection.getConnection().prepareStatement(sql)) {
-            stmt.setString(1, username.trim());
-            ResultSet rs = stmt.executeQuery();
-            return rs.next();
+        Boolean cached = userCache.usernameExists(username);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            boolean exists = rowExists("SELECT 1 FROM users WHERE username = ?", username.trim());
+            userCache.putUsernameExists(username, exists);
+            return exists;
         } catch (SQLException e) {
-            System.err.println("Error checking username: " + e.getMessage());
+            log.error("Could not check username", e, "user", username);
             return false;
         }
     }
@@ -216,15 +331,118 @@ public class UserService {
             return false;
         }
 
-        String sql = "SELECT 1 FROM users WHERE email = ?";
-
-        try (PreparedStatement stmt = dbConnection.getConnection().prepareStatement(sql)) {
-            stmt.setString(1, email.trim());
-            ResultSet rs = stmt.executeQuery();
-            return rs.next();
+        Boolean cached = userCache.emailExists(email);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            boolean exists = rowExists("SELECT 1 FROM users WHERE email = ?", email.trim());
+            userCache.putEmailExists(email, exists);
+            return exists;
         } catch (SQLException e) {
-            System.err.println("Error checking email: " + e.getMessage());
+            log.error("Could not check email", e);
             return false;
         }
     }
+
+    private boolean rowExists(String sql, String value) throws SQLException {
+        return dbConnection.execute(connection -> {
+            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                stmt.setString(1, value);
+                ResultSet rs = stmt.executeQuery();
+                return rs.next();
+            }
+        });
+    }
+
+    // Async versions, queries run on the database workers and BCrypt on the password hasher, neither blocks
+    // the calling thread. Callers on the render thread should hop back with Gdx.app.postRunnable before touching the UI.
+
+    /**
+     * Login a user without blocking the caller, sets the current user on success
+     * @return the logged in user, or empty if the credentials were wrong
+     */
+    public CompletableFuture<Optional<User>> loginUserAsync(String username, String password) {
+        return authenticateAsync(username, password, null).thenApply(user -> {
+            user.ifPresent(loggedIn -> currentUser = loggedIn);
+            return user;
+        });
+    }
+
+    /**
+     * Checks credentials without changing the current user. Fails with a
+     * PasswordHasher.RateLimitedException when the username or address tried too often,
+     * and with a RejectedExecutionException when too many logins are already waiting.
+     * @param clientAddress address the attempt came from, or null if unknown
+     */
+    public CompletableFuture<Optional<User>> authenticateAsync(String username, String password, String clientAddress) {
+        if (username == null || username.trim().isEmpty() ||
+            password == null || password.trim().isEmpty()) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        if (!passwordHasher.tryAcquireAttempt(username, clientAddress)) {
+            return CompletableFuture.failedFuture(new PasswordHasher.RateLimitedException("Too many login attempts for " + username.trim()));
+        }
+
+        return submit(() -> loadProfile(username)).thenCompose(profile -> {
+            if (profile == null) {
+                return CompletableFuture.completedFuture(Optional.<User>empty());
+            }
+            return passwordHasher.checkAsync(password, profile.getHashedPassword()).thenApply(matches -> {
+                if (!matches) {
+                    return Optional.<User>empty();
+                }
+                passwordHasher.resetAttempts(username);
+                // The cost was changed since this hash was made, store one with the current cost
+                User user = profile.toUser();
+                if (PasswordUtils.needsRehash(profile.getHashedPassword())) {
+                    passwordHasher.hashAsync(password)
+                        .thenCompose(newHash -> submit(() -> updatePasswordHash(user, newHash)));
+                }
+                return Optional.of(user);
+            });
+        });
+    }
+
+    public CompletableFuture<Boolean> registerUserAsync(String username, String email, String password) {
+        if (username == null || username.trim().isEmpty() ||
+            password == null || password.trim().isEmpty()) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return passwordHasher.hashAsync(password)
+            .thenCompose(hashedPassword -> submit(() -> insertUser(username, email, hashedPassword)));
+    }
+
+    public CompletableFuture<Boolean> usernameExistsAsync(String username) {
+        return submit(() -> usernameExists(username));
+    }
+
+    public CompletableFuture<Boolean> emailExistsAsync(String email) {
+        return submit(() -> emailExists(email));
+    }
+
+    public CompletableFuture<Boolean> updateUserChipsAsync(long newChipCount) {
+        return submit(() -> updateUserChips(newChipCount));
+    }
+
+    public CompletableFuture<Boolean> updateGameStatsAsync(boolean won) {
+        return submit(() -> updateGameStats(won));
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> query) {
+        try {
+            return CompletableFuture.supplyAsync(query, dbExecutor);
+        } catch (RejectedExecutionException e) {
+            // Too many queries already waiting, fail this one instead of queueing without bound
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Stops the database workers and closes the pooled connections
+     */
+    public void shutdown() {
+        dbExecutor.shutdown();
+        dbConnection.shutdown();
+    }
 }
@@ -0,0 +1,54 @@
+package io.github.broskipoker.utils;
+
+import io.github.broskipoker.game.User;
+
+import java.util.Optional;
+
+/**
+ * The account this client is logged in as. The server checks the password and hands out a
+ * session token, every later connection to the server presents the token instead.
+ */
+public class UserSession {
+    private static UserSession instance;
+
+    private volatile User currentUser;
+    private volatile String sessionToken;
+
+    public static synchronized UserSession getInstance() {
+        if (instance == null) {
+            instance = new UserSession();
+        }
+        return instance;
+    }
+
+    public void start(User user, String sessionToken) {
+        this.currentUser = user;
+        this.sessionToken = sessionToken;
+    }
+
+    public void logout() {
+        currentUser = null;
+        sessionToken = null;
+    }
+
+    public boolean isLoggedIn() {
+        return currentUser != null;
+    }
+
+    public Optional<User> getCurrentUser() {
+        return Optional.ofNullable(currentUser);
+    }
+
+    public User getCurrentUserOrThrow() {
+        User user = currentUser;
+        if (user == null) {
+            throw new IllegalStateException("No user is currently logged in");
+        }
+        return user;
+    }
+
+    // Null while logged out
+    public String getSessionToken() {
+        return sessionToken;
+    }
+}
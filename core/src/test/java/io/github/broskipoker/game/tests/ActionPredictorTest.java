@@ -0,0 +1,79 @@
+package io.github.broskipoker.game.tests;
+
+import io.github.broskipoker.game.ActionPredictor;
+import io.github.broskipoker.game.Player;
+import io.github.broskipoker.game.PokerGame;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ActionPredictorTest {
+
+    // The table as the client sees it after an update: alice to act facing a 100 bet
+    private PokerGame serverState() {
+        List<Player> players = new ArrayList<>();
+        players.add(new Player("alice", 1000));
+        players.add(new Player("bob", 900));
+        players.add(new Player("carol", 1000));
+        players.get(1).setCurrentBet(100);
+
+        PokerGame game = new PokerGame();
+        game.setPlayers(players);
+        game.setGameState(PokerGame.GameState.BETTING_PRE_FLOP);
+        game.setHasActedInRound(new boolean[3]);
+        game.setPot(150);
+        game.setCurrentBet(100);
+        game.setCurrentPlayerIndex(0);
+        game.setNeedsPlayerAction(true);
+        return game;
+    }
+
+    @Test
+    public void testCallIsShownBeforeTheServerAnswers() {
+        ActionPredictor predictor = new ActionPredictor();
+        PokerGame game = serverState();
+
+        assertTrue(predictor.predict(game, 0, predictor.nextSequence(), PokerGame.PlayerAction.CALL, 100));
+
+        assertEquals(900, game.getPlayers().get(0).getChips());
+        assertEquals(250, game.getPot());
+        assertEquals(1, game.getCurrentPlayerIndex(), "The turn passes on.");
+        assertTrue(game.needsPlayerAction(), "The betting round is left to the server.");
+    }
+
+    @Test
+    public void testStaleUpdateKeepsThePrediction() {
+        ActionPredictor predictor = new ActionPredictor();
+        int sequence = predictor.nextSequence();
+        predictor.predict(serverState(), 0, sequence, PokerGame.PlayerAction.RAISE, 300);
+
+        // An update sent before the server saw the raise replaces the table
+        PokerGame game = serverState();
+        predictor.reconcile(game, 0, sequence - 1);
+
+        assertEquals(300, game.getCurrentBet());
+        assertEquals(450, game.getPot());
+        assertEquals(1, predictor.getPendingCount());
+
+        // The server handled it, its state is the truth from now on
+        PokerGame confirmed = serverState();
+        predictor.reconcile(confirmed, 0, sequence);
+        assertEquals(0, predictor.getPendingCount());
+        assertEquals(100, confirmed.getCurrentBet());
+    }
+
+    @Test
+    public void testActionOutOfTurnIsNotPredicted() {
+        ActionPredictor predictor = new ActionPredictor();
+        PokerGame game = serverState();
+
+        assertFalse(predictor.predict(game, 1, predictor.nextSequence(), PokerGame.PlayerAction.FOLD, 0));
+        assertTrue(game.getPlayers().get(1).isActive());
+        assertFalse(predictor.predict(game, 0, predictor.nextSequence(), PokerGame.PlayerAction.CHECK, 0),
+            "Alice can't check facing a bet.");
+        assertEquals(0, predictor.getPendingCount());
+    }
+}
@@ -0,0 +1,327 @@
+package io.github.broskipoker.game.tests;
+
+import io.github.broskipoker.game.Card;
+import io.github.broskipoker.game.Player;
+import io.github.broskipoker.game.PokerGame;
+import io.github.broskipoker.game.PotLedger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PotLedgerTest {
+
+    private static final int RANDOM_HANDS = 5000;
+
+    private Card c(Card.Suit suit, Card.Rank rank) {
+        return new Card(suit, rank);
+    }
+
+    /**
+     * Reference split written the slow and obvious way: build every pot level by level,
+     * merge pots nobody can win into the pot below, then pay each pot out.
+     */
+    private int[] referencePayouts(int[] contributions, int[] strengths) {
+        int seats = contributions.length;
+        int[] payouts = new int[seats];
+
+        TreeSet<Integer> levels = new TreeSet<>();
+        for (int contribution : contributions) {
+            if (contribution > 0) {
+                levels.add(contribution);
+            }
+        }
+
+        List<Integer> potAmounts = new ArrayList<>();
+        List<List<Integer>> potEligible = new ArrayList<>();
+        int previous = 0;
+        for (int level : levels) {
+            int amount = 0;
+            List<Integer> eligible = new ArrayList<>();
+            for (int seat = 0; seat < seats; seat++) {
+                amount += Math.min(contributions[seat], level) - Math.min(contributions[seat], previous);
+                if (contributions[seat] >= level && strengths[seat] != PotLedger.NOT_CONTENDING) {
+                    eligible.add(seat);
+                }
+            }
+            if (eligible.isEmpty() && !potAmounts.isEmpty()) {
+                int last = potAmounts.size() - 1;
+                potAmounts.set(last, potAmounts.get(last) + amount);
+            } else {
+                potAmounts.add(amount);
+                potEligible.add(eligible);
+            }
+            previous = level;
+        }
+
+        for (int pot = 0; pot < potAmounts.size(); pot++) {
+            List<Integer> eligible = potEligible.get(pot);
+            if (eligible.isEmpty()) {
+                return contributions.clone(); // everyone folded, hand the chips back
+            }
+            int best = PotLedger.NOT_CONTENDING;
+            for (int seat : eligible) {
+                best = Math.max(best, strengths[seat]);
+            }
+            List<Integer> winners = new ArrayList<>();
+            for (int seat : eligible) {
+                if (strengths[seat] == best) {
+                    winners.add(seat);
+                }
+            }
+            int share = potAmounts.get(pot) / winners.size();
+            for (int seat : winners) {
+                payouts[seat] += share;
+            }
+            payouts[winners.get(0)] += potAmounts.get(pot) - share * winners.size();
+        }
+        return payouts;
+    }
+
+    @Test
+    @DisplayName("Settling matches the reference split for random hands")
+    void testMatchesReferenceOnRandomHands() {
+        Random random = new Random(20240611L);
+        PotLedger ledger = new PotLedger();
+        int[] payouts = new int[10];
+
+        for (int hand = 0; hand < RANDOM_HANDS; hand++) {
+            int seats = 2 + random.nextInt(8);
+            int[] contributions = new int[seats];
+            int[] strengths = new int[seats];
+            for (int seat = 0; seat < seats; seat++) {
+                // Few distinct values so ties in both contributions and hands are common
+                contributions[seat] = random.nextInt(4) == 0 ? 0 : 50 * (1 + random.nextInt(6)) + random.nextInt(3);
+                strengths[seat] = random.nextInt(3) == 0 ? PotLedger.NOT_CONTENDING : random.nextInt(4);
+            }
+
+            ledger.reset(seats);
+            int total = 0;
+            for (int seat = 0; seat < seats; seat++) {
+                ledger.addContribution(seat, contributions[seat]);
+                total += contributions[seat];
+            }
+            assertEquals(total, ledger.getTotal());
+
+            ledger.settle(strengths, payouts);
+            int[] expected = referencePayouts(contributions, strengths);
+            int[] actual = Arrays.copyOf(payouts, seats);
+            assertArrayEquals(expected, actual, "Hand " + hand + ": contributions " + Arrays.toString(contributions)
+                + ", strengths " + Arrays.toString(strengths));
+            assertEquals(total, Arrays.stream(actual).sum(), "Chips must never be created or lost.");
+            assertEquals(0, ledger.getTotal(), "Settling should empty the ledger.");
+        }
+    }
+
+    @Test
+    @DisplayName("Running the board several times settles each board's share like its own pot")
+    void testRunoutsMatchReferencePerBoard() {
+        Random random = new Random(7L);
+        PotLedger ledger = new PotLedger();
+        int[] payouts = new int[10];
+
+        for (int hand = 0; hand < RANDOM_HANDS; hand++) {
+            int seats = 2 + random.nextInt(8);
+            int boards = 2 + random.nextInt(PokerGame.MAX_RUNOUTS - 1);
+            int[] contributions = new int[seats];
+            int[][] strengths = new int[PokerGame.MAX_RUNOUTS][seats];
+            ledger.reset(seats);
+            for (int seat = 0; seat < seats; seat++) {
+                contributions[seat] = random.nextInt(5) == 0 ? 0 : 1 + random.nextInt(400);
+                ledger.addContribution(seat, contributions[seat]);
+                boolean folded = random.nextInt(3) == 0;
+                for (int board = 0; board < boards; board++) {
+                    strengths[board][seat] = folded ? PotLedger.NOT_CONTENDING : random.nextInt(4);
+                }
+            }
+
+            int[] expected = new int[seats];
+            for (int board = 0; board < boards; board++) {
+                int[] share = new int[seats];
+                for (int seat = 0; seat < seats; seat++) {
+                    share[seat] = (contributions[seat] + boards - 1 - board) / boards;
+                }
+                int[] boardPayouts = referencePayouts(share, strengths[board]);
+                for (int seat = 0; seat < seats; seat++) {
+                    expected[seat] += boardPayouts[seat];
+                }
+            }
+
+            ledger.settleRunouts(strengths, boards, payouts);
+            assertArrayEquals(expected, Arrays.copyOf(payouts, seats), "Hand " + hand);
+            assertEquals(Arrays.stream(contributions).sum(), Arrays.stream(payouts, 0, seats).sum(),
+                "Chips must never be created or lost across boards.");
+        }
+    }
+
+    @Test
+    @DisplayName("A contender never wins more from a player than they put in themselves")
+    void testWinningsAreCappedByOwnContribution() {
+        Random random = new Random(42L);
+        PotLedger ledger = new PotLedger();
+        int[] payouts = new int[10];
+
+        for (int hand = 0; hand < RANDOM_HANDS; hand++) {
+            int seats = 2 + random.nextInt(8);
+            int[] contributions = new int[seats];
+            int[] strengths = new int[seats];
+            ledger.reset(seats);
+            for (int seat = 0; seat < seats; seat++) {
+                contributions[seat] = 1 + random.nextInt(1000);
+                strengths[seat] = random.nextInt(5);
+                ledger.addContribution(seat, contributions[seat]);
+            }
+
+            ledger.settle(strengths, payouts);
+            for (int seat = 0; seat < seats; seat++) {
+                // Only when everyone contends, so there are no unmatched chips from folded players
+                int reachable = 0;
+                for (int other = 0; other < seats; other++) {
+                    reachable += Math.min(contributions[other], contributions[seat]);
+                }
+                // Odd chips can add at most one chip per pot
+                assertTrue(payouts[seat] <= reachable + seats,
+                    "Seat " + seat + " won " + payouts[seat] + " but could only reach " + reachable);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Short all-in stack only wins the main pot")
+    void testAllInBuildsSidePot() {
+        PotLedger ledger = new PotLedger();
+        ledger.reset(3);
+        ledger.addContribution(0, 300);
+        ledger.addContribution(1, 1000);
+        ledger.addContribution(2, 1000);
+
+        int[] payouts = new int[3];
+        int pots = ledger.settle(new int[]{2, 1, 0}, payouts);
+
+        assertEquals(2, pots, "Should pay a main pot and one side pot");
+        assertArrayEquals(new int[]{900, 1400, 0}, payouts);
+    }
+
+    @Test
+    @DisplayName("Odd chip of a split pot goes to the lowest seat")
+    void testOddChipGoesToLowestSeat() {
+        PotLedger ledger = new PotLedger();
+        ledger.reset(3);
+        ledger.addContribution(0, 101);
+        ledger.addContribution(1, 100);
+        ledger.addContribution(2, 100);
+
+        int[] payouts = new int[3];
+        ledger.settle(new int[]{PotLedger.NOT_CONTENDING, 3, 3}, payouts);
+
+        assertArrayEquals(new int[]{0, 151, 150}, payouts);
+    }
+
+    @Test
+    @DisplayName("Removing a seat shifts later contributions down")
+    void testRemoveSeat() {
+        PotLedger ledger = new PotLedger();
+        ledger.reset(3);
+        ledger.addContribution(0, 10);
+        ledger.addContribution(1, 20);
+        ledger.addContribution(2, 30);
+
+        ledger.removeSeat(1);
+
+        assertEquals(2, ledger.getSeatCount());
+        assertEquals(10, ledger.getContribution(0));
+        assertEquals(30, ledger.getContribution(1));
+        assertEquals(40, ledger.getTotal());
+    }
+
+    @Test
+    @DisplayName("Players who are all-in can agree to run the board twice")
+    void testRunItTwice() {
+        PokerGame game = new PokerGame(50, 100);
+        game.addPlayer("Small Blind", 1000);
+        game.addPlayer("Big Blind", 1000);
+
+        game.startNewHand();
+        assertFalse(game.isRunoutAvailable(), "Nobody is all-in yet");
+
+        // Heads up the small blind acts first
+        game.performAction(PokerGame.PlayerAction.RAISE, 1000);
+        game.performAction(PokerGame.PlayerAction.CALL, 0);
+        assertTrue(game.isRunoutAvailable());
+
+        assertTrue(game.voteRunouts(0, 3));
+        assertEquals(1, game.getRunoutCount(), "One vote is not an agreement");
+        assertTrue(game.voteRunouts(1, 2));
+        assertEquals(2, game.getRunoutCount(), "The smallest number asked for wins");
+        assertFalse(game.voteRunouts(0, 3), "Votes are closed once the players agreed");
+
+        game.dealFlop();
+        game.dealTurn();
+        game.dealRiver();
+        game.goToShowdown();
+
+        assertEquals(1, game.getRunoutBoards().size());
+        List<Card> secondBoard = game.getRunoutBoards().get(0);
+        assertEquals(5, secondBoard.size());
+        for (Card card : secondBoard) {
+            for (Card first : game.getCommunityCards()) {
+                assertFalse(card.getSuit() == first.getSuit() && card.getRank() == first.getRank(),
+                    "Both boards come from the same deck and cannot share a card here");
+            }
+        }
+
+        game.distributeWinnings();
+        int chips = game.getPlayers().get(0).getChips() + game.getPlayers().get(1).getChips();
+        assertEquals(2000, chips, "The pot should be paid out in full over both boards");
+        assertEquals(0, game.getPot());
+    }
+
+    @Test
+    @DisplayName("`distributeWinnings` pays side pots after a short all-in")
+    void testDistributeWinningsWithShortAllIn() {
+        PokerGame game = new PokerGame(50, 100);
+        game.addPlayer("Short", 300);
+        game.addPlayer("Big Blind", 1000);
+        game.addPlayer("Button", 1000);
+
+        // Seat 0 posts the small blind, seat 1 the big blind, seat 2 acts first
+        game.startNewHand();
+        game.performAction(PokerGame.PlayerAction.RAISE, 1000);
+        game.performAction(PokerGame.PlayerAction.CALL, 0);
+        game.performAction(PokerGame.PlayerAction.CALL, 0);
+        assertEquals(2300, game.getPot(), "The short stack can only put in what it has");
+
+        game.getCommunityCards().clear();
+        game.getCommunityCards().addAll(Arrays.asList(
+            c(Card.Suit.HEARTS, Card.Rank.TWO),
+            c(Card.Suit.DIAMONDS, Card.Rank.SEVEN),
+            c(Card.Suit.CLUBS, Card.Rank.NINE),
+            c(Card.Suit.SPADES, Card.Rank.JACK),
+            c(Card.Suit.DIAMONDS, Card.Rank.KING)
+        ));
+        List<Player> players = game.getPlayers();
+        for (Player p : players) {
+            p.clearHand();
+        }
+        // Short stack has the best hand (three kings), big blind is second (pair of aces)
+        players.get(0).receiveCard(c(Card.Suit.HEARTS, Card.Rank.KING));
+        players.get(0).receiveCard(c(Card.Suit.CLUBS, Card.Rank.KING));
+        players.get(1).receiveCard(c(Card.Suit.SPADES, Card.Rank.ACE));
+        players.get(1).receiveCard(c(Card.Suit.CLUBS, Card.Rank.ACE));
+        players.get(2).receiveCard(c(Card.Suit.CLUBS, Card.Rank.THREE));
+        players.get(2).receiveCard(c(Card.Suit.DIAMONDS, Card.Rank.FOUR));
+
+        game.distributeWinnings();
+
+        assertEquals(900, players.get(0).getChips(), "Short stack should only win the main pot");
+        assertEquals(1400, players.get(1).getChips(), "Big blind should win the side pot");
+        assertEquals(0, players.get(2).getChips());
+        assertEquals(0, game.getPot());
+    }
+}
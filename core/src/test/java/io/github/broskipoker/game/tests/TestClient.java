@@ -4,6 +4,7 @@ import com.esotericsoftware.kryonet.*;
 import io.github.broskipoker.game.Player;
 import io.github.broskipoker.shared.*;
 import io.github.broskipoker.game.PokerGame;
+import io.github.broskipoker.server.NetworkReactor;
 import java.util.Scanner;
 import java.io.IOException;
 import java.util.List;
@@ -17,8 +18,6 @@ public class TestClient {
     private String username;
     private String tableCode;
     private volatile boolean connected = false;
-    private volatile boolean shouldUpdate = true;
-    private Thread updateThread;
 
     // Turn-based gameplay fields
     private volatile boolean isMyTurn = false;
@@ -50,31 +49,15 @@ public class TestClient {
     public void connect(String host, int port) {
         try {
             setupListener();
-            client.start();
-
-            // Start a temporary update thread to run during connect()
-            Thread tempUpdateThread = new Thread(() -> {
-                long startTime = System.currentTimeMillis();
-                while (!client.isConnected() && System.currentTimeMillis() - startTime < 10000) {
-                    try {
-                        client.update(10);
-                    } catch (IOException e) {
-                        System.err.println("Temporary update error: " + e.getMessage());
-                    }
-                }
-            });
-            tempUpdateThread.setDaemon(true);
-            tempUpdateThread.start();
+            // All simulated clients share the reactor's one network thread
+            NetworkReactor.getInstance().register(client);
 
             System.out.println("Attempting to connect to " + host + ":" + port + "...");
             client.connect(10000, host, port);
 
-            tempUpdateThread.join();
-
             if (client.isConnected()) {
                 connected = true;
                 System.out.println("✅ Connected to server as: " + username + " at " + host + ":" + port);
-                startUpdateThread();
             } else {
                 System.out.println("❌ Failed to establish connection");
                 connected = false;
@@ -89,31 +72,6 @@ public class TestClient {
         }
     }
 
-    private void startUpdateThread() {
-        shouldUpdate = true;
-        updateThread = new Thread(() -> {
-            System.out.println("Update thread started for " + username);
-            while (shouldUpdate) {
-                try {
-                    client.update(50);
-                } catch (IOException e) {
-                    if (shouldUpdate) {
-                        System.err.println("Update thread IO error for " + username + ": " + e.getMessage());
-                    }
-                    break;
-                } catch (Exception e) {
-                    if (shouldUpdate) {
-                        System.err.println("Update thread error for " + username + ": " + e.getMessage());
-                    }
-                    break;
-                }
-            }
-            System.out.println("Update thread stopped for " + username);
-        });
-        updateThread.setDaemon(true);
-        updateThread.start();
-    }
-
     private void setupListener() {
         client.addListener(new Listener() {
             @Override
@@ -357,6 +315,15 @@ public class TestClient {
         }
     }
 
+    // The server only seats logged in accounts, log in before creating or joining a table
+    public void login(String password) {
+        if (!connected || !client.isConnected()) {
+            System.out.println("❌ " + username + " not connected to server!");
+            return;
+        }
+        client.sendTCP(new LoginRequest(username, password));
+    }
+
     public void createTable(int smallBlind, int bigBlind, int chips) {
         if (!connected || !client.isConnected()) {
             System.out.println("❌ " + username + " not connected to server!");
@@ -364,7 +331,6 @@ public class TestClient {
         }
 
         CreateTableRequest request = new CreateTableRequest();
-        request.username = username;
         request.smallBlind = smallBlind;
         request.bigBlind = bigBlind;
         request.chips = chips;
@@ -381,7 +347,6 @@ public class TestClient {
 
         JoinTableRequest request = new JoinTableRequest();
         request.code = code.toUpperCase();
-        request.username = username;
         request.chips = chips;
 
         System.out.println("📤 " + username + " joining table with code: " + code);
@@ -405,7 +370,6 @@ public class TestClient {
     public void disconnect() {
         System.out.println("Disconnecting " + username + "...");
         connected = false;
-        shouldUpdate = false;
         waitingForAction = false;
         isMyTurn = false;
 
@@ -413,17 +377,10 @@ public class TestClient {
             actionThread.interrupt();
         }
 
-        if (updateThread != null) {
-            try {
-                updateThread.join(1000);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        }
-
         if (client != null) {
             try {
                 client.close();
+                NetworkReactor.getInstance().unregister(client);
                 System.out.println("✅ " + username + " disconnected from server");
             } catch (Exception e) {
                 System.err.println("❌ Error during disconnect for " + username + ": " + e.getMessage());
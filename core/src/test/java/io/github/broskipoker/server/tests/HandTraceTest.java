@@ -0,0 +1,74 @@
+package io.github.broskipoker.server.tests;
+
+import io.github.broskipoker.server.HandTrace;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HandTraceTest {
+
+    @Test
+    public void testRingKeepsTheLatestSpans() {
+        HandTrace trace = new HandTrace("ABC123", 4);
+        for (int hand = 1; hand <= 6; hand++) {
+            trace.begin(hand, System.nanoTime());
+            trace.add(HandTrace.Stage.ACTION, 1000);
+            assertNull(trace.end());
+        }
+
+        StringBuilder out = new StringBuilder();
+        trace.dump(out);
+        String[] lines = out.toString().split("\n");
+        assertEquals(4, trace.size());
+        assertEquals(4, lines.length);
+        assertTrue(lines[0].startsWith("table=ABC123 hand=3 "), lines[0]);
+        assertTrue(lines[3].startsWith("table=ABC123 hand=6 "), lines[3]);
+        assertTrue(lines[3].contains(" action_us=1 "));
+    }
+
+    @Test
+    public void testStageOverBudgetIsReportedOnce() {
+        HandTrace trace = new HandTrace("ABC123", 8);
+        long slow = TimeUnit.MILLISECONDS.toNanos(50);
+
+        trace.begin(1, System.nanoTime());
+        trace.add(HandTrace.Stage.SEND, slow);
+        assertEquals(HandTrace.Stage.SEND, trace.end());
+
+        // The same table going over again right away is not reported a second time
+        trace.begin(1, System.nanoTime());
+        trace.add(HandTrace.Stage.CONVERT, slow);
+        assertNull(trace.end());
+
+        StringBuilder out = new StringBuilder();
+        trace.dump(out);
+        assertTrue(out.toString().contains("send_us=50000!"));
+    }
+
+    @Test
+    public void testDeferredFlushDoesNotAddToAnotherThreadsSpan() throws InterruptedException {
+        HandTrace trace = new HandTrace("ABC123", 4);
+        trace.begin(1, System.nanoTime());
+        trace.add(HandTrace.Stage.SEND, 2000);
+
+        // A client catching up gets its state sent from the network thread while the span is open
+        Thread network = new Thread(() -> trace.add(HandTrace.Stage.SEND, TimeUnit.MILLISECONDS.toNanos(50)));
+        network.start();
+        network.join();
+
+        assertNull(trace.end(), "The late send must not push this action over its budget.");
+        StringBuilder out = new StringBuilder();
+        trace.dump(out);
+        assertTrue(out.toString().contains(" send_us=2\n"), out.toString());
+    }
+
+    @Test
+    public void testStagesOutsideASpanAreIgnored() {
+        HandTrace trace = new HandTrace("ABC123", 8);
+        trace.add(HandTrace.Stage.SEND, 1000);
+        assertNull(trace.end());
+        assertEquals(0, trace.size());
+    }
+}
@@ -0,0 +1,192 @@
+package io.github.broskipoker.server.tests;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryonet.Connection;
+import io.github.broskipoker.game.PokerBot;
+import io.github.broskipoker.server.LobbyService;
+import io.github.broskipoker.server.OutboundQueues;
+import io.github.broskipoker.server.Table;
+import io.github.broskipoker.shared.LobbyUpdate;
+import io.github.broskipoker.shared.NetworkRegistration;
+import io.github.broskipoker.shared.TableSummary;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class LobbyServiceTest {
+
+    private Table listedTable(LobbyService lobby, String code) {
+        Table table = new Table(code, 50, 100);
+        lobby.onTableAdded(table);
+        table.setLobbyService(lobby);
+        return table;
+    }
+
+    @Test
+    public void testNoChangesGivesNoUpdate() {
+        LobbyService lobby = new LobbyService();
+        assertNull(lobby.collectChanges(), "An untouched lobby should have nothing to send.");
+    }
+
+    @Test
+    public void testAddThenUpdateIsSentAsSingleAdd() {
+        LobbyService lobby = new LobbyService();
+        Table table = listedTable(lobby, "ABC123");
+        table.addBot("Bot 1", 10000, PokerBot.BotStrategy.BALANCED);
+        table.addBot("Bot 2", 10000, PokerBot.BotStrategy.BALANCED);
+
+        LobbyUpdate update = lobby.collectChanges();
+        assertNotNull(update);
+        assertEquals(1, update.added.size(), "Changes made before the flush should fold into the add.");
+        assertTrue(update.updated.isEmpty());
+        assertTrue(update.removed.isEmpty());
+
+        TableSummary summary = update.added.get(0);
+        assertEquals("ABC123", summary.code);
+        assertEquals(50, summary.smallBlind);
+        assertEquals(100, summary.bigBlind);
+        assertEquals(2, summary.seatsTaken);
+        assertEquals(Table.MAX_PLAYERS, summary.maxSeats);
+
+        assertNull(lobby.collectChanges(), "Collected changes should not be sent twice.");
+    }
+
+    @Test
+    public void testAddThenRemoveCancelsOut() {
+        LobbyService lobby = new LobbyService();
+        listedTable(lobby, "ABC123");
+        lobby.onTableRemoved("ABC123");
+
+        LobbyUpdate update = lobby.collectChanges();
+        assertTrue(update == null || (update.added.isEmpty() && update.removed.isEmpty()),
+            "A table that came and went between flushes should not show up at all.");
+    }
+
+    @Test
+    public void testUpdatesAndAveragePot() {
+        LobbyService lobby = new LobbyService();
+        listedTable(lobby, "ABC123");
+        lobby.collectChanges();
+
+        lobby.onHandFinished("ABC123", 300);
+        lobby.onHandFinished("ABC123", 500);
+
+        LobbyUpdate update = lobby.collectChanges();
+        assertNotNull(update);
+        assertEquals(1, update.updated.size(), "Several hands between flushes should give one update.");
+        assertEquals(400, update.updated.get(0).averagePot);
+
+        lobby.onTableRemoved("ABC123");
+        update = lobby.collectChanges();
+        assertNotNull(update);
+        assertEquals(1, update.removed.size());
+        assertEquals("ABC123", update.removed.get(0));
+    }
+
+    @Test
+    public void testUnchangedSeatCountIsNotReported() {
+        LobbyService lobby = new LobbyService();
+        listedTable(lobby, "ABC123");
+        lobby.collectChanges();
+
+        lobby.onSeatsChanged("ABC123", 0);
+        assertNull(lobby.collectChanges(), "Reporting the same seat count should not produce a delta.");
+    }
+
+    @Test
+    public void testLargeSnapshotIsSplitIntoPagesTheClientCanRead() {
+        LobbyUpdate snapshot = new LobbyUpdate();
+        snapshot.snapshot = true;
+        snapshot.added = new ArrayList<>();
+        snapshot.updated = new ArrayList<>();
+        snapshot.removed = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            TableSummary summary = new TableSummary();
+            summary.code = String.format("T%05d", i);
+            summary.smallBlind = Integer.MAX_VALUE / 2;
+            summary.bigBlind = Integer.MAX_VALUE;
+            summary.seatsTaken = Table.MAX_PLAYERS;
+            summary.maxSeats = Table.MAX_PLAYERS;
+            summary.averagePot = Integer.MAX_VALUE;
+            snapshot.added.add(summary);
+        }
+
+        List<LobbyUpdate> pages = LobbyService.paginate(snapshot);
+
+        assertTrue(pages.get(0).snapshot);
+        int tables = 0;
+        Kryo kryo = new Kryo();
+        NetworkRegistration.register(kryo);
+        for (int i = 0; i < pages.size(); i++) {
+            LobbyUpdate page = pages.get(i);
+            assertEquals(i == 0, page.snapshot, "Only the first page clears the client's listing.");
+            assertTrue(page.added.size() <= LobbyService.PAGE_SIZE);
+            tables += page.added.size();
+
+            // The default object buffer of a KryoNet client
+            Output output = new Output(2048, -1);
+            kryo.writeClassAndObject(output, page);
+            assertTrue(output.position() < 2048, "A page of " + output.position() + " bytes is too big for the client.");
+        }
+        assertEquals(250, tables);
+    }
+
+    @Test
+    public void testSnapshotLargerThanTheEventLimitIsStreamed() {
+        int maxQueuedEvents = 256;
+        int tableCount = maxQueuedEvents * LobbyService.PAGE_SIZE + 1;
+        LobbyService lobby = new LobbyService();
+        for (int i = 0; i < tableCount; i++) {
+            lobby.onTableAdded(new Table(String.format("T%05d", i), 50, 100));
+        }
+        Connection slow = mock(Connection.class);
+        when(slow.getTcpWriteBufferSize()).thenReturn(16000);
+        OutboundQueues outbound = new OutboundQueues(8192, 60_000, maxQueuedEvents, (t, c) -> null);
+        lobby.setOutbound(outbound);
+
+        // Subscribed while the client has no room, then an event queued behind the snapshot
+        lobby.subscribe(slow);
+        outbound.sendEvent(slow, "after the snapshot");
+        verify(slow, never()).sendTCP(any());
+        assertEquals(2, outbound.getBacklog(slow));
+
+        when(slow.getTcpWriteBufferSize()).thenReturn(0);
+        outbound.onIdle(slow);
+
+        verify(slow, never()).close();
+        ArgumentCaptor<Object> sent = ArgumentCaptor.forClass(Object.class);
+        verify(slow, atLeastOnce()).sendTCP(sent.capture());
+        List<Object> messages = sent.getAllValues();
+        int pages = (tableCount + LobbyService.PAGE_SIZE - 1) / LobbyService.PAGE_SIZE;
+        assertEquals(pages + 1, messages.size());
+        int tables = 0;
+        for (int i = 0; i < pages; i++) {
+            LobbyUpdate page = (LobbyUpdate) messages.get(i);
+            assertEquals(i == 0, page.snapshot);
+            tables += page.added.size();
+        }
+        assertEquals(tableCount, tables);
+        assertEquals("after the snapshot", messages.get(pages), "Events queued later wait for the whole snapshot.");
+        assertEquals(0, outbound.getBacklog(slow));
+    }
+
+    @Test
+    public void testEmptySnapshotIsStillSent() {
+        LobbyUpdate snapshot = new LobbyUpdate();
+        snapshot.snapshot = true;
+        snapshot.added = new ArrayList<>();
+        snapshot.updated = new ArrayList<>();
+        snapshot.removed = new ArrayList<>();
+
+        List<LobbyUpdate> pages = LobbyService.paginate(snapshot);
+
+        assertEquals(1, pages.size());
+        assertTrue(pages.get(0).snapshot, "A client subscribing to an empty lobby still has to clear its listing.");
+    }
+}
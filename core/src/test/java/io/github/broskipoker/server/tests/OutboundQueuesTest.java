@@ -0,0 +1,116 @@
+package io.github.broskipoker.server.tests;
+
+import com.esotericsoftware.kryonet.Connection;
+import io.github.broskipoker.server.OutboundQueues;
+import io.github.broskipoker.server.Table;
+import io.github.broskipoker.server.TableManager;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class OutboundQueuesTest {
+
+    private final Table table = new Table("ABC123", 50, 100);
+
+    @Test
+    public void testStateIsCoalescedWhileTheClientIsBehind() {
+        Connection slow = mock(Connection.class);
+        when(slow.getTcpWriteBufferSize()).thenReturn(9000);
+        AtomicInteger builds = new AtomicInteger();
+        OutboundQueues outbound = new OutboundQueues(8192, 60_000, 16, (t, c) -> "state " + builds.incrementAndGet());
+
+        outbound.sendEvent(slow, "result");
+        outbound.sendState(slow, table);
+        outbound.sendState(slow, table);
+        outbound.sendState(slow, table);
+
+        verify(slow, never()).sendTCP(any());
+        assertEquals(0, builds.get(), "Nothing is serialized while there is no room.");
+        assertEquals(2, outbound.getBacklog(slow));
+
+        // Caught up: the event first, then one state built from the table as it is now
+        when(slow.getTcpWriteBufferSize()).thenReturn(0);
+        outbound.onIdle(slow);
+
+        verify(slow).sendTCP("result");
+        verify(slow).sendTCP("state 1");
+        verify(slow, times(2)).sendTCP(any());
+        assertEquals(0, outbound.getBacklog(slow));
+    }
+
+    @Test
+    public void testStalledClientIsClosedWithoutHoldingUpOthers() throws InterruptedException {
+        Connection stalled = mock(Connection.class);
+        when(stalled.getTcpWriteBufferSize()).thenReturn(16000);
+        Connection healthy = mock(Connection.class);
+        OutboundQueues outbound = new OutboundQueues(8192, 20, 16, (t, c) -> "state");
+
+        outbound.sendState(stalled, table);
+        outbound.sendState(healthy, table);
+        verify(healthy).sendTCP("state");
+        verify(stalled, never()).close();
+
+        Thread.sleep(40);
+        outbound.sendState(stalled, table);
+        verify(stalled, timeout(1000)).close();
+        verify(stalled, never()).sendTCP(any());
+        assertEquals(0, outbound.getBacklog(stalled));
+    }
+
+    @Test
+    public void testTooManyEventsCloseTheConnection() {
+        Connection stalled = mock(Connection.class);
+        when(stalled.getTcpWriteBufferSize()).thenReturn(16000);
+        OutboundQueues outbound = new OutboundQueues(8192, 60_000, 3, (t, c) -> "state");
+
+        for (int i = 0; i < 3; i++) {
+            outbound.sendEvent(stalled, "event " + i);
+        }
+        verify(stalled, never()).close();
+
+        outbound.sendEvent(stalled, "one too many");
+        verify(stalled, timeout(1000)).close();
+    }
+
+    @Test
+    public void testEvictingUnderTheTableLockDoesNotBlockAJoin() throws InterruptedException {
+        TableManager tableManager = new TableManager();
+        Table shared = tableManager.createTable(50, 100);
+        Connection stalled = mock(Connection.class);
+        when(stalled.getTcpWriteBufferSize()).thenReturn(16000);
+        // What PokerServer's disconnect handler does: table manager lock, then the table's
+        CountDownLatch closed = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            tableManager.leaveTable(stalled);
+            closed.countDown();
+            return null;
+        }).when(stalled).close();
+        Connection joining = mock(Connection.class);
+        tableManager.joinTableByCode(stalled, shared.getCode(), "stalled", 1000);
+        OutboundQueues outbound = new OutboundQueues(8192, 0, 16, (t, c) -> "state");
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            Thread joiner = new Thread(() -> tableManager.joinTableByCode(joining, shared.getCode(), "joining", 1000));
+            synchronized (shared) {
+                // The joiner holds the table manager's lock and waits for the table's
+                joiner.start();
+                while (joiner.getState() != Thread.State.BLOCKED) {
+                    Thread.sleep(1);
+                }
+                // A broadcast from applyAction, which holds the table's lock, evicts the stalled client
+                outbound.sendState(stalled, shared);
+            }
+            joiner.join();
+        });
+
+        assertTrue(closed.await(1, TimeUnit.SECONDS));
+        assertEquals(List.of(joining), shared.getConnections());
+    }
+}
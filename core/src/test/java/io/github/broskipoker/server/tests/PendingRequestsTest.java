@@ -0,0 +1,65 @@
+package io.github.broskipoker.server.tests;
+
+import io.github.broskipoker.server.PendingRequests;
+import io.github.broskipoker.shared.CreateTableResponse;
+import io.github.broskipoker.shared.JoinTableResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PendingRequestsTest {
+
+    @Test
+    public void testResponsesAreMatchedById() throws Exception {
+        PendingRequests requests = new PendingRequests(10_000);
+        int createId = requests.nextId();
+        int joinId = requests.nextId();
+        assertNotEquals(0, createId);
+        assertNotEquals(createId, joinId);
+
+        CompletableFuture<CreateTableResponse> create = requests.register(createId, CreateTableResponse.class);
+        CompletableFuture<JoinTableResponse> join = requests.register(joinId, JoinTableResponse.class);
+
+        // Answers may come back in any order
+        JoinTableResponse joined = new JoinTableResponse();
+        joined.requestId = joinId;
+        assertTrue(requests.complete(joinId, joined));
+        assertSame(joined, join.get(1, TimeUnit.SECONDS));
+        assertFalse(create.isDone());
+
+        assertFalse(requests.complete(0, new CreateTableResponse()), "Id 0 is never waited for.");
+        assertTrue(requests.complete(createId, new CreateTableResponse()));
+        assertTrue(create.isDone());
+        assertEquals(0, requests.size());
+    }
+
+    @Test
+    public void testUnansweredRequestTimesOut() {
+        PendingRequests requests = new PendingRequests(50);
+        int id = requests.nextId();
+        CompletableFuture<JoinTableResponse> join = requests.register(id, JoinTableResponse.class);
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> join.get(2, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, failure.getCause());
+        assertEquals(0, requests.size());
+        assertFalse(requests.complete(id, new JoinTableResponse()), "A late answer is dropped.");
+    }
+
+    @Test
+    public void testDisconnectFailsEveryRequest() {
+        PendingRequests requests = new PendingRequests(10_000);
+        CompletableFuture<CreateTableResponse> create = requests.register(requests.nextId(), CreateTableResponse.class);
+        CompletableFuture<JoinTableResponse> join = requests.register(requests.nextId(), JoinTableResponse.class);
+
+        requests.failAll(new IllegalStateException("Disconnected from server"));
+
+        assertTrue(create.isCompletedExceptionally());
+        assertTrue(join.isCompletedExceptionally());
+        assertEquals(0, requests.size());
+    }
+}
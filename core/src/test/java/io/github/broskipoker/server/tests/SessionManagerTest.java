@@ -0,0 +1,51 @@
+package io.github.broskipoker.server.tests;
+
+import com.esotericsoftware.kryonet.Connection;
+import io.github.broskipoker.game.User;
+import io.github.broskipoker.server.SessionManager;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class SessionManagerTest {
+
+    private final User alice = new User(7, "alice", "alice@broski.io", 5000, 0, 0, 0);
+
+    @Test
+    public void testTokenCarriesLoginToNewConnection() {
+        SessionManager sessions = new SessionManager();
+        Connection loginConnection = mock(Connection.class);
+        Connection tableConnection = mock(Connection.class);
+
+        SessionManager.Session session = sessions.open(loginConnection, alice);
+        assertNull(sessions.getUser(tableConnection), "A new connection is anonymous until it presents the token.");
+
+        assertSame(session, sessions.resume(tableConnection, session.getToken()));
+        assertSame(alice, sessions.getUser(tableConnection));
+    }
+
+    @Test
+    public void testTokenOutlivesItsConnection() {
+        SessionManager sessions = new SessionManager();
+        Connection loginConnection = mock(Connection.class);
+        SessionManager.Session session = sessions.open(loginConnection, alice);
+
+        sessions.detach(loginConnection);
+
+        assertNull(sessions.getUser(loginConnection));
+        assertNotNull(sessions.resume(mock(Connection.class), session.getToken()));
+    }
+
+    @Test
+    public void testUnknownTokenIsRejected() {
+        SessionManager sessions = new SessionManager();
+        SessionManager.Session session = sessions.open(mock(Connection.class), alice);
+        Connection other = mock(Connection.class);
+
+        assertNull(sessions.resume(other, "not-a-token"));
+        assertNull(sessions.resume(other, null));
+        assertNull(sessions.getUser(other));
+        assertNotEquals(session.getToken(), sessions.open(mock(Connection.class), alice).getToken());
+    }
+}
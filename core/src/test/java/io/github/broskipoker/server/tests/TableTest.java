@@ -0,0 +1,154 @@
+package io.github.broskipoker.server.tests;
+
+import com.esotericsoftware.kryonet.Connection;
+import io.github.broskipoker.game.Player;
+import io.github.broskipoker.game.PokerBot;
+import io.github.broskipoker.game.PokerGame;
+import io.github.broskipoker.server.Table;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class TableTest {
+
+    private final Connection alice = mock(Connection.class);
+    private final Connection bob = mock(Connection.class);
+    private final Connection carol = mock(Connection.class);
+
+    // Connection i must always belong to PokerGame player i
+    private void assertSeatsLineUp(Table table) {
+        List<Connection> connections = table.getConnections();
+        List<Player> players = table.getPokerGame().getPlayers();
+        assertEquals(players.size(), connections.size());
+        if (connections.contains(alice)) {
+            assertEquals("alice", players.get(connections.indexOf(alice)).getName());
+        }
+        if (connections.contains(carol)) {
+            assertEquals("carol", players.get(connections.indexOf(carol)).getName());
+        }
+    }
+
+    @Test
+    public void testPlayerLeavingMidHandIsNotDealtBackIn() {
+        Table table = new Table("ABC123", 50, 100);
+        table.addPlayer(alice, "alice", 1000);
+        table.addPlayer(bob, "bob", 1000);
+        table.addPlayer(carol, "carol", 1000);
+        table.startNewHand();
+
+        table.removePlayer(bob);
+
+        // The seat stays until the hand is over, nobody else moves
+        assertEquals(3, table.getSeatCount());
+        assertNull(table.getConnections().get(1));
+        assertTrue(table.isDepartedSeat(1));
+        assertFalse(table.getPokerGame().getPlayers().get(1).isActive());
+        assertEquals(2, table.getHumanCount());
+        assertSeatsLineUp(table);
+
+        table.getPokerGame().setGameState(PokerGame.GameState.SHOWDOWN);
+        table.startNewHand();
+
+        assertEquals(2, table.getSeatCount());
+        for (Player player : table.getPokerGame().getPlayers()) {
+            assertNotEquals("bob", player.getName());
+        }
+        assertFalse(table.isDepartedSeat(1));
+        assertSeatsLineUp(table);
+        int current = table.getPokerGame().getCurrentPlayerIndex();
+        assertNotNull(table.getConnections().get(current), "The player to act is someone still seated.");
+    }
+
+    @Test
+    public void testPlayerLeavingBetweenHandsGivesUpTheSeatAtOnce() {
+        Table table = new Table("ABC123", 50, 100);
+        table.addPlayer(alice, "alice", 1000);
+        table.addPlayer(bob, "bob", 1000);
+        table.addPlayer(carol, "carol", 1000);
+
+        table.removePlayer(bob);
+
+        assertEquals(2, table.getSeatCount());
+        assertSeatsLineUp(table);
+    }
+
+    @Test
+    public void testBotSeatFollowsItsPlayerWhenAHumanBeforeItLeaves() {
+        Table table = new Table("ABC123", 50, 100);
+        table.addPlayer(alice, "alice", 1000);
+        table.addPlayer(bob, "bob", 1000);
+        assertEquals(2, table.addBot("Bot", 1000, PokerBot.BotStrategy.AGGRESSIVE));
+        table.startNewHand();
+
+        table.removePlayer(bob);
+        assertTrue(table.isBotSeat(2), "Mid-hand the bot keeps its seat.");
+        assertFalse(table.isBotSeat(1), "The empty seat is not handed to a bot.");
+        assertEquals("Bot", table.getPokerGame().getPlayers().get(2).getName());
+
+        table.getPokerGame().setGameState(PokerGame.GameState.SHOWDOWN);
+        table.startNewHand();
+
+        assertEquals(1, table.getBotCount());
+        assertTrue(table.isBotSeat(1));
+        assertEquals(PokerBot.BotStrategy.AGGRESSIVE, table.getBotStrategy(1));
+        assertEquals("Bot", table.getPokerGame().getPlayers().get(1).getName());
+        assertEquals("alice", table.getPokerGame().getPlayers().get(0).getName());
+        assertSeatsLineUp(table);
+    }
+
+    // Makes the running hand end with these chip changes per seat
+    private static void endHand(Table table, int... deltas) {
+        PokerGame game = table.getPokerGame();
+        for (int seat = 0; seat < deltas.length; seat++) {
+            game.getPlayers().get(seat).addChips(deltas[seat] - game.getHandChipDelta(seat));
+        }
+        game.setGameState(PokerGame.GameState.SHOWDOWN);
+    }
+
+    @Test
+    public void testTablesWithBotsPlayForNoAccount() {
+        Table table = new Table("ABC123", 50, 100);
+        table.addPlayer(alice, "alice", 1000);
+        table.addPlayer(bob, "bob", 1000);
+        assertFalse(table.isPlayMoney());
+        assertEquals(1000, table.getChipsAtStake("alice"));
+
+        table.addBot("Bot", 1000, PokerBot.BotStrategy.AGGRESSIVE);
+        table.startNewHand();
+        endHand(table, 400, 200, -600);
+
+        assertTrue(table.isPlayMoney());
+        assertEquals(0, table.getChipsAtStake("alice"), "Nothing at a table with bots can cost an account.");
+    }
+
+    @Test
+    public void testStakeBetweenHandsIsTheStack() {
+        Table table = new Table("ABC123", 50, 100);
+        table.addPlayer(alice, "alice", 1000);
+        table.addPlayer(bob, "bob", 1000);
+
+        assertEquals(1000, table.getChipsAtStake("alice"));
+        assertEquals(0, table.getChipsAtStake("carol"));
+    }
+
+    @Test
+    public void testStakeAtShowdownIsTheStackFromTheDealUntilThePayout() {
+        Table table = new Table("ABC123", 50, 100);
+        table.addPlayer(alice, "alice", 1000);
+        table.addPlayer(bob, "bob", 1000);
+        table.startNewHand();
+
+        endHand(table, -400, 400);
+        assertEquals(PokerGame.GameState.SHOWDOWN, table.getPokerGame().getGameState());
+        assertFalse(table.isHandInProgress());
+        assertTrue(table.isHandUnsettled());
+        assertEquals(1000, table.getChipsAtStake("alice"), "Chips in the pot are still at stake until the payout.");
+
+        table.markHandSettled();
+        assertEquals(600, table.getChipsAtStake("alice"));
+        assertEquals(1400, table.getChipsAtStake("bob"));
+    }
+}
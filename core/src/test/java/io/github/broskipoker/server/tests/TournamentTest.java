@@ -0,0 +1,176 @@
+package io.github.broskipoker.server.tests;
+
+import com.esotericsoftware.kryonet.Connection;
+import io.github.broskipoker.game.Player;
+import io.github.broskipoker.game.PokerBot;
+import io.github.broskipoker.game.PokerGame;
+import io.github.broskipoker.server.BlindSchedule;
+import io.github.broskipoker.server.Table;
+import io.github.broskipoker.server.TableManager;
+import io.github.broskipoker.server.Tournament;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class TournamentTest {
+
+    private static final long LEVEL_MILLIS = 60000;
+
+    private TableManager tableManager;
+    private Tournament tournament;
+
+    @BeforeEach
+    void setUp() {
+        tableManager = new TableManager();
+        tournament = new Tournament("T1", Tournament.Type.SIT_AND_GO, 12, 1000,
+            BlindSchedule.standard(LEVEL_MILLIS), 0, table -> { });
+        for (int i = 0; i < 12; i++) {
+            assertTrue(tournament.register(null, "Bot " + i, PokerBot.BotStrategy.BALANCED));
+        }
+    }
+
+    // Simulates the end of the current hand at a table with the given seats busted
+    private List<String> bustAndEndHand(Table table, int seatsToBust) {
+        List<String> busted = new ArrayList<>();
+        PokerGame pokerGame = table.getPokerGame();
+        for (int seat = 0; seat < seatsToBust; seat++) {
+            Player player = pokerGame.getPlayers().get(seat);
+            player.bet(player.getChips());
+            busted.add(player.getName());
+        }
+        pokerGame.setPot(0);
+        pokerGame.setNeedsPlayerAction(false);
+        pokerGame.setGameState(PokerGame.GameState.WAITING_FOR_PLAYERS);
+        return busted;
+    }
+
+    private int totalSeats() {
+        int seats = 0;
+        for (Table table : tournament.getTables()) {
+            seats += table.getSeatCount();
+        }
+        return seats;
+    }
+
+    @Test
+    public void testRegistrationClosesWhenFull() {
+        assertFalse(tournament.register(null, "Late Bot", PokerBot.BotStrategy.BALANCED),
+            "A full sit & go should not take more entrants.");
+        assertFalse(tournament.register(null, "Bot 0", PokerBot.BotStrategy.BALANCED),
+            "The same name should not register twice.");
+        assertTrue(tournament.isReadyToStart(0), "A full sit & go should be ready to start.");
+    }
+
+    @Test
+    public void testStartSeatsEveryoneEvenly() {
+        tournament.start(tableManager, 0);
+
+        assertEquals(Tournament.State.RUNNING, tournament.getState());
+        assertEquals(3, tournament.getTables().size(), "12 players need 3 tables of at most 5.");
+        assertEquals(12, totalSeats());
+        for (Table table : tournament.getTables()) {
+            assertEquals(4, table.getSeatCount(), "Round robin seating should give equal tables.");
+            assertFalse(table.isListed(), "Tournament tables should stay out of the lobby.");
+            assertEquals(PokerGame.GameState.BETTING_PRE_FLOP, table.getPokerGame().getGameState(),
+                "The first hand should be dealt at every table.");
+        }
+    }
+
+    @Test
+    public void testEliminationBreaksSurplusTable() {
+        tournament.start(tableManager, 0);
+        Table breaking = tournament.getTables().get(0);
+        List<String> busted = bustAndEndHand(breaking, 3);
+
+        tournament.tick(tableManager, 1000);
+
+        assertEquals(9, tournament.getPlayersRemaining());
+        assertEquals(12, tournament.getEntrant(busted.get(2)).getFinishPosition());
+        assertEquals(11, tournament.getEntrant(busted.get(1)).getFinishPosition());
+        assertEquals(10, tournament.getEntrant(busted.get(0)).getFinishPosition());
+
+        List<Table> tables = tournament.getTables();
+        assertEquals(2, tables.size(), "9 players fit at 2 tables, the short table should be broken.");
+        assertFalse(tables.contains(breaking));
+        assertNull(tableManager.getTableByCode(breaking.getCode()), "A broken table should be closed.");
+        assertEquals(9, totalSeats(), "Nobody should be lost or seated twice while moving.");
+
+        Set<String> seated = new HashSet<>();
+        for (Table table : tables) {
+            assertTrue(table.getSeatCount() <= Table.MAX_PLAYERS);
+            for (Player player : table.getPokerGame().getPlayers()) {
+                assertTrue(seated.add(player.getName()), "Each player should hold exactly one seat.");
+                assertSame(table, tournament.getEntrant(player.getName()).getTable());
+            }
+        }
+    }
+
+    @Test
+    public void testBlindLevelsAdvanceOnSchedule() {
+        tournament.start(tableManager, 0);
+        assertEquals(0, tournament.getCurrentLevel());
+
+        tournament.tick(tableManager, LEVEL_MILLIS + 1);
+
+        assertEquals(1, tournament.getCurrentLevel());
+        for (Table table : tournament.getTables()) {
+            assertEquals(50, table.getPokerGame().getSmallBlind());
+            assertEquals(100, table.getPokerGame().getBigBlind());
+        }
+    }
+
+    @Test
+    public void testLastPlayerStandingWins() {
+        Tournament headsUp = new Tournament("T2", Tournament.Type.SIT_AND_GO, 2, 1000,
+            BlindSchedule.standard(LEVEL_MILLIS), 0, table -> { });
+        headsUp.register(null, "Alice", PokerBot.BotStrategy.BALANCED);
+        headsUp.register(null, "Bob", PokerBot.BotStrategy.BALANCED);
+        headsUp.start(tableManager, 0);
+
+        Table table = headsUp.getTables().get(0);
+        String loser = table.getPokerGame().getPlayers().get(0).getName();
+        String winner = table.getPokerGame().getPlayers().get(1).getName();
+        bustAndEndHand(table, 1);
+
+        headsUp.tick(tableManager, 1000);
+
+        assertEquals(Tournament.State.FINISHED, headsUp.getState());
+        assertEquals(1, headsUp.getEntrant(winner).getFinishPosition());
+        assertEquals(2, headsUp.getEntrant(loser).getFinishPosition());
+        assertTrue(headsUp.getTables().isEmpty());
+    }
+
+    @Test
+    public void testPlayerGetsTheirSeatBackAfterReconnecting() {
+        Tournament headsUp = new Tournament("T3", Tournament.Type.SIT_AND_GO, 2, 1000,
+            BlindSchedule.standard(LEVEL_MILLIS), 0, table -> { });
+        Connection first = mock(Connection.class);
+        when(first.isConnected()).thenReturn(true);
+        headsUp.register(first, "Alice", null);
+        headsUp.register(null, "Bob", PokerBot.BotStrategy.BALANCED);
+        headsUp.start(tableManager, 0);
+
+        Table table = headsUp.getEntrant("Alice").getTable();
+        int seat = table.getConnections().indexOf(first);
+        tableManager.leaveTable(first);
+        assertNotNull(table.getBotStrategy(seat), "A bot should play the seat while the player is gone.");
+
+        Connection second = mock(Connection.class);
+        when(second.isConnected()).thenReturn(true);
+        assertFalse(headsUp.reattach(tableManager, second, "Bob"), "Bot entrants have no seat to take back.");
+        assertTrue(headsUp.reattach(tableManager, second, "Alice"));
+
+        assertSame(second, table.getConnections().get(seat));
+        assertNull(table.getBotStrategy(seat), "The bot should hand the seat back.");
+        assertEquals("Alice", table.getPokerGame().getPlayers().get(seat).getName());
+        assertSame(table, tableManager.getTableByConnection(second));
+        assertFalse(headsUp.reattach(tableManager, mock(Connection.class), "Alice"),
+            "A seat with a live connection is not taken over.");
+    }
+}
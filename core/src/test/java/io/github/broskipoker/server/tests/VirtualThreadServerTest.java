@@ -0,0 +1,73 @@
+package io.github.broskipoker.server.tests;
+
+import com.esotericsoftware.kryonet.Client;
+import com.esotericsoftware.kryonet.Connection;
+import com.esotericsoftware.kryonet.Listener;
+import io.github.broskipoker.server.VirtualThreadServer;
+import io.github.broskipoker.shared.LoginRequest;
+import io.github.broskipoker.shared.LoginResponse;
+import io.github.broskipoker.shared.NetworkRegistration;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VirtualThreadServerTest {
+
+    @Test
+    public void testKryoNetClientTalksToTheVirtualThreadServer() throws Exception {
+        CompletableFuture<Connection> disconnected = new CompletableFuture<>();
+        VirtualThreadServer server = new VirtualThreadServer(16384, 8192, new Listener() {
+            @Override
+            public void received(Connection connection, Object object) {
+                if (object instanceof LoginRequest) {
+                    LoginResponse resp = new LoginResponse(true, "Hello " + ((LoginRequest) object).username, 0);
+                    resp.requestId = ((LoginRequest) object).requestId;
+                    connection.sendTCP(resp);
+                }
+            }
+
+            @Override
+            public void disconnected(Connection connection) {
+                disconnected.complete(connection);
+            }
+        });
+        server.bind(0);
+
+        Client client = new Client();
+        NetworkRegistration.register(client.getKryo());
+        CompletableFuture<LoginResponse> answer = new CompletableFuture<>();
+        client.addListener(new Listener() {
+            @Override
+            public void received(Connection connection, Object object) {
+                if (object instanceof LoginResponse) {
+                    answer.complete((LoginResponse) object);
+                }
+            }
+        });
+        client.start();
+        try {
+            client.connect(5000, "127.0.0.1", server.getPort());
+            assertEquals(1, server.getConnections().length);
+
+            LoginRequest login = new LoginRequest();
+            login.username = "alice";
+            login.requestId = 7;
+            client.sendTCP(login);
+
+            LoginResponse resp = answer.get(5, TimeUnit.SECONDS);
+            assertEquals("Hello alice", resp.message);
+            assertEquals(7, resp.requestId);
+        } finally {
+            client.stop();
+        }
+
+        Connection closed = disconnected.get(5, TimeUnit.SECONDS);
+        assertEquals(0, server.getConnections().length);
+        assertEquals(0, closed.sendTCP(new LoginResponse(true, "Too late", 0)), "Nothing is queued after close.");
+        assertEquals(0, closed.getTcpWriteBufferSize());
+        server.stop();
+    }
+}
@@ -0,0 +1,65 @@
+package io.github.broskipoker.ui.tests;
+
+import com.badlogic.gdx.audio.Sound;
+import io.github.broskipoker.ui.AudioScheduler;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class AudioSchedulerTest {
+
+    @Test
+    public void testCuesPlayWhenDueInOrder() {
+        AudioScheduler scheduler = new AudioScheduler(10, 0.25f);
+        Sound first = mock(Sound.class);
+        Sound second = mock(Sound.class);
+
+        scheduler.schedule(second, 0.4f, 0.050f);
+        scheduler.schedule(first, 0.5f, 0.025f);
+
+        scheduler.update(0.010f);
+        verifyNoInteractions(first, second);
+
+        scheduler.update(0.020f);
+        verify(first).play(0.5f);
+        verifyNoInteractions(second);
+
+        scheduler.update(0.030f);
+        verify(second).play(0.4f);
+        assertEquals(0, scheduler.getPendingCount());
+    }
+
+    @Test
+    public void testVoicesAreLimitedPerSound() {
+        AudioScheduler scheduler = new AudioScheduler(3, 0.25f);
+        Sound chip = mock(Sound.class);
+        Sound card = mock(Sound.class);
+
+        for (int i = 0; i < 8; i++) {
+            scheduler.schedule(chip, 0.3f, 0);
+        }
+        scheduler.schedule(card, 0.5f, 0);
+        scheduler.update(0.016f);
+
+        verify(chip, times(3)).play(0.3f);
+        verify(card).play(0.5f);
+
+        // Once the window has passed the sound may start again
+        scheduler.schedule(chip, 0.3f, 0);
+        scheduler.update(0.3f);
+        verify(chip, times(4)).play(0.3f);
+    }
+
+    @Test
+    public void testClearDropsPendingCues() {
+        AudioScheduler scheduler = new AudioScheduler(3, 0.25f);
+        Sound chip = mock(Sound.class);
+        scheduler.schedule(chip, 0.3f, 0.1f);
+
+        scheduler.clear();
+        scheduler.update(1f);
+
+        verifyNoInteractions(chip);
+    }
+}
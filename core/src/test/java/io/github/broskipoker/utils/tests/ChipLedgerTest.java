@@ -0,0 +1,150 @@
+package io.github.broskipoker.utils.tests;
+
+import io.github.broskipoker.utils.ChipLedger;
+import io.github.broskipoker.utils.DatabaseConnection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ChipLedgerTest {
+
+    @TempDir
+    Path journalDirectory;
+
+    private Connection connection;
+    private PreparedStatement updateUsers;
+    private PreparedStatement markFlushed;
+
+    // A database that accepts everything and has never flushed a journal
+    @BeforeEach
+    public void setUp() throws SQLException {
+        connection = mock(Connection.class);
+        when(connection.isValid(anyInt())).thenReturn(true);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.createStatement()).thenReturn(mock(Statement.class));
+
+        updateUsers = mock(PreparedStatement.class);
+        markFlushed = mock(PreparedStatement.class);
+        when(markFlushed.executeUpdate()).thenReturn(1);
+        PreparedStatement isFlushed = mock(PreparedStatement.class);
+        ResultSet noRows = mock(ResultSet.class);
+        when(isFlushed.executeQuery()).thenReturn(noRows);
+
+        when(connection.prepareStatement(startsWith("UPDATE users"))).thenReturn(updateUsers);
+        when(connection.prepareStatement(startsWith("INSERT INTO chip_ledger_flushes"))).thenReturn(markFlushed);
+        when(connection.prepareStatement(startsWith("SELECT 1 FROM chip_ledger_flushes"))).thenReturn(isFlushed);
+    }
+
+    private DatabaseConnection workingDatabase() {
+        return new DatabaseConnection(() -> connection, 2);
+    }
+
+    private DatabaseConnection unreachableDatabase() {
+        return new DatabaseConnection(() -> {
+            throw new SQLException("Connection refused");
+        }, 2);
+    }
+
+    @Test
+    public void testHandsAreCoalescedIntoOneBatch() throws IOException, SQLException {
+        ChipLedger ledger = new ChipLedger(workingDatabase(), journalDirectory, 60_000, 1000);
+        ledger.start();
+
+        ledger.record("alice", 100, 1, 1, 0);
+        ledger.record("alice", -30, 1, 0, 1);
+        ledger.record("bob", 50, 1, 1, 0);
+        assertEquals(2, ledger.getPendingUsers());
+        assertEquals(70, ledger.getPending("alice").getChipDelta());
+
+        ledger.flush();
+
+        // One row per user, one round trip for all of them
+        verify(updateUsers, times(2)).addBatch();
+        verify(updateUsers, times(1)).executeBatch();
+        verify(updateUsers).setLong(1, 70L);
+        verify(updateUsers).setInt(2, 2);
+        verify(updateUsers).setLong(1, 50L);
+        verify(markFlushed, times(1)).executeUpdate();
+        verify(connection).commit();
+        assertEquals(0, ledger.getPendingUsers());
+
+        ledger.stop();
+    }
+
+    @Test
+    public void testJournalIsReplayedAfterCrash() throws IOException, SQLException {
+        ChipLedger crashed = new ChipLedger(unreachableDatabase(), journalDirectory, 60_000, 1000);
+        crashed.start();
+        crashed.record("alice", 100, 1, 1, 0);
+        crashed.record("alice", 25, 1, 1, 0);
+
+        crashed.flush();
+        assertEquals(125, crashed.getPending("alice").getChipDelta(), "A failed flush should keep the changes.");
+        // The process dies here without stopping the ledger
+
+        ChipLedger restarted = new ChipLedger(workingDatabase(), journalDirectory, 60_000, 1000);
+        restarted.start();
+        restarted.flush();
+
+        verify(updateUsers, times(1)).setLong(1, 125L);
+        verify(updateUsers).setInt(3, 2);
+        verify(connection, atLeastOnce()).commit();
+        assertNull(restarted.getPending("alice"));
+
+        restarted.stop();
+    }
+
+    @Test
+    public void testJournalAlreadyRecordedIsNotAppliedTwice() throws IOException, SQLException {
+        ChipLedger crashed = new ChipLedger(unreachableDatabase(), journalDirectory, 60_000, 1000);
+        crashed.start();
+        crashed.record("alice", 100, 1, 1, 0);
+        // The flush committed but the process died before the journal was deleted
+
+        // The database can't say whether it was flushed, so it is replayed
+        when(connection.prepareStatement(startsWith("SELECT 1 FROM chip_ledger_flushes")))
+            .thenThrow(new SQLException("Statement timed out"));
+        when(markFlushed.executeUpdate()).thenReturn(0);
+
+        ChipLedger restarted = new ChipLedger(workingDatabase(), journalDirectory, 60_000, 1000);
+        restarted.start();
+        assertEquals(100, restarted.getPending("alice").getChipDelta());
+        restarted.flush();
+
+        verify(updateUsers, never()).setLong(1, 100L);
+        verify(connection, atLeastOnce()).commit();
+        assertNull(restarted.getPending("alice"));
+
+        restarted.stop();
+    }
+
+    @Test
+    public void testBalanceIncludesChangesNotWrittenYet() throws IOException, SQLException {
+        PreparedStatement balance = mock(PreparedStatement.class);
+        ResultSet row = mock(ResultSet.class);
+        when(row.next()).thenReturn(true);
+        when(row.getLong(1)).thenReturn(1000L);
+        when(balance.executeQuery()).thenReturn(row);
+        when(connection.prepareStatement(startsWith("SELECT chips FROM users"))).thenReturn(balance);
+
+        ChipLedger ledger = new ChipLedger(workingDatabase(), journalDirectory, 60_000, 1000);
+        ledger.start();
+        ledger.record("alice", -300, 1, 0, 1);
+
+        assertEquals(700, ledger.getBalance("alice"));
+        verify(balance).setString(1, "alice");
+
+        ledger.stop();
+    }
+}
@@ -0,0 +1,127 @@
+package io.github.broskipoker.utils.tests;
+
+import io.github.broskipoker.game.User;
+import io.github.broskipoker.utils.DatabaseConnection;
+import io.github.broskipoker.utils.UserService;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class DatabaseConnectionTest {
+
+    // Hands out healthy mocked connections and remembers them
+    private final List<Connection> opened = new ArrayList<>();
+
+    private Connection healthyConnection() throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(connection.isValid(anyInt())).thenReturn(true);
+        opened.add(connection);
+        return connection;
+    }
+
+    @Test
+    public void testReleasedConnectionIsReused() throws SQLException {
+        DatabaseConnection pool = new DatabaseConnection(this::healthyConnection, 2);
+
+        Connection first = pool.borrowConnection();
+        pool.releaseConnection(first);
+        Connection second = pool.borrowConnection();
+
+        assertSame(first, second, "A healthy idle connection should be handed out again.");
+        assertEquals(1, opened.size());
+        assertEquals(1, pool.getOpenConnections());
+    }
+
+    @Test
+    public void testRecentlyReleasedConnectionIsNotValidated() throws SQLException {
+        DatabaseConnection pool = new DatabaseConnection(this::healthyConnection, 2, 60_000);
+
+        for (int i = 0; i < 5; i++) {
+            pool.execute(connection -> "ok");
+        }
+
+        verify(opened.get(0), never()).isValid(anyInt());
+    }
+
+    @Test
+    public void testDroppedConnectionIsReplaced() throws SQLException {
+        // Validate on every borrow so the connection counts as having sat idle
+        DatabaseConnection pool = new DatabaseConnection(this::healthyConnection, 2, 0);
+
+        Connection dropped = pool.borrowConnection();
+        pool.releaseConnection(dropped);
+        // The database goes away while the connection sits in the pool
+        when(dropped.isValid(anyInt())).thenReturn(false);
+
+        Connection replacement = pool.borrowConnection();
+
+        assertNotSame(dropped, replacement);
+        verify(dropped).close();
+        assertEquals(1, pool.getOpenConnections(), "The dropped connection should no longer count.");
+    }
+
+    @Test
+    public void testFailedQueryDropsBrokenConnection() throws SQLException {
+        DatabaseConnection pool = new DatabaseConnection(this::healthyConnection, 2);
+
+        assertThrows(SQLException.class, () -> pool.execute(connection -> {
+            when(connection.isValid(anyInt())).thenReturn(false);
+            throw new SQLException("connection reset");
+        }));
+
+        assertEquals(0, pool.getOpenConnections());
+        assertEquals(0, pool.getIdleConnections());
+        verify(opened.get(0)).close();
+
+        // The next query simply opens a fresh connection
+        assertEquals("ok", pool.execute(connection -> "ok"));
+        assertEquals(2, opened.size());
+    }
+
+    @Test
+    public void testFailedQueryKeepsHealthyConnection() throws SQLException {
+        DatabaseConnection pool = new DatabaseConnection(this::healthyConnection, 2);
+
+        assertThrows(SQLException.class, () -> pool.execute(connection -> {
+            throw new SQLException("duplicate key");
+        }));
+
+        assertEquals(1, pool.getIdleConnections(), "A query error alone should not cost the connection.");
+    }
+
+    @Test
+    public void testFailingConnectionDoesNotLeakPoolSlots() {
+        DatabaseConnection pool = new DatabaseConnection(() -> {
+            throw new SQLException("database down");
+        }, 1);
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(SQLException.class, pool::borrowConnection);
+        }
+        assertEquals(0, pool.getOpenConnections());
+    }
+
+    @Test
+    public void testAsyncLoginReportsDatabaseErrorAsFailedLogin() throws Exception {
+        DatabaseConnection pool = new DatabaseConnection(() -> {
+            Connection connection = healthyConnection();
+            when(connection.prepareStatement(anyString())).thenThrow(new SQLException("table missing"));
+            return connection;
+        }, 1);
+        UserService userService = new UserService(pool);
+
+        Optional<User> user = userService.loginUserAsync("alice", "secret").get(5, TimeUnit.SECONDS);
+
+        assertTrue(user.isEmpty());
+        assertFalse(userService.isLoggedIn());
+        userService.shutdown();
+    }
+}
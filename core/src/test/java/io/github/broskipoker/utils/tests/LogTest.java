@@ -0,0 +1,63 @@
+package io.github.broskipoker.utils.tests;
+
+import io.github.broskipoker.utils.Log;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LogTest {
+
+    private final StringWriter out = new StringWriter();
+
+    private String written() {
+        Log.setAppender(null); // closing the test appender writes everything it holds
+        return out.toString();
+    }
+
+    @AfterEach
+    public void resetLevel() {
+        Log.setLevel(Log.Level.INFO);
+    }
+
+    @Test
+    public void testFieldsAreWrittenAsKeyValues() {
+        Log.setAppender(new Log.AsyncAppender(out, 16));
+        Log.get("Table").info("Player joined", "table", "ABC123", "user", "bob smith", "chips", 1000);
+
+        String line = written();
+        assertTrue(line.contains(" level=INFO logger=Table msg=\"Player joined\" table=ABC123 user=\"bob smith\" chips=1000\n"), line);
+    }
+
+    @Test
+    public void testLinesBelowTheLevelAreSkipped() {
+        Log.setAppender(new Log.AsyncAppender(out, 16));
+        Log log = Log.get("Table");
+        log.debug("Not written");
+        log.warn("Written");
+
+        String text = written();
+        assertFalse(text.contains("Not written"));
+        assertTrue(text.contains("msg=Written"));
+    }
+
+    @Test
+    public void testSampledLoggerWritesEveryNthLine() {
+        Log.setLevel(Log.Level.DEBUG);
+        Log.setAppender(new Log.AsyncAppender(out, 64));
+        Log log = Log.get("Bot").sampled(10);
+        for (int i = 0; i < 30; i++) {
+            log.debug("Decision", "i", i);
+        }
+        log.warn("Always written");
+
+        String text = written();
+        assertTrue(text.contains("i=0 sampled=1/10"));
+        assertTrue(text.contains("i=10 "));
+        assertTrue(text.contains("i=20 "));
+        assertFalse(text.contains("i=5 "));
+        assertTrue(text.contains("msg=\"Always written\""));
+    }
+}
@@ -0,0 +1,46 @@
+package io.github.broskipoker.utils.tests;
+
+import io.github.broskipoker.utils.Metrics;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsTest {
+
+    @Test
+    public void testHistogramQuantilesAreClose() {
+        Metrics.Histogram histogram = Metrics.getInstance().histogram("test_quantiles_seconds", "Test");
+        for (long micros = 1; micros <= 1000; micros++) {
+            histogram.record(micros * 1000);
+        }
+
+        assertEquals(500_000, histogram.quantile(0.5), 500_000 * 0.125);
+        assertEquals(990_000, histogram.quantile(0.99), 990_000 * 0.125);
+        assertEquals(1_000_000, histogram.quantile(1.0), "Never above the largest value recorded.");
+        assertEquals(1000, histogram.value());
+    }
+
+    @Test
+    public void testSameNameReturnsTheSameMetric() {
+        Metrics metrics = Metrics.getInstance();
+        Metrics.Counter counter = metrics.counter("test_shared_total", "Test");
+        counter.add(3);
+        metrics.counter("test_shared_total", "Test").increment();
+
+        assertEquals(4, counter.value());
+    }
+
+    @Test
+    public void testPrometheusText() {
+        Metrics metrics = Metrics.getInstance();
+        metrics.counter("test_text_total", "Things counted").add(7);
+        metrics.gauge("test_text_gauge", "Things open", () -> 2);
+
+        StringBuilder out = new StringBuilder();
+        metrics.writePrometheus(out);
+        String text = out.toString();
+
+        assertTrue(text.contains("# HELP test_text_total Things counted\n# TYPE test_text_total counter\ntest_text_total 7\n"));
+        assertTrue(text.contains("# TYPE test_text_gauge gauge\ntest_text_gauge 2\n"));
+    }
+}
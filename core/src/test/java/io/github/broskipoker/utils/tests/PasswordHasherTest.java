@@ -0,0 +1,84 @@
+package io.github.broskipoker.utils.tests;
+
+import io.github.broskipoker.utils.PasswordHasher;
+import io.github.broskipoker.utils.PasswordUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordHasherTest {
+
+    private final int originalCost = PasswordUtils.getCost();
+
+    @AfterEach
+    public void restoreCost() {
+        PasswordUtils.setCost(originalCost);
+    }
+
+    @Test
+    public void testHashAndCheckAsync() throws Exception {
+        PasswordUtils.setCost(4); // keep the test fast
+        PasswordHasher hasher = new PasswordHasher(1, 4, 5, 60_000);
+
+        String hash = hasher.hashAsync("secret").get(10, TimeUnit.SECONDS);
+
+        assertTrue(hasher.checkAsync("secret", hash).get(10, TimeUnit.SECONDS));
+        assertFalse(hasher.checkAsync("wrong", hash).get(10, TimeUnit.SECONDS));
+        hasher.shutdown();
+    }
+
+    @Test
+    public void testFullQueueRejectsInsteadOfWaiting() throws Exception {
+        PasswordUtils.setCost(4);
+        String hash = PasswordUtils.hashPassword("secret");
+        PasswordHasher hasher = new PasswordHasher(1, 1, 5, 60_000);
+
+        // A slow hash takes the only worker, the next check takes the only queue slot
+        PasswordUtils.setCost(12);
+        CompletableFuture<String> slow = hasher.hashAsync("secret");
+        CompletableFuture<Boolean> queued = hasher.checkAsync("secret", hash);
+        CompletableFuture<Boolean> rejected = hasher.checkAsync("secret", hash);
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> rejected.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, error.getCause());
+        assertNotNull(slow.get(30, TimeUnit.SECONDS));
+        assertTrue(queued.get(10, TimeUnit.SECONDS));
+        hasher.shutdown();
+    }
+
+    @Test
+    public void testAttemptsAreLimitedPerUsernameAndAddress() {
+        PasswordHasher hasher = new PasswordHasher(1, 4, 3, 60_000);
+
+        assertTrue(hasher.tryAcquireAttempt("alice", "10.0.0.1"));
+        assertTrue(hasher.tryAcquireAttempt("alice", "10.0.0.2"));
+        assertTrue(hasher.tryAcquireAttempt("Alice", "10.0.0.3"));
+        assertFalse(hasher.tryAcquireAttempt("alice", "10.0.0.4"), "The username is out of attempts.");
+
+        assertTrue(hasher.tryAcquireAttempt("bob", "10.0.0.1"));
+        assertTrue(hasher.tryAcquireAttempt("carol", "10.0.0.1"));
+        assertFalse(hasher.tryAcquireAttempt("dave", "10.0.0.1"), "The address is out of attempts.");
+
+        hasher.resetAttempts("alice");
+        assertTrue(hasher.tryAcquireAttempt("alice", "10.0.0.5"));
+        hasher.shutdown();
+    }
+
+    @Test
+    public void testCostChangeMarksOldHashesForRehash() {
+        PasswordUtils.setCost(4);
+        String hash = PasswordUtils.hashPassword("secret");
+        assertFalse(PasswordUtils.needsRehash(hash));
+
+        PasswordUtils.setCost(5);
+        assertTrue(PasswordUtils.needsRehash(hash));
+        assertTrue(PasswordUtils.checkPassword("secret", hash), "Old hashes keep working after a cost change.");
+        assertThrows(IllegalArgumentException.class, () -> PasswordUtils.setCost(3));
+    }
+}
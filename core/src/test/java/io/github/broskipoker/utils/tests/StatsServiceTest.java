@@ -0,0 +1,86 @@
+package io.github.broskipoker.utils.tests;
+
+import io.github.broskipoker.utils.DatabaseConnection;
+import io.github.broskipoker.utils.StatsService;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class StatsServiceTest {
+
+    private static DatabaseConnection unusedDatabase() {
+        return new DatabaseConnection(() -> {
+            throw new SQLException("No database in this test");
+        }, 1);
+    }
+
+    @Test
+    public void testAggregatesAreUpdatedPerHand() {
+        StatsService stats = new StatsService(unusedDatabase(), 60_000);
+
+        stats.recordHand("alice", true, true, 300, 600);
+        stats.recordHand("alice", true, false, -100, 200);
+        stats.recordHand("alice", false, false, 0, 150);
+        stats.recordHand("alice", false, false, 900, 1500);
+
+        StatsService.PlayerStats alice = stats.getStats("alice");
+        assertEquals(4, alice.getHands());
+        assertEquals(0.5, alice.getVpip(), 1e-9);
+        assertEquals(0.25, alice.getPfr(), 1e-9);
+        assertEquals(1100, alice.getNetChips());
+        assertEquals(1500, alice.getBiggestPot(), "Only pots the player won count.");
+        assertNull(stats.getStats("nobody"));
+    }
+
+    @Test
+    public void testLeaderboardFollowsChanges() {
+        StatsService stats = new StatsService(unusedDatabase(), 60_000);
+        stats.recordHand("alice", true, false, 500, 1000);
+        stats.recordHand("bob", true, false, 200, 400);
+        stats.recordHand("carol", true, false, -700, 1000);
+
+        List<StatsService.Standing> top = stats.getLeaderboard(StatsService.Leaderboard.NET_CHIPS, 2);
+        assertEquals(2, top.size());
+        assertEquals("alice", top.get(0).getUsername());
+        assertEquals("bob", top.get(1).getUsername());
+
+        // Bob overtakes Alice, his old standing must not linger
+        stats.recordHand("bob", true, true, 1000, 2000);
+        List<StatsService.Standing> all = stats.getLeaderboard(StatsService.Leaderboard.NET_CHIPS, 10);
+        assertEquals(3, all.size());
+        assertEquals("bob", all.get(0).getUsername());
+        assertEquals(1200, all.get(0).getValue());
+        assertEquals("alice", all.get(1).getUsername());
+        assertEquals("carol", all.get(2).getUsername());
+
+        assertEquals("bob", stats.getLeaderboard(StatsService.Leaderboard.HANDS_PLAYED, 1).get(0).getUsername());
+    }
+
+    @Test
+    public void testSnapshotWritesOnlyChangedPlayers() throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(connection.isValid(anyInt())).thenReturn(true);
+        PreparedStatement upsert = mock(PreparedStatement.class);
+        when(connection.prepareStatement(startsWith("INSERT INTO player_stats"))).thenReturn(upsert);
+        StatsService stats = new StatsService(new DatabaseConnection(() -> connection, 1), 60_000);
+
+        stats.recordHand("alice", true, false, 100, 200);
+        stats.recordHand("alice", false, false, -50, 100);
+        stats.recordHand("bob", false, false, -50, 200);
+        stats.snapshot();
+
+        verify(upsert, times(2)).addBatch();
+        verify(upsert, times(1)).executeBatch();
+        verify(upsert).setInt(2, 2); // alice's hands
+
+        // Nothing changed since, nothing to write
+        stats.snapshot();
+        verify(upsert, times(1)).executeBatch();
+    }
+}
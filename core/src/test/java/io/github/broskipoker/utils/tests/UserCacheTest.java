@@ -0,0 +1,100 @@
+package io.github.broskipoker.utils.tests;
+
+import io.github.broskipoker.game.User;
+import io.github.broskipoker.utils.DatabaseConnection;
+import io.github.broskipoker.utils.PasswordHasher;
+import io.github.broskipoker.utils.UserCache;
+import io.github.broskipoker.utils.UserService;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class UserCacheTest {
+
+    private static User user(String username) {
+        return new User(1, username, username + "@broski.io", 1000, 0, 0, 0);
+    }
+
+    @Test
+    public void testProfilesAreCopiedAndInvalidated() {
+        UserCache cache = new UserCache(100, 60_000, 60_000);
+        cache.putProfile(new UserCache.Profile(user("alice"), "hash"));
+
+        User first = cache.getProfile("alice").toUser();
+        first.setChips(0);
+        assertEquals(1000, cache.getProfile("alice").toUser().getChips(), "Changing a returned user must not change the cache.");
+        assertEquals(Boolean.TRUE, cache.usernameExists("alice"));
+
+        cache.invalidateUser("alice");
+        assertNull(cache.getProfile("alice"));
+        assertEquals(Boolean.TRUE, cache.usernameExists("alice"), "The name stays taken after a chip update.");
+    }
+
+    @Test
+    public void testNegativeAnswersExpireFirst() throws InterruptedException {
+        UserCache cache = new UserCache(100, 60_000, 20);
+        cache.putUsernameExists("bob", false);
+        cache.putUsernameExists("carol", true);
+        assertEquals(Boolean.FALSE, cache.usernameExists("bob"));
+
+        Thread.sleep(50);
+
+        assertNull(cache.usernameExists("bob"), "A free name has to be checked again after its short TTL.");
+        assertEquals(Boolean.TRUE, cache.usernameExists("carol"));
+    }
+
+    @Test
+    public void testRegistrationOverridesFreeAnswer() {
+        UserCache cache = new UserCache(100, 60_000, 60_000);
+        cache.putUsernameExists("dave", false);
+        cache.putEmailExists("dave@broski.io", false);
+
+        cache.onRegistered("dave", "dave@broski.io");
+
+        assertEquals(Boolean.TRUE, cache.usernameExists("dave"));
+        assertEquals(Boolean.TRUE, cache.emailExists("dave@broski.io"));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        UserCache cache = new UserCache(2, 60_000, 60_000);
+        cache.putUsernameExists("a", true);
+        cache.putUsernameExists("b", true);
+        cache.usernameExists("a"); // b is now the least recently used
+        cache.putUsernameExists("c", true);
+
+        assertNotNull(cache.usernameExists("a"));
+        assertNull(cache.usernameExists("b"));
+        assertNotNull(cache.usernameExists("c"));
+    }
+
+    @Test
+    public void testRepeatedAvailabilityChecksHitDatabaseOnce() throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(connection.isValid(anyInt())).thenReturn(true);
+        PreparedStatement stmt = mock(PreparedStatement.class);
+        ResultSet noRows = mock(ResultSet.class);
+        when(connection.prepareStatement(anyString())).thenReturn(stmt);
+        when(stmt.executeQuery()).thenReturn(noRows);
+
+        UserCache cache = new UserCache(100, 60_000, 60_000);
+        PasswordHasher hasher = new PasswordHasher(1, 4, 5, 60_000);
+        UserService service = new UserService(new DatabaseConnection(() -> connection, 1), hasher, cache);
+
+        // What the signup form asks while the user types the same name
+        for (int i = 0; i < 10; i++) {
+            assertFalse(service.usernameExists("newplayer"));
+        }
+
+        verify(stmt, times(1)).executeQuery();
+        assertEquals(0.9, cache.getHitRate(), 1e-9);
+        service.shutdown();
+        hasher.shutdown();
+    }
+}